@@ -13,18 +13,13 @@
 package com.eclipsesource.restfuse.example;
 
 import com.eclipsesource.restfuse.Assert;
+import com.eclipsesource.restfuse.CookieJar;
 import com.eclipsesource.restfuse.Destination;
 import com.eclipsesource.restfuse.HttpJUnitRunner;
 import com.eclipsesource.restfuse.Method;
 import com.eclipsesource.restfuse.annotation.Context;
 import com.eclipsesource.restfuse.annotation.HttpTest;
-import java.net.CookieHandler;
-import java.net.CookieManager;
-import java.net.CookiePolicy;
-import java.net.CookieStore;
 import java.net.HttpCookie;
-import java.net.URI;
-import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.runner.RunWith;
 
@@ -36,25 +31,15 @@ import org.junit.runner.RunWith;
 @RunWith(HttpJUnitRunner.class)
 public class CookieManagerTest {
 
+	// Cookie jar must be static to keep the session across test methods.
+	private static CookieJar cookieJar = new CookieJar();
+
 	@Rule
-	public Destination dest = new Destination(this, "http://www.google.com");
+	public Destination dest = new Destination(this, "http://www.google.com").withCookieJar(cookieJar);
 
 	@Context
 	private com.eclipsesource.restfuse.Response response;
 
-    // Cookie manager must be static.
-	private static CookieManager cookieManager;
-
-	/**
-	 * Setup the cookie manager for this test
-	 */
-	@BeforeClass
-	public static void setupCookieManager() {
-		cookieManager = new CookieManager();
-		cookieManager.setCookiePolicy(CookiePolicy.ACCEPT_ALL);
-		CookieHandler.setDefault(cookieManager);
-	}
-
 	@HttpTest(method = Method.GET, path = "/")
 	public void getSessionId() {
 		Assert.assertOk(response);
@@ -63,10 +48,6 @@ public class CookieManagerTest {
 
 	private void dumpCookies() {
 		System.out.println("Cookies:");
-		CookieStore cookieJar = cookieManager.getCookieStore();
-		for (URI uri : cookieJar.getURIs()) {
-			System.out.println("uri: " + uri.getHost());
-		}
 		for (HttpCookie cookie : cookieJar.getCookies()) {
 			System.out.println("cookie: " + cookie);
 		}
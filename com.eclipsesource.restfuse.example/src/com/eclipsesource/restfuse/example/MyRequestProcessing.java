@@ -11,9 +11,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-public class MyRequestProcessing implements ProcessRequest
+public class MyRequestProcessing implements RequestProcessor
 {
-    public MyRequestProcessing(RequestContext requestContext)
+    @Override
+    public void process(RequestContext requestContext)
     {
         // Rewrite the URL
         String url = requestContext.getUrl();
@@ -43,23 +44,15 @@ public class MyRequestProcessing implements ProcessRequest
         // Get current items from the internalRequest (requestContext)
         HashMap<String, Object> requestObjects = (HashMap<String, Object>) requestContext.getRequestObjects();
 
-        String keyA = "reqParam_StrA";
-        String valueA = null;
-
+        // the placeholders were already replaced with their request objects when the body was rendered
         String keyB = "reqParam_ByteB";
         byte[] valueB = null;
 
-        if(requestContext.getRequestObjectKeys().contains(keyA))
-            valueA = (String) requestObjects.get(keyA);
-
         if(requestContext.getRequestObjectKeys().contains(keyB))
             valueB = (byte[]) requestObjects.get(keyB);
 
-        if(valueA!=null)
-            bodyStr = bodyStr.replace("{" + keyA+ "}", valueA);
-
         if(valueB!=null)
-            bodyStr = bodyStr.replace("{" + keyB+ "}", bytesToHex(valueB));
+            bodyStr = bodyStr + " (BBB as hex: " + bytesToHex(valueB) + ")";
 
         requestContext.setBody("MyRequestProcessing extended: " + bodyStr);
 
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+
+public class AdmissionPolicy_Test {
+  
+  @Test
+  public void testCreatesRatePolicy() {
+    AdmissionPolicy policy = AdmissionPolicy.rate( 50 ).withBurst( 10 ).withMaxInFlight( 8 );
+    
+    assertEquals( 50, policy.getRequestsPerSecond(), 0 );
+    assertEquals( 10, policy.getBurst() );
+    assertEquals( 8, policy.getMaxInFlight() );
+  }
+  
+  @Test
+  public void testUnlimitedPolicy() {
+    assertEquals( 0, AdmissionPolicy.UNLIMITED.getRequestsPerSecond(), 0 );
+    assertEquals( 0, AdmissionPolicy.UNLIMITED.getMaxInFlight() );
+  }
+  
+  @Test
+  public void testPoliciesAreImmutable() {
+    AdmissionPolicy policy = AdmissionPolicy.rate( 50 );
+    
+    policy.withMaxInFlight( 3 );
+    
+    assertEquals( 0, policy.getMaxInFlight() );
+  }
+  
+  @Test
+  public void testEquals() {
+    assertEquals( AdmissionPolicy.maxInFlight( 2 ), AdmissionPolicy.maxInFlight( 2 ) );
+    assertEquals( AdmissionPolicy.maxInFlight( 2 ).hashCode(), AdmissionPolicy.maxInFlight( 2 ).hashCode() );
+    assertFalse( AdmissionPolicy.maxInFlight( 2 ).equals( AdmissionPolicy.maxInFlight( 3 ) ) );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testRateMustBePositive() {
+    AdmissionPolicy.rate( 0 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testMaxInFlightMustBePositive() {
+    AdmissionPolicy.maxInFlight( -1 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testBurstMustBePositive() {
+    AdmissionPolicy.rate( 1 ).withBurst( 0 );
+  }
+}
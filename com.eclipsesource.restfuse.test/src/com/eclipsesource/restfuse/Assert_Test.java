@@ -13,6 +13,7 @@ package com.eclipsesource.restfuse;
 import static com.eclipsesource.restfuse.Assert.assertAccepted;
 import static com.eclipsesource.restfuse.Assert.assertBadGateway;
 import static com.eclipsesource.restfuse.Assert.assertBadRequest;
+import static com.eclipsesource.restfuse.Assert.assertBodyMatchesResource;
 import static com.eclipsesource.restfuse.Assert.assertConflict;
 import static com.eclipsesource.restfuse.Assert.assertContinue;
 import static com.eclipsesource.restfuse.Assert.assertCreated;
@@ -23,6 +24,8 @@ import static com.eclipsesource.restfuse.Assert.assertGatewayTimeout;
 import static com.eclipsesource.restfuse.Assert.assertGone;
 import static com.eclipsesource.restfuse.Assert.assertHTTPVersionNotSupported;
 import static com.eclipsesource.restfuse.Assert.assertInternalServerError;
+import static com.eclipsesource.restfuse.Assert.assertJsonValue;
+import static com.eclipsesource.restfuse.Assert.assertJsonValues;
 import static com.eclipsesource.restfuse.Assert.assertLengthRequired;
 import static com.eclipsesource.restfuse.Assert.assertMethodNotAllowed;
 import static com.eclipsesource.restfuse.Assert.assertMovedPermanently;
@@ -50,11 +53,25 @@ import static com.eclipsesource.restfuse.Assert.assertTemporaryRedirected;
 import static com.eclipsesource.restfuse.Assert.assertUnauthorized;
 import static com.eclipsesource.restfuse.Assert.assertUnsupportedMediaType;
 import static com.eclipsesource.restfuse.Assert.assertUseProxy;
+import static com.eclipsesource.restfuse.Assert.assertXmlValue;
+import static com.eclipsesource.restfuse.Assert.assertXmlValues;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import com.eclipsesource.restfuse.Response;
@@ -627,4 +644,172 @@ public class Assert_Test {
     assertHTTPVersionNotSupported( response );
   }
   
+  @Test
+  public void testAssertJsonValue() {
+    mockBody( "{\"items\":[{\"id\":\"a\",\"count\":2}]}" );
+    
+    assertJsonValue( response, "/items/0/id", "a" );
+    assertJsonValue( response, "/items/0/count", "2" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertJsonValueFails() {
+    mockBody( "{\"id\":\"a\"}" );
+    
+    assertJsonValue( response, "/id", "b" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertJsonValueFailsWhenMissing() {
+    mockBody( "{\"id\":\"a\"}" );
+    
+    assertJsonValue( response, "/name", "a" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertJsonValueFailsWithoutBody() {
+    assertJsonValue( response, "/id", "a" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertJsonValueFailsForInvalidJson() {
+    mockBody( "{\"id\" \"a\"}" );
+    
+    assertJsonValue( response, "/id", "a" );
+  }
+  
+  @Test
+  public void testAssertJsonValueWithNull() {
+    mockBody( "{\"id\":null}" );
+    
+    assertJsonValue( response, "/id", null );
+  }
+  
+  @Test
+  public void testAssertJsonValues() {
+    mockBody( "{\"id\":\"a\",\"tags\":[\"x\",\"y\"]}" );
+    Map<String, String> expected = new HashMap<String, String>();
+    expected.put( "/id", "a" );
+    expected.put( "/tags/1", "y" );
+    
+    assertJsonValues( response, expected );
+  }
+  
+  @Test
+  public void testAssertXmlValue() {
+    mockBody( "<feed><entry id='1'><title>First</title></entry></feed>" );
+    
+    assertXmlValue( response, "/feed/entry/title", "First" );
+    assertXmlValue( response, "/feed/entry/@id", "1" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertXmlValueFails() {
+    mockBody( "<feed><title>Feed</title></feed>" );
+    
+    assertXmlValue( response, "/feed/title", "Other" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertXmlValueFailsWhenMissing() {
+    mockBody( "<feed><title>Feed</title></feed>" );
+    
+    assertXmlValue( response, "/feed/entry", "Feed" );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertXmlValueFailsForInvalidXml() {
+    mockBody( "<feed><title>Feed</feed>" );
+    
+    assertXmlValue( response, "/feed/entry", "Feed" );
+  }
+  
+  @Test
+  public void testAssertJsonValueDecodesWithCharset() throws UnsupportedEncodingException {
+    mockBytes( "{\"name\":\"\u00e4\"}".getBytes( "ISO-8859-1" ) );
+    List<String> values = Arrays.asList( "application/json; charset=ISO-8859-1" );
+    Map<String, List<String>> headers = Collections.singletonMap( "Content-Type", values );
+    when( response.getHeaders() ).thenReturn( headers );
+    
+    assertJsonValue( response, "/name", "\u00e4" );
+  }
+  
+  @Test
+  public void testAssertXmlValueDecodesWithDeclaredEncoding() throws UnsupportedEncodingException {
+    String xml = "<?xml version='1.0' encoding='ISO-8859-1'?><feed><title>\u00e4</title></feed>";
+    mockBytes( xml.getBytes( "ISO-8859-1" ) );
+    
+    assertXmlValue( response, "/feed/title", "\u00e4" );
+  }
+  
+  @Test
+  public void testAssertXmlValues() {
+    mockBody( "<feed><title>Feed</title><entry>First</entry></feed>" );
+    Map<String, String> expected = new HashMap<String, String>();
+    expected.put( "/feed/title", "Feed" );
+    expected.put( "//entry", "First" );
+    
+    assertXmlValues( response, expected );
+  }
+  
+  @Test
+  public void testAssertBodyMatchesResource() {
+    mockBody( "Anvil \u00e4\n" );
+    
+    assertBodyMatchesResource( response, "/com/eclipsesource/restfuse/golden.txt" );
+  }
+  
+  @Test
+  public void testAssertBodyMatchesResourceRelativeToClass() {
+    mockBody( "Anvil \u00e4\n" );
+    
+    assertBodyMatchesResource( response, Assert_Test.class, "golden.txt" );
+  }
+  
+  @Test
+  public void testAssertBodyMatchesResourceComparesRawBytes() throws UnsupportedEncodingException {
+    mockBytes( "Anvil \u00e4\n".getBytes( "ISO-8859-1" ) );
+    
+    String message = null;
+    try {
+      assertBodyMatchesResource( response, "/com/eclipsesource/restfuse/golden.txt" );
+    } catch( AssertionError expected ) {
+      message = expected.getMessage();
+    }
+    
+    assertTrue( message.contains( "byte offset 6: expected 0xc3 but was 0xe4" ) );
+  }
+  
+  @Test( expected = AssertionError.class )
+  public void testAssertBodyMatchesResourceFailsWithoutBody() {
+    when( response.hasBody() ).thenReturn( false );
+    
+    assertBodyMatchesResource( response, "/com/eclipsesource/restfuse/golden.txt" );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testAssertBodyMatchesResourceFailsWithMissingResource() {
+    mockBody( "Anvil" );
+    
+    assertBodyMatchesResource( response, "/missing.txt" );
+  }
+  
+  private void mockBody( String body ) {
+    when( response.getBody() ).thenReturn( body );
+    try {
+      mockBytes( body.getBytes( "UTF-8" ) );
+    } catch( UnsupportedEncodingException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+  
+  private void mockBytes( final byte[] bytes ) {
+    when( response.hasBody() ).thenReturn( true );
+    when( response.getInputStream() ).thenAnswer( new Answer<InputStream>() {
+      @Override
+      public InputStream answer( InvocationOnMock invocation ) {
+        return new ByteArrayInputStream( bytes );
+      }
+    } );
+  }
 }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CookieJar_Test {
+  
+  private CookieJar jar;
+  
+  @Before
+  public void setUp() {
+    jar = new CookieJar();
+  }
+  
+  @Test
+  public void testSendsStoredCookies() throws MalformedURLException {
+    store( "http://localhost/login", "session=1; Path=/", "user=test; Path=/" );
+    
+    String header = jar.getCookieHeader( new URL( "http://localhost/" ) );
+    
+    assertTrue( header.contains( "session=1" ) );
+    assertTrue( header.contains( "user=test" ) );
+  }
+  
+  @Test
+  public void testHasNoHeaderWithoutCookies() throws MalformedURLException {
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/" ) ) );
+  }
+  
+  @Test
+  public void testReplacesCookieWithSameName() throws MalformedURLException {
+    store( "http://localhost/", "session=1; Path=/" );
+    store( "http://localhost/", "session=2; Path=/" );
+    
+    assertEquals( "session=2", jar.getCookieHeader( new URL( "http://localhost/" ) ) );
+  }
+  
+  @Test
+  public void testRemovesCookieWithMaxAgeZero() throws MalformedURLException {
+    store( "http://localhost/", "session=1; Path=/" );
+    store( "http://localhost/", "session=; Path=/; Max-Age=0" );
+    
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/" ) ) );
+  }
+  
+  @Test
+  public void testDropsExpiredCookies() throws Exception {
+    store( "http://localhost/", "session=1; Path=/; Max-Age=1" );
+    
+    Thread.sleep( 1100 );
+    
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/" ) ) );
+    assertTrue( jar.getCookies().isEmpty() );
+  }
+  
+  @Test
+  public void testUsesDirectoryAsDefaultPath() throws MalformedURLException {
+    store( "http://localhost/app/login", "session=1" );
+    
+    assertEquals( "session=1", jar.getCookieHeader( new URL( "http://localhost/app/data" ) ) );
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/other" ) ) );
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/application" ) ) );
+  }
+  
+  @Test
+  public void testSendsMostSpecificPathFirst() throws MalformedURLException {
+    store( "http://localhost/", "a=1; Path=/", "b=2; Path=/app" );
+    
+    assertEquals( "b=2; a=1", jar.getCookieHeader( new URL( "http://localhost/app/data" ) ) );
+  }
+  
+  @Test
+  public void testKeepsHostOnlyCookiesOnTheirHost() throws MalformedURLException {
+    store( "http://example.com/", "session=1; Path=/" );
+    
+    assertNull( jar.getCookieHeader( new URL( "http://api.example.com/" ) ) );
+  }
+  
+  @Test
+  public void testSendsDomainCookiesToSubdomains() throws MalformedURLException {
+    store( "http://example.com/", "session=1; Path=/; Domain=.example.com" );
+    
+    assertEquals( "session=1", jar.getCookieHeader( new URL( "http://api.example.com/" ) ) );
+    assertNull( jar.getCookieHeader( new URL( "http://other.com/" ) ) );
+  }
+  
+  @Test
+  public void testIgnoresCookiesForForeignDomains() throws MalformedURLException {
+    store( "http://example.com/", "session=1; Path=/; Domain=other.com" );
+    
+    assertTrue( jar.getCookies().isEmpty() );
+  }
+  
+  @Test
+  public void testSendsSecureCookiesOnlyOverHttps() throws MalformedURLException {
+    store( "https://localhost/", "session=1; Path=/; Secure" );
+    
+    assertNull( jar.getCookieHeader( new URL( "http://localhost/" ) ) );
+    assertEquals( "session=1", jar.getCookieHeader( new URL( "https://localhost/" ) ) );
+  }
+  
+  @Test
+  public void testStoresConcurrently() throws InterruptedException {
+    List<Thread> threads = new ArrayList<Thread>();
+    for( int i = 0; i < 4; i++ ) {
+      final int thread = i;
+      threads.add( new Thread() {
+        @Override
+        public void run() {
+          for( int j = 0; j < 250; j++ ) {
+            store( "http://localhost/", "c" + thread + "_" + j + "=1; Path=/" );
+            jar.getCookieHeader( toUrl( "http://localhost/" ) );
+          }
+        }
+      } );
+    }
+    for( Thread thread : threads ) {
+      thread.start();
+    }
+    for( Thread thread : threads ) {
+      thread.join();
+    }
+    
+    assertEquals( 1000, jar.getCookies().size() );
+  }
+  
+  private void store( String url, String... setCookies ) {
+    Map<String, List<String>> headers = new HashMap<String, List<String>>();
+    headers.put( "Set-Cookie", Arrays.asList( setCookies ) );
+    jar.storeCookies( toUrl( url ), headers );
+  }
+  
+  private static URL toUrl( String url ) {
+    try {
+      return new URL( url );
+    } catch( MalformedURLException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+}
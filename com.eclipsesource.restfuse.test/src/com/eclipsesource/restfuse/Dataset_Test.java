@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static com.eclipsesource.restfuse.Assert.assertOk;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.util.IO;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Dataset;
+import com.eclipsesource.restfuse.annotation.HttpTest;
+
+
+public class Dataset_Test {
+  
+  @Rule
+  public Destination destination = new Destination( this, "http://localhost" ).dispatchTo( new EchoServlet() );
+  
+  @Context
+  private Response response;
+  
+  @Context
+  private DataRow row;
+  
+  private static class EchoServlet extends HttpServlet {
+
+    @Override
+    protected void doGet( HttpServletRequest req, HttpServletResponse resp )
+      throws ServletException, IOException
+    {
+      resp.setContentType( "text/plain" );
+      resp.getWriter().write( req.getPathInfo() );
+    }
+
+    @Override
+    protected void doPost( HttpServletRequest req, HttpServletResponse resp )
+      throws ServletException, IOException
+    {
+      resp.setContentType( "text/plain" );
+      resp.getWriter().write( IO.toString( req.getInputStream(), "UTF-8" ) );
+    }
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/products/{id}" ) 
+  @Dataset( file = "products.csv", parallelism = 4 )
+  public void testSendsRowAsPathSegment() {
+    assertNotNull( row );
+    assertOk( response );
+    assertEquals( "/products/" + row.get( "id" ), response.getBody() );
+  }
+  
+  @Test
+  @HttpTest( method = Method.POST, path = "/products", content = "{\"name\":\"{name}\"}" ) 
+  @Dataset( file = "products.csv" )
+  public void testSendsRowAsBodyPlaceholder() {
+    assertEquals( "{\"name\":\"" + row.get( "name" ) + "\"}", response.getBody() );
+  }
+  
+}
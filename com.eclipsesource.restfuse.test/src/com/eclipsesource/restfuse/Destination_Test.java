@@ -11,6 +11,8 @@
 package com.eclipsesource.restfuse;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -53,6 +55,65 @@ public class Destination_Test {
   @Test( expected = IllegalArgumentException.class )
   public void testRequestContextCannotBeNull() { new Destination( this, (RequestContext) null ); }
 
+  @Test( expected = IllegalArgumentException.class )
+  public void testAdmissionPolicyCannotBeNull() {
+    new Destination( this, "http://localhost" ).withAdmission( null );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testTimeoutsCannotBeNegative() {
+    new Destination( this, "http://localhost" ).withTimeouts( -1, 0 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testResponseBufferCannotBeNegative() {
+    new Destination( this, "http://localhost" ).withResponseBuffer( -1 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testCircuitBreakerNeedsPositiveThreshold() {
+    new Destination( this, "http://localhost" ).withCircuitBreaker( 0 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testHealthCheckPathCannotBeNull() {
+    new Destination( this, "http://localhost" ).withHealthCheck( null );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testProxyHostCannotBeNull() {
+    new Destination( this, "http://localhost" ).withProxy( null, 8080 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testProxyPortMustBePositive() {
+    new Destination( this, "http://localhost" ).withProxy( "proxy", 0 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testProxyUserCannotBeNull() {
+    new Destination( this, "http://localhost" ).withProxy( "proxy", 8080, null, "secret" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testCookieJarCannotBeNull() {
+    new Destination( this, "http://localhost" ).withCookieJar( null );
+  }
+  
+  @Test
+  public void testHasNoAdmissionStateWithoutPolicy() {
+    assertNull( new Destination( this, "http://localhost" ).getAdmissionState() );
+  }
+  
+  @Test
+  public void testSharesAdmissionStatePerHost() {
+    AdmissionPolicy policy = AdmissionPolicy.maxInFlight( 2 );
+    Destination destination = new Destination( this, "http://localhost:10046/a" ).withAdmission( policy );
+    Destination other = new Destination( this, "http://localhost:10046/b" ).withAdmission( policy );
+    
+    assertSame( destination.getAdmissionState(), other.getAdmissionState() );
+  }
+  
   @Test
   public void testApplyReturnsBaseWhenNoAnnotationsPresent() {
     Statement base = mock( Statement.class );
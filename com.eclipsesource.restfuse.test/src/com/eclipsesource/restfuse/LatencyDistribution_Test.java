@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class LatencyDistribution_Test {
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsWithNullSamples() {
+    new LatencyDistribution( null );
+  }
+  
+  @Test
+  public void testEmptyDistribution() {
+    LatencyDistribution distribution = new LatencyDistribution( new long[ 0 ] );
+    
+    assertEquals( 0, distribution.getCount() );
+    assertEquals( -1, distribution.getMin() );
+    assertEquals( -1, distribution.getPercentile( 99 ) );
+    assertEquals( -1, distribution.getMean(), 0 );
+  }
+  
+  @Test
+  public void testComputesPercentiles() {
+    long[] nanos = new long[ 100 ];
+    for( int i = 0; i < nanos.length; i++ ) {
+      nanos[ i ] = TimeUnit.MILLISECONDS.toNanos( 100 - i );
+    }
+    LatencyDistribution distribution = new LatencyDistribution( nanos );
+    
+    assertEquals( 100, distribution.getCount() );
+    assertEquals( 1, distribution.getMin() );
+    assertEquals( 100, distribution.getMax() );
+    assertEquals( 50, distribution.getPercentile( 50 ) );
+    assertEquals( 99, distribution.getPercentile( 99 ) );
+    assertEquals( 50.5, distribution.getMean(), 0.001 );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsWithInvalidPercentile() {
+    new LatencyDistribution( new long[ 0 ] ).getPercentile( 101 );
+  }
+  
+  @Test
+  public void testDoesNotAliasSamples() {
+    long[] nanos = new long[] { TimeUnit.MILLISECONDS.toNanos( 5 ) };
+    LatencyDistribution distribution = new LatencyDistribution( nanos );
+    
+    nanos[ 0 ] = 0;
+    
+    assertEquals( 5, distribution.getMax() );
+  }
+}
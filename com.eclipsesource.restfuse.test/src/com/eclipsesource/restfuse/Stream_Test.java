@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.HttpTest;
+import com.eclipsesource.restfuse.annotation.Stream;
+
+
+public class Stream_Test {
+  
+  private static final int EVENTS = 3;
+  private static final CookieJar SESSION = new CookieJar();
+  private static Server server;
+  
+  @Rule
+  public Destination destination 
+    = new Destination( this, "http://localhost:10053" ).withCookieJar( SESSION );
+  
+  @Context
+  private StreamState streamState;
+  
+  @Context
+  private Response response;
+  
+  private static class StreamServlet extends HttpServlet {
+    
+    @Override
+    protected void doGet( HttpServletRequest req, HttpServletResponse resp ) throws IOException {
+      if( req.getPathInfo().equals( "/session" ) ) {
+        resp.getWriter().print( req.getHeader( "Cookie" ) + "\n" );
+        return;
+      }
+      boolean serverSentEvents = req.getPathInfo().equals( "/events" );
+      resp.setContentType( serverSentEvents ? "text/event-stream" : "application/x-ndjson" );
+      PrintWriter writer = resp.getWriter();
+      for( int i = 1; i <= EVENTS; i++ ) {
+        if( serverSentEvents ) {
+          writer.print( "event: progress\nid: " + i + "\ndata: " + i + "\n\n" );
+        } else {
+          writer.print( "{\"progress\":" + i + "}\n" );
+        }
+        writer.flush();
+        resp.flushBuffer();
+        pause( 100 );
+      }
+      if( req.getPathInfo().equals( "/idle" ) ) {
+        pause( 2000 );
+      }
+    }
+    
+    private static void pause( long millis ) {
+      try {
+        Thread.sleep( millis );
+      } catch( InterruptedException shouldNotHappen ) {
+        throw new IllegalStateException( shouldNotHappen );
+      }
+    }
+  }
+  
+  @BeforeClass
+  public static void setUp() throws Exception {
+    server = new Server( 10053 );
+    ServletContextHandler context = new ServletContextHandler( server, "/" );
+    context.addServlet( new ServletHolder( new StreamServlet() ), "/*" );
+    server.start();
+    Map<String, List<String>> headers = new HashMap<String, List<String>>();
+    headers.put( "Set-Cookie", Arrays.asList( "session=42; Path=/" ) );
+    SESSION.storeCookies( new URL( "http://localhost:10053/login" ), headers );
+  }
+  
+  @AfterClass
+  public static void tearDown() throws Exception {
+    server.stop();
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/events" )
+  @Stream( maxEvents = 10, idleTimeout = 1000 )
+  public void testReceivesServerSentEvents() {
+    StreamEvent event = streamState.getEvent( streamState.getCount() );
+    
+    assertEquals( "progress", event.getName() );
+    assertEquals( String.valueOf( streamState.getCount() ), event.getId() );
+    assertEquals( String.valueOf( streamState.getCount() ), event.getData() );
+    assertEquals( 200, response.getStatus() );
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/lines" )
+  @Stream( maxEvents = 10, idleTimeout = 1000 )
+  public void testReceivesLines() {
+    StreamEvent event = streamState.getEvent( streamState.getCount() );
+    
+    assertEquals( "{\"progress\":" + streamState.getCount() + "}", event.getData() );
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/events" )
+  @Stream( maxEvents = 2, idleTimeout = 1000 )
+  public void testStopsAfterMaxEvents() {
+    assertTrue( streamState.getCount() <= 2 );
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/events" )
+  @Stream( maxEvents = 10, idleTimeout = 1000 )
+  public void testReceivesEventsWhileStreamed() {
+    StreamEvent event = streamState.getEvent( streamState.getCount() );
+    
+    assertTrue( event.getTimestamp() < 100 * EVENTS );
+    assertEquals( streamState.getCount(), streamState.getIntervals().getCount() );
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/session" )
+  @Stream( maxEvents = 1, idleTimeout = 1000 )
+  public void testStreamsThroughTransportOfDestination() {
+    assertEquals( "session=42", streamState.getEvent( 1 ).getData() );
+  }
+  
+  @Test
+  @HttpTest( method = Method.GET, path = "/idle" )
+  @Stream( maxEvents = 10, idleTimeout = 200 )
+  public void testStopsWhenIdle() {
+    assertTrue( streamState.getCount() <= EVENTS );
+  }
+}
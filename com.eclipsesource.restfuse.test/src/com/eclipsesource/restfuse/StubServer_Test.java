@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.github.kevinsawicki.http.HttpRequest;
+
+
+public class StubServer_Test {
+  
+  private static final String BODY = "0123456789012345678901234567890123456789";
+
+  @Rule
+  public StubServer stubs = new StubServer( 10045 )
+    .stub( "/fast", new DefaultCallbackResource() )
+    .stub( "/slow", new DefaultCallbackResource(), NetworkProfile.latency( 300 ) )
+    .stub( "/narrow", new BodyResource(), NetworkProfile.latency( 0 ).withBandwidth( 100 ) );
+  
+  private static class BodyResource extends DefaultCallbackResource {
+    @Override
+    public Response get( Request request ) {
+      return new ResponseImpl( null, 200, MediaType.TEXT_PLAIN.getMimeType(), null, BODY );
+    }
+  }
+  
+  @Test
+  public void testServesStub() {
+    Response response = sendRequest( "/fast" );
+    
+    assertEquals( Status.NO_CONTENT.getStatusCode(), response.getStatus() );
+    assertEquals( 1, stubs.getCalls( "/fast" ) );
+    assertEquals( 0, stubs.getCalls( "/slow" ) );
+  }
+  
+  @Test
+  public void testDelaysResponse() {
+    long start = System.currentTimeMillis();
+    
+    sendRequest( "/slow" );
+    
+    assertTrue( System.currentTimeMillis() - start >= 300 );
+  }
+  
+  @Test
+  public void testThrottlesBody() {
+    long start = System.currentTimeMillis();
+    
+    Response response = sendRequest( "/narrow" );
+    
+    assertEquals( BODY, response.getBody() );
+    assertTrue( System.currentTimeMillis() - start >= 300 );
+  }
+  
+  @Test
+  public void testJitterIsReproducible() {
+    NetworkProfile profile = NetworkProfile.latency( 10 ).withJitter( 50, 42 );
+    Random first = new Random( profile.getSeed() );
+    Random second = new Random( profile.getSeed() );
+    
+    for( int i = 0; i < 10; i++ ) {
+      int delay = profile.nextDelay( first );
+      assertEquals( delay, profile.nextDelay( second ) );
+      assertTrue( delay >= 10 && delay <= 60 );
+    }
+  }
+  
+  @Test
+  public void testReportsStubFailureAfterFailureOfTest() throws Throwable {
+    final StubServer server = new StubServer( 10054 ).stub( "/failing", new FailingResource() );
+    Statement test = new Statement() {
+      @Override
+      public void evaluate() {
+        HttpRequest.get( server.getUrl() + "/failing" ).code();
+        throw new AssertionError( "test failed" );
+      }
+    };
+    
+    try {
+      server.apply( test, Description.EMPTY ).evaluate();
+      fail();
+    } catch( MultipleFailureException expected ) {
+      List<Throwable> failures = expected.getFailures();
+      assertEquals( 2, failures.size() );
+      assertEquals( "test failed", failures.get( 0 ).getMessage() );
+      assertEquals( "Stub /failing failed: stub failed", failures.get( 1 ).getMessage() );
+    }
+  }
+  
+  @Test
+  public void testReportsStubFailureOfPassingTest() throws Throwable {
+    final StubServer server = new StubServer( 10054 ).stub( "/failing", new FailingResource() );
+    Statement test = new Statement() {
+      @Override
+      public void evaluate() {
+        HttpRequest.get( server.getUrl() + "/failing" ).code();
+      }
+    };
+    
+    try {
+      server.apply( test, Description.EMPTY ).evaluate();
+      fail();
+    } catch( AssertionError expected ) {
+      assertEquals( "Stub /failing failed: stub failed", expected.getMessage() );
+    }
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testUnknownStub() {
+    stubs.getCalls( "/unknown" );
+  }
+
+  private static class FailingResource extends DefaultCallbackResource {
+    @Override
+    public Response get( Request request ) {
+      throw new AssertionError( "stub failed" );
+    }
+  }
+
+  private Response sendRequest( String path ) {
+    HttpRequest request = HttpRequest.get( stubs.getUrl() + path );
+    request.code();
+    return new ResponseImpl( request );
+  }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class BodyBuffer_Test {
+  
+  private BodyBuffer buffer;
+  
+  @After
+  public void tearDown() {
+    if( buffer != null ) {
+      buffer.release();
+    }
+  }
+  
+  @Test
+  public void testKeepsSmallBodyInMemory() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), -1, 10 );
+    
+    assertFalse( buffer.isSpilled() );
+    assertEquals( 4, buffer.getLength() );
+    assertEquals( "body", buffer.toString( null ) );
+  }
+  
+  @Test
+  public void testKeepsBodyOfThresholdSizeInMemory() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), 4, 4 );
+    
+    assertFalse( buffer.isSpilled() );
+    assertEquals( "body", readFully( buffer.open() ) );
+  }
+  
+  @Test
+  public void testSpillsLargeBody() throws IOException {
+    String body = createBody( 20000 );
+    
+    buffer = BodyBuffer.read( stream( body ), -1, 10000 );
+    
+    assertTrue( buffer.isSpilled() );
+    assertEquals( 20000, buffer.getLength() );
+    assertEquals( body, buffer.toString( "UTF-8" ) );
+    assertEquals( body, readFully( buffer.open() ) );
+  }
+  
+  @Test
+  public void testAppendsChunksAndSpills() throws IOException {
+    byte[] chunk = createBody( 6000 ).getBytes( "UTF-8" );
+    buffer = BodyBuffer.create();
+    
+    buffer.append( chunk, 0, chunk.length, 10000 );
+    buffer.append( chunk, 1000, 5000, 10000 );
+    buffer.finish();
+    
+    assertTrue( buffer.isSpilled() );
+    assertEquals( 11000, buffer.getLength() );
+    assertEquals( createBody( 6000 ) + createBody( 6000 ).substring( 1000 ), readFully( buffer.open() ) );
+  }
+  
+  @Test
+  public void testSpillsWhenExpectedLengthExceedsThreshold() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), 100, 10 );
+    
+    assertTrue( buffer.isSpilled() );
+    assertEquals( "body", buffer.toString( null ) );
+  }
+  
+  @Test
+  public void testIgnoresWrongExpectedLength() throws IOException {
+    buffer = BodyBuffer.read( stream( "longer body" ), 4, 100 );
+    
+    assertFalse( buffer.isSpilled() );
+    assertEquals( "longer body", buffer.toString( null ) );
+  }
+  
+  @Test
+  public void testGetBytes() throws IOException {
+    byte[] body = new byte[] { 0, ( byte )0xff, 42 };
+    
+    buffer = BodyBuffer.read( new ByteArrayInputStream( body ), -1, 10 );
+    
+    assertArrayEquals( body, buffer.getBytes() );
+  }
+  
+  @Test
+  public void testGetBytesOfSpilledBody() throws IOException {
+    String body = createBody( 20000 );
+    
+    buffer = BodyBuffer.read( stream( body ), -1, 100 );
+    
+    assertArrayEquals( body.getBytes(), buffer.getBytes() );
+  }
+  
+  @Test
+  public void testGetByteBufferIsDirectAndReadOnly() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), -1, 10 );
+    
+    ByteBuffer result = buffer.getByteBuffer();
+    
+    assertTrue( result.isDirect() );
+    assertTrue( result.isReadOnly() );
+    assertEquals( 4, result.remaining() );
+    assertEquals( 'b', result.get( 0 ) );
+  }
+  
+  @Test
+  public void testGetByteBufferOfSpilledBody() throws IOException {
+    String body = createBody( 20000 );
+    buffer = BodyBuffer.read( stream( body ), -1, 100 );
+    
+    ByteBuffer result = buffer.getByteBuffer();
+    
+    assertTrue( result.isReadOnly() );
+    assertEquals( 20000, result.remaining() );
+    assertEquals( body.charAt( 19999 ), ( char )result.get( 19999 ) );
+  }
+  
+  @Test
+  public void testReadsGrowingBody() throws IOException {
+    String body = createBody( 50000 );
+    
+    buffer = BodyBuffer.read( stream( body ), 10, 100000 );
+    
+    assertFalse( buffer.isSpilled() );
+    assertEquals( body, buffer.toString( null ) );
+  }
+  
+  @Test
+  public void testReleaseReusesPooledBuffer() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), 4, 10 );
+    buffer.release();
+    int allocations = BodyBuffer.getPool().getAllocations();
+    
+    buffer = BodyBuffer.read( stream( "next" ), 4, 10 );
+    
+    assertEquals( allocations, BodyBuffer.getPool().getAllocations() );
+    assertEquals( "next", buffer.toString( null ) );
+  }
+  
+  @Test
+  public void testWrapKeepsContent() throws IOException {
+    byte[] content = "body".getBytes();
+    
+    buffer = BodyBuffer.wrap( content );
+    
+    assertEquals( 4, buffer.getLength() );
+    assertEquals( "body", buffer.toString( null ) );
+    assertArrayEquals( content, buffer.getBytes() );
+  }
+  
+  @Test
+  public void testReleaseDeletesFile() throws IOException {
+    String tmpDir = System.getProperty( "java.io.tmpdir" );
+    int filesBefore = countBodyFiles( tmpDir );
+    buffer = BodyBuffer.read( stream( createBody( 100 ) ), -1, 10 );
+    assertEquals( filesBefore + 1, countBodyFiles( tmpDir ) );
+    
+    buffer.release();
+    
+    assertEquals( filesBefore, countBodyFiles( tmpDir ) );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testOpenFailsAfterRelease() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), -1, 10 );
+    buffer.release();
+    
+    buffer.open();
+  }
+  
+  @Test
+  public void testStreamFailsAfterRelease() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), -1, 10 );
+    InputStream stream = buffer.open();
+    assertEquals( 'b', stream.read() );
+    
+    buffer.release();
+    
+    try {
+      stream.read();
+      fail();
+    } catch( IOException expected ) {
+      assertTrue( expected.getMessage().contains( "released" ) );
+    }
+  }
+  
+  @Test
+  public void testKeepsSharedBufferOutOfPool() throws IOException {
+    buffer = BodyBuffer.read( stream( "body" ), 4, 10 );
+    ByteBuffer view = buffer.getByteBuffer();
+    buffer.release();
+    List<BodyBuffer> others = new ArrayList<BodyBuffer>();
+    try {
+      for( int i = 0; i < 100; i++ ) {
+        others.add( BodyBuffer.read( stream( "next" ), 4, 10 ) );
+      }
+      
+      byte[] content = new byte[ 4 ];
+      view.get( content );
+      assertEquals( "body", new String( content, "UTF-8" ) );
+    } finally {
+      for( BodyBuffer other : others ) {
+        other.release();
+      }
+    }
+  }
+  
+  @Test
+  public void testClosesStream() throws IOException {
+    final boolean[] closed = new boolean[ 1 ];
+    InputStream stream = new ByteArrayInputStream( new byte[ 0 ] ) {
+      @Override
+      public void close() {
+        closed[ 0 ] = true;
+      }
+    };
+    
+    buffer = BodyBuffer.read( stream, -1, 10 );
+    
+    assertTrue( closed[ 0 ] );
+  }
+  
+  private static int countBodyFiles( String directory ) {
+    int result = 0;
+    for( String name : new File( directory ).list() ) {
+      if( name.startsWith( "restfuse" ) && name.endsWith( ".body" ) ) {
+        result++;
+      }
+    }
+    return result;
+  }
+  
+  private static InputStream stream( String body ) {
+    return new ByteArrayInputStream( body.getBytes() );
+  }
+  
+  private static String createBody( int length ) {
+    StringBuilder result = new StringBuilder();
+    for( int i = 0; i < length; i++ ) {
+      result.append( ( char )( 'a' + i % 26 ) );
+    }
+    return result.toString();
+  }
+  
+  private static String readFully( InputStream stream ) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try {
+      byte[] buffer = new byte[ 1024 ];
+      int read;
+      while( ( read = stream.read( buffer ) ) != -1 ) {
+        result.write( buffer, 0, read );
+      }
+    } finally {
+      stream.close();
+    }
+    return result.toString( "UTF-8" );
+  }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class BufferPool_Test {
+  
+  private BufferPool pool;
+  
+  @Before
+  public void setUp() {
+    pool = new BufferPool( 64 * 1024 );
+  }
+  
+  @Test
+  public void testAcquiresDirectBuffer() {
+    ByteBuffer buffer = pool.acquire( 100 );
+    
+    assertTrue( buffer.isDirect() );
+    assertEquals( BufferPool.MIN_CAPACITY, buffer.capacity() );
+  }
+  
+  @Test
+  public void testRoundsCapacityUpToPowerOfTwo() {
+    assertEquals( 16384, pool.acquire( 8193 ).capacity() );
+    assertEquals( 16384, pool.acquire( 16384 ).capacity() );
+  }
+  
+  @Test
+  public void testReusesReleasedBuffer() {
+    ByteBuffer buffer = pool.acquire( 10000 );
+    buffer.put( ( byte )1 );
+    pool.release( buffer );
+    
+    ByteBuffer reused = pool.acquire( 9000 );
+    
+    assertSame( buffer, reused );
+    assertEquals( 0, reused.position() );
+    assertEquals( reused.capacity(), reused.limit() );
+    assertEquals( 1, pool.getAllocations() );
+  }
+  
+  @Test
+  public void testKeepsSizeClassesApart() {
+    ByteBuffer small = pool.acquire( 100 );
+    pool.release( small );
+    
+    ByteBuffer large = pool.acquire( 20000 );
+    
+    assertNotSame( small, large );
+    assertEquals( 2, pool.getAllocations() );
+  }
+  
+  @Test
+  public void testDropsBuffersAboveLimit() {
+    ByteBuffer first = pool.acquire( 64 * 1024 );
+    ByteBuffer second = pool.acquire( 64 * 1024 );
+    pool.release( first );
+    pool.release( second );
+    
+    assertSame( first, pool.acquire( 64 * 1024 ) );
+    assertNotSame( second, pool.acquire( 64 * 1024 ) );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsAboveMaxCapacity() {
+    pool.acquire( BufferPool.MAX_CAPACITY + 1 );
+  }
+}
@@ -11,6 +11,7 @@
 package com.eclipsesource.restfuse.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
@@ -32,14 +33,17 @@ import com.eclipsesource.restfuse.DefaultCallbackResource;
 import com.eclipsesource.restfuse.Destination;
 import com.eclipsesource.restfuse.MediaType;
 import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.Status;
 import com.eclipsesource.restfuse.annotation.Authentication;
+import com.eclipsesource.restfuse.annotation.Callback;
 import com.eclipsesource.restfuse.annotation.Context;
 import com.eclipsesource.restfuse.annotation.Header;
 import com.eclipsesource.restfuse.annotation.HttpTest;
 import com.eclipsesource.restfuse.internal.callback.CallbackSerlvet;
 import com.eclipsesource.restfuse.internal.callback.CallbackStatement;
+import com.eclipsesource.restfuse.internal.transport.HttpTransport;
 
 
 public class HttpTestStatement_Test {
@@ -88,19 +92,56 @@ public class HttpTestStatement_Test {
   }
   
   @Test
-  public void testRemovesProxyProperties() throws Throwable {
+  public void testDoesNotSetProxyProperties() throws Throwable {
     Statement base = mock( Statement.class );
     Description description = mock( Description.class );
     HttpTest annotation = createAnnotation();
     when( description.getAnnotation( HttpTest.class ) ).thenReturn( annotation );
-    Object target = new Object();
-    HttpTestStatement statement 
-      = new HttpTestStatement( base, description, target, "http://localhost", "http://proxy.com", 8080, null );
+    ProxiedTest target = new ProxiedTest();
+    RequestContext context = new RequestContext( null, "http://restfuse.example/test" );
+    context.setRequestMethod( Method.GET );
+    // the host can't be resolved, so the request only arrives when it's sent through the proxy
+    HttpTestStatement statement = new HttpTestStatement( base, 
+                                                         description, 
+                                                         target, 
+                                                         "http://restfuse.example/test", 
+                                                         "localhost", 
+                                                         10042, 
+                                                         context );
     
     statement.evaluate();
     
-    assertNull( System.getProperty( HttpTestStatement.HTTP_PROXY_HOST ) );
-    assertNull( System.getProperty( HttpTestStatement.HTTP_PROXY_PORT ) );
+    assertEquals( Status.NO_CONTENT.getStatusCode(), target.response.getStatus() );
+    assertNull( System.getProperty( "http.proxyHost" ) );
+    assertNull( System.getProperty( "http.proxyPort" ) );
+  }
+  
+  private static class ProxiedTest {
+    
+    @Context
+    private Response response;
+  }
+  
+  @Test
+  public void testKeepsCallbackOutOfSharedContext() {
+    Description description = mock( Description.class );
+    HttpTest annotation = createAnnotation();
+    when( description.getAnnotation( HttpTest.class ) ).thenReturn( annotation );
+    RequestContext context = new RequestContext( null, "http://localhost:10042/test/{callbackId}" );
+    context.setRequestMethod( Method.GET );
+    HttpTestStatement statement = new HttpTestStatement( mock( Statement.class ), 
+                                                         description, 
+                                                         new Object(), 
+                                                         "http://localhost:10042/test", 
+                                                         context, 
+                                                         new HttpTransport() );
+    statement.setCallback( "http://localhost:10043/callback", "42" );
+    
+    Response response = statement.sendRequest();
+    
+    assertEquals( "http://localhost:10042/test/42", response.getUrl() );
+    assertFalse( context.getPathSegments().containsKey( Callback.CALLBACK_URL ) );
+    assertFalse( context.getPathSegments().containsKey( Callback.CALLBACK_ID ) );
   }
   
   private HttpTest createAnnotation() {
@@ -161,6 +202,11 @@ public class HttpTestStatement_Test {
 	  public int order() {
 		return 0;
 	  }
+
+	  @Override
+	  public boolean expectContinue() {
+		return false;
+	  }
     };
     return annotation;
   }
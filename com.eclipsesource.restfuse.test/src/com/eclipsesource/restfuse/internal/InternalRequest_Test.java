@@ -11,13 +11,18 @@
 package com.eclipsesource.restfuse.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.eclipsesource.restfuse.*;
 import org.eclipse.jetty.server.Server;
@@ -163,6 +168,110 @@ public class InternalRequest_Test {
     request.head();
   }
 
+  @Test
+  public void testDoesNotChangeContextsRequestObjects() {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    context.addRequestObject( "a", "a" );
+    InternalRequest request = new InternalRequest( context );
+    
+    request.getRequestObjects().put( "b", "b" );
+    request.addRequestObject( "c", "c" );
+    
+    assertEquals( 1, context.getRequestObjects().size() );
+    assertEquals( 3, request.getRequestObjects().size() );
+  }
+  
+  @Test
+  public void testDoesNotChangeContextsPathSegments() {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/{id}" );
+    context.addPathSegment( "id", "1" );
+    InternalRequest request = new InternalRequest( context );
+    
+    request.getPathSegments().put( "id", "2" );
+    
+    assertEquals( "1", context.getPathSegments().get( "id" ) );
+  }
+  
+  @Test
+  public void testDoesNotChangeContextsHeadersAndAuthentications() {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    context.addHeader( "test", "a" );
+    InternalRequest request = new InternalRequest( context );
+    
+    request.addHeader( "test", "b" );
+    request.clearAuthenticationInfos();
+    request.getAuthentications().add( new AuthenticationInfo( AuthenticationType.BASIC, "a", "b" ) );
+    
+    assertEquals( 1, context.getHeaders().get( "test" ).size() );
+    assertEquals( 2, request.getHeaders().get( "test" ).size() );
+    assertTrue( context.getAuthentications().isEmpty() );
+  }
+  
+  @Test
+  public void testDoesNotChangeContextsHeaderValues() {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    context.addHeader( "test", "a" );
+    InternalRequest request = new InternalRequest( context );
+    
+    request.getHeaders().get( "test" ).add( "b" );
+    request.getHeaders().put( "other", new ArrayList<String>() );
+    
+    assertEquals( Arrays.asList( "a" ), context.getHeaders().get( "test" ) );
+    assertFalse( context.getHeaders().containsKey( "other" ) );
+    assertEquals( Arrays.asList( "a", "b" ), request.getHeaders().get( "test" ) );
+    assertTrue( request.getHeaders().containsKey( "other" ) );
+  }
+  
+  @Test
+  public void testKeepsSnapshotOfContext() {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    InternalRequest request = new InternalRequest( context );
+    
+    context.addRequestObject( "a", "a" );
+    context.addHeader( "test", "a" );
+    
+    assertTrue( request.getRequestObjects().isEmpty() );
+    assertFalse( request.getHeaders().containsKey( "test" ) );
+  }
+  
+  @Test
+  public void testCreatesRequestsWhileContextChanges() throws InterruptedException {
+    final RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        for( int i = 0; i < 2000; i++ ) {
+          context.addRequestObject( "key" + i, "value" );
+          context.addHeader( "test", "value" );
+        }
+      }
+    };
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        try {
+          for( int i = 0; i < 2000; i++ ) {
+            InternalRequest request = new InternalRequest( context );
+            request.getRequestObjects().size();
+            PreparedRequest.prepare( Method.GET, request );
+          }
+        } catch( Throwable throwable ) {
+          failure.set( throwable );
+        }
+      }
+    };
+    
+    writer.start();
+    reader.start();
+    writer.join();
+    reader.join();
+    
+    assertNull( failure.get() );
+    assertEquals( 2000, context.getRequestObjects().size() );
+    assertEquals( 2000, context.getHeaders().get( "test" ).size() );
+  }
+
   private InternalRequest createRequest() throws UnsupportedEncodingException {
     InternalRequest internalRequest = new InternalRequest( new RequestContext(this, "http://localhost:10042/test") );
     internalRequest.setBody("test");
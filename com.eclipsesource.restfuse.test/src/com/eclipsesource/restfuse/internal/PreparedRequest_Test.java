@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.eclipse.jetty.util.IO;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+
+
+public class PreparedRequest_Test {
+  
+  @Test
+  public void testPreparesUrlAndHeaders() {
+    InternalRequest request = createRequest( "content" );
+    request.addHeader( "test", Arrays.asList( "a", "b" ) );
+    request.addAuthenticationInfo( new AuthenticationInfo( AuthenticationType.BASIC, "test", "test" ) );
+    
+    PreparedRequest prepared = PreparedRequest.prepare( Method.POST, request );
+    
+    assertEquals( "http://localhost:10042/test", prepared.getUrl().toString() );
+    assertEquals( "*/*", prepared.getContentType() );
+    assertEquals( "a,b", prepared.getHeaders().get( "test" ) );
+    assertEquals( "Basic dGVzdDp0ZXN0", prepared.getHeaders().get( "Authorization" ) );
+  }
+  
+  @Test( expected = UnsupportedOperationException.class )
+  public void testHeadersAreImmutable() {
+    PreparedRequest prepared = PreparedRequest.prepare( Method.GET, createRequest( null ) );
+    
+    prepared.getHeaders().put( "test", "test" );
+  }
+  
+  @Test
+  public void testReplaysTemplatedBody() throws IOException {
+    InternalRequest request = createRequest( "id={id}" );
+    request.addRequestObject( "id", "42" );
+    request.updateBody();
+    
+    PreparedRequest prepared = PreparedRequest.prepare( Method.POST, request );
+    
+    assertEquals( 5, prepared.getBodyLength() );
+    assertEquals( "id=42", read( prepared.openBody() ) );
+    assertEquals( "id=42", read( prepared.openBody() ) );
+  }
+  
+  @Test
+  public void testReplaysBufferedBody() throws IOException {
+    InternalRequest request = createRequest( null );
+    request.setBody( "processed" );
+    
+    PreparedRequest prepared = PreparedRequest.prepare( Method.PUT, request );
+    
+    assertTrue( prepared.hasBody() );
+    assertEquals( 9, prepared.getBodyLength() );
+    assertEquals( "processed", read( prepared.openBody() ) );
+    assertEquals( "processed", read( prepared.openBody() ) );
+  }
+  
+  @Test
+  public void testStreamsLongBodyOnFirstSend() throws IOException {
+    byte[] content = new byte[ StreamBody.LOOKAHEAD * 2 ];
+    Arrays.fill( content, ( byte )'a' );
+    InternalRequest request = createRequest( null );
+    request.setBody( new ByteArrayInputStream( content ) );
+    
+    PreparedRequest prepared = PreparedRequest.prepare( Method.POST, request );
+    
+    try {
+      assertTrue( prepared.hasBody() );
+      assertEquals( -1, prepared.getBodyLength() );
+      assertEquals( new String( content ), read( prepared.openBody() ) );
+      assertEquals( content.length, prepared.getBodyLength() );
+      assertEquals( new String( content ), read( prepared.openBody() ) );
+    } finally {
+      prepared.release();
+    }
+  }
+  
+  @Test
+  public void testRecordsRestOfPartiallySentBody() throws IOException {
+    byte[] content = new byte[ StreamBody.LOOKAHEAD * 2 ];
+    Arrays.fill( content, ( byte )'a' );
+    InternalRequest request = createRequest( null );
+    request.setBody( new ByteArrayInputStream( content ) );
+    PreparedRequest prepared = PreparedRequest.prepare( Method.POST, request );
+    
+    try {
+      prepared.openBody().read( new byte[ 10 ] );
+      
+      assertEquals( new String( content ), read( prepared.openBody() ) );
+    } finally {
+      prepared.release();
+    }
+  }
+  
+  @Test
+  public void testHasNoBodyWithoutEntity() {
+    InternalRequest request = createRequest( "content" );
+    request.updateBody();
+    
+    PreparedRequest prepared = PreparedRequest.prepare( Method.GET, request );
+    
+    assertFalse( prepared.hasBody() );
+    assertEquals( -1, prepared.getBodyLength() );
+    assertNull( prepared.openBody() );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsWithInvalidUrl() {
+    InternalRequest request = new InternalRequest( new RequestContext( this, "invalid" ) );
+    
+    PreparedRequest.prepare( Method.GET, request );
+  }
+  
+  private InternalRequest createRequest( String content ) {
+    RequestContext context = new RequestContext( this, "http://localhost:10042/test" );
+    context.setContentStr( content );
+    return new InternalRequest( context );
+  }
+  
+  private String read( InputStream stream ) throws IOException {
+    return IO.toString( stream, "UTF-8" );
+  }
+}
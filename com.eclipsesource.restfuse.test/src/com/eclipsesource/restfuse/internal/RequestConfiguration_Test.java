@@ -195,6 +195,11 @@ public class RequestConfiguration_Test {
       public int order() {
         return 0;
       }
+
+      @Override
+      public boolean expectContinue() {
+        return false;
+      }
     };
     return annotation;
   }
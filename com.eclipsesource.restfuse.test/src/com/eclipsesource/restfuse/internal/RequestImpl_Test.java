@@ -10,10 +10,18 @@
  ******************************************************************************/ 
 package com.eclipsesource.restfuse.internal;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Map;
 
@@ -48,6 +56,97 @@ public class RequestImpl_Test {
     assertEquals( "test", request.getBody() );
   }
   
+  @Test
+  public void testKeepsBinaryBody() {
+    byte[] content = new byte[] { 0, -1, '\r', '\n', 42 };
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( content ), MediaType.APPLICATION_OCTET_STREAM, null, 0 );
+    
+    assertArrayEquals( content, streamRequest.getBytes() );
+    assertEquals( content.length, streamRequest.getByteBuffer().remaining() );
+  }
+  
+  @Test
+  public void testDecodesBodyWithCharset() throws UnsupportedEncodingException {
+    byte[] content = "line1\nläne2".getBytes( "UTF-8" );
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( content ), MediaType.TEXT_PLAIN, "UTF-8", 0 );
+    
+    assertEquals( "line1\nläne2", streamRequest.getBody() );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWhenBodyExceedsMaxSize() {
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( new byte[ 100 ] ), MediaType.WILDCARD, null, 10 );
+    
+    streamRequest.getBytes();
+  }
+  
+  @Test
+  public void testStreamsBodyLargerThanMaxSize() throws IOException {
+    InputStream stream = new ByteArrayInputStream( new byte[ 100 ] );
+    RequestImpl streamRequest = new RequestImpl( stream, MediaType.WILDCARD, null, 10 );
+    
+    assertSame( stream, streamRequest.getInputStream() );
+  }
+  
+  @Test
+  public void testStreamsWholeBodyAfterExceedingMaxSize() throws IOException {
+    byte[] content = new byte[ 100 ];
+    for( int i = 0; i < content.length; i++ ) {
+      content[ i ] = ( byte )i;
+    }
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( content ), MediaType.WILDCARD, null, 10 );
+    try {
+      streamRequest.getBytes();
+    } catch( IllegalStateException expected ) {
+    }
+    
+    InputStream stream = streamRequest.getInputStream();
+    
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    int read;
+    while( ( read = stream.read() ) != -1 ) {
+      streamed.write( read );
+    }
+    assertArrayEquals( content, streamed.toByteArray() );
+  }
+  
+  @Test
+  public void testDetachKeepsBodyWithinMaxSize() {
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( new byte[ 10 ] ), MediaType.WILDCARD, null, 10 );
+    
+    streamRequest.detach();
+    
+    assertEquals( 10, streamRequest.getBytes().length );
+  }
+  
+  @Test
+  public void testCanNotStreamExceedingBodyAfterDetach() {
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( new byte[ 100 ] ), MediaType.WILDCARD, null, 10 );
+    streamRequest.detach();
+    
+    try {
+      streamRequest.getInputStream();
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertTrue( expected.getMessage().contains( "while the callback is handled" ) );
+    }
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testCanNotBufferStreamedBody() {
+    RequestImpl streamRequest 
+      = new RequestImpl( new ByteArrayInputStream( new byte[ 10 ] ), MediaType.WILDCARD, null, 0 );
+    streamRequest.getInputStream();
+    
+    streamRequest.getBody();
+  }
+  
   @Test
   public void testGetMediaType() {
     assertEquals( MediaType.APPLICATION_ATOM_XML, request.getType() );
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.ProcessRequest;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.RequestProcessor;
+
+
+public class RequestProcessors_Test {
+  
+  private static int instances;
+  
+  public static class AppendingProcessor implements RequestProcessor {
+    
+    public AppendingProcessor() {
+      instances++;
+    }
+
+    @Override
+    public void process( RequestContext request ) {
+      request.setContentStr( request.getContentStr() + "a" );
+    }
+  }
+  
+  public static class LegacyProcessor implements ProcessRequest {
+    
+    public LegacyProcessor( RequestContext request ) {
+      instances++;
+      request.setContentStr( request.getContentStr() + "b" );
+    }
+  }
+  
+  public static class FailingProcessor implements ProcessRequest {
+    
+    public FailingProcessor( RequestContext request ) {
+      throw new IllegalArgumentException( "failed" );
+    }
+  }
+  
+  @Before
+  public void setUp() {
+    instances = 0;
+  }
+  
+  @Test
+  public void testChainsProcessorsInOrder() {
+    RequestContext request = new RequestContext();
+    request.setContentStr( "" );
+    
+    RequestProcessors.process( request, 
+                               AppendingProcessor.class.getName() + ", " 
+                               + LegacyProcessor.class.getName() + "," 
+                               + AppendingProcessor.class.getName() );
+    
+    assertEquals( "aba", request.getContentStr() );
+  }
+  
+  @Test
+  public void testCreatesProcessorOnce() {
+    String name = AppendingProcessor.class.getName();
+    RequestContext request = new RequestContext();
+    request.setContentStr( "" );
+    RequestProcessors.process( request, name );
+    int created = instances;
+    
+    for( int i = 0; i < 10; i++ ) {
+      RequestProcessors.process( request, name );
+    }
+    
+    assertEquals( created, instances );
+    assertEquals( 11, request.getContentStr().length() );
+  }
+  
+  @Test
+  public void testCachesStages() {
+    String name = AppendingProcessor.class.getName();
+    
+    ClassLoader loader = getClass().getClassLoader();
+    
+    List<RequestProcessors.Stage> first = RequestProcessors.getStages( name, loader );
+    List<RequestProcessors.Stage> second = RequestProcessors.getStages( name, loader );
+    
+    assertSame( first.get( 0 ), second.get( 0 ) );
+  }
+  
+  @Test
+  public void testCachesStagesPerClassLoader() {
+    String name = AppendingProcessor.class.getName();
+    ClassLoader loader = getClass().getClassLoader();
+    ClassLoader otherLoader = new ClassLoader( loader ) {};
+    
+    List<RequestProcessors.Stage> first = RequestProcessors.getStages( name, loader );
+    List<RequestProcessors.Stage> other = RequestProcessors.getStages( name, otherLoader );
+    
+    assertNotSame( first.get( 0 ), other.get( 0 ) );
+  }
+  
+  @Test
+  public void testCreatesLegacyProcessorPerRequest() {
+    RequestContext request = new RequestContext();
+    request.setContentStr( "" );
+    
+    RequestProcessors.process( request, LegacyProcessor.class.getName() );
+    RequestProcessors.process( request, LegacyProcessor.class.getName() );
+    
+    assertEquals( 2, instances );
+    assertEquals( "bb", request.getContentStr() );
+  }
+  
+  @Test
+  public void testIgnoresEmptyNames() {
+    assertEquals( 0, RequestProcessors.getStages( "", getClass().getClassLoader() ).size() );
+    assertEquals( 0, RequestProcessors.getStages( null, getClass().getClassLoader() ).size() );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithUnknownClass() {
+    RequestProcessors.process( new RequestContext(), "com.example.Unknown" );
+  }
+  
+  @Test
+  public void testWrapsLegacyFailures() {
+    try {
+      RequestProcessors.process( new RequestContext(), FailingProcessor.class.getName() );
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertEquals( IllegalArgumentException.class, expected.getCause().getClass() );
+    }
+  }
+}
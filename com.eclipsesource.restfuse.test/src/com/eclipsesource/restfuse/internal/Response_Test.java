@@ -10,11 +10,17 @@
  ******************************************************************************/
 package com.eclipsesource.restfuse.internal;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -44,7 +50,8 @@ public class Response_Test {
     HttpURLConnection connection = mock( HttpURLConnection.class );
     when( connection.getURL() ).thenReturn( new URL( "http://test.com" ) );
     when( httpRequest.getConnection() ).thenReturn( connection );
-    when( httpRequest.body() ).thenReturn( "test" );
+    when( httpRequest.stream() ).thenReturn( new ByteArrayInputStream( "test".getBytes() ) );
+    when( httpRequest.contentLength() ).thenReturn( Integer.valueOf( 4 ) );
     when( httpRequest.code() ).thenReturn( 200 );
     when( httpRequest.contentType() ).thenReturn( MediaType.TEXT_PLAIN.toString() );
     HashMap<String, List<String>> headers = new HashMap<String, List<String>>();
@@ -70,6 +77,107 @@ public class Response_Test {
     assertEquals( "test", response.getBody() );
   }
   
+  @Test
+  public void testGetBodyWithCharset() throws MalformedURLException {
+    HttpRequest httpRequest = mockRequest();
+    byte[] body = new byte[] { 'A', ( byte )0xe4 };
+    when( httpRequest.stream() ).thenReturn( new ByteArrayInputStream( body ) );
+    when( httpRequest.charset() ).thenReturn( "ISO-8859-1" );
+    
+    assertEquals( "A\u00e4", new ResponseImpl( httpRequest ).getBody() );
+  }
+  
+  @Test
+  public void testGetSpilledBody() throws MalformedURLException {
+    HttpRequest httpRequest = mockRequest();
+    when( httpRequest.stream() ).thenReturn( new ByteArrayInputStream( "spilled".getBytes() ) );
+    
+    ResponseImpl spilled = new ResponseImpl( httpRequest, 3 );
+    
+    try {
+      assertEquals( "spilled", spilled.getBody() );
+    } finally {
+      spilled.release();
+    }
+  }
+  
+  @Test
+  public void testDecodesSpilledBodyOnce() throws MalformedURLException {
+    HttpRequest httpRequest = mockRequest();
+    when( httpRequest.stream() ).thenReturn( new ByteArrayInputStream( "spilled".getBytes() ) );
+    ResponseImpl spilled = new ResponseImpl( httpRequest, 3 );
+    
+    try {
+      assertSame( spilled.getBody(), spilled.getBody() );
+    } finally {
+      spilled.release();
+    }
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testGetBodyFailsAfterRelease() {
+    response.release();
+    
+    response.getBody();
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testGetDecodedBodyFailsAfterRelease() {
+    response.getBody();
+    response.release();
+    
+    response.getBody();
+  }
+  
+  @Test
+  public void testGetBytesKeepsBinaryBody() throws MalformedURLException {
+    HttpRequest httpRequest = mockRequest();
+    byte[] body = new byte[] { ( byte )0x89, 'P', 'N', 'G', 0, ( byte )0xff };
+    when( httpRequest.stream() ).thenReturn( new ByteArrayInputStream( body ) );
+    
+    ResponseImpl binary = new ResponseImpl( httpRequest );
+    
+    assertArrayEquals( body, binary.getBytes() );
+    assertEquals( body.length, binary.getByteBuffer().remaining() );
+  }
+  
+  @Test
+  public void testGetInputStream() throws IOException {
+    InputStream stream = response.getInputStream();
+    
+    assertEquals( 't', stream.read() );
+    assertEquals( 3, stream.read( new byte[ 10 ] ) );
+    assertEquals( -1, stream.read() );
+  }
+  
+  @Test
+  public void testGetBytesOfStringBodyUsesCharset() {
+    ResponseImpl stringResponse 
+      = new ResponseImpl( "http://test.com", 200, "text/plain; charset=ISO-8859-1", null, "\u00e4" );
+    
+    assertArrayEquals( new byte[] { ( byte )0xe4 }, stringResponse.getBytes() );
+  }
+  
+  @Test
+  public void testForBytesDecodesWithCharset() {
+    byte[] body = new byte[] { ( byte )0xe4 };
+    
+    ResponseImpl bytesResponse 
+      = ResponseImpl.forBytes( "http://test.com", 200, "text/plain; charset=ISO-8859-1", null, body );
+    
+    assertEquals( "\u00e4", bytesResponse.getBody() );
+    assertArrayEquals( body, bytesResponse.getBytes() );
+  }
+  
+  @Test
+  public void testHasNoBinaryBodyWithoutBody() {
+    ResponseImpl empty = new ResponseImpl( "http://test.com", 304, null, null, null );
+    
+    assertNull( empty.getBytes() );
+    assertNull( empty.getByteBuffer() );
+    assertNull( empty.getInputStream() );
+  }
+  
   @Test
   public void testGetMediaType() {
     assertEquals( MediaType.TEXT_PLAIN, response.getType() );
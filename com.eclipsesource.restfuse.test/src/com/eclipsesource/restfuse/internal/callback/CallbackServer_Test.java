@@ -11,6 +11,9 @@
 package com.eclipsesource.restfuse.internal.callback;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -20,7 +23,11 @@ import org.junit.Test;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
 
+import com.eclipsesource.restfuse.CallbackResource;
+import com.eclipsesource.restfuse.CallbackState;
 import com.eclipsesource.restfuse.DefaultCallbackResource;
+import com.eclipsesource.restfuse.LatencyDistribution;
+import com.eclipsesource.restfuse.Request;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.Status;
 import com.eclipsesource.restfuse.annotation.Callback;
@@ -31,6 +38,8 @@ import com.github.kevinsawicki.http.HttpRequest;
 public class CallbackServer_Test {
   
   private CallbackServer server;
+  private String url;
+  private long requestTime;
 
   @Rule
   public TestWatcher watchman = new TestWatcher() {
@@ -41,6 +50,8 @@ public class CallbackServer_Test {
       CallbackStatement statement = mock( CallbackStatement.class );
       server = new CallbackServer( callbackAnnotation, CallbackServer_Test.this, statement );
       server.start();
+      url = server.getUrl();
+      requestTime = System.nanoTime();
       
       Response response = sendRequest();
       assertEquals( Status.NO_CONTENT.getStatusCode(), response.getStatus() );
@@ -56,7 +67,7 @@ public class CallbackServer_Test {
     }
 
     private Response sendRequest() {
-      HttpRequest request = HttpRequest.get( "http://localhost:10042/test" );
+      HttpRequest request = HttpRequest.get( url );
       request.code();
       return new ResponseImpl( request );
     }
@@ -67,6 +78,14 @@ public class CallbackServer_Test {
     // no content
   }
   
+  private class DelayedResource extends DefaultCallbackResource {
+    
+    @Override
+    public Response get( Request request ) {
+      return CallbackResource.delay( super.get( request ), 200 );
+    }
+  }
+  
   @Test
   @Callback( port = 10042, path = "/test", timeout = 10000, resource = TestResource.class )
   public void fakeTestMethod() {
@@ -74,4 +93,73 @@ public class CallbackServer_Test {
     server.stop();
   }
   
+  @Test
+  @Callback( port = 10042, 
+             path = "/test", 
+             timeout = 10000, 
+             resource = DelayedResource.class, 
+             acceptors = 1, 
+             maxThreads = 8, 
+             maxQueued = 16 )
+  public void fakeTunedTestMethod() {
+    CallbackState state = new CallbackStateImpl( server, requestTime );
+    
+    assertTrue( server.wasCalled() );
+    assertTrue( server.hasExpectedCalls() );
+    assertEquals( 1, state.getCalls() );
+    assertEquals( 1, state.getLatencies().getCount() );
+    assertTrue( state.getLatency() >= 0 );
+    assertTrue( state.getLatency() < 200 );
+    assertEquals( 0, state.getSuspendedCalls() );
+    assertEquals( 0, state.getRejectedCalls() );
+    server.stop();
+  }
+  
+  @Test
+  @Callback( path = "/test", timeout = 10000, resource = TestResource.class, maxLatency = 500 )
+  public void fakeMaxLatencyTestMethod() {
+    CallbackState state = new CallbackStateImpl( server, requestTime );
+    CallbackState lateState = new CallbackStateImpl( server, requestTime - 1000000000L );
+    
+    assertEquals( 500, server.getMaxLatency() );
+    assertTrue( server.hasExpectedLatency( state.getLatencies() ) );
+    assertFalse( server.hasExpectedLatency( lateState.getLatencies() ) );
+    server.stop();
+  }
+  
+  @Test
+  @Callback( path = "/test", timeout = 10000, resource = TestResource.class )
+  public void fakeEphemeralPortTestMethod() {
+    assertTrue( server.hasExpectedLatency( new LatencyDistribution( new long[] { Long.MAX_VALUE } ) ) );
+    assertTrue( server.wasCalled() );
+    assertFalse( url.startsWith( "http://localhost:0/" ) );
+    assertTrue( url.endsWith( "/test" ) );
+    assertNull( server.getCorrelationId() );
+    server.stop();
+  }
+  
+  @Test
+  @Callback( port = 10046, path = "/shared", timeout = 10000, resource = TestResource.class, correlate = true )
+  public void fakeCorrelatedTestMethod() throws Exception {
+    Callback callbackAnnotation 
+      = getClass().getMethod( "fakeCorrelatedTestMethod" ).getAnnotation( Callback.class );
+    CallbackServer otherServer 
+      = new CallbackServer( callbackAnnotation, this, mock( CallbackStatement.class ) );
+    otherServer.start();
+    
+    int code = HttpRequest.get( "http://localhost:10046/shared" )
+      .header( Callback.CORRELATION_HEADER, otherServer.getCorrelationId() ).code();
+    int unknownCode = HttpRequest.get( "http://localhost:10046/shared/unknown" ).code();
+    otherServer.stop();
+    
+    assertNotNull( server.getCorrelationId() );
+    assertEquals( "http://localhost:10046/shared/" + server.getCorrelationId(), url );
+    assertEquals( Status.NO_CONTENT.getStatusCode(), code );
+    assertEquals( Status.NOT_FOUND.getStatusCode(), unknownCode );
+    assertTrue( server.wasCalled() );
+    assertTrue( otherServer.wasCalled() );
+    assertEquals( 1, server.getServlet().getCalls() );
+    server.stop();
+  }
+  
 }
@@ -17,11 +17,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringReader;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -147,7 +147,14 @@ public class CallbackServlet_Test {
   
   private HttpServletRequest mockHttpRequest() throws IOException {
     HttpServletRequest req = mock( HttpServletRequest.class );
-    when( req.getReader() ).thenReturn( new BufferedReader( new StringReader( "test" ) ) );
+    final ByteArrayInputStream body = new ByteArrayInputStream( "test".getBytes() );
+    when( req.getInputStream() ).thenReturn( new ServletInputStream() {
+      
+      @Override
+      public int read() throws IOException {
+        return body.read();
+      }
+    } );
     return req;
   }
 }
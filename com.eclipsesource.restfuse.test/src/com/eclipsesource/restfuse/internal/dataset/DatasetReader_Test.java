@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+
+public class DatasetReader_Test {
+  
+  @Test
+  public void testReadsCsvWithHeader() throws IOException {
+    DatasetReader reader = DatasetReader.open( getClass(), "/com/eclipsesource/restfuse/products.csv" );
+    
+    DataRowImpl first = reader.next();
+    
+    assertEquals( 1, first.getIndex() );
+    assertEquals( "1", first.get( "id" ) );
+    assertEquals( "Anvil", first.get( "name" ) );
+    reader.close();
+  }
+  
+  @Test
+  public void testReadsQuotedCsvValues() throws IOException {
+    DatasetReader reader = DatasetReader.open( getClass(), "/com/eclipsesource/restfuse/products.csv" );
+    
+    reader.next();
+    DataRowImpl second = reader.next();
+    DataRowImpl third = reader.next();
+    
+    assertEquals( "Rocket, skates", second.get( "name" ) );
+    assertEquals( "Giant \"magnet\"", third.get( "name" ) );
+    reader.close();
+  }
+  
+  @Test
+  public void testSkipsBlankLines() throws IOException {
+    DatasetReader reader = DatasetReader.open( getClass(), "/com/eclipsesource/restfuse/products.csv" );
+    
+    int rows = 0;
+    while( reader.next() != null ) {
+      rows++;
+    }
+    
+    assertEquals( 4, rows );
+    reader.close();
+  }
+  
+  @Test
+  public void testReadsMultiLineCsvValue() throws IOException {
+    DatasetReader reader = new CsvDatasetReader( createStream( "id,text\n1,\"a\nb\"\n2,c" ) );
+    
+    assertEquals( "a\nb", reader.next().get( "text" ) );
+    assertEquals( "2", reader.next().get( "id" ) );
+    assertNull( reader.next() );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithMissingCsvValues() throws IOException {
+    DatasetReader reader = new CsvDatasetReader( createStream( "id,text\n1" ) );
+    
+    reader.next();
+  }
+  
+  @Test
+  public void testReadsJsonLines() throws IOException {
+    DatasetReader reader = DatasetReader.open( getClass(), "/com/eclipsesource/restfuse/products.jsonl" );
+    
+    DataRowImpl first = reader.next();
+    reader.next();
+    DataRowImpl third = reader.next();
+    
+    assertEquals( "1", first.get( "id" ) );
+    assertEquals( "Anvil", first.get( "name" ) );
+    assertEquals( 3, third.getIndex() );
+    assertNull( third.get( "name" ) );
+    assertNull( reader.next() );
+    reader.close();
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithJsonArrayRow() throws IOException {
+    DatasetReader reader = new JsonLinesDatasetReader( createStream( "[1,2]" ) );
+    
+    reader.next();
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithMissingFile() throws IOException {
+    DatasetReader.open( getClass(), "missing.csv" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsWithUnsupportedFormat() throws IOException {
+    DatasetReader.open( getClass(), "/com/eclipsesource/restfuse/internal/dataset/DatasetReader_Test.class" );
+  }
+  
+  private InputStream createStream( String content ) {
+    return new ByteArrayInputStream( content.getBytes() );
+  }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+import com.eclipsesource.restfuse.DataRow;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Dataset;
+import com.eclipsesource.restfuse.annotation.HttpTest;
+import com.eclipsesource.restfuse.internal.HttpTestStatement;
+
+
+public class DatasetStatement_Test {
+  
+  @Context
+  private DataRow row;
+  
+  @HttpTest( method = Method.GET, path = "/products/{id}" )
+  @Dataset( file = "/com/eclipsesource/restfuse/products.csv", parallelism = 2 )
+  public void fakeDatasetMethod() {
+    // used for annotations
+  }
+  
+  @Test
+  public void testSendsRequestPerRow() throws Throwable {
+    HttpTestStatement base = mock( HttpTestStatement.class );
+    DatasetStatement statement = createStatement( base, mock( Statement.class ) );
+    
+    statement.evaluate();
+    
+    verify( base, times( 4 ) ).sendRequest( anyMapOf( String.class, String.class ) );
+  }
+  
+  @Test
+  public void testReleasesResponsePerRow() throws Throwable {
+    HttpTestStatement base = mock( HttpTestStatement.class );
+    Response response = mock( Response.class );
+    when( base.sendRequest( anyMapOf( String.class, String.class ) ) ).thenReturn( response );
+    DatasetStatement statement = createStatement( base, mock( Statement.class ) );
+    
+    statement.evaluate();
+    
+    verify( base, times( 4 ) ).releaseResponse( response );
+  }
+  
+  @Test
+  public void testReportsFailedRows() throws Throwable {
+    Statement failing = new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        if( "2".equals( row.get( "id" ) ) ) {
+          fail( "unknown product" );
+        }
+      }
+    };
+    DatasetStatement statement = createStatement( mock( HttpTestStatement.class ), failing );
+    
+    try {
+      statement.evaluate();
+      fail();
+    } catch( MultipleFailureException expected ) {
+      List<Throwable> failures = expected.getFailures();
+      assertEquals( 2, failures.size() );
+      assertTrue( failures.get( 0 ).getMessage().startsWith( "1 of 4 rows" ) );
+      assertTrue( failures.get( 1 ).getMessage().startsWith( "Row 2 " ) );
+      assertTrue( failures.get( 1 ).getMessage().endsWith( "unknown product" ) );
+    }
+  }
+  
+  private DatasetStatement createStatement( HttpTestStatement base, Statement statement ) 
+    throws NoSuchMethodException 
+  {
+    java.lang.reflect.Method method = getClass().getMethod( "fakeDatasetMethod" );
+    Description description = Description.createTestDescription( getClass(), 
+                                                                 method.getName(), 
+                                                                 method.getAnnotations() );
+    return new DatasetStatement( statement, base, description, this );
+  }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/ 
+package com.eclipsesource.restfuse.internal.golden;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class GoldenFile_Test {
+  
+  private File file;
+  
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile( "golden", ".bin" );
+  }
+  
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+  
+  @Test
+  public void testMatchesEqualBody() throws IOException {
+    byte[] content = createContent( 20000 );
+    GoldenFile golden = GoldenFile.forResource( write( content ) );
+    
+    assertEquals( 20000, golden.getLength() );
+    assertNull( golden.compare( new ByteArrayInputStream( content ) ) );
+  }
+  
+  @Test
+  public void testCachesDigest() throws IOException {
+    URL resource = write( createContent( 10 ) );
+    
+    assertSame( GoldenFile.forResource( resource ), GoldenFile.forResource( resource ) );
+  }
+  
+  @Test
+  public void testReadsChangedFileAgain() throws IOException {
+    URL resource = write( createContent( 10 ) );
+    GoldenFile first = GoldenFile.forResource( resource );
+    
+    byte[] changed = createContent( 20 );
+    write( changed );
+    GoldenFile second = GoldenFile.forResource( resource );
+    
+    assertNotSame( first, second );
+    assertNull( second.compare( new ByteArrayInputStream( changed ) ) );
+  }
+  
+  @Test
+  public void testFindsDifferenceInLaterChunk() throws IOException {
+    byte[] content = createContent( 200000 );
+    GoldenFile golden = GoldenFile.forResource( write( content ) );
+    byte[] body = content.clone();
+    body[ 123456 ] = ( byte )0xff;
+    
+    String difference = golden.compare( new ByteArrayInputStream( body ) );
+    
+    assertEquals( "First difference at byte offset 123456: expected " + toHex( content[ 123456 ] ) 
+                  + " but was 0xff", difference );
+  }
+  
+  @Test
+  public void testFindsShorterBody() throws IOException {
+    byte[] content = createContent( 9000 );
+    GoldenFile golden = GoldenFile.forResource( write( content ) );
+    byte[] body = new byte[ 8500 ];
+    System.arraycopy( content, 0, body, 0, body.length );
+    
+    String difference = golden.compare( new ByteArrayInputStream( body ) );
+    
+    assertEquals( "Body and resource are equal up to byte offset 8500 where the body ends", difference );
+  }
+  
+  @Test
+  public void testFindsLongerBody() throws IOException {
+    GoldenFile golden = GoldenFile.forResource( write( new byte[ 0 ] ) );
+    
+    String difference = golden.compare( new ByteArrayInputStream( new byte[] { 1 } ) );
+    
+    assertEquals( "Body and resource are equal up to byte offset 0 where the resource ends", difference );
+  }
+  
+  @Test
+  public void testFindsDifferenceWithPartialReads() throws IOException {
+    byte[] content = createContent( 10000 );
+    GoldenFile golden = GoldenFile.forResource( write( content ) );
+    byte[] body = content.clone();
+    body[ 9999 ] = ( byte )( body[ 9999 ] + 1 );
+    
+    String difference = golden.compare( new TrickleInputStream( body ) );
+    
+    assertTrue( difference.startsWith( "First difference at byte offset 9999:" ) );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithUnreadableResource() throws IOException {
+    URL resource = write( new byte[ 0 ] );
+    file.delete();
+    
+    GoldenFile.forResource( resource );
+  }
+  
+  private URL write( byte[] content ) throws IOException {
+    FileOutputStream stream = new FileOutputStream( file );
+    try {
+      stream.write( content );
+    } finally {
+      stream.close();
+    }
+    return file.toURI().toURL();
+  }
+  
+  private static byte[] createContent( int length ) {
+    byte[] result = new byte[ length ];
+    for( int i = 0; i < length; i++ ) {
+      result[ i ] = ( byte )( i * 31 );
+    }
+    return result;
+  }
+  
+  private static String toHex( byte value ) {
+    return String.format( "0x%02x", Integer.valueOf( value & 0xff ) );
+  }
+  
+  // returns at most 100 bytes per read like a slow network stream
+  private static class TrickleInputStream extends ByteArrayInputStream {
+    
+    TrickleInputStream( byte[] content ) {
+      super( content );
+    }
+    
+    @Override
+    public synchronized int read( byte[] buffer, int offset, int length ) {
+      return super.read( buffer, offset, Math.min( 100, length ) );
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class JsonPointerReader_Test {
+  
+  @Test
+  public void testReadsString() throws IOException {
+    Map<String, String> values = read( "{\"a\":\"text\"}", "/a" );
+    
+    assertEquals( "text", values.get( "/a" ) );
+  }
+  
+  @Test
+  public void testUnescapesString() throws IOException {
+    Map<String, String> values = read( "{\"a\":\"\\\"q\\\" \\u00e4\\n\"}", "/a" );
+    
+    assertEquals( "\"q\" \u00e4\n", values.get( "/a" ) );
+  }
+  
+  @Test
+  public void testReadsLiterals() throws IOException {
+    Map<String, String> values = read( "{\"n\":-1.5e3,\"t\":true,\"z\":null}", "/n", "/t", "/z" );
+    
+    assertEquals( "-1.5e3", values.get( "/n" ) );
+    assertEquals( "true", values.get( "/t" ) );
+    assertTrue( values.containsKey( "/z" ) );
+    assertNull( values.get( "/z" ) );
+  }
+  
+  @Test
+  public void testReadsArrayElement() throws IOException {
+    Map<String, String> values = read( "[1, [2, 3], {\"a\": [4, 5]}]", "/1/0", "/2/a/1" );
+    
+    assertEquals( "2", values.get( "/1/0" ) );
+    assertEquals( "5", values.get( "/2/a/1" ) );
+  }
+  
+  @Test
+  public void testReadsContainerAsJson() throws IOException {
+    Map<String, String> values = read( "{\"a\": {\"b\": [1, \"}\"]}, \"c\": 2}", "/a", "/a/b/1" );
+    
+    assertEquals( "{\"b\": [1, \"}\"]}", values.get( "/a" ) );
+    assertEquals( "}", values.get( "/a/b/1" ) );
+  }
+  
+  @Test
+  public void testReadsDocument() throws IOException {
+    Map<String, String> values = read( " [1] ", "" );
+    
+    assertEquals( "[1]", values.get( "" ) );
+  }
+  
+  @Test
+  public void testResolvesEscapedKeys() throws IOException {
+    Map<String, String> values = read( "{\"a/b\":1,\"m~n\":2}", "/a~1b", "/m~0n" );
+    
+    assertEquals( "1", values.get( "/a~1b" ) );
+    assertEquals( "2", values.get( "/m~0n" ) );
+  }
+  
+  @Test
+  public void testSkipsOtherMembers() throws IOException {
+    Map<String, String> values = read( "{\"x\":{\"a\":1},\"a\":2}", "/a" );
+    
+    assertEquals( "2", values.get( "/a" ) );
+  }
+  
+  @Test
+  public void testOmitsMissingPointer() throws IOException {
+    Map<String, String> values = read( "{\"a\":1}", "/b", "/a/0" );
+    
+    assertFalse( values.containsKey( "/b" ) );
+    assertFalse( values.containsKey( "/a/0" ) );
+  }
+  
+  @Test
+  public void testStopsReadingWhenResolved() throws IOException {
+    // the document is broken after the first element, it must not be read that far
+    Map<String, String> values = read( "{\"items\":[{\"id\":1},{\"id\": broken", "/items/0/id" );
+    
+    assertEquals( "1", values.get( "/items/0/id" ) );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsForInvalidJson() throws IOException {
+    read( "{\"a\":1,\"b\":tru}", "/c" );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsForTruncatedJson() throws IOException {
+    read( "{\"a\":\"text", "/a" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsForInvalidPointer() throws IOException {
+    read( "{}", "a" );
+  }
+  
+  private static Map<String, String> read( String json, String... pointers ) throws IOException {
+    return JsonPointerReader.read( new StringReader( json ), Arrays.asList( pointers ) );
+  }
+}
@@ -11,11 +11,16 @@
 package com.eclipsesource.restfuse.internal.poll;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -97,4 +102,58 @@ public class PollStateImpl_Test {
     
     assertTrue( state.wasAborted() );
   }
+  
+  @Test
+  public void testIsUnchanged() {
+    state.addResponse( createResponse( 200, null, null ) );
+    state.addResponse( createResponse( 304, null, null ) );
+    
+    assertFalse( state.isUnchanged( 1 ) );
+    assertTrue( state.isUnchanged( 2 ) );
+  }
+  
+  @Test
+  public void testConditionalHeadersWithoutResponse() {
+    assertTrue( state.getConditionalHeaders().isEmpty() );
+  }
+  
+  @Test
+  public void testConditionalHeadersUseValidators() {
+    state.addResponse( createResponse( 200, "\"v1\"", "Sat, 29 Oct 1994 19:43:31 GMT" ) );
+    
+    Map<String, String> headers = state.getConditionalHeaders();
+    
+    assertEquals( "\"v1\"", headers.get( "If-None-Match" ) );
+    assertEquals( "Sat, 29 Oct 1994 19:43:31 GMT", headers.get( "If-Modified-Since" ) );
+  }
+  
+  @Test
+  public void testConditionalHeadersKeepValidatorsOfChangedResponse() {
+    state.addResponse( createResponse( 200, "\"v1\"", null ) );
+    state.addResponse( createResponse( 304, null, null ) );
+    
+    assertEquals( "\"v1\"", state.getConditionalHeaders().get( "If-None-Match" ) );
+  }
+  
+  @Test
+  public void testConditionalHeadersDropMissingValidators() {
+    state.addResponse( createResponse( 200, "\"v1\"", null ) );
+    state.addResponse( createResponse( 200, null, null ) );
+    
+    assertTrue( state.getConditionalHeaders().isEmpty() );
+  }
+  
+  private static Response createResponse( int status, String entityTag, String lastModified ) {
+    Response result = mock( Response.class );
+    when( result.getStatus() ).thenReturn( status );
+    Map<String, List<String>> headers = new HashMap<String, List<String>>();
+    if( entityTag != null ) {
+      headers.put( "ETag", Arrays.asList( entityTag ) );
+    }
+    if( lastModified != null ) {
+      headers.put( "last-modified", Arrays.asList( lastModified ) );
+    }
+    when( result.getHeaders() ).thenReturn( headers );
+    return result;
+  }
 }
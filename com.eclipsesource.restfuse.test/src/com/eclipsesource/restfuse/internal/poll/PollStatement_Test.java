@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.poll;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+
+import com.eclipsesource.restfuse.PollState;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Poll;
+import com.eclipsesource.restfuse.internal.HttpTestStatement;
+
+
+public class PollStatement_Test {
+  
+  private HttpTestStatement base;
+  private Statement statement;
+  @Captor
+  private ArgumentCaptor<Map<String, String>> sentHeaders;
+  
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks( this );
+    base = mock( HttpTestStatement.class );
+    statement = mock( Statement.class );
+  }
+  
+  @Test
+  public void testEvaluatesEveryResponse() throws Throwable {
+    Response changed = createResponse( 200, "\"v1\"" );
+    when( base.sendRequest() ).thenReturn( changed );
+    
+    createStatement( "poll" ).evaluate();
+    
+    verify( statement, times( 3 ) ).evaluate();
+    verify( base, never() ).sendRequestWithHeaders( anyMapOf( String.class, String.class ) );
+  }
+  
+  @Test
+  public void testSendsConditionalRequests() throws Throwable {
+    Response changed = createResponse( 200, "\"v1\"" );
+    Response unchanged = createResponse( 304, null );
+    when( base.sendRequestWithHeaders( anyMapOf( String.class, String.class ) ) )
+      .thenReturn( changed, unchanged, unchanged );
+    createStatement( "conditionalPoll" ).evaluate();
+    
+    verify( base, times( 3 ) ).sendRequestWithHeaders( sentHeaders.capture() );
+    List<Map<String, String>> sent = sentHeaders.getAllValues();
+    assertTrue( sent.get( 0 ).isEmpty() );
+    assertEquals( "\"v1\"", sent.get( 1 ).get( "If-None-Match" ) );
+    assertEquals( "\"v1\"", sent.get( 2 ).get( "If-None-Match" ) );
+  }
+  
+  @Test
+  public void testEvaluatesOnlyChangedResponses() throws Throwable {
+    Response changed = createResponse( 200, "\"v1\"" );
+    Response unchanged = createResponse( 304, null );
+    Response changedAgain = createResponse( 200, "\"v2\"" );
+    when( base.sendRequestWithHeaders( anyMapOf( String.class, String.class ) ) )
+      .thenReturn( changed, unchanged, changedAgain );
+    
+    createStatement( "conditionalPoll" ).evaluate();
+    
+    verify( statement, times( 2 ) ).evaluate();
+    verify( base, never() ).tryInjectResponse( unchanged );
+  }
+  
+  @Test
+  public void testRecordsUnchangedResponses() throws Throwable {
+    PollStateHolder target = new PollStateHolder();
+    Response changed = createResponse( 200, "\"v1\"" );
+    Response unchanged = createResponse( 304, null );
+    when( base.sendRequestWithHeaders( anyMapOf( String.class, String.class ) ) )
+      .thenReturn( changed, unchanged );
+    
+    new PollStatement( statement, base, createDescription( "conditionalPoll" ), target ).evaluate();
+    
+    assertEquals( 3, target.pollState.getTimes() );
+    assertFalse( target.pollState.isUnchanged( 1 ) );
+    assertTrue( target.pollState.isUnchanged( 2 ) );
+    assertTrue( target.pollState.isUnchanged( 3 ) );
+  }
+  
+  @Poll( times = 3, interval = 0 )
+  public void poll() {
+  }
+  
+  @Poll( times = 3, interval = 0, conditional = true )
+  public void conditionalPoll() {
+  }
+  
+  private PollStatement createStatement( String method ) throws Exception {
+    return new PollStatement( statement, base, createDescription( method ), this );
+  }
+  
+  private Description createDescription( String method ) throws Exception {
+    Poll poll = getClass().getMethod( method ).getAnnotation( Poll.class );
+    return Description.createTestDescription( getClass(), method, poll );
+  }
+  
+  private static Response createResponse( int status, String entityTag ) {
+    Response result = mock( Response.class );
+    when( result.getStatus() ).thenReturn( status );
+    Map<String, List<String>> headers = Collections.emptyMap();
+    if( entityTag != null ) {
+      headers = Collections.singletonMap( "ETag", Arrays.asList( entityTag ) );
+    }
+    when( result.getHeaders() ).thenReturn( headers );
+    return result;
+  }
+  
+  private static class PollStateHolder {
+    
+    @Context
+    private PollState pollState;
+  }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.SocketTimeoutException;
+
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.StreamEvent;
+
+
+public class EventStreamReader_Test {
+  
+  @Test
+  public void testReadsLines() throws IOException {
+    EventStreamReader reader = createReader( "{\"a\":1}\n\n{\"a\":2}\n", false );
+    
+    assertEquals( "{\"a\":1}", reader.next().getData() );
+    assertEquals( "{\"a\":2}", reader.next().getData() );
+    assertNull( reader.next() );
+  }
+  
+  @Test
+  public void testReadsServerSentEvent() throws IOException {
+    EventStreamReader reader = createReader( "event: progress\nid: 1\ndata: 50\n\n", true );
+    
+    StreamEvent event = reader.next();
+    
+    assertEquals( "progress", event.getName() );
+    assertEquals( "1", event.getId() );
+    assertEquals( "50", event.getData() );
+  }
+  
+  @Test
+  public void testJoinsDataLines() throws IOException {
+    EventStreamReader reader = createReader( "data: first\ndata:second\n\n", true );
+    
+    assertEquals( "first\nsecond", reader.next().getData() );
+  }
+  
+  @Test
+  public void testIgnoresComments() throws IOException {
+    EventStreamReader reader = createReader( ": keep alive\n\ndata: value\n\n", true );
+    
+    StreamEvent event = reader.next();
+    
+    assertNull( event.getName() );
+    assertEquals( "value", event.getData() );
+  }
+  
+  @Test
+  public void testKeepsLastEventId() throws IOException {
+    EventStreamReader reader = createReader( "id: 7\ndata: a\n\ndata: b\n\n", true );
+    reader.next();
+    
+    StreamEvent event = reader.next();
+    
+    assertEquals( "7", event.getId() );
+    assertNull( event.getName() );
+  }
+  
+  @Test
+  public void testDiscardsIncompleteEvent() throws IOException {
+    EventStreamReader reader = createReader( "data: a\n\ndata: b\n", true );
+    reader.next();
+    
+    assertNull( reader.next() );
+  }
+  
+  @Test
+  public void testHasTimedOut() throws IOException {
+    Reader idle = new Reader() {
+      @Override
+      public int read( char[] buffer, int offset, int length ) throws IOException {
+        throw new SocketTimeoutException();
+      }
+      @Override
+      public void close() {
+      }
+    };
+    EventStreamReader reader = new EventStreamReader( new BufferedReader( idle ), true, 0 );
+    
+    assertNull( reader.next() );
+    assertTrue( reader.hasTimedOut() );
+  }
+  
+  @Test
+  public void testHasNotTimedOutAtEnd() throws IOException {
+    EventStreamReader reader = createReader( "", true );
+    
+    assertNull( reader.next() );
+    assertFalse( reader.hasTimedOut() );
+  }
+  
+  @Test
+  public void testIsServerSentEvents() {
+    assertTrue( EventStreamReader.isServerSentEvents( "text/event-stream;charset=UTF-8" ) );
+    assertFalse( EventStreamReader.isServerSentEvents( "application/x-ndjson" ) );
+    assertFalse( EventStreamReader.isServerSentEvents( null ) );
+  }
+  
+  private static EventStreamReader createReader( String body, boolean serverSentEvents ) {
+    BufferedReader reader = new BufferedReader( new StringReader( body ) );
+    return new EventStreamReader( reader, serverSentEvents, System.nanoTime() );
+  }
+}
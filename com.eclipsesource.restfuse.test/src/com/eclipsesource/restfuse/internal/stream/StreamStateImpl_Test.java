@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.LatencyDistribution;
+import com.eclipsesource.restfuse.StreamEvent;
+
+
+public class StreamStateImpl_Test {
+  
+  private StreamStateImpl state;
+  
+  @Before
+  public void setUp() {
+    state = new StreamStateImpl();
+  }
+  
+  @Test
+  public void testGetEvent() {
+    StreamEvent event = new StreamEvent( null, null, "a", 10 );
+    state.addEvent( new StreamEvent( null, null, "b", 5 ) );
+    state.addEvent( event );
+    
+    assertEquals( 2, state.getCount() );
+    assertSame( event, state.getEvent( 2 ) );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testGetNonExistingEvent() {
+    state.addEvent( new StreamEvent( null, null, "a", 10 ) );
+    
+    state.getEvent( 2 );
+  }
+  
+  @Test
+  public void testGetIntervals() {
+    state.addEvent( new StreamEvent( null, null, "a", 100 ) );
+    state.addEvent( new StreamEvent( null, null, "b", 150 ) );
+    state.addEvent( new StreamEvent( null, null, "c", 350 ) );
+    
+    LatencyDistribution intervals = state.getIntervals();
+    
+    assertEquals( 3, intervals.getCount() );
+    assertEquals( 50, intervals.getMin() );
+    assertEquals( 200, intervals.getMax() );
+  }
+  
+  @Test
+  public void testAbort() {
+    state.abort();
+    
+    assertTrue( state.wasAborted() );
+  }
+}
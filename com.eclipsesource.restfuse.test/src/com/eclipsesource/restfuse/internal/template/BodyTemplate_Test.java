@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class BodyTemplate_Test {
+  
+  private Map<String, Object> values;
+
+  @Before
+  public void setUp() {
+    values = new HashMap<String, Object>();
+    values.put( "id", Integer.valueOf( 42 ) );
+    values.put( "name", "Anvil ü" );
+  }
+  
+  @Test
+  public void testReplacesPlaceholders() throws IOException {
+    BodyTemplate template = BodyTemplate.compile( "id={id}&name={name}" );
+    
+    assertEquals( "id=42&name=Anvil ü", render( template ) );
+  }
+  
+  @Test
+  public void testKeepsUnknownPlaceholders() throws IOException {
+    BodyTemplate template = BodyTemplate.compile( "{unknown} {id}" );
+    
+    assertEquals( "{unknown} 42", render( template ) );
+  }
+  
+  @Test
+  public void testKeepsJson() throws IOException {
+    String json = "{\"a\":{\"b\":[1,2]}, \"c\": \"{ id }\", \"d\": {}}";
+    BodyTemplate template = BodyTemplate.compile( json );
+    
+    assertEquals( json, render( template ) );
+  }
+  
+  @Test
+  public void testKeepsNestedBraces() throws IOException {
+    BodyTemplate template = BodyTemplate.compile( "{{id}}{" );
+    
+    assertEquals( "{42}{", render( template ) );
+  }
+  
+  @Test
+  public void testInsertsBytes() throws IOException {
+    values.put( "bytes", "raw".getBytes( "UTF-8" ) );
+    BodyTemplate template = BodyTemplate.compile( "{bytes}" );
+    
+    assertEquals( "raw", render( template ) );
+  }
+  
+  @Test
+  public void testInsertsStringValueOfObjects() throws IOException {
+    values.put( "list", Arrays.asList( "a", "b" ) );
+    BodyTemplate template = BodyTemplate.compile( "{list}" );
+    
+    assertEquals( "[a, b]", render( template ) );
+    assertEquals( 6, template.getLength( values ) );
+  }
+  
+  @Test
+  public void testComputesRenderedLength() throws IOException {
+    BodyTemplate template = BodyTemplate.compile( "name={name}, {unknown}" );
+    
+    assertEquals( render( template ).getBytes( "UTF-8" ).length, template.getLength( values ) );
+  }
+  
+  @Test
+  public void testRendersFile() throws IOException {
+    BodyTemplate template = BodyTemplate.forFile( getClass(), "template.json" );
+    
+    String expected = "{\n  \"id\": \"42\",\n  \"name\": \"Anvil ü\",\n" 
+                      + "  \"tags\": {\"unknown\": \"{missing}\"}\n}\n";
+    assertEquals( expected, render( template ) );
+    assertEquals( expected.getBytes( "UTF-8" ).length, template.getLength( values ) );
+  }
+  
+  @Test
+  public void testRendersByteWise() throws IOException {
+    BodyTemplate template = BodyTemplate.forFile( getClass(), "template.json" );
+    InputStream stream = template.open( values );
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    
+    int read = stream.read();
+    while( read != -1 ) {
+      output.write( read );
+      read = stream.read();
+    }
+    
+    assertEquals( render( template ), output.toString( "UTF-8" ) );
+  }
+  
+  @Test
+  public void testCachesTemplates() {
+    assertSame( BodyTemplate.forContent( "{id}" ), BodyTemplate.forContent( "{id}" ) );
+    assertSame( BodyTemplate.forFile( getClass(), "template.json" ), 
+                BodyTemplate.forFile( getClass(), "template.json" ) );
+  }
+  
+  @Test
+  public void testBoundsCache() {
+    for( int i = 0; i < BodyTemplate.MAX_CACHED + 10; i++ ) {
+      BodyTemplate.forContent( "{id}" + i );
+    }
+    
+    assertEquals( BodyTemplate.MAX_CACHED, BodyTemplate.getCachedCount() );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsWithMissingFile() {
+    BodyTemplate.forFile( getClass(), "missing.json" );
+  }
+  
+  private String render( BodyTemplate template ) throws IOException {
+    InputStream stream = template.open( values );
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 3 ];
+    int read = stream.read( buffer );
+    while( read != -1 ) {
+      output.write( buffer, 0, read );
+      read = stream.read( buffer );
+    }
+    stream.close();
+    return output.toString( "UTF-8" );
+  }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AdmissionPolicy;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+public class AdmissionGate_Test {
+  
+  @Test
+  public void testLimitsRate() {
+    AdmissionGate gate = new AdmissionGate( AdmissionPolicy.rate( 20 ) );
+    long start = System.nanoTime();
+    
+    for( int i = 0; i < 5; i++ ) {
+      gate.acquire();
+      gate.release();
+    }
+    
+    long elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    assertTrue( elapsed >= 190 );
+    assertEquals( 5, gate.getAdmitted() );
+    assertEquals( 0, gate.getInFlight() );
+    assertTrue( gate.getQueueWaits().getMax() >= 40 );
+  }
+  
+  @Test
+  public void testAllowsBurst() {
+    AdmissionGate gate = new AdmissionGate( AdmissionPolicy.rate( 1 ).withBurst( 5 ) );
+    long start = System.nanoTime();
+    
+    for( int i = 0; i < 5; i++ ) {
+      gate.acquire();
+      gate.release();
+    }
+    
+    assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) < 500 );
+  }
+  
+  @Test
+  public void testLimitsRequestsInFlight() throws InterruptedException {
+    final AdmissionGate gate = new AdmissionGate( AdmissionPolicy.maxInFlight( 1 ) );
+    final CountDownLatch admitted = new CountDownLatch( 1 );
+    gate.acquire();
+    Thread waiting = new Thread() {
+      @Override
+      public void run() {
+        gate.acquire();
+        admitted.countDown();
+        gate.release();
+      }
+    };
+    waiting.start();
+    
+    assertFalse( admitted.await( 200, TimeUnit.MILLISECONDS ) );
+    assertEquals( 1, gate.getQueued() );
+    assertEquals( 1, gate.getInFlight() );
+    gate.release();
+    assertTrue( admitted.await( 5, TimeUnit.SECONDS ) );
+    waiting.join();
+    assertEquals( 2, gate.getAdmitted() );
+    assertTrue( gate.getQueueWaits().getMax() >= 150 );
+  }
+  
+  @Test
+  public void testBoundsQueueWaits() {
+    AdmissionGate gate = new AdmissionGate( AdmissionPolicy.maxInFlight( 1 ) );
+    
+    for( int i = 0; i < LatencyRecorder.CAPACITY * 3; i++ ) {
+      gate.acquire();
+      gate.release();
+    }
+    
+    assertEquals( LatencyRecorder.CAPACITY * 3, gate.getAdmitted() );
+    assertEquals( LatencyRecorder.CAPACITY, gate.getQueueWaits().getCount() );
+  }
+  
+  @Test
+  public void testSharesGatesByHostAndPolicy() {
+    AdmissionPolicy policy = AdmissionPolicy.maxInFlight( 3 );
+    
+    AdmissionGate gate = AdmissionGate.forHost( "localhost:10046", policy );
+    
+    assertTrue( gate == AdmissionGate.forHost( "localhost:10046", AdmissionPolicy.maxInFlight( 3 ) ) );
+    assertTrue( gate != AdmissionGate.forHost( "localhost:10047", policy ) );
+    assertTrue( gate != AdmissionGate.forHost( "localhost:10046", AdmissionPolicy.maxInFlight( 4 ) ) );
+  }
+  
+  @Test
+  public void testTransportReleasesAfterFailure() {
+    AdmissionPolicy policy = AdmissionPolicy.maxInFlight( 1 );
+    Transport failing = new Transport() {
+      @Override
+      public void start() {
+      }
+      @Override
+      public Response send( PreparedRequest request ) {
+        throw new IllegalStateException( "failed" );
+      }
+      @Override
+      public StreamedResponse open( PreparedRequest request ) {
+        throw new IllegalStateException( "failed" );
+      }
+      @Override
+      public void stop() {
+      }
+    };
+    AdmissionTransport transport = new AdmissionTransport( failing, policy );
+    PreparedRequest request = PreparedRequest.prepare( Method.GET, createRequest() );
+    
+    for( int i = 0; i < 2; i++ ) {
+      try {
+        transport.send( request );
+      } catch( IllegalStateException expected ) {
+      }
+    }
+    
+    AdmissionGate gate = AdmissionGate.forHost( "localhost:10048", policy );
+    assertEquals( 2, gate.getAdmitted() );
+    assertEquals( 0, gate.getInFlight() );
+  }
+  
+  private InternalRequest createRequest() {
+    return new InternalRequest( new RequestContext( this, "http://localhost:10048/test" ) );
+  }
+}
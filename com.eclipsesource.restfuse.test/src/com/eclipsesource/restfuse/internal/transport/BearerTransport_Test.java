@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.DefaultCallbackResource;
+import com.eclipsesource.restfuse.MediaType;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.Request;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.StubServer;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+
+
+public class BearerTransport_Test {
+  
+  private static final String URL = "http://localhost:10051";
+  
+  private final TokenResource tokens = new TokenResource();
+  private final ApiResource api = new ApiResource();
+  
+  @Rule
+  public StubServer stubs = new StubServer( 10051 )
+    .stub( "/token", tokens )
+    .stub( "/api", api );
+  
+  private static class TokenResource extends DefaultCallbackResource {
+    
+    // tokens are numbered per client, refreshes of earlier tests must not shift them
+    final ConcurrentMap<String, AtomicInteger> issued = new ConcurrentHashMap<String, AtomicInteger>();
+    volatile int expiresIn = 3600;
+    volatile boolean failing;
+    
+    @Override
+    public Response post( Request request ) {
+      Response result;
+      if( failing ) {
+        result = new ResponseImpl( null, 500, MediaType.TEXT_PLAIN.getMimeType(), null, "down" );
+      } else {
+        assertEquals( "grant_type=client_credentials", request.getBody() );
+        String client = request.getHeaders().get( "Authorization" ).get( 0 );
+        assertTrue( client.startsWith( "Basic " ) );
+        issued.putIfAbsent( client, new AtomicInteger() );
+        String body = "{\"access_token\":\"token" + issued.get( client ).incrementAndGet() + "\","
+                      + "\"token_type\":\"Bearer\",\"expires_in\":" + expiresIn + "}";
+        result = new ResponseImpl( null, 200, MediaType.APPLICATION_JSON.getMimeType(), null, body );
+      }
+      return result;
+    }
+  }
+  
+  private static class ApiResource extends DefaultCallbackResource {
+    
+    final List<String> authorizations = new CopyOnWriteArrayList<String>();
+    volatile String rejected;
+    
+    @Override
+    public Response get( Request request ) {
+      String authorization = request.getHeaders().get( "Authorization" ).get( 0 );
+      authorizations.add( authorization );
+      int status = authorization.equals( "Bearer " + rejected ) ? 401 : 200;
+      return new ResponseImpl( null, status, MediaType.TEXT_PLAIN.getMimeType(), null, "ok" );
+    }
+  }
+  
+  @Test
+  public void testAddsToken() {
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    
+    Response response = transport.send( createRequest( "adds" ) );
+    
+    assertEquals( 200, response.getStatus() );
+    assertEquals( "Bearer token1", api.authorizations.get( 0 ) );
+  }
+  
+  @Test
+  public void testSharesTokenAcrossRequests() {
+    for( int i = 0; i < 3; i++ ) {
+      new BearerTransport( new HttpTransport() ).send( createRequest( "shares" ) );
+    }
+    
+    assertEquals( 1, getCache( "shares" ).getFetches() );
+    assertEquals( "Bearer token1", api.authorizations.get( 2 ) );
+  }
+  
+  @Test
+  public void testRefreshesTokenAheadOfExpiry() throws InterruptedException {
+    tokens.expiresIn = 1;
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    transport.send( createRequest( "refreshes" ) );
+    
+    Thread.sleep( 900 );
+    
+    assertEquals( 2, getCache( "refreshes" ).getFetches() );
+    transport.send( createRequest( "refreshes" ) );
+    assertEquals( 2, getCache( "refreshes" ).getFetches() );
+    assertEquals( "Bearer token2", api.authorizations.get( 1 ) );
+  }
+  
+  @Test
+  public void testDoesNotRefreshUnusedToken() throws InterruptedException {
+    tokens.expiresIn = 1;
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    transport.send( createRequest( "unused" ) );
+    Thread.sleep( 1700 );
+    
+    assertEquals( 2, getCache( "unused" ).getFetches() );
+  }
+  
+  @Test
+  public void testFetchesNewTokenWhenRejected() {
+    api.rejected = "token1";
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    
+    Response response = transport.send( createRequest( "rejected" ) );
+    
+    assertEquals( 200, response.getStatus() );
+    assertEquals( "Bearer token2", api.authorizations.get( 1 ) );
+  }
+  
+  @Test
+  public void testRefreshesOnlyReplacingToken() throws InterruptedException {
+    tokens.expiresIn = 1;
+    api.rejected = "token1";
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    transport.send( createRequest( "replaced" ) );
+    
+    Thread.sleep( 900 );
+    
+    assertEquals( 3, getCache( "replaced" ).getFetches() );
+  }
+  
+  @Test
+  public void testFailsWhenTokenEndpointFails() {
+    tokens.failing = true;
+    BearerTransport transport = new BearerTransport( new HttpTransport() );
+    
+    try {
+      transport.send( createRequest( "fails" ) );
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertTrue( expected.getMessage().contains( "500" ) );
+    }
+    assertTrue( api.authorizations.isEmpty() );
+  }
+  
+  private static TokenCache getCache( String clientId ) {
+    return TokenCache.forClient( URL + "/token", clientId, "secret" );
+  }
+  
+  private static PreparedRequest createRequest( String clientId ) {
+    InternalRequest request = new InternalRequest( new RequestContext( null, URL + "/api" ) );
+    AuthenticationInfo authentication 
+      = new AuthenticationInfo( AuthenticationType.BEARER, clientId, "secret", URL + "/token" );
+    request.addAuthenticationInfo( authentication );
+    return PreparedRequest.prepare( Method.GET, request );
+  }
+}
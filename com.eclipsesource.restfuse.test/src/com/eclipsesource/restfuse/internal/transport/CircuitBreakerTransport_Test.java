@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+public class CircuitBreakerTransport_Test {
+  
+  @Test
+  public void testOpensAfterConsecutiveConnectionFailures() {
+    FakeTransport delegate = new FakeTransport();
+    delegate.failure = new HttpRequestException( new IOException( "Connection refused" ) );
+    CircuitBreakerTransport transport = new CircuitBreakerTransport( delegate, "breaker1", 2, null );
+    
+    sendFailing( transport );
+    sendFailing( transport );
+    
+    try {
+      transport.send( createRequest( "http://breaker1/test" ) );
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertTrue( expected.getMessage().contains( "breaker1" ) );
+      assertTrue( expected.getMessage().contains( "Connection refused" ) );
+    }
+    assertEquals( 2, delegate.sent );
+  }
+  
+  @Test
+  public void testSuccessResetsFailures() {
+    FakeTransport delegate = new FakeTransport();
+    CircuitBreakerTransport transport = new CircuitBreakerTransport( delegate, "breaker2", 2, null );
+    delegate.failure = new HttpRequestException( new IOException( "Connection refused" ) );
+    sendFailing( transport );
+    delegate.failure = null;
+    
+    transport.send( createRequest( "http://breaker2/test" ) );
+    
+    CircuitBreaker breaker = CircuitBreaker.forHost( "breaker2" );
+    assertEquals( 0, breaker.getConsecutiveFailures() );
+    assertFalse( breaker.isOpen() );
+  }
+  
+  @Test
+  public void testIgnoresNonConnectionFailures() {
+    FakeTransport delegate = new FakeTransport();
+    delegate.failure = new IllegalStateException( "failed" );
+    CircuitBreakerTransport transport = new CircuitBreakerTransport( delegate, "breaker3", 1, null );
+    
+    sendFailing( transport );
+    
+    assertFalse( CircuitBreaker.forHost( "breaker3" ).isOpen() );
+  }
+  
+  @Test
+  public void testFailsStartWhenOpen() {
+    CircuitBreaker.forHost( "breaker4" ).open( new IllegalStateException( "down" ) );
+    FakeTransport delegate = new FakeTransport();
+    CircuitBreakerTransport transport = new CircuitBreakerTransport( delegate, "breaker4", 1, null );
+    
+    try {
+      transport.start();
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertEquals( "down", expected.getCause().getMessage() );
+    }
+    assertFalse( delegate.started );
+  }
+  
+  @Test
+  public void testOpensOnFailingHealthCheck() {
+    FakeTransport delegate = new FakeTransport();
+    delegate.status = 503;
+    String url = "http://breaker5/health";
+    CircuitBreakerTransport transport = new CircuitBreakerTransport( delegate, "breaker5", 0, url );
+    
+    try {
+      transport.start();
+      fail();
+    } catch( IllegalStateException expected ) {
+      assertTrue( expected.getMessage().contains( "503" ) );
+    }
+    assertTrue( CircuitBreaker.forHost( "breaker5" ).isOpen() );
+  }
+  
+  @Test
+  public void testChecksHealthOnce() {
+    FakeTransport delegate = new FakeTransport();
+    String url = "http://breaker6/health";
+    
+    new CircuitBreakerTransport( delegate, "breaker6", 0, url ).start();
+    new CircuitBreakerTransport( delegate, "breaker6", 0, url ).start();
+    
+    assertEquals( 1, delegate.sent );
+    assertEquals( url, delegate.lastRequest.getUrl().toString() );
+  }
+  
+  @Test
+  public void testSharesBreakersByHost() {
+    assertSame( CircuitBreaker.forHost( "breaker7" ), CircuitBreaker.forHost( "breaker7" ) );
+  }
+  
+  @Test
+  public void testHttpTransportUsesReadTimeout() throws IOException {
+    ServerSocket silentServer = new ServerSocket( 10049 );
+    try {
+      HttpTransport transport = new HttpTransport( 1000, 200 );
+      transport.send( createRequest( "http://localhost:10049/test" ) );
+      fail();
+    } catch( HttpRequestException expected ) {
+      assertTrue( expected.getCause() instanceof SocketTimeoutException );
+    } finally {
+      silentServer.close();
+    }
+  }
+  
+  private static void sendFailing( Transport transport ) {
+    try {
+      transport.send( createRequest( "http://localhost/test" ) );
+      fail();
+    } catch( RuntimeException expected ) {
+    }
+  }
+  
+  private static PreparedRequest createRequest( String url ) {
+    return PreparedRequest.prepare( Method.GET, new InternalRequest( new RequestContext( null, url ) ) );
+  }
+  
+  private static class FakeTransport implements Transport {
+    
+    RuntimeException failure;
+    int status = 200;
+    int sent;
+    boolean started;
+    PreparedRequest lastRequest;
+
+    @Override
+    public void start() {
+      started = true;
+    }
+
+    @Override
+    public Response send( PreparedRequest request ) {
+      sent++;
+      lastRequest = request;
+      if( failure != null ) {
+        throw failure;
+      }
+      Response response = mock( Response.class );
+      when( response.getStatus() ).thenReturn( status );
+      return response;
+    }
+
+    @Override
+    public StreamedResponse open( PreparedRequest request ) {
+      Response response = send( request );
+      return new StreamedResponse( null, response.getStatus(), null, null, null, null );
+    }
+
+    @Override
+    public void stop() {
+      started = false;
+    }
+  }
+}
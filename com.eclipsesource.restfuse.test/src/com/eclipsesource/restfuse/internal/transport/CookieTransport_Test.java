@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.CookieJar;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+public class CookieTransport_Test {
+  
+  @Test
+  public void testSendsCookiesOfPreviousResponses() {
+    RecordingTransport delegate = new RecordingTransport();
+    CookieTransport transport = new CookieTransport( delegate, new CookieJar() );
+    
+    transport.send( createRequest( new RequestContext( null, "http://localhost/login" ) ) );
+    transport.send( createRequest( new RequestContext( null, "http://localhost/data" ) ) );
+    
+    assertNull( delegate.cookies.get( 0 ) );
+    assertEquals( "session=1", delegate.cookies.get( 1 ) );
+  }
+  
+  @Test
+  public void testOpenedStreamsExchangeCookies() {
+    RecordingTransport delegate = new RecordingTransport();
+    CookieTransport transport = new CookieTransport( delegate, new CookieJar() );
+    
+    transport.open( createRequest( new RequestContext( null, "http://localhost/login" ) ) ).close();
+    transport.open( createRequest( new RequestContext( null, "http://localhost/events" ) ) ).close();
+    
+    assertEquals( "session=1", delegate.cookies.get( 1 ) );
+  }
+  
+  @Test
+  public void testKeepsExplicitCookies() {
+    RecordingTransport delegate = new RecordingTransport();
+    CookieTransport transport = new CookieTransport( delegate, new CookieJar() );
+    RequestContext context = new RequestContext( null, "http://localhost/data" );
+    context.addHeader( "Cookie", "theme=dark" );
+    
+    transport.send( createRequest( context ) );
+    transport.send( createRequest( context ) );
+    
+    assertEquals( "theme=dark; session=1", delegate.cookies.get( 1 ) );
+  }
+  
+  @Test
+  public void testExtendsExplicitCookiesOfAnyCase() {
+    RecordingTransport delegate = new RecordingTransport();
+    CookieTransport transport = new CookieTransport( delegate, new CookieJar() );
+    RequestContext context = new RequestContext( null, "http://localhost/data" );
+    context.addHeader( "cookie", "theme=dark" );
+    
+    transport.send( createRequest( context ) );
+    transport.send( createRequest( context ) );
+    
+    Map<String, String> sent = delegate.headers.get( 1 );
+    assertEquals( "theme=dark; session=1", sent.get( "cookie" ) );
+    assertFalse( sent.containsKey( "Cookie" ) );
+  }
+  
+  @Test
+  public void testAuthenticationRetrySendsCookiesOfChallenge() {
+    RecordingTransport delegate = new RecordingTransport();
+    delegate.challenges = 1;
+    Transport transport = Transports.authenticating( new CookieTransport( delegate, new CookieJar() ) );
+    InternalRequest request = new InternalRequest( new RequestContext( null, "http://cookies.test/data" ) );
+    request.addAuthenticationInfo( new AuthenticationInfo( AuthenticationType.DIGEST, "user", "pass" ) );
+    
+    Response response = transport.send( PreparedRequest.prepare( Method.GET, request ) );
+    
+    assertEquals( 200, response.getStatus() );
+    assertNull( delegate.cookies.get( 0 ) );
+    assertEquals( "session=1", delegate.cookies.get( 1 ) );
+  }
+  
+  @Test
+  public void testKeepsJarsApart() {
+    RecordingTransport delegate = new RecordingTransport();
+    CookieJar jar = new CookieJar();
+    RequestContext context = new RequestContext( null, "http://localhost/data" );
+    new CookieTransport( delegate, jar ).send( createRequest( context ) );
+    
+    new CookieTransport( delegate, new CookieJar() ).send( createRequest( context ) );
+    
+    assertNull( delegate.cookies.get( 1 ) );
+    assertEquals( 1, jar.getCookies().size() );
+  }
+  
+  private static PreparedRequest createRequest( RequestContext context ) {
+    return PreparedRequest.prepare( Method.GET, new InternalRequest( context ) );
+  }
+  
+  private static class RecordingTransport implements Transport {
+    
+    final List<String> cookies = new ArrayList<String>();
+    final List<Map<String, String>> headers = new ArrayList<Map<String, String>>();
+    int challenges;
+    
+    @Override
+    public void start() {
+    }
+    
+    @Override
+    public Response send( PreparedRequest request ) {
+      cookies.add( request.getHeaders().get( "Cookie" ) );
+      headers.add( request.getHeaders() );
+      Map<String, List<String>> responseHeaders = new HashMap<String, List<String>>();
+      responseHeaders.put( "Set-Cookie", Arrays.asList( "session=1; Path=/" ) );
+      Response response = mock( Response.class );
+      if( challenges > 0 ) {
+        challenges--;
+        responseHeaders.put( "WWW-Authenticate", Arrays.asList( "Digest realm=\"test\", nonce=\"1\"" ) );
+        when( response.getStatus() ).thenReturn( 401 );
+      } else {
+        when( response.getStatus() ).thenReturn( 200 );
+      }
+      when( response.getHeaders() ).thenReturn( responseHeaders );
+      return response;
+    }
+    
+    @Override
+    public StreamedResponse open( PreparedRequest request ) {
+      Response response = send( request );
+      return new StreamedResponse( null, 200, null, response.getHeaders(), null, null );
+    }
+    
+    @Override
+    public void stop() {
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+public class DigestChallenge_Test {
+  
+  // example of RFC 7616, section 3.9.1
+  private static final String RFC_CHALLENGE = "Digest realm=\"http-auth@example.org\", qop=\"auth, auth-int\", "
+                                              + "algorithm=%s, "
+                                              + "nonce=\"7ypf/xlj9XXwfDPEoM4URrv/xwf94BcCAzFZH4GiTo0v\", "
+                                              + "opaque=\"FQhe/qaU925kfnzjCev0ciny7QMkPqMAFRtzCUYo5tdS\"";
+  private static final String RFC_CNONCE = "f2/wE4q74E6zIJEtWaHKaf5wv/H5QzzpXusqGemxURZJ";
+  
+  @Test
+  public void testComputesMd5Response() {
+    DigestChallenge challenge = DigestChallenge.parse( String.format( RFC_CHALLENGE, "MD5" ) );
+    
+    String authorization = authorize( challenge );
+    
+    assertTrue( authorization.contains( "response=\"8ca523f5e9506fed4657c9700eebdbec\"" ) );
+  }
+  
+  @Test
+  public void testComputesSha256Response() {
+    DigestChallenge challenge = DigestChallenge.parse( String.format( RFC_CHALLENGE, "SHA-256" ) );
+    
+    String authorization = authorize( challenge );
+    
+    String expected = "753927fa0e85d155564e2e272a28d1802ca10daf4496794697cf8db5856cb6c1";
+    assertTrue( authorization.contains( "response=\"" + expected + "\"" ) );
+  }
+  
+  @Test
+  public void testAuthorizationContainsChallengeParameters() {
+    DigestChallenge challenge = DigestChallenge.parse( String.format( RFC_CHALLENGE, "MD5" ) );
+    
+    String authorization = authorize( challenge );
+    
+    assertTrue( authorization.startsWith( "Digest username=\"Mufasa\", realm=\"http-auth@example.org\"" ) );
+    assertTrue( authorization.contains( "uri=\"/dir/index.html\"" ) );
+    assertTrue( authorization.contains( "opaque=\"FQhe/qaU925kfnzjCev0ciny7QMkPqMAFRtzCUYo5tdS\"" ) );
+    assertTrue( authorization.contains( "qop=auth, nc=00000001" ) );
+  }
+  
+  @Test
+  public void testIncrementsNonceCount() {
+    DigestChallenge challenge = DigestChallenge.parse( String.format( RFC_CHALLENGE, "MD5" ) );
+    
+    challenge.authorize( "GET", "/", "user", "secret" );
+    String authorization = challenge.authorize( "GET", "/", "user", "secret" );
+    
+    assertTrue( authorization.contains( "nc=00000002" ) );
+  }
+  
+  @Test
+  public void testDefaultsToMd5WithoutQop() {
+    DigestChallenge challenge = DigestChallenge.parse( "Digest realm=\"test\", nonce=\"abc\"" );
+    
+    String authorization = challenge.authorize( "GET", "/", "user", "secret" );
+    
+    assertEquals( "MD5", challenge.getAlgorithm() );
+    assertFalse( authorization.contains( "qop" ) );
+  }
+  
+  @Test
+  public void testParsesStale() {
+    DigestChallenge challenge = DigestChallenge.parse( "Digest realm=\"a, b\", nonce=\"abc\", stale=TRUE" );
+    
+    assertTrue( challenge.isStale() );
+    assertEquals( "abc", challenge.getNonce() );
+  }
+  
+  @Test
+  public void testIgnoresOtherSchemes() {
+    assertNull( DigestChallenge.parse( "Basic realm=\"test\"" ) );
+  }
+  
+  @Test
+  public void testIgnoresUnsupportedAlgorithm() {
+    assertNull( DigestChallenge.parse( "Digest realm=\"test\", nonce=\"abc\", algorithm=SHA-512-256" ) );
+  }
+  
+  @Test
+  public void testIgnoresUnsupportedQop() {
+    assertNull( DigestChallenge.parse( "Digest realm=\"test\", nonce=\"abc\", qop=\"auth-int\"" ) );
+  }
+  
+  @Test
+  public void testPrefersSha256() {
+    DigestChallenge md5 = DigestChallenge.parse( String.format( RFC_CHALLENGE, "MD5" ) );
+    DigestChallenge sha256 = DigestChallenge.parse( String.format( RFC_CHALLENGE, "SHA-256" ) );
+    
+    assertTrue( sha256.isStrongerThan( md5 ) );
+    assertFalse( md5.isStrongerThan( sha256 ) );
+    assertTrue( md5.isStrongerThan( null ) );
+  }
+  
+  private static String authorize( DigestChallenge challenge ) {
+    return challenge.authorize( "GET", "/dir/index.html", "Mufasa", "Circle of Life", RFC_CNONCE, 1 );
+  }
+}
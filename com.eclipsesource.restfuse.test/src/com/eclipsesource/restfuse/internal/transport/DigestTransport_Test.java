@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.security.ConstraintMapping;
+import org.eclipse.jetty.security.ConstraintSecurityHandler;
+import org.eclipse.jetty.security.HashLoginService;
+import org.eclipse.jetty.security.authentication.DigestAuthenticator;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.security.Constraint;
+import org.eclipse.jetty.util.security.Credential;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+public class DigestTransport_Test {
+  
+  private static final String URL = "http://localhost:10050/protected";
+  
+  private Server server;
+  private AtomicInteger received;
+  
+  @Before
+  public void setUp() throws Exception {
+    DigestTransport.clearChallenges();
+    received = new AtomicInteger();
+    server = new Server( 10050 );
+    server.setHandler( createCountingHandler( createSecurityHandler() ) );
+    server.start();
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    server.stop();
+  }
+  
+  @Test
+  public void testAnswersChallenge() {
+    DigestTransport transport = new DigestTransport( new HttpTransport() );
+    
+    int status = transport.send( createRequest( "secret" ) ).getStatus();
+    
+    assertEquals( 200, status );
+    assertEquals( 2, received.get() );
+  }
+  
+  @Test
+  public void testReleasesRejectedResponse() {
+    final List<Response> responses = new ArrayList<Response>();
+    DigestTransport transport = new DigestTransport( new HttpTransport() {
+      @Override
+      public Response send( PreparedRequest request ) {
+        Response result = super.send( request );
+        responses.add( result );
+        return result;
+      }
+    } );
+    
+    transport.send( createRequest( "secret" ) );
+    
+    assertEquals( 2, responses.size() );
+    assertEquals( 401, responses.get( 0 ).getStatus() );
+    try {
+      responses.get( 0 ).getBody();
+      fail();
+    } catch( IllegalStateException expected ) {
+      // released
+    }
+  }
+  
+  @Test
+  public void testAuthenticatesPreemptivelyAfterFirstChallenge() {
+    DigestTransport transport = new DigestTransport( new HttpTransport() );
+    transport.send( createRequest( "secret" ) );
+    
+    for( int i = 0; i < 3; i++ ) {
+      assertEquals( 200, transport.send( createRequest( "secret" ) ).getStatus() );
+    }
+    
+    assertEquals( 5, received.get() );
+  }
+  
+  @Test
+  public void testSharesChallengesOfHost() {
+    new DigestTransport( new HttpTransport() ).send( createRequest( "secret" ) );
+    
+    new DigestTransport( new HttpTransport() ).send( createRequest( "secret" ) );
+    
+    assertEquals( 3, received.get() );
+  }
+  
+  @Test
+  public void testFailsWithWrongPassword() {
+    DigestTransport transport = new DigestTransport( new HttpTransport() );
+    
+    int status = transport.send( createRequest( "wrong" ) ).getStatus();
+    
+    assertEquals( 401, status );
+    assertEquals( 2, received.get() );
+  }
+  
+  @Test
+  public void testSendsRequestsWithoutDigestCredentialsOnce() {
+    DigestTransport transport = new DigestTransport( new HttpTransport() );
+    InternalRequest request = new InternalRequest( new RequestContext( null, URL ) );
+    
+    int status = transport.send( PreparedRequest.prepare( Method.GET, request ) ).getStatus();
+    
+    assertEquals( 401, status );
+    assertEquals( 1, received.get() );
+  }
+  
+  private static PreparedRequest createRequest( String password ) {
+    InternalRequest request = new InternalRequest( new RequestContext( null, URL ) );
+    request.addAuthenticationInfo( new AuthenticationInfo( AuthenticationType.DIGEST, "user", password ) );
+    return PreparedRequest.prepare( Method.GET, request );
+  }
+  
+  private HandlerWrapper createCountingHandler( ConstraintSecurityHandler securityHandler ) {
+    HandlerWrapper result = new HandlerWrapper() {
+      @Override
+      public void handle( String target, 
+                          Request baseRequest, 
+                          HttpServletRequest request, 
+                          HttpServletResponse response ) throws IOException, ServletException 
+      {
+        received.incrementAndGet();
+        super.handle( target, baseRequest, request, response );
+      }
+    };
+    result.setHandler( securityHandler );
+    return result;
+  }
+  
+  private static ConstraintSecurityHandler createSecurityHandler() {
+    HashLoginService loginService = new HashLoginService( "restfuse" );
+    loginService.putUser( "user", Credential.getCredential( "secret" ), new String[] { "user" } );
+    Constraint constraint = new Constraint( Constraint.__DIGEST_AUTH, "user" );
+    constraint.setAuthenticate( true );
+    ConstraintMapping mapping = new ConstraintMapping();
+    mapping.setPathSpec( "/*" );
+    mapping.setConstraint( constraint );
+    ConstraintSecurityHandler result = new ConstraintSecurityHandler();
+    result.setLoginService( loginService );
+    result.setAuthenticator( new DigestAuthenticator() );
+    result.setConstraintMappings( new ConstraintMapping[] { mapping } );
+    result.setHandler( new AbstractHandler() {
+      @Override
+      public void handle( String target, 
+                          Request baseRequest, 
+                          HttpServletRequest request, 
+                          HttpServletResponse response ) 
+      {
+        baseRequest.setHandled( true );
+        response.setStatus( HttpServletResponse.SC_OK );
+      }
+    } );
+    return result;
+  }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+public class HttpProxy_Test {
+  
+  private ServerSocket proxyServer;
+  private List<String> receivedLines;
+  private Thread proxyThread;
+  
+  @Before
+  public void setUp() throws IOException {
+    proxyServer = new ServerSocket( 10049 );
+    receivedLines = new ArrayList<String>();
+    proxyThread = new Thread() {
+      @Override
+      public void run() {
+        answerOneRequest();
+      }
+    };
+    proxyThread.start();
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    proxyServer.close();
+    proxyThread.join();
+  }
+  
+  @Test
+  public void testSendsThroughProxy() throws InterruptedException {
+    HttpTransport transport = new HttpTransport( 1000, 1000, new HttpProxy( "localhost", 10049 ) );
+    
+    Response response = transport.send( createRequest( "http://restfuse.example/test" ) );
+    
+    assertEquals( 204, response.getStatus() );
+    proxyThread.join();
+    assertEquals( "GET http://restfuse.example/test HTTP/1.1", receivedLines.get( 0 ) );
+  }
+  
+  @Test
+  public void testAuthenticatesAtProxy() throws InterruptedException {
+    HttpProxy proxy = new HttpProxy( "localhost", 10049, "user", "secret" );
+    HttpTransport transport = new HttpTransport( 1000, 1000, proxy );
+    
+    transport.send( createRequest( "http://restfuse.example/test" ) );
+    
+    proxyThread.join();
+    assertTrue( receivedLines.contains( "Proxy-Authorization: Basic dXNlcjpzZWNyZXQ=" ) );
+  }
+  
+  @Test
+  public void testDoesNotSetSystemProperties() {
+    HttpTransport transport = new HttpTransport( 1000, 1000, new HttpProxy( "localhost", 10049 ) );
+    
+    transport.send( createRequest( "http://restfuse.example/test" ) );
+    
+    assertNull( System.getProperty( "http.proxyHost" ) );
+  }
+  
+  private void answerOneRequest() {
+    try {
+      Socket socket = proxyServer.accept();
+      try {
+        BufferedReader reader 
+          = new BufferedReader( new InputStreamReader( socket.getInputStream(), "UTF-8" ) );
+        String line = reader.readLine();
+        while( line != null && line.length() > 0 ) {
+          receivedLines.add( line );
+          line = reader.readLine();
+        }
+        OutputStream output = socket.getOutputStream();
+        output.write( "HTTP/1.1 204 No Content\r\nConnection: close\r\n\r\n".getBytes( "UTF-8" ) );
+        output.flush();
+      } finally {
+        socket.close();
+      }
+    } catch( IOException closed ) {
+      // server closed without a request
+    }
+  }
+  
+  private static PreparedRequest createRequest( String url ) {
+    return PreparedRequest.prepare( Method.GET, new InternalRequest( new RequestContext( null, url ) ) );
+  }
+}
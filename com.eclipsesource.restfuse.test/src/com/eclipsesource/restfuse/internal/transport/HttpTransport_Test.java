@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+public class HttpTransport_Test {
+  
+  private static final String BODY = "an upload";
+  
+  private ServerSocket server;
+  private Thread serverThread;
+  private List<String> receivedLines;
+  private volatile boolean rejecting;
+  private volatile int receivedBodyBytes;
+  
+  @Before
+  public void setUp() throws IOException {
+    server = new ServerSocket( 10052 );
+    receivedLines = new ArrayList<String>();
+    serverThread = new Thread() {
+      @Override
+      public void run() {
+        answerOneRequest();
+      }
+    };
+    serverThread.start();
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    server.close();
+    serverThread.join();
+  }
+  
+  @Test
+  public void testSendsBodyAfterContinue() throws InterruptedException {
+    HttpTransport transport = new HttpTransport();
+    
+    Response response = transport.send( createRequest( true ) );
+    
+    serverThread.join();
+    assertEquals( 200, response.getStatus() );
+    assertTrue( receivedLines.contains( "Expect: 100-continue" ) );
+    assertEquals( BODY.length(), receivedBodyBytes );
+  }
+  
+  @Test
+  public void testDoesNotSendBodyWhenRejected() throws InterruptedException {
+    rejecting = true;
+    HttpTransport transport = new HttpTransport();
+    
+    Response response = transport.send( createRequest( true ) );
+    
+    serverThread.join();
+    assertEquals( 413, response.getStatus() );
+    assertEquals( 0, receivedBodyBytes );
+  }
+  
+  @Test
+  public void testRecordsContinueWaits() {
+    LatencyRecorder continueWaits = new LatencyRecorder();
+    HttpTransport transport = new HttpTransport( 0, 0, null, continueWaits );
+    
+    transport.send( createRequest( true ) );
+    
+    assertEquals( 1, continueWaits.getDistribution().getCount() );
+  }
+  
+  @Test
+  public void testDoesNotExpectContinueByDefault() throws InterruptedException {
+    LatencyRecorder continueWaits = new LatencyRecorder();
+    HttpTransport transport = new HttpTransport( 0, 0, null, continueWaits );
+    
+    transport.send( createRequest( false ) );
+    
+    serverThread.join();
+    assertFalse( receivedLines.contains( "Expect: 100-continue" ) );
+    assertEquals( BODY.length(), receivedBodyBytes );
+    assertEquals( 0, continueWaits.getDistribution().getCount() );
+  }
+  
+  private void answerOneRequest() {
+    try {
+      Socket socket = server.accept();
+      try {
+        InputStream input = socket.getInputStream();
+        OutputStream output = socket.getOutputStream();
+        int contentLength = readHeaders( input );
+        if( rejecting ) {
+          write( output, "HTTP/1.1 413 Request Entity Too Large\r\nContent-Length: 0\r\n"
+                         + "Connection: close\r\n\r\n" );
+          socket.setSoTimeout( 500 );
+          receivedBodyBytes = readBody( input, contentLength );
+        } else {
+          if( receivedLines.contains( "Expect: 100-continue" ) ) {
+            write( output, "HTTP/1.1 100 Continue\r\n\r\n" );
+          }
+          receivedBodyBytes = readBody( input, contentLength );
+          write( output, "HTTP/1.1 200 OK\r\nContent-Length: 0\r\nConnection: close\r\n\r\n" );
+        }
+      } finally {
+        socket.close();
+      }
+    } catch( IOException closed ) {
+      // server closed without a request
+    }
+  }
+  
+  private int readHeaders( InputStream input ) throws IOException {
+    int contentLength = 0;
+    String line = readLine( input );
+    while( line.length() > 0 ) {
+      receivedLines.add( line );
+      if( line.startsWith( "Content-Length: " ) ) {
+        contentLength = Integer.parseInt( line.substring( 16 ) );
+      }
+      line = readLine( input );
+    }
+    return contentLength;
+  }
+  
+  private static String readLine( InputStream input ) throws IOException {
+    StringBuilder result = new StringBuilder();
+    int read = input.read();
+    while( read != -1 && read != '\n' ) {
+      if( read != '\r' ) {
+        result.append( ( char )read );
+      }
+      read = input.read();
+    }
+    return result.toString();
+  }
+  
+  private static int readBody( InputStream input, int contentLength ) {
+    int result = 0;
+    try {
+      while( result < contentLength && input.read() != -1 ) {
+        result++;
+      }
+    } catch( IOException timeoutOrClosed ) {
+      // nothing more was sent
+    }
+    return result;
+  }
+  
+  private static void write( OutputStream output, String response ) throws IOException {
+    output.write( response.getBytes( "UTF-8" ) );
+    output.flush();
+  }
+  
+  private static PreparedRequest createRequest( boolean expectContinue ) {
+    InternalRequest request = new InternalRequest( new RequestContext( null, "http://localhost:10052/upload" ) );
+    request.setBody( new ByteArrayInputStream( BODY.getBytes() ) );
+    request.setExpectContinue( expectContinue );
+    return PreparedRequest.prepare( Method.POST, request );
+  }
+}
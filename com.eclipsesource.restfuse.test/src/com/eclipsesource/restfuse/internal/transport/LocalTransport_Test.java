@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/ 
+package com.eclipsesource.restfuse.internal.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.DefaultCallbackResource;
+import com.eclipsesource.restfuse.MediaType;
+import com.eclipsesource.restfuse.Request;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.Status;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.eclipsesource.restfuse.internal.callback.CallbackSerlvet;
+import com.eclipsesource.restfuse.internal.callback.CallbackStatement;
+
+
+public class LocalTransport_Test {
+  
+  private LocalTransport transport;
+  private TestResource resource;
+
+  private static class TestResource extends DefaultCallbackResource {
+    
+    private Request request;
+
+    @Override
+    public Response get( Request request ) {
+      this.request = request;
+      return super.get( request );
+    }
+    
+    @Override
+    public Response post( Request request ) {
+      this.request = request;
+      return new ResponseImpl( null, 
+                               Status.CREATED.getStatusCode(), 
+                               MediaType.TEXT_PLAIN.getMimeType(), 
+                               null, 
+                               request.getBody() );
+    }
+  }
+  
+  @Before
+  public void setUp() {
+    resource = new TestResource();
+    CallbackStatement statement = mock( CallbackStatement.class );
+    transport = new LocalTransport( new CallbackSerlvet( resource, statement ) );
+    transport.start();
+  }
+  
+  @After
+  public void tearDown() {
+    transport.stop();
+  }
+  
+  @Test
+  public void testDispatchesGet() {
+    InternalRequest request = createRequest();
+    
+    Response response = transport.send( PreparedRequest.prepare( com.eclipsesource.restfuse.Method.GET, request ) );
+    
+    assertEquals( Status.NO_CONTENT.getStatusCode(), response.getStatus() );
+    assertEquals( "http://localhost:10042/test", response.getUrl() );
+    assertNotNull( resource.request );
+    assertEquals( "test", resource.request.getHeaders().get( "test" ).get( 0 ) );
+    assertTrue( resource.request.getHeaders().containsKey( "Authorization" ) );
+  }
+  
+  @Test
+  public void testDispatchesPostWithBody() {
+    InternalRequest request = createRequest();
+    
+    Response response = transport.send( PreparedRequest.prepare( com.eclipsesource.restfuse.Method.POST, request ) );
+    
+    assertEquals( Status.CREATED.getStatusCode(), response.getStatus() );
+    assertEquals( MediaType.TEXT_PLAIN, response.getType() );
+    assertEquals( "täst", response.getBody() );
+    assertEquals( "täst", resource.request.getBody() );
+  }
+
+  private InternalRequest createRequest() {
+    InternalRequest request 
+      = new InternalRequest( new RequestContext( this, "http://localhost:10042/test" ) );
+    request.setBody( "täst" );
+    request.setContentType( MediaType.TEXT_PLAIN.getMimeType() + ";charset=UTF-8" );
+    request.addHeader( "test", "test" );
+    request.addAuthenticationInfo( new AuthenticationInfo( AuthenticationType.BASIC, "test", "test" ) );
+    return request;
+  }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+public class XmlPathReader_Test {
+  
+  private static final String FEED 
+    = "<feed xmlns='http://www.w3.org/2005/Atom' xmlns:x='urn:x'>"
+    + "<title>Feed</title>"
+    + "<entry id='1'><title>First</title><x:rank>3</x:rank></entry>"
+    + "<link href='/feed'/>"
+    + "<entry id='2'><title>Second <b>bold</b></title><![CDATA[<raw>]]></entry>"
+    + "</feed>";
+  
+  @Test
+  public void testReadsElementText() {
+    Map<String, String> values = read( FEED, "/feed/title" );
+    
+    assertEquals( "Feed", values.get( "/feed/title" ) );
+  }
+  
+  @Test
+  public void testReadsFirstMatch() {
+    Map<String, String> values = read( FEED, "/feed/entry/title" );
+    
+    assertEquals( "First", values.get( "/feed/entry/title" ) );
+  }
+  
+  @Test
+  public void testReadsPosition() {
+    Map<String, String> values = read( FEED, "/feed/entry[2]/title" );
+    
+    assertEquals( "Second bold", values.get( "/feed/entry[2]/title" ) );
+  }
+  
+  @Test
+  public void testReadsWildcardPosition() {
+    Map<String, String> values = read( FEED, "/feed/*[3]/@href" );
+    
+    assertEquals( "/feed", values.get( "/feed/*[3]/@href" ) );
+  }
+  
+  @Test
+  public void testReadsAttribute() {
+    Map<String, String> values = read( FEED, "/feed/entry[2]/@id" );
+    
+    assertEquals( "2", values.get( "/feed/entry[2]/@id" ) );
+  }
+  
+  @Test
+  public void testReadsFirstExistingAttribute() {
+    Map<String, String> values = read( "<a><b/><b c='x'/></a>", "/a/b/@c" );
+    
+    assertEquals( "x", values.get( "/a/b/@c" ) );
+  }
+  
+  @Test
+  public void testIgnoresPrefixes() {
+    Map<String, String> values = read( FEED, "/atom:feed/atom:entry/x:rank" );
+    
+    assertEquals( "3", values.get( "/atom:feed/atom:entry/x:rank" ) );
+  }
+  
+  @Test
+  public void testReadsAnywhere() {
+    Map<String, String> values = read( FEED, "//entry[2]", "//rank" );
+    
+    assertEquals( "Second bold<raw>", values.get( "//entry[2]" ) );
+    assertEquals( "3", values.get( "//rank" ) );
+  }
+  
+  @Test
+  public void testOmitsMissingPath() {
+    Map<String, String> values = read( FEED, "/feed/entry[3]", "/feed/@id" );
+    
+    assertFalse( values.containsKey( "/feed/entry[3]" ) );
+    assertFalse( values.containsKey( "/feed/@id" ) );
+  }
+  
+  @Test
+  public void testStopsReadingWhenResolved() {
+    // the document is broken after the first entry, it must not be read that far
+    Map<String, String> values = read( "<feed><entry>First</entry><broken", "/feed/entry" );
+    
+    assertEquals( "First", values.get( "/feed/entry" ) );
+  }
+  
+  @Test
+  public void testDetectsDeclaredEncoding() throws UnsupportedEncodingException {
+    String xml = "<?xml version='1.0' encoding='ISO-8859-1'?><feed><title>\u00e4</title></feed>";
+    InputStream input = new ByteArrayInputStream( xml.getBytes( "ISO-8859-1" ) );
+    
+    Map<String, String> values = XmlPathReader.read( input, null, Arrays.asList( "/feed/title" ) );
+    
+    assertEquals( "\u00e4", values.get( "/feed/title" ) );
+  }
+  
+  @Test
+  public void testReadsWithGivenEncoding() throws UnsupportedEncodingException {
+    String xml = "<feed><title>\u00e4</title></feed>";
+    InputStream input = new ByteArrayInputStream( xml.getBytes( "UTF-16" ) );
+    
+    Map<String, String> values = XmlPathReader.read( input, "UTF-16", Arrays.asList( "/feed/title" ) );
+    
+    assertEquals( "\u00e4", values.get( "/feed/title" ) );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testFailsForInvalidXml() {
+    read( "<feed><entry></feed>", "/feed/title" );
+  }
+  
+  @Test( expected = IllegalStateException.class )
+  public void testDoesNotResolveExternalEntities() {
+    read( "<!DOCTYPE a [<!ENTITY e SYSTEM 'file:///etc/passwd'>]><a>&e;</a>", "/a" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsForRelativePath() {
+    read( FEED, "feed/title" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsForUnsupportedPredicate() {
+    read( FEED, "/feed/entry[@id='1']" );
+  }
+  
+  @Test( expected = IllegalArgumentException.class )
+  public void testFailsForAttributeNotLast() {
+    read( FEED, "/feed/@id/title" );
+  }
+  
+  private static Map<String, String> read( String xml, String... paths ) {
+    return XmlPathReader.read( new StringReader( xml ), Arrays.asList( paths ) );
+  }
+}
@@ -14,24 +14,52 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.eclipsesource.restfuse.AdmissionPolicy_Test;
 import com.eclipsesource.restfuse.Assert_Test;
 import com.eclipsesource.restfuse.CallbackResource_Test;
+import com.eclipsesource.restfuse.Dataset_Test;
+import com.eclipsesource.restfuse.CookieJar_Test;
 import com.eclipsesource.restfuse.DefaultCallbackResource_Test;
 import com.eclipsesource.restfuse.Destination_Test;
 import com.eclipsesource.restfuse.HttpJUnitRunner_Test;
+import com.eclipsesource.restfuse.LatencyDistribution_Test;
 import com.eclipsesource.restfuse.Poll_Test;
 import com.eclipsesource.restfuse.Status_Test;
+import com.eclipsesource.restfuse.Stream_Test;
+import com.eclipsesource.restfuse.StubServer_Test;
 import com.eclipsesource.restfuse.internal.AuthenticationInfo_Test;
+import com.eclipsesource.restfuse.internal.BodyBuffer_Test;
+import com.eclipsesource.restfuse.internal.BufferPool_Test;
 import com.eclipsesource.restfuse.internal.Response_Test;
 import com.eclipsesource.restfuse.internal.HttpTestStatementOrder_Test;
 import com.eclipsesource.restfuse.internal.HttpTestStatement_Test;
 import com.eclipsesource.restfuse.internal.InternalRequest_Test;
+import com.eclipsesource.restfuse.internal.PreparedRequest_Test;
 import com.eclipsesource.restfuse.internal.RequestConfiguration_Test;
 import com.eclipsesource.restfuse.internal.RequestContextConfiguration_Test;
 import com.eclipsesource.restfuse.internal.RequestImpl_Test;
+import com.eclipsesource.restfuse.internal.RequestProcessors_Test;
 import com.eclipsesource.restfuse.internal.callback.CallbackServer_Test;
 import com.eclipsesource.restfuse.internal.callback.CallbackServlet_Test;
+import com.eclipsesource.restfuse.internal.dataset.DatasetReader_Test;
+import com.eclipsesource.restfuse.internal.dataset.DatasetStatement_Test;
+import com.eclipsesource.restfuse.internal.golden.GoldenFile_Test;
+import com.eclipsesource.restfuse.internal.json.JsonPointerReader_Test;
 import com.eclipsesource.restfuse.internal.poll.PollStateImpl_Test;
+import com.eclipsesource.restfuse.internal.poll.PollStatement_Test;
+import com.eclipsesource.restfuse.internal.stream.EventStreamReader_Test;
+import com.eclipsesource.restfuse.internal.stream.StreamStateImpl_Test;
+import com.eclipsesource.restfuse.internal.template.BodyTemplate_Test;
+import com.eclipsesource.restfuse.internal.transport.AdmissionGate_Test;
+import com.eclipsesource.restfuse.internal.transport.BearerTransport_Test;
+import com.eclipsesource.restfuse.internal.transport.CircuitBreakerTransport_Test;
+import com.eclipsesource.restfuse.internal.transport.CookieTransport_Test;
+import com.eclipsesource.restfuse.internal.transport.DigestChallenge_Test;
+import com.eclipsesource.restfuse.internal.transport.DigestTransport_Test;
+import com.eclipsesource.restfuse.internal.transport.HttpProxy_Test;
+import com.eclipsesource.restfuse.internal.transport.HttpTransport_Test;
+import com.eclipsesource.restfuse.internal.transport.LocalTransport_Test;
+import com.eclipsesource.restfuse.internal.xml.XmlPathReader_Test;
 
 
 @RunWith( Suite.class ) 
@@ -41,6 +69,7 @@ import com.eclipsesource.restfuse.internal.poll.PollStateImpl_Test;
   DefaultCallbackResource_Test.class,
   Destination_Test.class,
   HttpJUnitRunner_Test.class,
+  LatencyDistribution_Test.class,
   AuthenticationInfo_Test.class,
   CallbackServer_Test.class,
   CallbackServlet_Test.class,
@@ -53,7 +82,34 @@ import com.eclipsesource.restfuse.internal.poll.PollStateImpl_Test;
   Poll_Test.class,
   Status_Test.class,
   HttpTestStatementOrder_Test.class,
-  Response_Test.class
+  Response_Test.class,
+  LocalTransport_Test.class,
+  StubServer_Test.class,
+  Dataset_Test.class,
+  DatasetReader_Test.class,
+  DatasetStatement_Test.class,
+  BodyTemplate_Test.class,
+  PreparedRequest_Test.class,
+  RequestProcessors_Test.class,
+  AdmissionPolicy_Test.class,
+  AdmissionGate_Test.class,
+  CircuitBreakerTransport_Test.class,
+  HttpProxy_Test.class,
+  CookieJar_Test.class,
+  CookieTransport_Test.class,
+  DigestChallenge_Test.class,
+  DigestTransport_Test.class,
+  BearerTransport_Test.class,
+  HttpTransport_Test.class,
+  PollStatement_Test.class,
+  EventStreamReader_Test.class,
+  StreamStateImpl_Test.class,
+  Stream_Test.class,
+  JsonPointerReader_Test.class,
+  XmlPathReader_Test.class,
+  GoldenFile_Test.class,
+  BodyBuffer_Test.class,
+  BufferPool_Test.class
 } )
 
 public class AllRestfuseTestSuite {
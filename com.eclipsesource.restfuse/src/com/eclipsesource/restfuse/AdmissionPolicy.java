@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+
+/**
+ * <p>An <code>AdmissionPolicy</code> limits how hard the tests of a suite may hit a host. It 
+ * combines a token bucket limiting the requests per second with a cap on the requests in flight. 
+ * Requests exceeding the limits wait in a fair queue, the first waiting request is sent first. 
+ * Policies are immutable and applied to a <code>{@link Destination}</code> using 
+ * <code>{@link Destination#withAdmission(AdmissionPolicy)}</code>. All destinations sending to 
+ * the same host with an equal policy share the limits, also when tests run in parallel. Limits 
+ * are not shared across different policies, destinations using different policies for the same 
+ * host are limited separately and their requests add up.</p>
+ * 
+ * <p>A policy looks like this:
+ * <pre>
+ * AdmissionPolicy staging = AdmissionPolicy.rate( 50 ).withBurst( 10 ).withMaxInFlight( 8 );
+ * </pre>
+ * </p>
+ * 
+ * @see AdmissionState
+ * @see Destination
+ * @since 1.2
+ */
+public final class AdmissionPolicy {
+
+  /**
+   * <p>A policy without any limit.</p>
+   */
+  public static final AdmissionPolicy UNLIMITED = new AdmissionPolicy( 0, 1, 0 );
+
+  private final double requestsPerSecond;
+  private final int burst;
+  private final int maxInFlight;
+
+  private AdmissionPolicy( double requestsPerSecond, int burst, int maxInFlight ) {
+    this.requestsPerSecond = requestsPerSecond;
+    this.burst = burst;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * <p>Creates a policy which allows the given requests per second. Up to one request can be 
+   * sent without waiting, see <code>{@link #withBurst(int)}</code>.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>requestsPerSecond</code> is not 
+   * positive.
+   */
+  public static AdmissionPolicy rate( double requestsPerSecond ) {
+    if( requestsPerSecond <= 0 ) {
+      throw new IllegalArgumentException( "requestsPerSecond must be positive." );
+    }
+    return new AdmissionPolicy( requestsPerSecond, 1, 0 );
+  }
+
+  /**
+   * <p>Creates a policy which only limits the number of requests in flight.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>requests</code> is not positive.
+   */
+  public static AdmissionPolicy maxInFlight( int requests ) {
+    return UNLIMITED.withMaxInFlight( requests );
+  }
+
+  /**
+   * <p>Returns a copy of this policy whose token bucket holds up to <code>requests</code> 
+   * tokens. After an idle period that many requests can be sent at once.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>requests</code> is not positive.
+   */
+  public AdmissionPolicy withBurst( int requests ) {
+    checkPositive( requests, "burst" );
+    return new AdmissionPolicy( requestsPerSecond, requests, maxInFlight );
+  }
+
+  /**
+   * <p>Returns a copy of this policy which allows at most <code>requests</code> requests in 
+   * flight at the same time.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>requests</code> is not positive.
+   */
+  public AdmissionPolicy withMaxInFlight( int requests ) {
+    checkPositive( requests, "maxInFlight" );
+    return new AdmissionPolicy( requestsPerSecond, burst, requests );
+  }
+
+  /**
+   * <p>Returns the allowed requests per second or <code>0</code> when the rate is unlimited.</p>
+   */
+  public double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  /**
+   * <p>Returns the allowed requests in flight or <code>0</code> when they are unlimited.</p>
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  @Override
+  public boolean equals( Object object ) {
+    boolean result = false;
+    if( object instanceof AdmissionPolicy ) {
+      AdmissionPolicy other = ( AdmissionPolicy )object;
+      result =    Double.compare( requestsPerSecond, other.requestsPerSecond ) == 0 
+               && burst == other.burst 
+               && maxInFlight == other.maxInFlight;
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    long bits = Double.doubleToLongBits( requestsPerSecond );
+    int result = ( int )( bits ^ ( bits >>> 32 ) );
+    result = 31 * result + burst;
+    result = 31 * result + maxInFlight;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "AdmissionPolicy[requestsPerSecond=" + requestsPerSecond 
+           + ", burst=" + burst 
+           + ", maxInFlight=" + maxInFlight + "]";
+  }
+
+  private static void checkPositive( int value, String name ) {
+    if( value <= 0 ) {
+      throw new IllegalArgumentException( name + " must be positive." );
+    }
+  }
+}
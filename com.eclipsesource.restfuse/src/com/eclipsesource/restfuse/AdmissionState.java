@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+
+/**
+ * <p>An <code>AdmissionState</code> reports how the requests to a host were admitted by its 
+ * <code>{@link AdmissionPolicy}</code>. It can be pulled using 
+ * <code>{@link Destination#getAdmissionState()}</code>. The values are live and shared by all 
+ * destinations using the same host and policy.</p>
+ * 
+ * @see AdmissionPolicy
+ * @since 1.2
+ */
+public interface AdmissionState {
+
+  /**
+   * <p>Returns the number of requests admitted so far.</p>
+   */
+  int getAdmitted();
+
+  /**
+   * <p>Returns the number of requests currently waiting for admission.</p>
+   */
+  int getQueued();
+
+  /**
+   * <p>Returns the number of requests currently in flight.</p>
+   */
+  int getInFlight();
+
+  /**
+   * <p>Returns the distribution of the milliseconds requests waited for admission. When more 
+   * requests were admitted than the distribution holds it's an evenly drawn sample of all 
+   * waits.</p>
+   */
+  LatencyDistribution getQueueWaits();
+
+}
@@ -12,6 +12,25 @@ package com.eclipsesource.restfuse;
 
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.eclipsesource.restfuse.internal.golden.GoldenFile;
+import com.eclipsesource.restfuse.internal.json.JsonPointerReader;
+import com.eclipsesource.restfuse.internal.xml.XmlPathReader;
+
 
 /**
  * <p>The <code>Assert</code> class provides a set of convenience methods that ease the 
@@ -189,6 +208,242 @@ public final class Assert {
     doCheckStatus( Status.HTTP_VERSION_NOT_SUPPORTED, response );
   }
   
+  // JSON
+  
+  /**
+   * <p>Checks the value at a JSON Pointer (RFC 6901) of a JSON response, e.g. 
+   * <code>/items/0/id</code>. The body is tokenized only until the value was found, no document 
+   * is built. A string is compared with its unescaped content, <code>null</code> with a JSON 
+   * <code>null</code> and any other value with its JSON text, e.g. <code>42</code> or 
+   * <code>true</code>.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when the pointer is not a valid JSON Pointer.
+   * 
+   * @since 1.2
+   */
+  public static void assertJsonValue( Response response, String pointer, String expected ) {
+    assertJsonValues( response, Collections.singletonMap( pointer, expected ) );
+  }
+  
+  /**
+   * <p>Checks the values at several JSON Pointers of a JSON response with a single pass over the 
+   * body. Reading stops as soon as all pointers were resolved.</p>
+   * 
+   * @see #assertJsonValue(Response, String, String)
+   * @since 1.2
+   */
+  public static void assertJsonValues( Response response, Map<String, String> expected ) {
+    checkValues( response, "JSON value", expected, readJsonValues( response, expected ) );
+  }
+  
+  // XML
+  
+  /**
+   * <p>Checks the string value at a path of an XML response, e.g. <code>/feed/entry[1]/title</code> 
+   * or <code>//entry[2]/link/@href</code>. The body is read with StAX only until the path was 
+   * resolved, no DOM is built. A path supports a subset of XPath: child steps with an optional 
+   * position, <code>*</code> for any element, a leading <code>//</code> to start at any depth and 
+   * an attribute as last step. Names are matched against local names, prefixes are ignored. The 
+   * first match in document order is compared, an element by its concatenated text.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when the path is not supported.
+   * 
+   * @since 1.2
+   */
+  public static void assertXmlValue( Response response, String path, String expected ) {
+    assertXmlValues( response, Collections.singletonMap( path, expected ) );
+  }
+  
+  /**
+   * <p>Checks the string values at several paths of an XML response with a single pass over the 
+   * body. Reading stops as soon as all paths were resolved.</p>
+   * 
+   * @see #assertXmlValue(Response, String, String)
+   * @since 1.2
+   */
+  public static void assertXmlValues( Response response, Map<String, String> expected ) {
+    checkValues( response, "XML value", expected, readXmlValues( response, expected ) );
+  }
+  
+  // Golden files
+  
+  /**
+   * <p>Checks that the body of a response is byte for byte equal to a resource on the classpath, 
+   * e.g. <code>/golden/feed.xml</code>. The resource is looked up with the context class loader 
+   * of the current thread or the class loader of restfuse. Its digest is computed once and reused 
+   * by later comparisons, so the same golden file can be checked against many responses cheaply. 
+   * The body is read once and compared block by block with checksums of the resource, only the 
+   * first differing block is read from the resource to report the first differing byte offset. The raw bytes of the body are compared, see <code>{@link Response#getInputStream()}</code>.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the resource could not be found or read.
+   * 
+   * @since 1.2
+   */
+  public static void assertBodyMatchesResource( Response response, String resource ) {
+    checkBodyMatches( response, resource, findResource( resource ) );
+  }
+  
+  /**
+   * <p>Checks that the body of a response is byte for byte equal to a resource resolved relative 
+   * to the given class, like <code>{@link Class#getResource(String)}</code> does.</p>
+   * 
+   * @see #assertBodyMatchesResource(Response, String)
+   * @since 1.2
+   */
+  public static void assertBodyMatchesResource( Response response, Class<?> base, String resource ) {
+    if( base == null ) {
+      throw new IllegalArgumentException( "base must not be null." );
+    }
+    checkBodyMatches( response, resource, checkResourceFound( resource, base.getResource( resource ) ) );
+  }
+  
+  private static void checkBodyMatches( Response response, String name, URL resource ) {
+    GoldenFile golden = GoldenFile.forResource( resource );
+    try {
+      String difference = golden.compare( openBody( response ) );
+      if( difference != null ) {
+        fail( getValueErrorMessage( response, "Body did not match resource " + name + ":\n" 
+                                              + difference ) );
+      }
+    } catch( IOException ioe ) {
+      throw new IllegalStateException( "Could not compare body with resource " + name, ioe );
+    }
+  }
+  
+  private static InputStream openBody( Response response ) {
+    InputStream result = response.hasBody() ? response.getInputStream() : null;
+    return result != null ? result : new ByteArrayInputStream( new byte[ 0 ] );
+  }
+  
+  private static URL findResource( String resource ) {
+    if( resource == null ) {
+      throw new IllegalArgumentException( "resource must not be null." );
+    }
+    String name = resource.startsWith( "/" ) ? resource.substring( 1 ) : resource;
+    URL result = null;
+    ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+    if( contextLoader != null ) {
+      result = contextLoader.getResource( name );
+    }
+    if( result == null ) {
+      result = Assert.class.getResource( "/" + name );
+    }
+    return checkResourceFound( resource, result );
+  }
+  
+  private static URL checkResourceFound( String resource, URL url ) {
+    if( url == null ) {
+      throw new IllegalStateException( "Could not open resource " + resource 
+                                       + ". Maybe it's not on the classpath?" );
+    }
+    return url;
+  }
+  
+  private static Reader openReader( Response response ) {
+    checkHasBody( response );
+    return new InputStreamReader( openBody( response ), getBodyCharset( response ) );
+  }
+  
+  private static Charset getBodyCharset( Response response ) {
+    Charset result = findHeaderCharset( response );
+    return result != null ? result : Charset.forName( "UTF-8" );
+  }
+  
+  // null when the content type names no supported charset
+  private static Charset findHeaderCharset( Response response ) {
+    Charset result = null;
+    Map<String, List<String>> headers = response.getHeaders();
+    if( headers != null ) {
+      for( String name : headers.keySet() ) {
+        if( "Content-Type".equalsIgnoreCase( name ) && !headers.get( name ).isEmpty() ) {
+          result = findCharset( headers.get( name ).get( 0 ) );
+        }
+      }
+    }
+    return result;
+  }
+  
+  private static Charset findCharset( String contentType ) {
+    Charset result = null;
+    String charset = ResponseImpl.getCharset( contentType );
+    if( charset != null ) {
+      try {
+        result = Charset.forName( charset );
+      } catch( IllegalCharsetNameException invalid ) {
+        // fall back to the default
+      } catch( UnsupportedCharsetException unsupported ) {
+        // fall back to the default
+      }
+    }
+    return result;
+  }
+  
+  private static void checkValues( Response response, 
+                                   String kind, 
+                                   Map<String, String> expected, 
+                                   Map<String, String> actual ) 
+  {
+    for( String path : expected.keySet() ) {
+      if( !actual.containsKey( path ) ) {
+        fail( getValueErrorMessage( response, "No " + kind + " found at " + path ) );
+      }
+      String expectedValue = expected.get( path );
+      String actualValue = actual.get( path );
+      if( expectedValue == null ? actualValue != null : !expectedValue.equals( actualValue ) ) {
+        fail( getValueErrorMessage( response, kind + " at " + path + " did not match expectation:"
+                                              + "\nExpected " + expectedValue + " but was " + actualValue ) );
+      }
+    }
+  }
+  
+  private static Map<String, String> readJsonValues( Response response, Map<String, String> expected ) {
+    Reader reader = openReader( response );
+    try {
+      return JsonPointerReader.read( reader, expected.keySet() );
+    } catch( IllegalStateException invalid ) {
+      fail( getValueErrorMessage( response, invalid.getMessage() ) );
+      return null;
+    } catch( IOException ioe ) {
+      throw new IllegalStateException( "Could not read response body.", ioe );
+    } finally {
+      close( reader );
+    }
+  }
+  
+  // without a charset header the parser detects the encoding from the XML declaration
+  private static Map<String, String> readXmlValues( Response response, Map<String, String> expected ) {
+    checkHasBody( response );
+    Charset charset = findHeaderCharset( response );
+    InputStream body = openBody( response );
+    try {
+      return XmlPathReader.read( body, charset != null ? charset.name() : null, expected.keySet() );
+    } catch( IllegalStateException invalid ) {
+      fail( getValueErrorMessage( response, invalid.getMessage() ) );
+      return null;
+    } finally {
+      close( body );
+    }
+  }
+  
+  // reading stops early, so the rest of the body is left unread
+  private static void close( Closeable reader ) {
+    try {
+      reader.close();
+    } catch( IOException ignored ) {
+      // nothing was written
+    }
+  }
+  
+  private static void checkHasBody( Response response ) {
+    if( !response.hasBody() ) {
+      fail( getValueErrorMessage( response, "Response has no body" ) );
+    }
+  }
+  
+  private static String getValueErrorMessage( Response response, String message ) {
+    return "Sent request to " + response.getUrl() + "\n" + message + "\n\n";
+  }
+  
   private static void doCheckStatus( Status expected, Response response ) {
     assertStatusEquals( getDetailedErrorMessage( expected, response ),
                         expected.getStatusCode(),
@@ -15,8 +15,18 @@ import com.eclipsesource.restfuse.annotation.Authentication;
 
 /**
  * <p>An <code>AuthenticationType</code> can be used with the <code>{@link Authentication}</code>
- * annotation. Currently only BASIC and DIGEST authentication are supported</p>
+ * annotation. BASIC, DIGEST and BEARER authentication are supported.</p>
+ * 
+ * <p>BEARER fetches an OAuth2 token with the client credentials grant from the 
+ * <code>tokenEndpoint</code> of the authentication, using the user as client id and the password 
+ * as client secret. Tokens are shared by all tests and threads using the same endpoint and client 
+ * and are refreshed in the background before they expire.</p>
  */
 public enum AuthenticationType {
-  BASIC, DIGEST
+  BASIC, DIGEST, 
+  
+  /**
+   * @since 1.2
+   */
+  BEARER
 }
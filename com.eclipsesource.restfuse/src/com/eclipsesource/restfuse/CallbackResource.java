@@ -10,11 +10,16 @@
  ******************************************************************************/ 
 package com.eclipsesource.restfuse;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.eclipsesource.restfuse.annotation.Callback;
+import com.eclipsesource.restfuse.internal.callback.DelayedResponse;
 
 
 /**
@@ -71,6 +76,31 @@ public abstract class CallbackResource {
       return body;
     }
 
+    @Override
+    public byte[] getBytes() {
+      byte[] result = null;
+      if( body != null ) {
+        try {
+          result = body.getBytes( "UTF-8" );
+        } catch( UnsupportedEncodingException shouldNotHappen ) {
+          throw new IllegalStateException( shouldNotHappen );
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+      byte[] content = getBytes();
+      return content != null ? ByteBuffer.wrap( content ).asReadOnlyBuffer() : null;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      byte[] content = getBytes();
+      return content != null ? new ByteArrayInputStream( content ) : null;
+    }
+
     @Override
     public MediaType getType() {
       return contentType;
@@ -106,6 +136,26 @@ public abstract class CallbackResource {
     return new CallbackResponse( url, status, contentType, body, headers );
   }
 
+  /**
+   * <p>Wraps a response which should be sent back to the caller only after the given delay in 
+   * milliseconds. The callback server suspends the request while waiting, so a delayed reply 
+   * does not occupy a server thread. Use it to simulate slow webhook receivers.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when the response is null or the delay is 
+   * negative.
+   * 
+   * @since 1.2
+   */
+  public static Response delay( Response response, int millis ) {
+    if( response == null ) {
+      throw new IllegalArgumentException( "response must not be null." );
+    }
+    if( millis < 0 ) {
+      throw new IllegalArgumentException( "millis must not be negative." );
+    }
+    return new DelayedResponse( response, millis );
+  }
+
   /**
    * <p>Will be called during an http get request.</p>
    */
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import com.eclipsesource.restfuse.annotation.Callback;
+import com.eclipsesource.restfuse.annotation.Context;
+
+
+/**
+ * <p>A <code>CallbackState</code> gives access to the metrics of the callback server during a
+ * test method annotated with <code>{@link Callback}</code>. The <code>CallbackState</code> object 
+ * will be injected into a test object when it has a field of the type 
+ * <code>CallbackState</code> which is annotated with the <code>{@link Context}</code> 
+ * annotation. The values are live, they change while callbacks arrive.</p>
+ * 
+ * @see Callback
+ * @see Context
+ * @since 1.2
+ */
+public interface CallbackState {
+
+  /**
+   * <p>Returns the url the callback is reachable on, including the correlation id of a 
+   * correlated callback.</p>
+   * 
+   * @see Callback#correlate()
+   */
+  String getUrl();
+
+  /**
+   * <p>Returns the correlation id or <code>null</code> when the callback is not correlated.</p>
+   * 
+   * @see Callback#correlate()
+   */
+  String getCorrelationId();
+
+  /**
+   * <p>Returns the number of callbacks received so far.</p>
+   */
+  int getCalls();
+
+  /**
+   * <p>Returns the number of callbacks whose delayed reply is still pending.</p>
+   * 
+   * @see CallbackResource#delay(Response, int)
+   */
+  int getSuspendedCalls();
+
+  /**
+   * <p>Returns the number of jobs currently waiting for a server thread.</p>
+   */
+  int getQueueSize();
+
+  /**
+   * <p>Returns the highest number of jobs that were waiting for a server thread at the same 
+   * time.</p>
+   */
+  int getMaxQueueSize();
+
+  /**
+   * <p>Returns the number of jobs the server rejected because its queue was full. Rejected 
+   * callbacks are not answered.</p>
+   */
+  int getRejectedCalls();
+
+  /**
+   * <p>Returns the milliseconds between sending the request of the test and the arrival of the 
+   * first callback or <code>-1</code> when no callback has arrived yet.</p>
+   */
+  long getLatency();
+
+  /**
+   * <p>Returns the distribution of the milliseconds between sending the request of the test and 
+   * the arrival of each callback received so far. The test method runs before the server waits 
+   * for the <code>expectedCalls</code> of the <code>{@link Callback}</code> annotation, so the 
+   * distribution may still be incomplete there. Use its <code>maxLatency</code> attribute to check 
+   * the final distribution.</p>
+   */
+  LatencyDistribution getLatencies();
+
+}
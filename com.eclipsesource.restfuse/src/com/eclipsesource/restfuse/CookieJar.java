@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.net.HttpCookie;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * <p>A <code>CookieJar</code> stores the cookies a service sets and sends them back with the 
+ * following requests, like a browser session. It is applied directly by the transport of a 
+ * <code>{@link Destination}</code> using 
+ * <code>{@link Destination#withCookieJar(CookieJar)}</code>, independent of the JVM wide 
+ * <code>CookieHandler</code>. So destinations using different jars keep independent sessions, 
+ * also when tests run in parallel.</p>
+ * 
+ * <p>A jar is safe for concurrent use. Expired cookies are dropped when they are found while 
+ * cookies are matched, no cleanup thread is needed. As JUnit creates a new test object for each 
+ * test method, a session shared by the methods of a test needs a static jar:
+ * <pre>
+ * private static CookieJar session = new CookieJar();
+ * 
+ * <b>&#064;Rule</b>
+ * public Destination destination = new Destination( this, "http://localhost" ).withCookieJar( session );
+ * </pre>
+ * One jar per simulated user keeps the sessions of many users apart.
+ * </p>
+ * 
+ * @since 1.2
+ */
+public final class CookieJar {
+
+  private static final String HEADER_SET_COOKIE = "Set-Cookie";
+  private static final Comparator<HttpCookie> LONGEST_PATH_FIRST = new Comparator<HttpCookie>() {
+    @Override
+    public int compare( HttpCookie cookie1, HttpCookie cookie2 ) {
+      return cookie2.getPath().length() - cookie1.getPath().length();
+    }
+  };
+
+  private final ConcurrentMap<String, StoredCookie> cookies;
+
+  public CookieJar() {
+    cookies = new ConcurrentHashMap<String, StoredCookie>();
+  }
+
+  /**
+   * <p>Stores the cookies of all <code>Set-Cookie</code> headers of a response received from 
+   * the given url. Cookies with a max age of <code>0</code> remove stored cookies.</p>
+   */
+  public void storeCookies( URL url, Map<String, List<String>> responseHeaders ) {
+    if( responseHeaders != null ) {
+      for( Entry<String, List<String>> header : responseHeaders.entrySet() ) {
+        if( HEADER_SET_COOKIE.equalsIgnoreCase( header.getKey() ) ) {
+          for( String value : header.getValue() ) {
+            storeCookies( url, value );
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * <p>Returns the value of the <code>Cookie</code> header for a request to the given url or 
+   * <code>null</code> when no stored cookie matches.</p>
+   */
+  public String getCookieHeader( URL url ) {
+    List<HttpCookie> matches = getCookies( url );
+    String result = null;
+    if( !matches.isEmpty() ) {
+      StringBuilder builder = new StringBuilder();
+      for( HttpCookie cookie : matches ) {
+        if( builder.length() > 0 ) {
+          builder.append( "; " );
+        }
+        builder.append( cookie.getName() ).append( '=' ).append( cookie.getValue() );
+      }
+      result = builder.toString();
+    }
+    return result;
+  }
+
+  /**
+   * <p>Returns the cookies which will be sent to the given url, the most specific path first.</p>
+   */
+  public List<HttpCookie> getCookies( URL url ) {
+    String host = url.getHost().toLowerCase();
+    String path = url.getPath().length() == 0 ? "/" : url.getPath();
+    boolean secure = "https".equalsIgnoreCase( url.getProtocol() );
+    long now = System.currentTimeMillis();
+    List<HttpCookie> result = new ArrayList<HttpCookie>();
+    Iterator<StoredCookie> iterator = cookies.values().iterator();
+    while( iterator.hasNext() ) {
+      StoredCookie stored = iterator.next();
+      if( stored.hasExpired( now ) ) {
+        iterator.remove();
+      } else if( stored.matches( host, path, secure ) ) {
+        result.add( stored.cookie );
+      }
+    }
+    Collections.sort( result, LONGEST_PATH_FIRST );
+    return result;
+  }
+
+  /**
+   * <p>Returns all stored cookies which have not expired.</p>
+   */
+  public List<HttpCookie> getCookies() {
+    long now = System.currentTimeMillis();
+    List<HttpCookie> result = new ArrayList<HttpCookie>();
+    for( StoredCookie stored : cookies.values() ) {
+      if( !stored.hasExpired( now ) ) {
+        result.add( stored.cookie );
+      }
+    }
+    return result;
+  }
+
+  public void clear() {
+    cookies.clear();
+  }
+
+  private void storeCookies( URL url, String header ) {
+    List<HttpCookie> parsed;
+    try {
+      parsed = HttpCookie.parse( header );
+    } catch( IllegalArgumentException invalidCookie ) {
+      parsed = Collections.emptyList();
+    }
+    for( HttpCookie cookie : parsed ) {
+      store( url, cookie );
+    }
+  }
+
+  // cookies without domain attribute are only sent back to the host which set them
+  private void store( URL url, HttpCookie cookie ) {
+    String host = url.getHost().toLowerCase();
+    boolean hostOnly = cookie.getDomain() == null;
+    if( hostOnly ) {
+      cookie.setDomain( host );
+    } else {
+      cookie.setDomain( stripLeadingDot( cookie.getDomain().toLowerCase() ) );
+    }
+    if( cookie.getPath() == null ) {
+      cookie.setPath( getDefaultPath( url ) );
+    }
+    if( hostOnly || domainMatches( cookie.getDomain(), host ) ) {
+      String key = cookie.getName() + ';' + cookie.getDomain() + ';' + cookie.getPath();
+      if( cookie.getMaxAge() == 0 ) {
+        cookies.remove( key );
+      } else {
+        cookies.put( key, new StoredCookie( cookie, hostOnly ) );
+      }
+    }
+  }
+
+  private static String stripLeadingDot( String domain ) {
+    return domain.startsWith( "." ) ? domain.substring( 1 ) : domain;
+  }
+
+  private static boolean domainMatches( String domain, String host ) {
+    return host.equals( domain ) || host.endsWith( "." + domain );
+  }
+
+  private static boolean pathMatches( String cookiePath, String path ) {
+    return    path.equals( cookiePath ) 
+           || path.startsWith( cookiePath ) 
+              && ( cookiePath.endsWith( "/" ) || path.charAt( cookiePath.length() ) == '/' );
+  }
+
+  // the directory of the request path as defined by RFC 6265, section 5.1.4
+  private static String getDefaultPath( URL url ) {
+    String path = url.getPath();
+    String result = "/";
+    int lastSlash = path.lastIndexOf( '/' );
+    if( lastSlash > 0 ) {
+      result = path.substring( 0, lastSlash );
+    }
+    return result;
+  }
+
+  private static class StoredCookie {
+
+    final HttpCookie cookie;
+    final boolean hostOnly;
+    // session cookies never expire
+    final long expiresAt;
+
+    StoredCookie( HttpCookie cookie, boolean hostOnly ) {
+      this.cookie = cookie;
+      this.hostOnly = hostOnly;
+      this.expiresAt = cookie.getMaxAge() < 0 ? Long.MAX_VALUE 
+                                              : System.currentTimeMillis() + cookie.getMaxAge() * 1000;
+    }
+
+    boolean hasExpired( long now ) {
+      return now >= expiresAt;
+    }
+
+    boolean matches( String host, String path, boolean secure ) {
+      boolean hostMatches = hostOnly ? host.equals( cookie.getDomain() ) 
+                                     : domainMatches( cookie.getDomain(), host );
+      return hostMatches && pathMatches( cookie.getPath(), path ) && ( secure || !cookie.getSecure() );
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.util.Map;
+
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Dataset;
+
+
+/**
+ * <p>A <code>DataRow</code> holds the values of the dataset row an http test is currently 
+ * executed for. The <code>DataRow</code> object will be injected into a test object when it has a 
+ * field of the type <code>DataRow</code> which is annotated with the 
+ * <code>{@link Context}</code> annotation.</p>
+ * 
+ * @see Dataset
+ * @see Context
+ * @since 1.2
+ */
+public interface DataRow {
+
+  /**
+   * <p>Returns the number of the row within the dataset, starting with 1 for the first row 
+   * containing values.</p>
+   */
+  int getIndex();
+
+  /**
+   * <p>Returns the value of the given column or <code>null</code> when the row has no such 
+   * column.</p>
+   */
+  String get( String column );
+
+  /**
+   * <p>Returns all values of the row by column name.</p>
+   */
+  Map<String, String> getValues();
+
+}
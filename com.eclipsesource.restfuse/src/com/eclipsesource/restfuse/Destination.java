@@ -13,13 +13,27 @@ package com.eclipsesource.restfuse;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import javax.servlet.Servlet;
+
+import org.eclipse.jetty.server.Handler;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
 import com.eclipsesource.restfuse.annotation.Callback;
 import com.eclipsesource.restfuse.annotation.HttpTest;
+import com.eclipsesource.restfuse.internal.BodyBuffer;
 import com.eclipsesource.restfuse.internal.HttpTestStatement;
+import com.eclipsesource.restfuse.internal.transport.AdmissionGate;
+import com.eclipsesource.restfuse.internal.transport.AdmissionTransport;
+import com.eclipsesource.restfuse.internal.transport.CircuitBreakerTransport;
+import com.eclipsesource.restfuse.internal.transport.CookieTransport;
+import com.eclipsesource.restfuse.internal.transport.HttpProxy;
+import com.eclipsesource.restfuse.internal.transport.HttpTransport;
+import com.eclipsesource.restfuse.internal.transport.LatencyRecorder;
+import com.eclipsesource.restfuse.internal.transport.LocalTransport;
+import com.eclipsesource.restfuse.internal.transport.Transport;
+import com.eclipsesource.restfuse.internal.transport.Transports;
 
 /**
  * <p>A <code>Destination</code> marks a requirement for http tests. Before you can use the 
@@ -56,10 +70,18 @@ import com.eclipsesource.restfuse.internal.HttpTestStatement;
 public class Destination implements TestRule {
 
   private HttpTestStatement requestStatement;
-  private String proxyHost;
-  private int proxyPort;
   private RequestContext context;
   private Object testObject;
+  private Transport transport;
+  private AdmissionPolicy admissionPolicy;
+  private int connectTimeout;
+  private int readTimeout;
+  private int bufferThreshold = BodyBuffer.DEFAULT_THRESHOLD;
+  private int failureThreshold;
+  private String healthCheckPath;
+  private HttpProxy proxy;
+  private CookieJar cookieJar;
+  private final LatencyRecorder continueWaits = new LatencyRecorder();
 
   /**
    * <p>Constructs a new <code>Destination</code> object. An url is needed as parameter which will
@@ -78,23 +100,22 @@ public class Destination implements TestRule {
   }
   
   /**
-   * <p>Constructs a new <code>Destination</code> object and sets some proxy properties which will 
-   * be used when sending the HTTP request. An url is needed as parameter which will
-   * be used in the whole test to send requests to. The passed proxy properties has to conform with
-   * the proxy properties described here 
-   * http://docs.oracle.com/javase/1.5.0/docs/guide/net/properties.html</p>
+   * <p>Constructs a new <code>Destination</code> object which sends its requests through the 
+   * given http proxy. An url is needed as parameter which will be used in the whole test to send 
+   * requests to. See <code>{@link #withProxy(String, int)}</code>.</p>
    * 
    * @param baseUrl The url to send requests to.
-   * @param proxyHost The value of the http.proxyHost property.
-   * @param proxyPort The value of the http.proxyPort property.
+   * @param proxyHost The host name of the proxy.
+   * @param proxyPort The port of the proxy.
    * 
    * @throws IllegalArgumentException Will be thrown when the <code>baseUrl</code> is null or 
    * not a valid url.
    */
   public Destination( Object testObject, String baseUrl, String proxyHost, int proxyPort ) {
     this( testObject, baseUrl );
-    this.proxyHost = proxyHost;
-    this.proxyPort = proxyPort;
+    if( proxyHost != null ) {
+      this.proxy = new HttpProxy( proxyHost, proxyPort );
+    }
   }
 
   
@@ -124,6 +145,289 @@ public class Destination implements TestRule {
     return context;
   }
   
+  /**
+   * <p>Dispatches all requests of this <code>Destination</code> directly to the given servlet 
+   * within the same JVM. No socket connection will be opened, the requests and responses are 
+   * passed in memory. The host and port of the <code>Destination</code> url are ignored, the path 
+   * is handed to the servlet as is.</p>
+   * 
+   * @param servlet The servlet that handles the requests.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>servlet</code> is null.
+   * 
+   * @since 1.2
+   */
+  public Destination dispatchTo( Servlet servlet ) {
+    checkNotNull( servlet, "servlet" );
+    transport = new LocalTransport( servlet );
+    return this;
+  }
+
+  /**
+   * <p>Dispatches all requests of this <code>Destination</code> directly to the given Jetty 
+   * handler within the same JVM. See <code>{@link #dispatchTo(Servlet)}</code>.</p>
+   * 
+   * @param handler The handler that handles the requests.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>handler</code> is null.
+   * 
+   * @since 1.2
+   */
+  public Destination dispatchTo( Handler handler ) {
+    checkNotNull( handler, "handler" );
+    transport = new LocalTransport( handler );
+    return this;
+  }
+
+  /**
+   * <p>Limits the requests of this <code>Destination</code> using the given policy. The limits 
+   * apply per host and are shared with all other destinations using the same host and an equal 
+   * policy, so a whole suite running in parallel stays within them. Destinations using a 
+   * different policy for the same host are limited separately.</p>
+   * 
+   * @param policy The policy requests have to be admitted by.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>policy</code> is null.
+   * 
+   * @see AdmissionPolicy
+   * @since 1.2
+   */
+  public Destination withAdmission( AdmissionPolicy policy ) {
+    checkNotNull( policy, "policy" );
+    admissionPolicy = policy;
+    return this;
+  }
+
+  /**
+   * <p>Returns the state of the admission of requests to the host of this 
+   * <code>Destination</code> or <code>null</code> when no <code>{@link AdmissionPolicy}</code> 
+   * was set.</p>
+   * 
+   * @since 1.2
+   */
+  public AdmissionState getAdmissionState() {
+    AdmissionState result = null;
+    if( admissionPolicy != null ) {
+      result = AdmissionGate.forHost( getHost(), admissionPolicy );
+    }
+    return result;
+  }
+
+  /**
+   * <p>Returns the distribution of the milliseconds uploads of this <code>Destination</code> 
+   * waited for the server to accept or reject them. Only requests of tests using 
+   * <code>{@link HttpTest#expectContinue()}</code> are measured, the wait includes opening the 
+   * connection.</p>
+   * 
+   * @see HttpTest#expectContinue()
+   * @since 1.2
+   */
+  public LatencyDistribution getContinueWaits() {
+    return continueWaits.getDistribution();
+  }
+
+  /**
+   * <p>Sets the timeouts for opening a connection to the host of this <code>Destination</code> 
+   * and for reading its responses. By default both wait forever. The timeouts are ignored when 
+   * requests are dispatched within the same JVM.</p>
+   * 
+   * @param connectTimeout The connect timeout in milliseconds, <code>0</code> waits forever.
+   * @param readTimeout The read timeout in milliseconds, <code>0</code> waits forever.
+   * 
+   * @throws IllegalArgumentException Will be thrown when a timeout is negative.
+   * 
+   * @since 1.2
+   */
+  public Destination withTimeouts( int connectTimeout, int readTimeout ) {
+    checkNotNegative( connectTimeout, "connectTimeout" );
+    checkNotNegative( readTimeout, "readTimeout" );
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    return this;
+  }
+
+  /**
+   * <p>Sets how many bytes of a response body are buffered on the heap. Larger bodies are spilled 
+   * to a temporary file which is deleted when the test method ended, so large responses of tests 
+   * running in parallel don't exhaust the heap. By default bodies up to 1 MB stay on the heap. The 
+   * threshold is ignored when requests are dispatched within the same JVM.</p>
+   * 
+   * @param memoryThreshold The largest body in bytes that is kept on the heap.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the threshold is negative.
+   * 
+   * @since 1.2
+   */
+  public Destination withResponseBuffer( int memoryThreshold ) {
+    checkNotNegative( memoryThreshold, "memoryThreshold" );
+    this.bufferThreshold = memoryThreshold;
+    return this;
+  }
+
+  /**
+   * <p>Sends the requests of this <code>Destination</code> through the given http proxy. The 
+   * proxy is only used by this <code>Destination</code>, no system properties are changed. So 
+   * tests using different proxies can run in parallel.</p>
+   * 
+   * @param host The host name of the proxy.
+   * @param port The port of the proxy.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>host</code> is null or the 
+   * <code>port</code> is not positive.
+   * 
+   * @since 1.2
+   */
+  public Destination withProxy( String host, int port ) {
+    checkProxy( host, port );
+    proxy = new HttpProxy( host, port );
+    return this;
+  }
+
+  /**
+   * <p>Sends the requests of this <code>Destination</code> through the given http proxy which 
+   * requires basic authentication. See <code>{@link #withProxy(String, int)}</code>.</p>
+   * 
+   * @param host The host name of the proxy.
+   * @param port The port of the proxy.
+   * @param user The user to authenticate at the proxy.
+   * @param password The password of the user.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>host</code>, 
+   * <code>user</code> or <code>password</code> is null or the <code>port</code> is not positive.
+   * 
+   * @since 1.2
+   */
+  public Destination withProxy( String host, int port, String user, String password ) {
+    checkProxy( host, port );
+    checkNotNull( user, "user" );
+    checkNotNull( password, "password" );
+    proxy = new HttpProxy( host, port, user, password );
+    return this;
+  }
+
+  /**
+   * <p>Sends the cookies stored in the given jar with each request of this 
+   * <code>Destination</code> and stores the cookies set by the responses in it. Use one jar per 
+   * session, see <code>{@link CookieJar}</code>.</p>
+   * 
+   * @param cookieJar The jar holding the cookies of the session.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>cookieJar</code> is null.
+   * 
+   * @since 1.2
+   */
+  public Destination withCookieJar( CookieJar cookieJar ) {
+    checkNotNull( cookieJar, "cookieJar" );
+    this.cookieJar = cookieJar;
+    return this;
+  }
+
+  /**
+   * <p>Returns the jar holding the cookies of this <code>Destination</code> or <code>null</code> 
+   * when cookies are not handled.</p>
+   * 
+   * @since 1.2
+   */
+  public CookieJar getCookieJar() {
+    return cookieJar;
+  }
+
+  /**
+   * <p>Opens a circuit breaker for the host of this <code>Destination</code> after the given 
+   * number of consecutive connection failures, e.g. refused connections or timeouts. Once open, 
+   * all remaining tests sending to this host fail immediately with the failure that opened it as 
+   * cause. The breaker is shared with all other destinations using the same host.</p>
+   * 
+   * @param consecutiveFailures The number of connection failures in a row opening the breaker.
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>consecutiveFailures</code> is not 
+   * positive.
+   * 
+   * @since 1.2
+   */
+  public Destination withCircuitBreaker( int consecutiveFailures ) {
+    if( consecutiveFailures <= 0 ) {
+      throw new IllegalArgumentException( "consecutiveFailures must be positive." );
+    }
+    failureThreshold = consecutiveFailures;
+    return this;
+  }
+
+  /**
+   * <p>Sends a GET request to the given path of this <code>Destination</code> before the first 
+   * test sends to its host. When the check fails to connect or answers with a status other than 
+   * 2xx the circuit breaker of the host opens and all tests sending to it fail immediately. The 
+   * check runs once per run.</p>
+   * 
+   * @param path The path to check, relative to the url of this <code>Destination</code>.
+   * 
+   * @throws IllegalArgumentException Will be thrown when the <code>path</code> is null.
+   * 
+   * @see #withCircuitBreaker(int)
+   * @since 1.2
+   */
+  public Destination withHealthCheck( String path ) {
+    checkNotNull( path, "path" );
+    healthCheckPath = path;
+    return this;
+  }
+
+  private String getHost() {
+    try {
+      return new URL( context.getBaseUrl() ).getAuthority();
+    } catch( MalformedURLException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+
+  private Transport createTransport() {
+    Transport result = transport;
+    if( result == null ) {
+      result = new HttpTransport( connectTimeout, readTimeout, proxy, continueWaits, bufferThreshold );
+    }
+    // below the authentication, so every attempt of a challenged request exchanges cookies
+    if( cookieJar != null ) {
+      result = new CookieTransport( result, cookieJar );
+    }
+    result = Transports.authenticating( result );
+    if( admissionPolicy != null ) {
+      result = new AdmissionTransport( result, admissionPolicy );
+    }
+    if( failureThreshold > 0 || healthCheckPath != null ) {
+      result = new CircuitBreakerTransport( result, getHost(), failureThreshold, getHealthCheckUrl() );
+    }
+    return result;
+  }
+
+  private String getHealthCheckUrl() {
+    String result = null;
+    if( healthCheckPath != null ) {
+      RequestContext healthCheck = new RequestContext( testObject, context.getBaseUrl() );
+      healthCheck.setPathUrl( healthCheckPath );
+      result = healthCheck.getUrl();
+    }
+    return result;
+  }
+
+  private void checkProxy( String host, int port ) {
+    checkNotNull( host, "host" );
+    if( port <= 0 ) {
+      throw new IllegalArgumentException( "port must be positive." );
+    }
+  }
+
+  private void checkNotNegative( int value, String name ) {
+    if( value < 0 ) {
+      throw new IllegalArgumentException( name + " must not be negative." );
+    }
+  }
+
+  private void checkNotNull( Object value, String name ) {
+    if( value == null ) {
+      throw new IllegalArgumentException( name + " must not be null." );
+    }
+  }
+
   private void checkBaseUrl( String baseUrl ) {
     if( baseUrl == null ) {
       throw new IllegalArgumentException( "baseUrl must not be null" );
@@ -158,7 +462,7 @@ public class Destination implements TestRule {
       // In case the context.TestName has not been set, context was not processed as a JUnit-Rule and its internal fields are not populated correctly i.e. just call apply() here instead.
       if(context.getTestName()== null)
            context.apply(base, description);
-      requestStatement = new HttpTestStatement( base, description, testObject, context.getBaseUrl(), proxyHost, proxyPort, context );
+      requestStatement = new HttpTestStatement( base, description, testObject, context.getBaseUrl(), context, createTransport() );
       result = requestStatement;
     } else {
       result = base;
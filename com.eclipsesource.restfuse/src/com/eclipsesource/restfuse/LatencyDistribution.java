@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>A <code>LatencyDistribution</code> describes a series of durations, e.g. how long it took 
+ * from sending the request of an http test until its callbacks arrived. All values are in 
+ * milliseconds. A distribution without samples returns <code>-1</code> for all values except the 
+ * count.</p>
+ * 
+ * @see CallbackState#getLatencies()
+ * @see AdmissionState#getQueueWaits()
+ * @see Destination#getContinueWaits()
+ * @since 1.2
+ */
+public class LatencyDistribution {
+
+  private final long[] sortedNanos;
+
+  public LatencyDistribution( long[] nanos ) {
+    if( nanos == null ) {
+      throw new IllegalArgumentException( "nanos must not be null." );
+    }
+    this.sortedNanos = nanos.clone();
+    Arrays.sort( sortedNanos );
+  }
+
+  /**
+   * <p>Returns the number of samples.</p>
+   */
+  public int getCount() {
+    return sortedNanos.length;
+  }
+
+  /**
+   * <p>Returns the lowest latency.</p>
+   */
+  public long getMin() {
+    return getPercentile( 0 );
+  }
+
+  /**
+   * <p>Returns the highest latency.</p>
+   */
+  public long getMax() {
+    return getPercentile( 100 );
+  }
+
+  /**
+   * <p>Returns the arithmetic mean of all latencies.</p>
+   */
+  public double getMean() {
+    double result = -1;
+    if( sortedNanos.length > 0 ) {
+      double sum = 0;
+      for( long nanos : sortedNanos ) {
+        sum += nanos;
+      }
+      result = sum / sortedNanos.length / TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+    return result;
+  }
+
+  /**
+   * <p>Returns the latency below or equal to which the given percentage of samples fall, using 
+   * the nearest rank. E.g. <code>getPercentile( 99 )</code> returns the 99th percentile.</p>
+   */
+  public long getPercentile( double percentile ) {
+    if( percentile < 0 || percentile > 100 ) {
+      throw new IllegalArgumentException( "percentile must be within 0 and 100." );
+    }
+    long result = -1;
+    if( sortedNanos.length > 0 ) {
+      int rank = ( int )Math.ceil( percentile / 100 * sortedNanos.length );
+      int index = Math.max( rank - 1, 0 );
+      result = TimeUnit.NANOSECONDS.toMillis( sortedNanos[ index ] );
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() 
+           + ", min=" + getMin() 
+           + "ms, mean=" + getMean()
+           + "ms, p50=" + getPercentile( 50 )
+           + "ms, p90=" + getPercentile( 90 ) 
+           + "ms, p99=" + getPercentile( 99 ) 
+           + "ms, max=" + getMax() + "ms";
+  }
+}
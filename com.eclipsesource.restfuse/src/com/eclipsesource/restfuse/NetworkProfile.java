@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.util.Random;
+
+
+/**
+ * <p>A <code>NetworkProfile</code> describes the artificial network conditions a 
+ * <code>{@link StubServer}</code> applies to a stubbed endpoint: a fixed latency, an optional 
+ * jitter and a bandwidth limit for the response body. Profiles are immutable and can be shared 
+ * by stubs. Each stub draws the jitter from its own random generator initialized with the seed 
+ * of the profile, so every stub produces the same latency sequence on every run.</p>
+ * 
+ * <p>A profile looks like this:
+ * <pre>
+ * NetworkProfile slowMobile = NetworkProfile.latency( 300 ).withJitter( 100, 42 ).withBandwidth( 16 * 1024 );
+ * </pre>
+ * </p>
+ * 
+ * @see StubServer
+ * @since 1.2
+ */
+public final class NetworkProfile {
+
+  /**
+   * <p>A profile without any latency or bandwidth limit.</p>
+   */
+  public static final NetworkProfile NONE = new NetworkProfile( 0, 0, 0, 0 );
+
+  private final int latency;
+  private final int jitter;
+  private final long seed;
+  private final int bandwidth;
+
+  private NetworkProfile( int latency, int jitter, long seed, int bandwidth ) {
+    this.latency = latency;
+    this.jitter = jitter;
+    this.seed = seed;
+    this.bandwidth = bandwidth;
+  }
+
+  /**
+   * <p>Creates a profile which delays every response by the given milliseconds.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>millis</code> is negative.
+   */
+  public static NetworkProfile latency( int millis ) {
+    checkNotNegative( millis, "latency" );
+    return new NetworkProfile( millis, 0, 0, 0 );
+  }
+
+  /**
+   * <p>Returns a copy of this profile which adds up to <code>millis</code> milliseconds to the 
+   * latency of every response. The added values are drawn from a random generator initialized 
+   * with <code>seed</code>.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>millis</code> is negative.
+   */
+  public NetworkProfile withJitter( int millis, long seed ) {
+    checkNotNegative( millis, "jitter" );
+    return new NetworkProfile( latency, millis, seed, bandwidth );
+  }
+
+  /**
+   * <p>Returns a copy of this profile which limits the transfer of response bodies to the given 
+   * bytes per second. <code>0</code> means unlimited.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when <code>bytesPerSecond</code> is negative.
+   */
+  public NetworkProfile withBandwidth( int bytesPerSecond ) {
+    checkNotNegative( bytesPerSecond, "bandwidth" );
+    return new NetworkProfile( latency, jitter, seed, bytesPerSecond );
+  }
+
+  public int getLatency() {
+    return latency;
+  }
+
+  public int getJitter() {
+    return jitter;
+  }
+
+  public int getBandwidth() {
+    return bandwidth;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * <p>Returns the delay in milliseconds for the next response, including the jitter drawn from 
+   * the given generator. Create one generator per sequence with <code>new Random( getSeed() )</code> 
+   * and don't share it between threads.</p>
+   */
+  public int nextDelay( Random random ) {
+    int result = latency;
+    if( jitter > 0 ) {
+      result += random.nextInt( jitter + 1 );
+    }
+    return result;
+  }
+
+  private static void checkNotNegative( int value, String name ) {
+    if( value < 0 ) {
+      throw new IllegalArgumentException( name + " must not be negative." );
+    }
+  }
+}
@@ -49,4 +49,14 @@ public interface PollState {
    */
   Response getResponse( int attempt ) throws IllegalArgumentException;
   
+  /**
+   * <p>Returns whether the response of a specific request attempt was 
+   * <code>304 Not Modified</code>. Such a response has no body, the representation did not change 
+   * since the last changed response.</p>
+   * 
+   * @see Poll#conditional()
+   * @since 1.2
+   */
+  boolean isUnchanged( int attempt ) throws IllegalArgumentException;
+  
 }
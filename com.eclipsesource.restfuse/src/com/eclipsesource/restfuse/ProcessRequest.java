@@ -3,11 +3,14 @@ package com.eclipsesource.restfuse;
 
 
 /**
- * <p>A <code>ProcessRequest</code> acts as a wrapper for processing a request.</p>
+ * <p>A <code>ProcessRequest</code> acts as a wrapper for processing a request. Implementations 
+ * providing a constructor taking the <code>{@link RequestContext}</code> are instantiated for 
+ * every single request. Implement <code>{@link RequestProcessor}</code> instead to create the 
+ * processor only once.</p>
+ * 
+ * @see RequestProcessor
  */
 public interface ProcessRequest
 {
   
-//TODO
-  
 }
@@ -10,19 +10,66 @@
  ******************************************************************************/
 package com.eclipsesource.restfuse;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 
 /**
  * <p>A <code>Request</code> acts as a wrapper for an http request.</p>
+ * 
+ * <p>The body is read lazily on the first access. <code>{@link #getBody()}</code>, 
+ * <code>{@link #getBytes()}</code> and <code>{@link #getByteBuffer()}</code> buffer the whole 
+ * body in memory, bounded by the maximum body size of the callback. 
+ * <code>{@link #getInputStream()}</code> streams the body without buffering it, so it can be used
+ * to check large payloads with bounded memory. Once the body was streamed it can't be buffered 
+ * anymore. A body exceeding the maximum size can only be streamed while the callback resource 
+ * handles the request, it's not available after the response was sent.</p>
  */
 public interface Request {
   
   boolean hasBody();
 
+  /**
+   * <p>Returns the body decoded with the charset of the request.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the body exceeds the maximum body size or 
+   * was already consumed using <code>{@link #getInputStream()}</code>.
+   */
   String getBody();
 
+  /**
+   * <p>Returns the raw bytes of the body.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the body exceeds the maximum body size or 
+   * was already consumed using <code>{@link #getInputStream()}</code>.
+   * 
+   * @since 1.2
+   */
+  byte[] getBytes();
+
+  /**
+   * <p>Returns a read only buffer containing the raw bytes of the body.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the body exceeds the maximum body size or 
+   * was already consumed using <code>{@link #getInputStream()}</code>.
+   * 
+   * @since 1.2
+   */
+  ByteBuffer getByteBuffer();
+
+  /**
+   * <p>Returns the body as stream. When the body was not buffered before, the stream reads 
+   * directly from the connection and can be consumed only once.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the body was already consumed or exceeds 
+   * the maximum body size and the request was already answered.
+   * 
+   * @since 1.2
+   */
+  InputStream getInputStream();
+
   MediaType getType();
 
   Map<String, List<String>> getHeaders();
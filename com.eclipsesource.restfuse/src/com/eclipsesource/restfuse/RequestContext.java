@@ -33,6 +33,10 @@ import java.util.regex.Pattern;
  * <p>RequestContext holds additional data to be added to the request before execution like headers (cookies) or dynamic
  * path segments. The context is used to configure requests dynamically.
  * </p>
+ * <p>The add methods never change the headers, path segments, request objects and authentications in place but
+ * replace them with changed copies. So the requests created from a context keep an unchanged snapshot of it and one
+ * context can be used by concurrent requests.
+ * </p>
  */
 public class RequestContext implements TestRule
 {
@@ -47,22 +51,22 @@ public class RequestContext implements TestRule
     /**
      * <p>Name value collection of HTTP-Headers.</p>
      */
-    protected Map<String, List<String>> headers = new HashMap<String, List<String>>();
+    protected volatile Map<String, List<String>> headers = new HashMap<String, List<String>>();
 
     /**
      * <p>Name value collection of PathSegments.</p>
      */
-    protected Map<String, String> pathSegments = new HashMap<String, String>();
+    protected volatile Map<String, String> pathSegments = new HashMap<String, String>();
 
     /**
      * <p>Name value collection of RequestObjects.</p>
      */
-    protected Map<String, Object> requestObjects = new HashMap<String, Object>();
+    protected volatile Map<String, Object> requestObjects = new HashMap<String, Object>();
 
     /**
      * <p>List of AuthenticationInfo.</p>
      */
-    protected List<AuthenticationInfo> authentications = new ArrayList<AuthenticationInfo>();
+    protected volatile List<AuthenticationInfo> authentications = new ArrayList<AuthenticationInfo>();
 
     protected String baseUrl = null;
     protected String pathUrl = null;
@@ -72,6 +76,7 @@ public class RequestContext implements TestRule
     protected String processRequestClassName = null;
     protected InputStream body = null;
     protected Method requestMethod = null;
+    protected boolean expectContinue = false;
 
     /**
      * Constructs a newly allocated RequestContext object.
@@ -121,6 +126,36 @@ public class RequestContext implements TestRule
         this.requestMethod = call.method();
     }
 
+    /**
+     * Returns whether an upload waits for the server's interim response before sending its body.
+     *
+     * @return The expectContinue
+     */
+    public boolean isExpectContinue()
+    {
+        return expectContinue;
+    }
+
+    /**
+     * Sets whether an upload waits for the server's interim response before sending its body.
+     *
+     * @param expectContinue The expectContinue to set
+     */
+    public void setExpectContinue(boolean expectContinue)
+    {
+        this.expectContinue = expectContinue;
+    }
+
+    /**
+     * Set ExpectContinue from HttpTest-Annotation "expectContinue".
+     * Remark: An ExpectContinue enabled before is kept.
+     * @param call HttpTest-Annotation
+     */
+    public void setExpectContinueFromAnnotation(HttpTest call)
+    {
+        this.expectContinue = this.expectContinue || call.expectContinue();
+    }
+
 
     /**
      * Returns the authentications attribute of the RequestContext.
@@ -145,27 +180,30 @@ public class RequestContext implements TestRule
     /**
      *
      */
-    public void clearAuthenticationInfos()
+    public synchronized void clearAuthenticationInfos()
     {
-        authentications.clear();
+        this.authentications = new ArrayList<AuthenticationInfo>();
     }
 
     /**
      *
      * @param call
      */
-    public void addAuthenticationFromAnnotation(HttpTest call)
+    public synchronized void addAuthenticationFromAnnotation(HttpTest call)
     {
         Authentication[] authentications = call.authentications();
         if (authentications != null)
         {
+            List<AuthenticationInfo> result = new ArrayList<AuthenticationInfo>(this.authentications);
             for (Authentication authentication : authentications)
             {
                 AuthenticationType type = authentication.type();
                 String user = authentication.user();
                 String password = authentication.password();
-                this.authentications.add(new AuthenticationInfo(type, user, password));
+                String tokenEndpoint = authentication.tokenEndpoint().isEmpty() ? null : authentication.tokenEndpoint();
+                result.add(new AuthenticationInfo(type, user, password, tokenEndpoint));
             }
+            this.authentications = result;
         }
     }
 
@@ -173,9 +211,11 @@ public class RequestContext implements TestRule
      *
      * @param authentication
      */
-    public void addAuthenticationInfo(AuthenticationInfo authentication)
+    public synchronized void addAuthenticationInfo(AuthenticationInfo authentication)
     {
-        authentications.add(authentication);
+        List<AuthenticationInfo> result = new ArrayList<AuthenticationInfo>(this.authentications);
+        result.add(authentication);
+        this.authentications = result;
     }
 
 
@@ -304,9 +344,11 @@ public class RequestContext implements TestRule
      *
      * @since 1.2
      */
-    public RequestContext addPathSegment(String segment, String replacement)
+    public synchronized RequestContext addPathSegment(String segment, String replacement)
     {
-        pathSegments.put(segment, replacement);
+        Map<String, String> result = new HashMap<String, String>(this.pathSegments);
+        result.put(segment, replacement);
+        this.pathSegments = result;
         return this;
     }
 
@@ -356,7 +398,7 @@ public class RequestContext implements TestRule
      */
     public Set<String> getPathSegmentKeys()
     {
-        return pathSegments.keySet();
+        return Collections.unmodifiableSet(pathSegments.keySet());
     }
 
     /**
@@ -409,16 +451,7 @@ public class RequestContext implements TestRule
      */
     public void addHeader(String name, String value)
     {
-        List<String> param = headers.get(name);
-        if (param == null)
-        {
-            List<String> params = new ArrayList<String>();
-            params.add(value);
-            headers.put(name, params);
-        } else
-        {
-            param.add(value);
-        }
+        addHeader(name, Collections.singletonList(value));
     }
 
     /**
@@ -429,18 +462,18 @@ public class RequestContext implements TestRule
      * @see Header
      * @since 1.2
      */
-    public void addHeader(String name, List<String> values)
+    public synchronized void addHeader(String name, List<String> values)
     {
+        List<String> params = new ArrayList<String>();
         List<String> param = headers.get(name);
-        if (param == null)
-        {
-            List<String> params = new ArrayList<String>();
-            params.addAll(values);
-            headers.put(name, params);
-        } else
+        if (param != null)
         {
-            param.addAll(values);
+            params.addAll(param);
         }
+        params.addAll(values);
+        Map<String, List<String>> result = new HashMap<String, List<String>>(this.headers);
+        result.put(name, params);
+        this.headers = result;
     }
 
     /**
@@ -575,7 +608,7 @@ public class RequestContext implements TestRule
      */
     public Set<String> getRequestObjectKeys()
     {
-        return requestObjects.keySet();
+        return Collections.unmodifiableSet(requestObjects.keySet());
     }
 
     /**
@@ -592,9 +625,11 @@ public class RequestContext implements TestRule
      * process/transform the RequestContext using the contained RequestObjects.
      * </p>
      */
-    public RequestContext addRequestObject(String tag, Object requestObject)
+    public synchronized RequestContext addRequestObject(String tag, Object requestObject)
     {
-        requestObjects.put(tag, requestObject);
+        Map<String, Object> result = new HashMap<String, Object>(this.requestObjects);
+        result.put(tag, requestObject);
+        this.requestObjects = result;
         return this;
     }
 
@@ -748,6 +783,7 @@ public class RequestContext implements TestRule
             this.setRequestMethodFromAnnotation(this.httpTestAnnotation);
             this.setPathUrlFromAnnotation(this.httpTestAnnotation);
             this.setContentTypeFromAnnotation(this.httpTestAnnotation);
+            this.setExpectContinueFromAnnotation(this.httpTestAnnotation);
             this.addHeadersFromAnnotation(this.httpTestAnnotation);
             this.addAuthenticationFromAnnotation(this.httpTestAnnotation);
             this.setContentFileFromAnnotation(this.httpTestAnnotation);
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import com.eclipsesource.restfuse.annotation.HttpTest;
+
+
+/**
+ * <p>A <code>RequestProcessor</code> is a stage transforming a request before it will be sent. It
+ * can rewrite the url, add headers, replace the authentication or the body. Processors are 
+ * configured with the <code>processrequest</code> attribute of the <code>{@link HttpTest}</code> 
+ * annotation. Several processors can be chained by separating their class names with commas, they
+ * are called in the given order.</p>
+ * 
+ * <p>A processor needs a public default constructor. It's created once per class and reused for 
+ * all requests, also for concurrent ones. So it has to be stateless and keep its state within the 
+ * <code>{@link RequestContext}</code> only.</p>
+ * 
+ * @see HttpTest#processrequest()
+ * @since 1.2
+ */
+public interface RequestProcessor extends ProcessRequest {
+
+  /**
+   * <p>Transforms the given request.</p>
+   */
+  void process( RequestContext request );
+
+}
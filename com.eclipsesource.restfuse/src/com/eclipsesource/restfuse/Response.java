@@ -10,12 +10,20 @@
  ******************************************************************************/
 package com.eclipsesource.restfuse;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 
 /**
  * <p>A <code>Response</code> acts as a wrapper for an http response.</p>
+ * 
+ * <p>The body is kept as raw bytes. <code>{@link #getBody()}</code> decodes it with the charset 
+ * of the response, <code>{@link #getBytes()}</code>, <code>{@link #getByteBuffer()}</code> and 
+ * <code>{@link #getInputStream()}</code> give access to binary bodies, e.g. images or archives. 
+ * Bodies of sent requests are held in pooled buffers which are reused after the test method 
+ * ended, so a response must not be used afterwards.</p>
  */
 public interface Response {
 
@@ -26,8 +34,38 @@ public interface Response {
    */
   <T> T getBody( Class<T> type );
 
+  /**
+   * <p>Returns the body decoded with the charset of the response or UTF-8 when it has none.</p>
+   */
   String getBody();
 
+  /**
+   * <p>Returns a copy of the raw bytes of the body or <code>null</code> when the response has no 
+   * body.</p>
+   * 
+   * @throws IllegalStateException Will be thrown when the body is too large for an array.
+   * 
+   * @since 1.2
+   */
+  byte[] getBytes();
+
+  /**
+   * <p>Returns a read only buffer containing the raw bytes of the body or <code>null</code> when 
+   * the response has no body. The buffer shares its content with the response, no bytes are 
+   * copied.</p>
+   * 
+   * @since 1.2
+   */
+  ByteBuffer getByteBuffer();
+
+  /**
+   * <p>Returns a new stream of the raw bytes of the body for every call or <code>null</code> when 
+   * the response has no body.</p>
+   * 
+   * @since 1.2
+   */
+  InputStream getInputStream();
+
   MediaType getType();
 
   Map<String, List<String>> getHeaders();
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import com.eclipsesource.restfuse.annotation.Stream;
+
+
+/**
+ * <p>A <code>StreamEvent</code> is a single event of a streamed response. For a 
+ * <code>text/event-stream</code> it's a Server-Sent Event, for any other content type, e.g. 
+ * newline delimited JSON, it's a single line of the body.</p>
+ * 
+ * @see Stream
+ * @see StreamState
+ * @since 1.2
+ */
+public class StreamEvent {
+
+  private final String name;
+  private final String id;
+  private final String data;
+  private final long timestamp;
+
+  public StreamEvent( String name, String id, String data, long timestamp ) {
+    this.name = name;
+    this.id = id;
+    this.data = data;
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * <p>Returns the type of a Server-Sent Event set with the <code>event</code> field or 
+   * <code>null</code> when no type was set or the event is a line of the body.</p>
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * <p>Returns the last event id set with the <code>id</code> field of a Server-Sent Event or 
+   * <code>null</code> when no id was set or the event is a line of the body.</p>
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * <p>Returns the data of the event. The <code>data</code> fields of a Server-Sent Event are 
+   * joined with line breaks.</p>
+   */
+  public String getData() {
+    return data;
+  }
+
+  /**
+   * <p>Returns the milliseconds between sending the request and receiving this event.</p>
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return "StreamEvent [name=" + name + ", id=" + id + ", data=" + data + ", timestamp=" + timestamp + "]";
+  }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.util.List;
+
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Stream;
+
+
+/**
+ * <p>A <code>StreamState</code> acts as a consistent state while a streamed response is 
+ * consumed. The <code>StreamState</code> object will be injected into a test object when it has a 
+ * field of the type <code>StreamState</code> which is annotated with the 
+ * <code>{@link Context}</code> annotation. After the injection it can be used to test the events 
+ * received so far.</p>
+ * 
+ * @see Stream
+ * @see StreamEvent
+ * @see Context
+ * @since 1.2
+ */
+public interface StreamState {
+
+  /**
+   * <p>Returns the number of events received so far. It can be used to get the current event 
+   * when it will be passed to the <code>{@link StreamState#getEvent(int)}</code> method.</p>
+   */
+  int getCount();
+
+  /**
+   * <p>Stops consuming the stream. After this method was called the connection is closed and 
+   * JUnit will continue with the next test method.</p>
+   */
+  void abort();
+
+  /**
+   * <p>Returns all events that were received so far.</p>
+   */
+  List<StreamEvent> getEvents();
+
+  /**
+   * <p>Returns a single event by the number it was received with, starting with 1.</p>
+   */
+  StreamEvent getEvent( int number ) throws IllegalArgumentException;
+
+  /**
+   * <p>Returns the distribution of the milliseconds between two events. The first event is 
+   * measured from sending the request.</p>
+   */
+  LatencyDistribution getIntervals();
+
+  /**
+   * <p>Returns whether the stream was ended because no data arrived within the idle timeout. 
+   * It's known once the stream ended, e.g. in an <code>After</code> method or when the test 
+   * method is executed for a stream without events.</p>
+   */
+  boolean hasTimedOut();
+
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+import com.eclipsesource.restfuse.internal.stub.StubServlet;
+
+
+/**
+ * <p>A <code>StubServer</code> is a local http server which serves stubbed endpoints during a 
+ * test. Every endpoint is backed by a <code>{@link CallbackResource}</code>, the same class you 
+ * already use to answer callbacks, and can have a <code>{@link NetworkProfile}</code> which 
+ * delays and throttles its responses. This makes it possible to test client side behavior like 
+ * polling, retries or timeouts against reproducible network conditions without a live 
+ * backend.</p>
+ * 
+ * <p>The server is a JUnit rule. It's started before and stopped after a test method when used 
+ * as <code>Rule</code> or once per TestCase when used as <code>ClassRule</code>. Point the 
+ * <code>{@link Destination}</code> to the url returned by <code>{@link #getUrl()}</code>.</p>
+ * 
+ * <p>A simple stub looks like this:
+ * <pre>
+ * <b>&#064;RunWith( HttpJUnitRunner.class )</b>
+ * public class Example {
+ * 
+ *   <b>&#064;ClassRule</b>
+ *   public static StubServer stubs = new StubServer( 9090 )
+ *     .stub( "/orders", new OrderResource(), NetworkProfile.latency( 200 ).withBandwidth( 1024 ) );
+ * 
+ *   <b>&#064;Rule</b>
+ *   public Destination destination = new Destination( this, stubs.getUrl() );
+ *    
+ *   <b>&#064;Context</b>
+ *   private Response response;
+ * 
+ *   <b>&#064;HttpTest( method = Method.GET, path = "/orders" )</b> 
+ *   public void testMethod() {
+ *     com.eclipsesource.restfuse.Assert.assertOk( response );
+ *   }
+ * }
+ * </pre>
+ * </p>
+ * 
+ * @see NetworkProfile
+ * @see CallbackResource
+ * @since 1.2
+ */
+public class StubServer extends ExternalResource {
+
+  private final int port;
+  private final Map<String, StubServlet> stubs;
+  private Server server;
+
+  /**
+   * <p>Constructs a new <code>StubServer</code> which will listen on the given port.</p>
+   */
+  public StubServer( int port ) {
+    this.port = port;
+    this.stubs = new LinkedHashMap<String, StubServlet>();
+  }
+
+  /**
+   * <p>Adds a stubbed endpoint without any artificial latency.</p>
+   * 
+   * @see #stub(String, CallbackResource, NetworkProfile)
+   */
+  public StubServer stub( String path, CallbackResource resource ) {
+    return stub( path, resource, NetworkProfile.NONE );
+  }
+
+  /**
+   * <p>Adds a stubbed endpoint. Incoming requests on <code>path</code> are handled by the 
+   * <code>resource</code> and answered with the conditions of the <code>profile</code>.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when one of the arguments is null.
+   */
+  public StubServer stub( String path, CallbackResource resource, NetworkProfile profile ) {
+    checkNotNull( path, "path" );
+    checkNotNull( resource, "resource" );
+    checkNotNull( profile, "profile" );
+    stubs.put( path, new StubServlet( resource, profile ) );
+    return this;
+  }
+
+  /**
+   * <p>Returns the base url of this server which can be passed to a 
+   * <code>{@link Destination}</code>.</p>
+   */
+  public String getUrl() {
+    return "http://localhost:" + port;
+  }
+
+  /**
+   * <p>Returns how many requests were received by the endpoint stubbed on <code>path</code>.</p>
+   * 
+   * @throws IllegalArgumentException Will be thrown when no stub is registered for the path.
+   */
+  public int getCalls( String path ) {
+    StubServlet stub = stubs.get( path );
+    if( stub == null ) {
+      throw new IllegalArgumentException( "No stub registered for path " + path );
+    }
+    return stub.getCalls();
+  }
+
+  /**
+   * Reports failures within the stubs after the test. When the test failed too, its failure is 
+   * reported first together with the failures of the stubs.
+   */
+  @Override
+  public Statement apply( final Statement base, Description description ) {
+    return super.apply( new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        List<Throwable> failures = new ArrayList<Throwable>();
+        try {
+          base.evaluate();
+        } catch( Throwable failure ) {
+          failures.add( failure );
+        }
+        failures.addAll( getFailuresWithinStubs() );
+        MultipleFailureException.assertEmpty( failures );
+      }
+    }, description );
+  }
+
+  @Override
+  protected void before() throws Throwable {
+    server = new Server( port );
+    ServletContextHandler context = new ServletContextHandler( server, "/", ServletContextHandler.SESSIONS );
+    for( String path : stubs.keySet() ) {
+      context.addServlet( new ServletHolder( stubs.get( path ) ), path );
+    }
+    try {
+      server.start();
+    } catch( Exception shouldNotHappen ) {
+      throw new IllegalStateException( "Could not start Stub Server", shouldNotHappen );
+    }
+  }
+
+  @Override
+  protected void after() {
+    try {
+      server.stop();
+    } catch( Exception shouldNotHappen ) {
+      throw new IllegalStateException( "Could not stop Stub Server", shouldNotHappen );
+    }
+  }
+
+  private List<Throwable> getFailuresWithinStubs() {
+    List<Throwable> result = new ArrayList<Throwable>();
+    for( String path : stubs.keySet() ) {
+      Throwable failure = stubs.get( path ).getFailure();
+      if( failure != null ) {
+        AssertionError error = new AssertionError( "Stub " + path + " failed: " + failure.getMessage() );
+        error.initCause( failure );
+        result.add( error );
+      }
+    }
+    return result;
+  }
+
+  private void checkNotNull( Object value, String name ) {
+    if( value == null ) {
+      throw new IllegalArgumentException( name + " must not be null." );
+    }
+  }
+}
@@ -20,8 +20,8 @@ import com.eclipsesource.restfuse.AuthenticationType;
 
 /**
  * <p>The <code>Authentication</code> can be used within a <code>{@link HttpTest}</code> annotation
- * to send authentication information within an outgoing http request. Currently only BASIC and
- * DIGEST authentication are supported.</p>
+ * to send authentication information within an outgoing http request. BASIC, DIGEST and BEARER 
+ * authentication are supported.</p>
  * 
  * @see AuthenticationType
  */
@@ -30,8 +30,8 @@ import com.eclipsesource.restfuse.AuthenticationType;
 public @interface Authentication {
   
   /**
-   * <p>The <code>type</code> attribute specifies the type of the authentication method. Currently
-   * only BASIC and DIGEST authentication are supported. This may change in future.</p>
+   * <p>The <code>type</code> attribute specifies the type of the authentication method. BASIC, 
+   * DIGEST and BEARER authentication are supported.</p>
    * 
    * @see AuthenticationType
    */
@@ -41,4 +41,11 @@ public @interface Authentication {
 
   String password();
   
+  /**
+   * <p>The url to fetch BEARER tokens from. Ignored by other authentication types.</p>
+   * 
+   * @since 1.2
+   */
+  String tokenEndpoint() default "";
+  
 }
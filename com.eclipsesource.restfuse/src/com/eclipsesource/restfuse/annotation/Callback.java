@@ -16,8 +16,10 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import com.eclipsesource.restfuse.CallbackResource;
+import com.eclipsesource.restfuse.CallbackState;
 import com.eclipsesource.restfuse.DefaultCallbackResource;
 import com.eclipsesource.restfuse.Destination;
+import com.eclipsesource.restfuse.Request;
 
 
 /**
@@ -45,6 +47,22 @@ import com.eclipsesource.restfuse.Destination;
  * <code>{@link DefaultCallbackResource}</code> which implements all methods and returns a default 
  * response instead of sub classing the <code>{@link CallbackResource}</code> directly.</p>
  * 
+ * <p>To stress a service that sends many callbacks the server's connector and thread pool can be
+ * tuned with the <code>acceptors</code>, <code>maxThreads</code> and <code>maxQueued</code> 
+ * attributes. A <code>{@link CallbackState}</code> field annotated with <code>Context</code> 
+ * provides the queue depth and the number of rejected callbacks.</p>
+ * 
+ * <p>When the <code>port</code> is <code>0</code> the server binds to a free port. Tests that run 
+ * in parallel can share one port by setting <code>correlate</code> to <code>true</code>, each 
+ * test gets its own correlation id. In both cases the effective callback url is available as 
+ * <code>{callbackUrl}</code> placeholder within the <code>{@link HttpTest}</code> path and 
+ * content and within the <code>{@link CallbackState}</code>.</p>
+ * 
+ * <p>The time from sending the request until each callback arrived is measured. To measure a 
+ * distribution under load let the service call back several times and set 
+ * <code>expectedCalls</code> accordingly. As the test code runs before the server waits for the 
+ * expected callbacks, use <code>maxLatency</code> to check the final distribution.</p>
+ * 
  * <p>A simple callback looks like this:
  * <pre>
  * <b>&#064;RunWith( HttpJUnitRunner.class )</b>
@@ -76,6 +94,7 @@ import com.eclipsesource.restfuse.Destination;
  * 
  * @see CallbackResource
  * @see DefaultCallbackResource
+ * @see CallbackState
  * @see HttpTest
  * @see Destination
  */
@@ -83,11 +102,34 @@ import com.eclipsesource.restfuse.Destination;
 @Target( { ElementType.METHOD } )
 public @interface Callback {
 
+  /**
+   * <p>The name of the placeholder that will be replaced with the callback url.</p>
+   * 
+   * @since 1.2
+   */
+  String CALLBACK_URL = "callbackUrl";
+
+  /**
+   * <p>The name of the placeholder that will be replaced with the correlation id of a correlated 
+   * callback.</p>
+   * 
+   * @since 1.2
+   */
+  String CALLBACK_ID = "callbackId";
+
+  /**
+   * <p>The name of the header a correlated callback can use to send its correlation id instead 
+   * of appending it to the callback path.</p>
+   * 
+   * @since 1.2
+   */
+  String CORRELATION_HEADER = "X-Correlation-Id";
+
   /**
    * <p>The <code>port</code> attribute specifies the port on which the callback will be reachable 
-   * during the test method execution.</p>
+   * during the test method execution. <code>0</code> lets the server choose a free port.</p>
    */
-  int port();
+  int port() default 0;
 
   /**
    * <p>The <code>path</code> attribute specifies the path on which the callback will be reachable 
@@ -113,4 +155,79 @@ public @interface Callback {
    * fail.</p>
    */
   int timeout();
+
+  /**
+   * <p>The <code>acceptors</code> attribute specifies the number of threads accepting incoming 
+   * connections. Each acceptor owns its own selector. <code>0</code> keeps the default of the 
+   * server.</p>
+   * 
+   * @since 1.2
+   */
+  int acceptors() default 0;
+
+  /**
+   * <p>The <code>maxThreads</code> attribute specifies the maximum number of threads handling 
+   * callbacks, including the acceptor and selector threads. <code>0</code> keeps the default of 
+   * the server.</p>
+   * 
+   * @since 1.2
+   */
+  int maxThreads() default 0;
+
+  /**
+   * <p>The <code>maxQueued</code> attribute bounds the number of jobs waiting for a free thread. 
+   * When the queue is full further callbacks are rejected and counted within the 
+   * <code>{@link CallbackState}</code>. <code>0</code> means unbounded.</p>
+   * 
+   * @since 1.2
+   */
+  int maxQueued() default 0;
+
+  /**
+   * <p>The <code>maxBodySize</code> attribute specifies how many bytes of a callback body may be 
+   * buffered in memory by a <code>{@link Request}</code>. Larger bodies can still be read using 
+   * <code>{@link Request#getInputStream()}</code> while the callback resource handles the 
+   * request, they are not kept afterwards. <code>0</code> means unlimited.</p>
+   * 
+   * @since 1.2
+   */
+  int maxBodySize() default 0;
+
+  /**
+   * <p>The <code>correlate</code> attribute lets all tests using the same <code>port</code> and 
+   * <code>path</code> share one server. Incoming callbacks are routed to the waiting test by the 
+   * <code>X-Correlation-Id</code> header or by the first path segment after the 
+   * <code>path</code>. Callbacks with an unknown id are answered with <code>404</code>.</p>
+   * 
+   * @since 1.2
+   */
+  boolean correlate() default false;
+
+  /**
+   * <p>The <code>expectedCalls</code> attribute specifies how many callbacks the test waits for. 
+   * When fewer callbacks arrived within the <code>timeout</code> the test fails. The latency of 
+   * every callback is recorded within the <code>{@link CallbackState}</code>.</p>
+   * 
+   * @since 1.2
+   */
+  int expectedCalls() default 1;
+
+  /**
+   * <p>The <code>maxLatency</code> attribute specifies the milliseconds within which the callbacks 
+   * have to arrive. It's checked after the server waited for the expected callbacks, so it covers 
+   * the final distribution. When the <code>latencyPercentile</code> of the latencies is higher 
+   * the test fails with the whole distribution. <code>0</code> means unchecked.</p>
+   * 
+   * @since 1.2
+   */
+  int maxLatency() default 0;
+
+  /**
+   * <p>The <code>latencyPercentile</code> attribute specifies which percentile of the latencies 
+   * is checked against the <code>maxLatency</code>, e.g. <code>99</code>. By default the 
+   * slowest callback is checked.</p>
+   * 
+   * @since 1.2
+   */
+  double latencyPercentile() default 100;
 }
@@ -15,6 +15,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.eclipsesource.restfuse.CallbackState;
 import com.eclipsesource.restfuse.Destination;
 import com.eclipsesource.restfuse.PollState;
 import com.eclipsesource.restfuse.Response;
@@ -22,8 +23,8 @@ import com.eclipsesource.restfuse.Response;
 
 /**
  * The <code>Context</code> annotation can be used within a TestCase to get the 
- * <code>{@link Response}</code> or a <code>{@link PollState}</code> of an
- * HTTP request injected after it succeeds.</p>
+ * <code>{@link Response}</code>, a <code>{@link PollState}</code> or a 
+ * <code>{@link CallbackState}</code> of an HTTP request injected after it succeeds.</p>
  * 
  * <p>A simple example looks like this:
  * <pre>
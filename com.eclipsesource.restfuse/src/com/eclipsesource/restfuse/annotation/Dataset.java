@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.eclipsesource.restfuse.DataRow;
+import com.eclipsesource.restfuse.Destination;
+import com.eclipsesource.restfuse.Response;
+
+
+/**
+ * <p>The <code>Dataset</code> annotation runs an http test once for every row of a data file. 
+ * This way thousands of request configurations can be checked with a single test method.</p>
+ * 
+ * <p>Please note, that the <code>Dataset</code> annotation only works in combination with the 
+ * <code>{@link HttpTest}</code> annotation. This means it <b>can't</b> be used standalone and it 
+ * has the same prerequisites as the <code>{@link HttpTest}</code>.</p>
+ * 
+ * <p>The <code>file</code> is loaded from the classpath relative to the test class. Files ending 
+ * with <code>.csv</code> are read as comma separated values with a header line naming the 
+ * columns. Files ending with <code>.jsonl</code> or <code>.ndjson</code> are read as JSON Lines, 
+ * one flat JSON object per line. The rows are streamed, the file is never loaded completely.</p>
+ * 
+ * <p>The values of a row are available as path segments, as request objects and as placeholders 
+ * within the <code>content</code> of the <code>{@link HttpTest}</code>. A column named 
+ * <code>id</code> replaces <code>{id}</code>. Up to <code>parallelism</code> requests are sent 
+ * concurrently. The test method itself is executed for one row at a time after the current 
+ * <code>{@link Response}</code> and <code>{@link DataRow}</code> were injected into the 
+ * <code>{@link Context}</code> annotated fields.</p>
+ * 
+ * <p>All rows are checked, even when some of them fail. The test fails afterwards, reporting each 
+ * failed row with its values.</p>
+ * 
+ * <p>A simple data driven test looks like this:
+ * <pre>
+ * <b>&#064;RunWith( HttpJUnitRunner.class )</b>
+ * public class Example {
+ * 
+ *   <b>&#064;Rule</b>
+ *   public Destination destination = new Destination( "http://localhost" );
+ *    
+ *   <b>&#064;Context</b>
+ *   private Response response;
+ *   
+ *   <b>&#064;Context</b>
+ *   private DataRow row;
+ *   
+ *   <b>&#064;HttpTest( method = Method.GET, path = "/products/{id}" )</b>
+ *   <b>&#064;Dataset( file = "products.csv", parallelism = 8 )</b>
+ *   public void testMethod() {
+ *     com.eclipsesource.restfuse.Assert.assertOk( response );
+ *   }
+ * }
+ * </pre>
+ * </p>
+ * 
+ * @see DataRow
+ * @see HttpTest
+ * @see Destination
+ * @see Context
+ * @since 1.2
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( { ElementType.METHOD } )
+public @interface Dataset {
+
+  /**
+   * <p>The <code>file</code> attribute specifies the classpath resource containing the rows, 
+   * relative to the test class or absolute when it starts with <code>/</code>.</p>
+   */
+  String file();
+
+  /**
+   * <p>The <code>parallelism</code> attribute specifies how many requests may be in flight at the 
+   * same time.</p>
+   */
+  int parallelism() default 1;
+}
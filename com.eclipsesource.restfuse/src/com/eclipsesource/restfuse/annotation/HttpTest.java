@@ -20,6 +20,7 @@ import com.eclipsesource.restfuse.Destination;
 import com.eclipsesource.restfuse.HttpJUnitRunner;
 import com.eclipsesource.restfuse.MediaType;
 import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestProcessor;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.internal.AuthenticationInfo;
 
@@ -96,13 +97,18 @@ public @interface HttpTest {
    * <code>file</code> attribute. The file has to be on the classpath of the TestCase. An 
    * alternative can be to use the <code>content</code> attribute. If both are defined the 
    * <code>file</code> attribute wins.</p>
+   * 
+   * <p>Placeholders like <code>{key}</code> are replaced with the request object of the same key. 
+   * Byte arrays are inserted as they are, other objects as their string value. The file is streamed while it's sent, it's never held 
+   * in memory completely.</p>
    */
   String file() default EMPTY;
 
   /**
    * <p>When the request can have an entity like POST or PUT requests the content can be set by the 
    * <code>content</code> attribute. An alternative can be to use the <code>file</code> attribute. 
-   * If both are defined the <code>file</code> attribute wins.</p>
+   * If both are defined the <code>file</code> attribute wins. Placeholders are replaced like 
+   * within the <code>file</code>.</p>
    */
   String content() default EMPTY;
   
@@ -110,6 +116,8 @@ public @interface HttpTest {
    * <p>When the request can have an entity like POST or PUT requests the content can be set directly by the 
    * <code>file</code> or <code>content</code> attribute or be modified in the getDestination() call by the <code>setDynamicBody()</code> method.
    * The class defined by the <code>processrequest</code> field will process/transform the available request-content by using the  Request Context as an input.</p>
+   * <p>Several classes can be chained by separating their names with commas. Classes implementing
+   * <code>{@link RequestProcessor}</code> are created only once and reused for all requests.</p>
    */
   String processrequest() default EMPTY;
 
@@ -144,6 +152,20 @@ public @interface HttpTest {
    * @since 1.2
    */
   int order() default 0;
+
+  /**
+   * <p>When <code>true</code> a POST or PUT sends the header <code>Expect: 100-continue</code> and 
+   * waits for the server's interim response before it streams the body. So a server rejecting 
+   * the upload, e.g. because of missing authentication or an exceeded quota, answers before a 
+   * large body was transferred. The response of a rejected upload carries only its status. How 
+   * long uploads waited can be pulled using <code>Destination#getContinueWaits()</code>.</p>
+   * 
+   * <p>Servers not answering the expectation within five seconds receive the body anyway. When 
+   * a read timeout is set it's used instead and a server not answering fails the request.</p>
+   * 
+   * @since 1.2
+   */
+  boolean expectContinue() default false;
   
   /**
    * 
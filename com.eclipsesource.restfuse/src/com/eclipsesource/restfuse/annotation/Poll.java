@@ -30,7 +30,9 @@ import com.eclipsesource.restfuse.Response;
  * 
  * <p>By annotating a test method with <code>Poll</code> you tell the framework to send the request
  * defined in the <code>HttpTest</code> more than one times. The amount of requests can be 
- * configured via the <code>times</code> attribute.</p>
+ * configured via the <code>times</code> attribute. The request is prepared once and sent 
+ * unchanged during the whole poll series. Changes on the <code>RequestContext</code> made by the 
+ * test method don't affect later requests of the series.</p>
  * 
  * <p>Once a single request has finished on an HTTP test method and the method has a 
  * <code>Poll</code> annotation attached, a <code>{@link PollState} object will be injected into the
@@ -85,4 +87,17 @@ public @interface Poll {
    * requests in a poll series.</p>
    */
   int interval();
+
+  /**
+   * <p>When <code>true</code> every request after the first one is conditional. It carries the 
+   * <code>ETag</code> as <code>If-None-Match</code> and the <code>Last-Modified</code> date as 
+   * <code>If-Modified-Since</code> of the last changed response. A server answering with 
+   * <code>304 Not Modified</code> does not send the representation again. Such responses are 
+   * recorded as unchanged in the <code>{@link PollState}</code> and the test method is only 
+   * executed for responses with a changed representation.</p>
+   * 
+   * @see PollState#isUnchanged(int)
+   * @since 1.2
+   */
+  boolean conditional() default false;
 }
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.eclipsesource.restfuse.Destination;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.StreamEvent;
+import com.eclipsesource.restfuse.StreamState;
+
+
+/**
+ * <p>The <code>Stream</code> annotation can be used for HTTP tests of endpoints which push their 
+ * results over a long lived response, e.g. Server-Sent Events or chunked newline delimited 
+ * JSON.</p>
+ * 
+ * <p>Please note, that the <code>Stream</code> annotation only works in combination with the 
+ * <code>{@link HttpTest}</code> annotation. This means it <b>can't</b> be used standalone and it 
+ * has the same prerequisites as the <code>{@link HttpTest}</code>.</p>
+ * 
+ * <p>By annotating a test method with <code>Stream</code> you tell the framework to send the 
+ * request defined in the <code>HttpTest</code> once and to read its body while it arrives. A 
+ * response with the content type <code>text/event-stream</code> is split into Server-Sent 
+ * Events, any other body into lines. The test method is executed for every 
+ * <code>{@link StreamEvent}</code> as soon as it was received, so it can check the latency 
+ * between events. Reading stops when <code>maxEvents</code> events were received, when no data 
+ * arrived within the <code>idleTimeout</code> or when the server closed the stream.</p>
+ * 
+ * <p>Before the test method is executed a <code>{@link StreamState}</code> object will be 
+ * injected into the Test object. The <code>{@link StreamState}</code> field needs to be annotated 
+ * with the <code>{@link Context}</code> annotation. A <code>{@link Context}</code> annotated 
+ * <code>{@link Response}</code> field gets the status and headers of the response, its body is 
+ * only available when the request failed. When the stream ends without any event the test method 
+ * is executed once.</p>
+ * 
+ * <p>Streams are read over a direct http connection. Only basic authentication is applied, the 
+ * proxy, the cookies and other features of the <code>{@link Destination}</code> are not used.</p>
+ * 
+ * <p>A simple stream test looks like this:
+ * <pre>
+ * <b>&#064;RunWith( HttpJUnitRunner.class )</b>
+ * public class Example {
+ * 
+ *   <b>&#064;Rule</b>
+ *   public Destination destination = new Destination( "http://localhost" );
+ *    
+ *   <b>&#064;Context</b>
+ *   private StreamState streamState;
+ *   
+ *   <b>&#064;HttpTest( method = Method.GET, path = "/progress" )</b>
+ *   <b>&#064;Stream( maxEvents = 10, idleTimeout = 5000 )</b>
+ *   public void testMethod() {
+ *     StreamEvent event = streamState.getEvent( streamState.getCount() );
+ *     assertEquals( "progress", event.getName() );
+ *     assertTrue( streamState.getIntervals().getMax() < 1000 );
+ *   }
+ * }
+ * </pre>
+ * </p>
+ * 
+ * @see StreamState
+ * @see StreamEvent
+ * @see HttpTest
+ * @since 1.2
+ */
+@Retention( RetentionPolicy.RUNTIME )
+@Target( { ElementType.METHOD } )
+public @interface Stream {
+
+  /**
+   * <p>The <code>maxEvents</code> attribute specifies the amount of events after which the stream 
+   * is closed and JUnit will continue with the next test method.</p>
+   */
+  int maxEvents();
+
+  /**
+   * <p>The <code>idleTimeout</code> attribute specifies the milliseconds to wait for further data 
+   * before the stream is closed. <code>0</code> waits until the server closes the stream.</p>
+   */
+  int idleTimeout();
+}
@@ -18,11 +18,25 @@ public class AuthenticationInfo {
   private final AuthenticationType type;
   private final String user;
   private final String password;
+  private final String tokenEndpoint;
 
   public AuthenticationInfo( AuthenticationType type, String user, String password ) {
+    this( type, user, password, null );
+  }
+
+  /**
+   * Creates a <code>BEARER</code> authentication fetching its tokens from the given endpoint 
+   * using the user as client id and the password as client secret.
+   */
+  public AuthenticationInfo( AuthenticationType type, 
+                             String user, 
+                             String password, 
+                             String tokenEndpoint ) 
+  {
     this.type = type;
     this.user = user;
     this.password = password;
+    this.tokenEndpoint = tokenEndpoint;
   }
 
   public AuthenticationType getType() {
@@ -36,4 +50,8 @@ public class AuthenticationInfo {
   public String getPassword() {
     return password;
   }
+
+  public String getTokenEndpoint() {
+    return tokenEndpoint;
+  }
 }
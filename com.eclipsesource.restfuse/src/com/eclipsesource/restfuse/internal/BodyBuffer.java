@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+
+/**
+ * <p>Holds a response body or the recording of a request body. Bodies up to a threshold are kept 
+ * in direct buffers taken from a shared <code>{@link BufferPool}</code>, which get back to the 
+ * pool when the body is released. Larger bodies are spilled to a temporary file which is read 
+ * through a <code>FileChannel</code> and exists until the body is released.</p>
+ * 
+ * <p>Streams of the body fail once it was released. A buffer handed out by 
+ * <code>{@link #getByteBuffer()}</code> can't be revoked, so it's not pooled again.</p>
+ */
+public class BodyBuffer {
+
+  public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+  /**
+   * The system property limiting the bytes of direct buffers the shared pool keeps between 
+   * requests, <code>0</code> disables pooling. Defaults to 64 MB.
+   */
+  public static final String MAX_POOLED_BYTES_PROPERTY = "restfuse.maxPooledBytes";
+  private static final long MAX_POOLED_BYTES = Long.getLong( MAX_POOLED_BYTES_PROPERTY, 
+                                                             64 * 1024 * 1024 ).longValue();
+  private static final BufferPool POOL = new BufferPool( MAX_POOLED_BYTES );
+  private static final int CHUNK_SIZE = 8192;
+
+  private ByteBuffer memory;
+  private boolean pooled;
+  private boolean shared;
+  private File file;
+  private FileChannel channel;
+  private ByteBuffer mapping;
+  private long length;
+  private boolean released;
+
+  private BodyBuffer() {
+    // use read or wrap
+  }
+
+  /**
+   * Reads the stream to its end and closes it. A body longer than the threshold in bytes is 
+   * spilled to a temporary file. The expected length, e.g. from a Content-Length header, sizes 
+   * the pooled buffer. Above the threshold it spills before anything is buffered in memory, 
+   * <code>-1</code> means unknown.
+   */
+  public static BodyBuffer read( InputStream stream, long expectedLength, int threshold ) 
+    throws IOException 
+  {
+    BodyBuffer result = new BodyBuffer();
+    try {
+      result.readFrom( stream, expectedLength, Math.min( threshold, BufferPool.MAX_CAPACITY ) );
+    } catch( IOException ioe ) {
+      result.release();
+      throw ioe;
+    } finally {
+      stream.close();
+    }
+    return result;
+  }
+
+  /**
+   * Creates an empty buffer to append a body to in chunks, e.g. while it's sent. The body can be 
+   * read after it was finished.
+   */
+  static BodyBuffer create() {
+    BodyBuffer result = new BodyBuffer();
+    result.acquire( BufferPool.MIN_CAPACITY );
+    return result;
+  }
+
+  /**
+   * Holds a body which is in memory already without copying it.
+   */
+  public static BodyBuffer wrap( byte[] content ) {
+    BodyBuffer result = new BodyBuffer();
+    result.memory = ByteBuffer.wrap( content );
+    result.length = content.length;
+    return result;
+  }
+
+  static BufferPool getPool() {
+    return POOL;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public boolean isSpilled() {
+    return file != null;
+  }
+
+  /**
+   * Returns a new stream of the body for every call. Reading a body in memory fails after the 
+   * buffer was released.
+   * 
+   * @throws IllegalStateException when the buffer was released.
+   */
+  public InputStream open() throws IOException {
+    checkNotReleased();
+    InputStream result;
+    if( file != null ) {
+      result = Channels.newInputStream( new FileInputStream( file ).getChannel() );
+    } else {
+      result = new ByteBufferInputStream( memory.duplicate() );
+    }
+    return result;
+  }
+
+  /**
+   * Returns a read only view of the body. The buffer of a body in memory is shared and kept out 
+   * of the pool from now on, a spilled body is mapped once.
+   * 
+   * @throws IllegalStateException when the buffer was released or the body is too large to map.
+   */
+  public synchronized ByteBuffer getByteBuffer() throws IOException {
+    checkNotReleased();
+    ByteBuffer result;
+    if( file != null ) {
+      if( mapping == null ) {
+        mapping = map();
+      }
+      result = mapping.asReadOnlyBuffer();
+    } else {
+      result = memory.asReadOnlyBuffer();
+      shared = true;
+    }
+    return result;
+  }
+
+  /**
+   * Returns a copy of the body.
+   * 
+   * @throws IllegalStateException when the buffer was released or the body is too large for an 
+   * array.
+   */
+  public byte[] getBytes() throws IOException {
+    checkArraySize();
+    byte[] result = new byte[ ( int )length ];
+    if( file != null ) {
+      readFully( open(), result );
+    } else {
+      synchronized( this ) {
+        checkNotReleased();
+        memory.duplicate().get( result );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Decodes the body with the given charset, UTF-8 when it's <code>null</code>.
+   */
+  public String toString( String charset ) throws IOException {
+    String validCharset = charset != null && charset.length() > 0 ? charset : "UTF-8";
+    String result;
+    if( file != null ) {
+      result = decode( open(), validCharset );
+    } else {
+      synchronized( this ) {
+        checkNotReleased();
+        result = Charset.forName( validCharset ).decode( memory.duplicate() ).toString();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a pooled buffer to the pool unless it was shared and deletes the temporary file. It's 
+   * safe to call this more than once.
+   */
+  public synchronized void release() {
+    if( !released ) {
+      released = true;
+      if( pooled && !shared ) {
+        POOL.release( memory );
+      }
+      memory = null;
+      mapping = null;
+      closeChannel();
+      // a mapped file can't be deleted on all platforms until the mapping was collected
+      if( file != null && !file.delete() ) {
+        file.deleteOnExit();
+      }
+    }
+  }
+
+  // a recording which was not finished still writes to the file
+  private void closeChannel() {
+    if( channel != null ) {
+      try {
+        channel.close();
+      } catch( IOException ignored ) {
+        // the file is deleted anyway
+      }
+      channel = null;
+    }
+  }
+
+  private void readFrom( InputStream stream, long expectedLength, int threshold ) throws IOException {
+    try {
+      if( expectedLength > threshold ) {
+        channel = spill();
+      } else {
+        acquire( expectedLength > 0 ? ( int )expectedLength : BufferPool.MIN_CAPACITY );
+      }
+      byte[] chunk = new byte[ CHUNK_SIZE ];
+      int read;
+      while( ( read = stream.read( chunk ) ) != -1 ) {
+        append( chunk, 0, read, threshold );
+      }
+    } finally {
+      finish();
+    }
+  }
+
+  /**
+   * Appends a chunk of the body, spilling it when it gets longer than the threshold in bytes.
+   */
+  void append( byte[] chunk, int offset, int count, int threshold ) throws IOException {
+    if( channel == null && length + count > Math.min( threshold, BufferPool.MAX_CAPACITY ) ) {
+      channel = spill();
+    }
+    if( channel != null ) {
+      writeFully( channel, ByteBuffer.wrap( chunk, offset, count ) );
+    } else {
+      append( chunk, offset, count );
+    }
+    length += count;
+  }
+
+  /**
+   * Ends appending, the body can be read afterwards.
+   */
+  void finish() throws IOException {
+    if( channel != null ) {
+      channel.close();
+      channel = null;
+    } else if( memory != null ) {
+      memory.flip();
+    }
+  }
+
+  private void acquire( int capacity ) {
+    memory = POOL.acquire( capacity );
+    pooled = true;
+  }
+
+  private FileChannel spill() throws IOException {
+    file = File.createTempFile( "restfuse", ".body" );
+    FileChannel result = new FileOutputStream( file ).getChannel();
+    if( memory != null ) {
+      memory.flip();
+      writeFully( result, memory );
+      POOL.release( memory );
+      memory = null;
+      pooled = false;
+    }
+    return result;
+  }
+
+  private void append( byte[] chunk, int offset, int read ) {
+    if( memory.remaining() < read ) {
+      ByteBuffer previous = memory;
+      acquire( previous.position() + read );
+      previous.flip();
+      memory.put( previous );
+      POOL.release( previous );
+    }
+    memory.put( chunk, offset, read );
+  }
+
+  private ByteBuffer map() throws IOException {
+    checkArraySize();
+    FileInputStream stream = new FileInputStream( file );
+    try {
+      return stream.getChannel().map( FileChannel.MapMode.READ_ONLY, 0, length );
+    } finally {
+      stream.close();
+    }
+  }
+
+  private void checkArraySize() {
+    if( length > Integer.MAX_VALUE ) {
+      throw new IllegalStateException( "Response body of " + length + " bytes is too large, "
+                                       + "use the input stream instead." );
+    }
+  }
+
+  private synchronized void checkNotReleased() {
+    if( released ) {
+      throw new IllegalStateException( "Response body was already released." );
+    }
+  }
+
+  private static void writeFully( FileChannel channel, ByteBuffer buffer ) throws IOException {
+    while( buffer.hasRemaining() ) {
+      channel.write( buffer );
+    }
+  }
+
+  private static void readFully( InputStream stream, byte[] result ) throws IOException {
+    try {
+      int offset = 0;
+      int read = 0;
+      while( read != -1 && offset < result.length ) {
+        read = stream.read( result, offset, result.length - offset );
+        offset += Math.max( read, 0 );
+      }
+    } finally {
+      stream.close();
+    }
+  }
+
+  private static String decode( InputStream stream, String charset ) throws IOException {
+    StringBuilder result = new StringBuilder();
+    try {
+      Reader reader = new InputStreamReader( stream, charset );
+      char[] buffer = new char[ CHUNK_SIZE ];
+      int read;
+      while( ( read = reader.read( buffer ) ) != -1 ) {
+        result.append( buffer, 0, read );
+      }
+    } finally {
+      stream.close();
+    }
+    return result.toString();
+  }
+
+  // reads under the lock of the body, the pooled buffer may belong to another body once released
+  private class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream( ByteBuffer buffer ) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() throws IOException {
+      synchronized( BodyBuffer.this ) {
+        checkReadable();
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+    }
+
+    @Override
+    public int read( byte[] bytes, int offset, int length ) throws IOException {
+      synchronized( BodyBuffer.this ) {
+        checkReadable();
+        int result = -1;
+        if( length == 0 ) {
+          result = 0;
+        } else if( buffer.hasRemaining() ) {
+          result = Math.min( length, buffer.remaining() );
+          buffer.get( bytes, offset, result );
+        }
+        return result;
+      }
+    }
+
+    @Override
+    public int available() throws IOException {
+      synchronized( BodyBuffer.this ) {
+        checkReadable();
+        return buffer.remaining();
+      }
+    }
+
+    private void checkReadable() throws IOException {
+      if( released ) {
+        throw new IOException( "Response body was already released." );
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * <p>A pool of direct buffers with capacities in powers of two. Released buffers are reused by 
+ * later acquisitions of the same size class, so repeated requests don't allocate new buffers. The 
+ * pool retains buffers only up to a limit of bytes, further released buffers are dropped.</p>
+ */
+public class BufferPool {
+
+  static final int MIN_CAPACITY = 8192;
+  public static final int MAX_CAPACITY = 1 << 30;
+  private static final int MIN_BITS = Integer.numberOfTrailingZeros( MIN_CAPACITY );
+
+  private final long maxPooledBytes;
+  private final List<Queue<ByteBuffer>> pools;
+  private final AtomicLong pooledBytes;
+  private final AtomicInteger allocations;
+
+  public BufferPool( long maxPooledBytes ) {
+    this.maxPooledBytes = maxPooledBytes;
+    int sizeClasses = Integer.numberOfTrailingZeros( MAX_CAPACITY ) - MIN_BITS + 1;
+    this.pools = new ArrayList<Queue<ByteBuffer>>( sizeClasses );
+    for( int i = 0; i < sizeClasses; i++ ) {
+      pools.add( new ConcurrentLinkedQueue<ByteBuffer>() );
+    }
+    this.pooledBytes = new AtomicLong();
+    this.allocations = new AtomicInteger();
+  }
+
+  /**
+   * Returns a cleared direct buffer with at least the given capacity, a pooled one when available.
+   * 
+   * @throws IllegalArgumentException when the capacity exceeds <code>{@link #MAX_CAPACITY}</code>.
+   */
+  public ByteBuffer acquire( int capacity ) {
+    if( capacity > MAX_CAPACITY ) {
+      throw new IllegalArgumentException( "capacity must not exceed " + MAX_CAPACITY + "." );
+    }
+    int sizeClass = getSizeClass( capacity );
+    ByteBuffer result = pools.get( sizeClass ).poll();
+    if( result != null ) {
+      pooledBytes.addAndGet( -result.capacity() );
+      result.clear();
+    } else {
+      allocations.incrementAndGet();
+      result = ByteBuffer.allocateDirect( getCapacity( sizeClass ) );
+    }
+    return result;
+  }
+
+  /**
+   * Returns a buffer acquired from this pool. The buffer must not be used afterwards.
+   */
+  public void release( ByteBuffer buffer ) {
+    int capacity = buffer.capacity();
+    if( pooledBytes.addAndGet( capacity ) <= maxPooledBytes ) {
+      pools.get( getSizeClass( capacity ) ).offer( buffer );
+    } else {
+      pooledBytes.addAndGet( -capacity );
+    }
+  }
+
+  /**
+   * Returns how many buffers were allocated because no pooled buffer was available.
+   */
+  public int getAllocations() {
+    return allocations.get();
+  }
+
+  private static int getSizeClass( int capacity ) {
+    int bits = 32 - Integer.numberOfLeadingZeros( Math.max( MIN_CAPACITY, capacity ) - 1 );
+    return bits - MIN_BITS;
+  }
+
+  private static int getCapacity( int sizeClass ) {
+    return 1 << ( sizeClass + MIN_BITS );
+  }
+}
@@ -11,34 +11,47 @@
 package com.eclipsesource.restfuse.internal;
 
 import java.lang.reflect.Field;
-import java.util.Properties;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
-import com.eclipsesource.restfuse.Method;
 import com.eclipsesource.restfuse.RequestContext;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.annotation.Callback;
 import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Dataset;
 import com.eclipsesource.restfuse.annotation.HttpTest;
 import com.eclipsesource.restfuse.annotation.Poll;
+import com.eclipsesource.restfuse.annotation.Stream;
 import com.eclipsesource.restfuse.internal.callback.CallbackStatement;
+import com.eclipsesource.restfuse.internal.dataset.DatasetStatement;
 import com.eclipsesource.restfuse.internal.poll.PollStatement;
+import com.eclipsesource.restfuse.internal.stream.StreamStatement;
+import com.eclipsesource.restfuse.internal.transport.HttpProxy;
+import com.eclipsesource.restfuse.internal.transport.HttpTransport;
+import com.eclipsesource.restfuse.internal.transport.StreamedResponse;
+import com.eclipsesource.restfuse.internal.transport.Transport;
+import com.eclipsesource.restfuse.internal.transport.Transports;
 
 
 public class HttpTestStatement extends Statement {
 
-  static final String HTTP_PROXY_HOST = "http.proxyHost";
-  static final String HTTP_PROXY_PORT = "http.proxyPort";
-
   private final Statement base;
   private final Description description;
   private final Object target;
   private final String baseUrl;
-  private final String proxyHost;
-  private final int proxyPort;
   private final RequestContext context;
+  private final Transport transport;
+  private final Queue<Response> responses = new ConcurrentLinkedQueue<Response>();
+  private String callbackUrl;
+  private String callbackId;
+  private volatile long requestTime;
+  private PreparedRequest preparedRequest;
   
   public HttpTestStatement( Statement base, 
                             Description description, 
@@ -47,47 +60,89 @@ public class HttpTestStatement extends Statement {
                             String proxyHost, 
                             int proxyPort,
                             RequestContext context) 
+  {
+    this( base, description, target, baseUrl, context, createTransport( proxyHost, proxyPort ) );
+  }
+
+  public HttpTestStatement( Statement base, 
+                            Description description, 
+                            Object target, 
+                            String baseUrl, 
+                            RequestContext context,
+                            Transport transport ) 
   {
     this.base = base;
     this.description = description;
     this.target = target;
     this.baseUrl = baseUrl;
-    this.proxyHost = proxyHost;
-    this.proxyPort = proxyPort;    
     this.context = context;
+    this.transport = transport;
+  }
+
+  private static Transport createTransport( String proxyHost, int proxyPort ) {
+    HttpProxy proxy = null;
+    if( proxyHost != null ) {
+      proxy = new HttpProxy( proxyHost, proxyPort );
+    }
+    return Transports.authenticating( new HttpTransport( 0, 0, proxy ) );
   }
 
   @Override
   public void evaluate() throws Throwable {
-    setProxyProperties();
+    transport.start();
     try {
       doEvaluate();
     } finally {
-      unsetProxyProperties();
+      transport.stop();
+      releaseResponses();
+      if( preparedRequest != null ) {
+        preparedRequest.release();
+      }
     }
   }
 
-  private void setProxyProperties() {
-    if( proxyHost != null ) {
-      System.setProperty( HTTP_PROXY_HOST, proxyHost );
-      System.setProperty( HTTP_PROXY_PORT, String.valueOf( proxyPort ) );
+  // deletes the temporary files of spilled bodies, the responses are not used after the test
+  private void releaseResponses() {
+    Response response;
+    while( ( response = responses.poll() ) != null ) {
+      releaseResponse( response );
+    }
+  }
+
+  /**
+   * Returns the pooled buffer of a response body and deletes a spilled body. The response can't 
+   * be read afterwards.
+   */
+  public void releaseResponse( Response response ) {
+    if( response instanceof ResponseImpl ) {
+      ( ( ResponseImpl )response ).release();
     }
   }
 
+  private Response track( Response response ) {
+    if( response != null ) {
+      responses.add( response );
+    }
+    return response;
+  }
+
   private void doEvaluate() throws Throwable {
     Statement delegate = new BasicStatement( base, this );
-    if( needsCallback() ) {
+    if( needsDataset() ) {
+      delegate = new DatasetStatement( base, this, description, target );
+    } else if( needsCallback() ) {
       delegate = new CallbackStatement( base, this, description, target );
     } else if( needsPoll() ) {
       delegate = new PollStatement( base, this, description, target );
+    } else if( needsStream() ) {
+      delegate = new StreamStatement( base, this, description, target );
     } 
     delegate.evaluate();
   }
 
-  private void unsetProxyProperties() {
-    Properties properties = System.getProperties();
-    properties.remove( HTTP_PROXY_HOST );
-    properties.remove( HTTP_PROXY_PORT );
+  private boolean needsDataset() {
+    Dataset datasetAnnotation = description.getAnnotation( Dataset.class );
+    return datasetAnnotation != null;
   }
 
   private boolean needsCallback() {
@@ -100,33 +155,91 @@ public class HttpTestStatement extends Statement {
     return pollAnnotation != null;
   }
 
+  private boolean needsStream() {
+    Stream streamAnnotation = description.getAnnotation( Stream.class );
+    return streamAnnotation != null;
+  }
+
+  /**
+   * Sends the request of the test method. The request is prepared once and reused by all 
+   * further sends, e.g. within a poll series.
+   */
   public Response sendRequest() {
-    InternalRequest request = buildRequest();
-    return callService( request );
+    requestTime = System.nanoTime();
+    return track( transport.send( getPreparedRequest() ) );
   }
 
-  private InternalRequest buildRequest() {
-    RequestConfiguration requestConfiguration = new RequestConfiguration( baseUrl, description, target );
-    return requestConfiguration.createRequest( context );
-  }
-
-  private Response callService( InternalRequest request ) {
-    Method requestMethod = request.getRequestMethod();
-    Response result = null;
-    if( requestMethod.equals( Method.GET ) ) {
-      result = request.get();
-    } else if( requestMethod.equals( Method.POST ) ) {
-      result = request.post();
-    } else if( requestMethod.equals( Method.DELETE ) ) {
-      result = request.delete();
-    } else if( requestMethod.equals( Method.PUT ) ) {
-      result = request.put();
-    } else if( requestMethod.equals( Method.HEAD ) ) {
-      result = request.head();
-    } else if( requestMethod.equals( Method.OPTIONS ) ) {
-      result = request.options();
+  /**
+   * Sends the request of the test method with additional headers, e.g. the validators of a 
+   * conditional poll. The prepared request is reused, the headers are added to a copy.
+   */
+  public Response sendRequestWithHeaders( Map<String, String> headers ) {
+    PreparedRequest request = getPreparedRequest();
+    for( String name : headers.keySet() ) {
+      request = request.withHeader( name, headers.get( name ) );
+    }
+    requestTime = System.nanoTime();
+    return track( transport.send( request ) );
+  }
+
+  /**
+   * Sends the request of the test method through the transport of the destination and returns 
+   * as soon as the response headers arrived, so the body can be consumed while it's streamed. 
+   * Reading the body fails when no data arrived within the idle timeout in milliseconds, 
+   * <code>0</code> waits forever. The caller has to close the returned response.
+   */
+  public StreamedResponse openStream( int idleTimeout ) {
+    requestTime = System.nanoTime();
+    return transport.open( getPreparedRequest().withReadTimeout( idleTimeout ) );
+  }
+
+  private PreparedRequest getPreparedRequest() {
+    if( preparedRequest == null ) {
+      preparedRequest = PreparedRequest.prepare( buildRequest( Collections.<String, String>emptyMap() ) );
+    }
+    return preparedRequest;
+  }
+
+  /**
+   * Sends the request with additional path segments, request objects and body placeholders, e.g.
+   * the values of a dataset row. It's safe to call this method concurrently. The response is not 
+   * kept until the test ended, the caller has to release it with 
+   * <code>{@link #releaseResponse(Response)}</code> as soon as it's no longer used.
+   */
+  public Response sendRequest( Map<String, String> values ) {
+    PreparedRequest request = PreparedRequest.prepare( buildRequest( values ) );
+    try {
+      return transport.send( request );
+    } finally {
+      request.release();
+    }
+  }
+
+  /**
+   * Returns the {@link System#nanoTime()} at which the last request was sent or 0 when no request 
+   * was sent yet.
+   */
+  public long getRequestTime() {
+    return requestTime;
+  }
+
+  public void setCallback( String url, String correlationId ) {
+    this.callbackUrl = url;
+    this.callbackId = correlationId;
+  }
+
+  private InternalRequest buildRequest( Map<String, String> values ) {
+    Map<String, String> requestValues = values;
+    if( callbackUrl != null ) {
+      // the context is shared by concurrent tests, so the callback goes with this request only
+      requestValues = new HashMap<String, String>( values );
+      requestValues.put( Callback.CALLBACK_URL, callbackUrl );
+      requestValues.put( Callback.CALLBACK_ID, callbackId );
     }
-    return result;
+    RequestConfiguration requestConfiguration = new RequestConfiguration( baseUrl, description, target );
+    InternalRequest request = requestConfiguration.createRequest( context, requestValues );
+    request.setTransport( transport );
+    return request;
   }
 
   public void tryInjectResponse( Response response ) {
@@ -12,18 +12,27 @@
 package com.eclipsesource.restfuse.internal;
 
 import java.io.InputStream;
-import java.net.URL;
 import java.util.*;
 
-import com.eclipsesource.restfuse.AuthenticationType;
 import com.eclipsesource.restfuse.Method;
 import com.eclipsesource.restfuse.RequestContext;
 import com.eclipsesource.restfuse.Response;
-import com.eclipsesource.restfuse.annotation.HttpTest;
-import com.github.kevinsawicki.http.HttpRequest;
+import com.eclipsesource.restfuse.annotation.Callback;
+import com.eclipsesource.restfuse.internal.template.BodyTemplate;
+import com.eclipsesource.restfuse.internal.transport.HttpTransport;
+import com.eclipsesource.restfuse.internal.transport.Transport;
+import com.eclipsesource.restfuse.internal.transport.Transports;
 
 public class InternalRequest extends RequestContext
 {
+    private Transport transport = Transports.authenticating(new HttpTransport());
+    private BodyTemplate bodyTemplate;
+    private Map<String, Object> templateValues;
+    private boolean ownsHeaders;
+    private boolean ownsPathSegments;
+    private boolean ownsRequestObjects;
+    private boolean ownsAuthentications;
+
     @Deprecated
     public InternalRequest(String url)
     {
@@ -32,13 +41,38 @@ public class InternalRequest extends RequestContext
         this.pathSegments = new HashMap<String, String>();
         this.requestObjects = new HashMap<String, Object>();
         this.authentications = new ArrayList<AuthenticationInfo>();
+        this.ownsHeaders = true;
+        this.ownsPathSegments = true;
+        this.ownsRequestObjects = true;
+        this.ownsAuthentications = true;
     }
 
     public InternalRequest(RequestContext requestContext)
+    {
+        this(requestContext, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates a request with additional values, e.g. of a dataset row. The values are used as
+     * path segments, request objects and body placeholders without changing the context.
+     * <p>
+     * The request starts with a snapshot of the context's collections. They are shared until the
+     * request changes them, changes of the request never reach the context and vice versa.
+     */
+    public InternalRequest(RequestContext requestContext, Map<String, String> values)
     {
         this.headers = requestContext.getHeaders();
         this.pathSegments = requestContext.getPathSegments();
         this.requestObjects = requestContext.getRequestObjects();
+        if (!values.isEmpty())
+        {
+            this.pathSegments = new HashMap<String, String>(this.pathSegments);
+            this.pathSegments.putAll(values);
+            this.requestObjects = new HashMap<String, Object>(this.requestObjects);
+            this.requestObjects.putAll(values);
+            this.ownsPathSegments = true;
+            this.ownsRequestObjects = true;
+        }
         this.authentications = requestContext.getAuthentications();
         this.baseUrl = requestContext.getUrl();
         this.mediaType = requestContext.getContentType();
@@ -47,6 +81,7 @@ public class InternalRequest extends RequestContext
         this.processRequestClassName = requestContext.getProcessRequestClassName();
         this.body = requestContext.getBody();
         this.requestMethod = requestContext.getRequestMethod();
+        this.expectContinue = requestContext.isExpectContinue();
 
         this.httpTestAnnotation = requestContext.getHttpTestAnnotation();
         this.testName = requestContext.getTestName();
@@ -55,138 +90,206 @@ public class InternalRequest extends RequestContext
         this.baseUrl = this.substituePathSegments();
     }
 
+    /**
+     * Copies the shared headers and their values before handing them out, so they can be changed
+     * in place.
+     */
+    @Override
+    public Map<String, List<String>> getHeaders()
+    {
+        if (!ownsHeaders)
+        {
+            Map<String, List<String>> result = new HashMap<String, List<String>>();
+            for (Map.Entry<String, List<String>> entry : this.headers.entrySet())
+            {
+                result.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+            }
+            this.headers = result;
+            this.ownsHeaders = true;
+        }
+        return this.headers;
+    }
+
+    @Override
+    public void setHeaders(Map<String, List<String>> headers)
+    {
+        super.setHeaders(headers);
+        this.ownsHeaders = true;
+    }
+
+    /**
+     * Copies the shared path segments before handing them out, so they can be changed in place.
+     */
+    @Override
+    public Map<String, String> getPathSegments()
+    {
+        if (!ownsPathSegments)
+        {
+            this.pathSegments = new HashMap<String, String>(this.pathSegments);
+            this.ownsPathSegments = true;
+        }
+        return this.pathSegments;
+    }
+
+    @Override
+    public void setPathSegments(Map<String, String> pathSegments)
+    {
+        super.setPathSegments(pathSegments);
+        this.ownsPathSegments = true;
+    }
+
+    @Override
+    public Map<String, Object> getRequestObjects()
+    {
+        if (!ownsRequestObjects)
+        {
+            this.requestObjects = new HashMap<String, Object>(this.requestObjects);
+            this.ownsRequestObjects = true;
+        }
+        return this.requestObjects;
+    }
+
+    @Override
+    public void setRequestObjects(Map<String, Object> requestObjects)
+    {
+        super.setRequestObjects(requestObjects);
+        this.ownsRequestObjects = true;
+    }
+
+    @Override
+    public List<AuthenticationInfo> getAuthentications()
+    {
+        if (!ownsAuthentications)
+        {
+            this.authentications = new ArrayList<AuthenticationInfo>(this.authentications);
+            this.ownsAuthentications = true;
+        }
+        return this.authentications;
+    }
+
+    @Override
+    public void setAuthentications(List<AuthenticationInfo> authentications)
+    {
+        super.setAuthentications(authentications);
+        this.ownsAuthentications = true;
+    }
+
+    public Transport getTransport()
+    {
+        return transport;
+    }
+
+    public void setTransport(Transport transport)
+    {
+        this.transport = transport;
+    }
+
     public Response get()
     {
-        HttpRequest request = HttpRequest.get(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.GET);
     }
 
     public Response post()
     {
-        HttpRequest request = HttpRequest.post(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        request.send(body);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.POST);
     }
 
     public Response delete()
     {
-        HttpRequest request = HttpRequest.delete(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.DELETE);
     }
 
     public Response put()
     {
-        HttpRequest request = HttpRequest.put(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        request.send(body);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.PUT);
     }
 
     public Response head()
     {
-        HttpRequest request = HttpRequest.head(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.HEAD);
     }
 
     public Response options()
     {
-        HttpRequest request = HttpRequest.options(this.baseUrl);
-        addHttpContentType(request);
-        addHttpHeaders(request);
-        addHttpAuthentications(request);
-        sendHttpRequest(request);
-        return new ResponseImpl(request);
+        return send(Method.OPTIONS);
     }
 
-    private void addHttpContentType(HttpRequest request)
+    private Response send(Method method)
     {
-        String type = mediaType != null ? mediaType : "*/*";
-        request.contentType(type);
+        PreparedRequest request = PreparedRequest.prepare(method, this);
+        try
+        {
+            return transport.send(request);
+        }
+        finally
+        {
+            request.release();
+        }
     }
 
-    private void addHttpHeaders(HttpRequest request)
+    /**
+     * Renders the content or file of the request as body. Both are compiled once into a
+     * <code>{@link BodyTemplate}</code> whose <code>{key}</code> placeholders are filled from the
+     * request objects and the callback url. The rendered body is streamed, not buffered.
+     */
+    public void updateBody()
     {
-        Set<String> keySet = headers.keySet();
-        for (String key : keySet)
+        BodyTemplate template = null;
+        if (this.contentFile != null && !this.contentFile.isEmpty())
         {
-            List<String> values = headers.get(key);
-            StringBuilder builder = new StringBuilder();
-            for (String value : values)
-            {
-                builder.append(value + ",");
-            }
-            request.header(key, builder.substring(0, builder.length() - 1));
+            template = BodyTemplate.forFile(this.getTestClass(), this.contentFile);
+        } else if (this.contentStr != null && !this.contentStr.isEmpty())
+        {
+            template = isAnnotationContent() ? BodyTemplate.forContent(this.contentStr)
+                                             : BodyTemplate.compile(this.contentStr);
         }
-        request.trustAllCerts();
-        request.trustAllHosts();
+        if (template != null)
+        {
+            Map<String, Object> values = createTemplateValues();
+            this.setBody(template.open(values));
+            this.bodyTemplate = template;
+            this.templateValues = Collections.unmodifiableMap(values);
+        }
+    }
+
+    private boolean isAnnotationContent()
+    {
+        return this.httpTestAnnotation != null && this.contentStr.equals(this.httpTestAnnotation.content());
     }
 
-    private void addHttpAuthentications(HttpRequest request)
+    private Map<String, Object> createTemplateValues()
     {
-        for (AuthenticationInfo authentication : authentications)
+        Map<String, Object> result = new HashMap<String, Object>(this.requestObjects);
+        for (String key : new String[]{Callback.CALLBACK_URL, Callback.CALLBACK_ID})
         {
-            if (authentication.getType().equals(AuthenticationType.BASIC))
+            if (this.pathSegments.get(key) != null)
             {
-                request.basic(authentication.getUser(), authentication.getPassword());
-            }
-            else if (authentication.getType().equals(AuthenticationType.DIGEST))
-            {
-                // TODO: implement digest auth
+                result.put(key, this.pathSegments.get(key));
             }
         }
+        return result;
     }
 
-    /**
-     *
-     * @param request
-     */
-    private void sendHttpRequest(HttpRequest request)
+    @Override
+    public void setBody(InputStream body)
     {
-        request.code();
+        super.setBody(body);
+        this.bodyTemplate = null;
+        this.templateValues = null;
     }
 
     /**
-     *
+     * Returns the template the current body was rendered from or null when the body was set
+     * directly, e.g. by a <code>ProcessRequest</code>.
      */
-    public void updateBody()
+    public BodyTemplate getBodyTemplate()
     {
-        if (this.contentFile != null && !this.contentFile.isEmpty())
-        {
-            this.setBody(getFileStream(this.contentFile));
-        } else if (this.contentStr != null && !this.contentStr.isEmpty())
-        {
-            this.setBody(this.contentStr);
-        }
+        return bodyTemplate;
     }
 
-    private InputStream getFileStream( String file ) {
-        URL resource = this.getTestClass().getResource( file );
-        try {
-            return resource.openStream();
-        } catch( Exception ioe ) {
-            throw new IllegalStateException( "Could not open file "
-                    + file + ". Maybe it's not on the classpath?" );
-        }
+    public Map<String, Object> getTemplateValues()
+    {
+        return templateValues;
     }
 
-
 }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.AuthenticationType;
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.internal.template.BodyTemplate;
+import com.github.kevinsawicki.http.HttpRequest;
+
+
+/**
+ * <p>An immutable request that is ready to be sent any number of times. The url is parsed, the 
+ * headers are joined and the credentials are encoded once. A templated body is rendered again 
+ * for each send. Any other body is streamed when it's sent first and replayed from its recording 
+ * afterwards, a longer recording is deleted when the request is released.</p>
+ */
+public class PreparedRequest {
+
+  private static final String DEFAULT_CONTENT_TYPE = "*/*";
+
+  private final Method method;
+  private final URL url;
+  private final String contentType;
+  private final Map<String, String> headers;
+  private final AuthenticationInfo digestCredentials;
+  private final AuthenticationInfo bearerCredentials;
+  private final boolean expectContinue;
+  private final StreamBody body;
+  private final BodyTemplate template;
+  private final Map<String, Object> templateValues;
+  private final long bodyLength;
+  private final int readTimeout;
+
+  private PreparedRequest( Method method, InternalRequest request ) {
+    this.method = method;
+    this.url = toUrl( request.getUrl() );
+    this.contentType = request.getContentType() != null ? request.getContentType() 
+                                                        : DEFAULT_CONTENT_TYPE;
+    this.headers = Collections.unmodifiableMap( createHeaders( request ) );
+    this.digestCredentials = findCredentials( request, AuthenticationType.DIGEST );
+    this.bearerCredentials = findCredentials( request, AuthenticationType.BEARER );
+    this.expectContinue = request.isExpectContinue();
+    if( hasEntity( method ) && request.getBodyTemplate() != null ) {
+      this.template = request.getBodyTemplate();
+      this.templateValues = request.getTemplateValues();
+      this.body = null;
+      this.bodyLength = template.getLength( templateValues );
+    } else if( hasEntity( method ) && request.getBody() != null ) {
+      this.template = null;
+      this.templateValues = null;
+      this.body = new StreamBody( request.getBody(), BodyBuffer.DEFAULT_THRESHOLD );
+      this.bodyLength = -1;
+    } else {
+      this.template = null;
+      this.templateValues = null;
+      this.body = null;
+      this.bodyLength = -1;
+    }
+    this.readTimeout = -1;
+  }
+
+  private PreparedRequest( PreparedRequest request, Map<String, String> headers, int readTimeout ) {
+    this.method = request.method;
+    this.url = request.url;
+    this.contentType = request.contentType;
+    this.headers = Collections.unmodifiableMap( headers );
+    this.digestCredentials = request.digestCredentials;
+    this.bearerCredentials = request.bearerCredentials;
+    this.expectContinue = request.expectContinue;
+    this.body = request.body;
+    this.template = request.template;
+    this.templateValues = request.templateValues;
+    this.bodyLength = request.bodyLength;
+    this.readTimeout = readTimeout;
+  }
+
+  public static PreparedRequest prepare( Method method, InternalRequest request ) {
+    return new PreparedRequest( method, request );
+  }
+
+  public static PreparedRequest prepare( InternalRequest request ) {
+    return new PreparedRequest( request.getRequestMethod(), request );
+  }
+
+  public static boolean hasEntity( Method method ) {
+    return method == Method.POST || method == Method.PUT;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public URL getUrl() {
+    return url;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * Returns the request headers including the encoded credentials.
+   */
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Returns a copy of this request with the given header added or replaced. The body is shared.
+   */
+  public PreparedRequest withHeader( String name, String value ) {
+    Map<String, String> result = new LinkedHashMap<String, String>( headers );
+    result.put( name, value );
+    return new PreparedRequest( this, result, readTimeout );
+  }
+
+  /**
+   * Returns a copy of this request which waits at most the given milliseconds for data of the 
+   * response instead of the read timeout of the transport, <code>0</code> waits forever.
+   */
+  public PreparedRequest withReadTimeout( int timeout ) {
+    return new PreparedRequest( this, headers, timeout );
+  }
+
+  /**
+   * Returns the read timeout in milliseconds replacing the one of the transport or -1 when the 
+   * transport's timeout applies.
+   */
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
+  /**
+   * Returns the credentials to answer digest challenges with or null when the request does not 
+   * use digest authentication. The digest has to be computed for each send.
+   */
+  public AuthenticationInfo getDigestCredentials() {
+    return digestCredentials;
+  }
+
+  /**
+   * Returns the client credentials to fetch a bearer token with or null when the request does 
+   * not use bearer authentication. The token is added for each send.
+   */
+  public AuthenticationInfo getBearerCredentials() {
+    return bearerCredentials;
+  }
+
+  /**
+   * Returns whether the body is sent only after the server accepted the request headers.
+   */
+  public boolean isExpectContinue() {
+    return expectContinue && hasBody();
+  }
+
+  public boolean hasBody() {
+    return template != null || body != null;
+  }
+
+  /**
+   * Returns the byte length of the body or -1 when the request has no body or the length of a 
+   * streamed body is not known before it was sent once.
+   */
+  public long getBodyLength() {
+    return body != null ? body.getLength() : bodyLength;
+  }
+
+  /**
+   * Returns a new stream of the body for every send or null when the request has no body.
+   */
+  public InputStream openBody() {
+    InputStream result = null;
+    if( template != null ) {
+      result = template.open( templateValues );
+    } else if( body != null ) {
+      result = body.open();
+    }
+    return result;
+  }
+
+  /**
+   * Deletes the recording of a streamed body. The request and its copies can't be sent with a 
+   * body afterwards.
+   */
+  public void release() {
+    if( body != null ) {
+      body.release();
+    }
+  }
+
+  private static URL toUrl( String url ) {
+    try {
+      return new URL( url );
+    } catch( MalformedURLException mue ) {
+      throw new IllegalArgumentException( "Not a valid url: " + url, mue );
+    }
+  }
+
+  private static Map<String, String> createHeaders( InternalRequest request ) {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    Map<String, List<String>> requestHeaders = request.getHeaders();
+    for( String key : requestHeaders.keySet() ) {
+      result.put( key, joinValues( requestHeaders.get( key ) ) );
+    }
+    for( AuthenticationInfo authentication : request.getAuthentications() ) {
+      if( authentication.getType().equals( AuthenticationType.BASIC ) ) {
+        String credentials = authentication.getUser() + ':' + authentication.getPassword();
+        result.put( HttpRequest.HEADER_AUTHORIZATION, "Basic " + HttpRequest.Base64.encode( credentials ) );
+      }
+    }
+    return result;
+  }
+
+  private static AuthenticationInfo findCredentials( InternalRequest request, AuthenticationType type ) {
+    AuthenticationInfo result = null;
+    for( AuthenticationInfo authentication : request.getAuthentications() ) {
+      if( authentication.getType().equals( type ) ) {
+        result = authentication;
+      }
+    }
+    return result;
+  }
+
+  static String joinValues( List<String> values ) {
+    StringBuilder builder = new StringBuilder();
+    for( String value : values ) {
+      builder.append( value + "," );
+    }
+    return builder.substring( 0, builder.length() - 1 );
+  }
+}
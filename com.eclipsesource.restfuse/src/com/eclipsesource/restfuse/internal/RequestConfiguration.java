@@ -9,8 +9,9 @@
  ******************************************************************************/
 package com.eclipsesource.restfuse.internal;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Map;
+
 import org.junit.runner.Description;
 
 import com.eclipsesource.restfuse.RequestContext;
@@ -28,45 +29,14 @@ public class RequestConfiguration {
   }
 
   public InternalRequest createRequest( RequestContext context ) {
-    InternalRequest request = new InternalRequest( context );
-    request.updateBody();
-    try {
-      processRequest(request);
-    } catch (ClassNotFoundException | NoSuchMethodException | InvocationTargetException | IllegalAccessException | InstantiationException e)
-    {
-      throw new IllegalStateException( "ProcessRequest exception: " + e.getMessage(), e );
-    }
-
-    return request;
+    return createRequest( context, Collections.<String, String>emptyMap() );
   }
 
-  /**
-   * Process/transform Content by calling the ProcessRequest-Annotation field as a class
-   * using the current request (context) as constructor input.
-   * @param request
-   */
-  private void processRequest( RequestContext request ) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
-    if(request.getProcessRequestClassName()!=null && !request.getProcessRequestClassName().equals( "" ) )
-    {
-      // get the Class object for the implementation class
-      Class clazz;
-      ClassLoader loader = Thread.currentThread().getContextClassLoader();
-      if (loader == null)
-      {
-        clazz = Class.forName(request.getProcessRequestClassName());
-      }
-      else
-      {
-        clazz = loader.loadClass(request.getProcessRequestClassName());
-      }
-      // fetch the (InternalRequest, RequestContext) constructor
-      Constructor cons = clazz.getConstructor(new Class[] {RequestContext.class});
-      // invoke constructor and return the ProcessRequest object
-      Object obj = cons.newInstance(new Object[] {request});
-// TODO Access ProcessRequest object/methods here?
-//      ProcessRequest pReq = (ProcessRequest) obj;
-//      pReq.getBody();
-    }
+  public InternalRequest createRequest( RequestContext context, Map<String, String> values ) {
+    InternalRequest request = new InternalRequest( context, values );
+    request.updateBody();
+    RequestProcessors.process( request, request.getProcessRequestClassName() );
+    return request;
   }
 
 }
@@ -10,6 +10,13 @@
  ******************************************************************************/ 
 package com.eclipsesource.restfuse.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -21,27 +28,168 @@ import com.eclipsesource.restfuse.Request;
 
 public class RequestImpl implements Request {
   
+  private static final String DEFAULT_CHARSET = "ISO-8859-1";
   
   private Map<String, List<String>> headers;
   private final MediaType contentType;
-  private final String body;
+  private final String charset;
+  private final int maxBodySize;
+  private InputStream stream;
+  private boolean streamed;
+  private boolean exceeded;
+  // the connection is gone, a body which was not buffered can't be read anymore
+  private boolean detached;
+  // the part of an exceeding body which was read before its size was known
+  private byte[] prefix;
+  private byte[] bytes;
+  private String body;
 
   public RequestImpl( String body, MediaType contentType ) {
     this.body = body;
     this.contentType = contentType;
+    this.charset = "UTF-8";
+    this.maxBodySize = 0;
+    headers = new HashMap<String, List<String>>();
+  }
+
+  /**
+   * The body will be read lazily from the stream. A <code>maxBodySize</code> of 0 means 
+   * unlimited.
+   */
+  public RequestImpl( InputStream stream, MediaType contentType, String charset, int maxBodySize ) {
+    this.stream = stream;
+    this.contentType = contentType;
+    this.charset = charset != null ? charset : DEFAULT_CHARSET;
+    this.maxBodySize = maxBodySize;
     headers = new HashMap<String, List<String>>();
   }
 
   @Override
   public boolean hasBody() {
-    return body != null;
+    return body != null || bytes != null || stream != null;
   }
 
   @Override
   public String getBody() {
+    if( body == null && hasBody() ) {
+      body = decode( getBytes() );
+    }
     return body;
   }
 
+  @Override
+  public byte[] getBytes() {
+    if( bytes == null ) {
+      if( body != null ) {
+        bytes = encode( body );
+      } else if( stream != null ) {
+        bytes = readStream();
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public ByteBuffer getByteBuffer() {
+    byte[] content = getBytes();
+    return content != null ? ByteBuffer.wrap( content ).asReadOnlyBuffer() : null;
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    InputStream result = null;
+    if( bytes != null || body != null ) {
+      result = new ByteArrayInputStream( getBytes() );
+    } else if( stream != null ) {
+      checkNotStreamed();
+      checkNotDetached();
+      streamed = true;
+      result = stream;
+      if( prefix != null ) {
+        result = new SequenceInputStream( new ByteArrayInputStream( prefix ), stream );
+        prefix = null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Buffers a body which was not read yet, so it stays available after the connection is gone.
+   * A body exceeding the maximum size can't be read afterwards.
+   */
+  public void detach() {
+    if( !streamed && !exceeded && bytes == null && body == null && stream != null ) {
+      try {
+        bytes = readStream();
+      } catch( IllegalStateException tooLarge ) {
+        // will be reported on access
+      }
+    }
+    if( bytes == null && body == null ) {
+      detached = true;
+      prefix = null;
+    }
+  }
+
+  private byte[] readStream() {
+    checkNotStreamed();
+    checkNotExceeded();
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try {
+      byte[] buffer = new byte[ 8192 ];
+      int read;
+      while( ( read = stream.read( buffer ) ) != -1 ) {
+        result.write( buffer, 0, read );
+        if( maxBodySize > 0 && result.size() > maxBodySize ) {
+          prefix = result.toByteArray();
+          exceeded = true;
+          checkNotExceeded();
+        }
+      }
+      stream.close();
+    } catch( IOException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+    return result.toByteArray();
+  }
+
+  private void checkNotStreamed() {
+    if( streamed ) {
+      throw new IllegalStateException( "Request body was already consumed as stream." );
+    }
+  }
+
+  private void checkNotDetached() {
+    if( detached ) {
+      throw new IllegalStateException( "Request body exceeds the maximum size of " + maxBodySize 
+                                       + " bytes and can only be streamed while the callback is " 
+                                       + "handled." );
+    }
+  }
+
+  private void checkNotExceeded() {
+    if( exceeded ) {
+      throw new IllegalStateException( "Request body exceeds the maximum size of " 
+                                       + maxBodySize + " bytes." );
+    }
+  }
+
+  private String decode( byte[] content ) {
+    try {
+      return new String( content, charset );
+    } catch( UnsupportedEncodingException uee ) {
+      throw new IllegalStateException( "Unsupported charset " + charset, uee );
+    }
+  }
+
+  private byte[] encode( String content ) {
+    try {
+      return content.getBytes( charset );
+    } catch( UnsupportedEncodingException uee ) {
+      throw new IllegalStateException( "Unsupported charset " + charset, uee );
+    }
+  }
+
   @Override
   public MediaType getType() {
     return contentType;
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.RequestProcessor;
+
+
+/**
+ * Resolves the processors named within the <code>processrequest</code> attribute once and caches 
+ * them by class name and class loader. Classes are loaded by the loader of the test class, so 
+ * test classes of different loaders don't share processors of the same name. 
+ * <code>RequestProcessor</code>s are instantiated once, legacy processors doing their work within 
+ * a <code>RequestContext</code> constructor keep being instantiated per request using the cached 
+ * constructor.
+ */
+public class RequestProcessors {
+
+  private static final String SEPARATOR = ",";
+
+  // a stage references its class and thereby the loader, so the stages are held softly and the 
+  // loader of a finished test run can still be collected
+  private static final Map<ClassLoader, Map<String, SoftReference<Stage>>> STAGES 
+    = new WeakHashMap<ClassLoader, Map<String, SoftReference<Stage>>>();
+
+  interface Stage {
+    void process( RequestContext request ) throws Exception;
+  }
+
+  private static class ProcessorStage implements Stage {
+
+    private final RequestProcessor processor;
+
+    ProcessorStage( RequestProcessor processor ) {
+      this.processor = processor;
+    }
+
+    @Override
+    public void process( RequestContext request ) {
+      processor.process( request );
+    }
+  }
+
+  private static class ConstructorStage implements Stage {
+
+    private final Constructor<?> constructor;
+
+    ConstructorStage( Constructor<?> constructor ) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public void process( RequestContext request ) throws Exception {
+      constructor.newInstance( request );
+    }
+  }
+
+  private RequestProcessors() {
+    // prevent instantiation
+  }
+
+  /**
+   * Passes the request through all processors of the comma separated class names in order.
+   */
+  public static void process( RequestContext request, String classNames ) {
+    for( Stage stage : getStages( classNames, getLoader( request ) ) ) {
+      try {
+        stage.process( request );
+      } catch( InvocationTargetException ite ) {
+        Throwable cause = ite.getCause();
+        throw new IllegalStateException( "ProcessRequest exception: " + cause.getMessage(), cause );
+      } catch( RuntimeException re ) {
+        throw re;
+      } catch( Exception e ) {
+        throw new IllegalStateException( "ProcessRequest exception: " + e.getMessage(), e );
+      }
+    }
+  }
+
+  static List<Stage> getStages( String classNames, ClassLoader loader ) {
+    List<Stage> result = new ArrayList<Stage>();
+    if( classNames != null ) {
+      for( String className : classNames.split( SEPARATOR ) ) {
+        String trimmed = className.trim();
+        if( trimmed.length() > 0 ) {
+          result.add( getStage( trimmed, loader ) );
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Stage getStage( String className, ClassLoader loader ) {
+    Stage result = findStage( className, loader );
+    if( result == null ) {
+      // created outside of the lock, loading the class may run arbitrary initializers
+      Stage created = createStage( className, loader );
+      synchronized( STAGES ) {
+        result = findStage( className, loader );
+        if( result == null ) {
+          Map<String, SoftReference<Stage>> stages = STAGES.get( loader );
+          if( stages == null ) {
+            stages = new HashMap<String, SoftReference<Stage>>();
+            STAGES.put( loader, stages );
+          }
+          stages.put( className, new SoftReference<Stage>( created ) );
+          result = created;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Stage findStage( String className, ClassLoader loader ) {
+    Stage result = null;
+    synchronized( STAGES ) {
+      Map<String, SoftReference<Stage>> stages = STAGES.get( loader );
+      if( stages != null && stages.get( className ) != null ) {
+        result = stages.get( className ).get();
+      }
+    }
+    return result;
+  }
+
+  private static Stage createStage( String className, ClassLoader loader ) {
+    try {
+      Class<?> type = Class.forName( className, true, loader );
+      Stage result;
+      if( RequestProcessor.class.isAssignableFrom( type ) ) {
+        result = new ProcessorStage( ( RequestProcessor )type.newInstance() );
+      } else {
+        result = new ConstructorStage( type.getConstructor( RequestContext.class ) );
+      }
+      return result;
+    } catch( Exception e ) {
+      throw new IllegalStateException( "ProcessRequest exception: " + e.getMessage(), e );
+    }
+  }
+
+  // the loader of the test class, the context loader when the test class is unknown
+  private static ClassLoader getLoader( RequestContext request ) {
+    ClassLoader result = null;
+    if( request.getTestClass() != null ) {
+      result = request.getTestClass().getClassLoader();
+    }
+    if( result == null ) {
+      result = Thread.currentThread().getContextClassLoader();
+    }
+    if( result == null ) {
+      result = RequestProcessors.class.getClassLoader();
+    }
+    return result;
+  }
+}
@@ -10,24 +10,44 @@
  ******************************************************************************/
 package com.eclipsesource.restfuse.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
 import com.eclipsesource.restfuse.MediaType;
 import com.eclipsesource.restfuse.Response;
 import com.github.kevinsawicki.http.HttpRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
 
 
 public class ResponseImpl implements Response {
 
   private final String body;
+  private final BodyBuffer buffer;
+  // decoded on first access, a spilled body is not read again for each call
+  private String decodedBody;
+  private final String charset;
   private final String contentType;
   private final Map<String, List<String>> headers;
   private final int code;
   private final String url;
 
   public ResponseImpl( HttpRequest request ) {
-    body = request.body();
+    this( request, BodyBuffer.DEFAULT_THRESHOLD );
+  }
+
+  /**
+   * Reads the body of the request, a body longer than the buffer threshold in bytes is spilled to 
+   * a temporary file until the response is released.
+   */
+  public ResponseImpl( HttpRequest request, int bufferThreshold ) {
+    body = null;
+    buffer = readBody( request, bufferThreshold );
+    charset = request.charset();
     contentType = request.contentType();
     headers = request.headers();
     code = request.code();
@@ -35,23 +55,166 @@ public class ResponseImpl implements Response {
     request.disconnect();
   }
 
+  public ResponseImpl( String url, 
+                       int code, 
+                       String contentType, 
+                       Map<String, List<String>> headers, 
+                       String body ) 
+  {
+    this( url, code, contentType, headers, body, null );
+  }
+
+  private ResponseImpl( String url, 
+                        int code, 
+                        String contentType, 
+                        Map<String, List<String>> headers, 
+                        String body,
+                        BodyBuffer buffer ) 
+  {
+    this.url = url;
+    this.code = code;
+    this.contentType = contentType;
+    this.headers = headers;
+    this.body = body;
+    this.buffer = buffer;
+    this.charset = getCharset( contentType );
+  }
+
+  /**
+   * Creates a response with a raw body which is decoded with the charset of the content type 
+   * only when it's read as string.
+   */
+  public static ResponseImpl forBytes( String url, 
+                                       int code, 
+                                       String contentType, 
+                                       Map<String, List<String>> headers, 
+                                       byte[] body ) 
+  {
+    BodyBuffer buffer = body != null ? BodyBuffer.wrap( body ) : null;
+    return new ResponseImpl( url, code, contentType, headers, null, buffer );
+  }
+
+  private static BodyBuffer readBody( HttpRequest request, int threshold ) {
+    try {
+      return BodyBuffer.read( request.stream(), request.contentLength(), threshold );
+    } catch( IOException ioe ) {
+      throw new HttpRequestException( ioe );
+    }
+  }
+
+  /**
+   * Returns the pooled buffer of the body and deletes a body that was spilled to a temporary 
+   * file. The body can't be read afterwards.
+   */
+  public synchronized void release() {
+    decodedBody = null;
+    if( buffer != null ) {
+      buffer.release();
+    }
+  }
+
   @Override
   public boolean hasBody() {
-    return body != null;
+    return body != null || buffer != null;
   }
 
   @Override
+  @Deprecated
   @SuppressWarnings( "unchecked" )
   public <T> T getBody( Class<T> type ) {
     if( type != String.class ) {
       throw new IllegalArgumentException( "Only String is supported. Not the this method is deprecated, see getBody()." );
     }
-    return ( T )body;
+    return ( T )getBody();
   }
 
+  /**
+   * Decodes the body once and returns the same String for further calls.
+   */
   @Override
-  public String getBody() {
-    return body;
+  public synchronized String getBody() {
+    String result = body;
+    if( buffer != null ) {
+      if( decodedBody == null ) {
+        try {
+          decodedBody = buffer.toString( charset );
+        } catch( IOException ioe ) {
+          throw new IllegalStateException( "Could not read response body.", ioe );
+        }
+      }
+      result = decodedBody;
+    }
+    return result;
+  }
+
+  @Override
+  public byte[] getBytes() {
+    byte[] result = null;
+    if( buffer != null ) {
+      try {
+        result = buffer.getBytes();
+      } catch( IOException ioe ) {
+        throw new IllegalStateException( "Could not read response body.", ioe );
+      }
+    } else if( body != null ) {
+      result = encode( body );
+    }
+    return result;
+  }
+
+  @Override
+  public ByteBuffer getByteBuffer() {
+    ByteBuffer result = null;
+    if( buffer != null ) {
+      try {
+        result = buffer.getByteBuffer();
+      } catch( IOException ioe ) {
+        throw new IllegalStateException( "Could not read response body.", ioe );
+      }
+    } else if( body != null ) {
+      result = ByteBuffer.wrap( encode( body ) ).asReadOnlyBuffer();
+    }
+    return result;
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    InputStream result = null;
+    if( buffer != null ) {
+      try {
+        result = buffer.open();
+      } catch( IOException ioe ) {
+        throw new IllegalStateException( "Could not read response body.", ioe );
+      }
+    } else if( body != null ) {
+      result = new ByteArrayInputStream( encode( body ) );
+    }
+    return result;
+  }
+
+  private byte[] encode( String content ) {
+    String validCharset = charset != null ? charset : HttpRequest.CHARSET_UTF8;
+    try {
+      return content.getBytes( validCharset );
+    } catch( UnsupportedEncodingException uee ) {
+      throw new IllegalStateException( "Unsupported charset " + validCharset, uee );
+    }
+  }
+
+  /**
+   * Returns the charset parameter of a content type or <code>null</code> when it has none.
+   */
+  public static String getCharset( String contentType ) {
+    String result = null;
+    if( contentType != null ) {
+      for( String parameter : contentType.split( ";" ) ) {
+        String[] pair = parameter.trim().split( "=", 2 );
+        if( pair.length == 2 && pair[ 0 ].trim().equalsIgnoreCase( HttpRequest.PARAM_CHARSET ) ) {
+          result = pair[ 1 ].trim().replace( "\"", "" );
+        }
+      }
+    }
+    return result;
   }
 
   @Override
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+
+/**
+ * A request body given as stream. A short body is read ahead, so its length is known before it's 
+ * sent. A longer one is sent as it's read when the body is opened first and recorded into a 
+ * <code>{@link BodyBuffer}</code> meanwhile, so it can be sent again, e.g. after an 
+ * authentication challenge. Its length is known after it was sent once.
+ */
+class StreamBody {
+
+  // like the streaming threshold of the transport, shorter bodies are sent with their length
+  static final int LOOKAHEAD = 64 * 1024;
+
+  private final int threshold;
+  private InputStream source;
+  private BodyBuffer recording;
+  private boolean lookedAhead;
+  private boolean opened;
+  private boolean recorded;
+
+  StreamBody( InputStream source, int threshold ) {
+    this.source = source;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Returns a stream reading the source when it's called first and a stream of the recording 
+   * afterwards. The rest of a source that was not read to its end is recorded first.
+   * 
+   * @throws IllegalStateException when the source could not be read.
+   */
+  synchronized InputStream open() {
+    try {
+      lookAhead();
+      InputStream result;
+      if( !opened && !recorded ) {
+        opened = true;
+        recording = BodyBuffer.create();
+        result = new RecordingStream();
+      } else {
+        finishRecording();
+        result = recording.open();
+      }
+      return result;
+    } catch( IOException ioe ) {
+      throw new IllegalStateException( "Could not read request body", ioe );
+    }
+  }
+
+  /**
+   * Returns the byte length or -1 when a longer body was not sent completely yet.
+   * 
+   * @throws IllegalStateException when the source could not be read.
+   */
+  synchronized long getLength() {
+    try {
+      lookAhead();
+    } catch( IOException ioe ) {
+      throw new IllegalStateException( "Could not read request body", ioe );
+    }
+    return recorded ? recording.getLength() : -1;
+  }
+
+  synchronized void release() {
+    if( recording != null ) {
+      recording.release();
+    }
+  }
+
+  private void lookAhead() throws IOException {
+    if( !lookedAhead ) {
+      lookedAhead = true;
+      byte[] prefix = new byte[ LOOKAHEAD ];
+      int length = 0;
+      int read = 0;
+      while( read != -1 && length < prefix.length ) {
+        read = source.read( prefix, length, prefix.length - length );
+        length += Math.max( read, 0 );
+      }
+      if( read == -1 ) {
+        source.close();
+        recording = BodyBuffer.wrap( Arrays.copyOf( prefix, length ) );
+        recorded = true;
+      } else {
+        source = new SequenceInputStream( new ByteArrayInputStream( prefix ), source );
+      }
+    }
+  }
+
+  private synchronized int read( byte[] buffer, int offset, int length ) throws IOException {
+    int result = -1;
+    if( !recorded ) {
+      result = source.read( buffer, offset, length );
+      if( result > 0 ) {
+        recording.append( buffer, offset, result, threshold );
+      } else if( result == -1 ) {
+        finishRecording();
+      }
+    }
+    return result;
+  }
+
+  private void finishRecording() throws IOException {
+    if( !recorded ) {
+      try {
+        byte[] chunk = new byte[ 8192 ];
+        int read;
+        while( ( read = source.read( chunk ) ) != -1 ) {
+          recording.append( chunk, 0, read, threshold );
+        }
+      } finally {
+        recorded = true;
+        recording.finish();
+        source.close();
+      }
+    }
+  }
+
+  private class RecordingStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[ 1 ];
+      int read = 0;
+      while( read == 0 ) {
+        read = read( single, 0, 1 );
+      }
+      return read == -1 ? -1 : single[ 0 ] & 0xFF;
+    }
+
+    @Override
+    public int read( byte[] buffer, int offset, int length ) throws IOException {
+      return StreamBody.this.read( buffer, offset, length );
+    }
+
+    // the transport closes the body after it was sent, the recording is completed for resends
+    @Override
+    public void close() throws IOException {
+      synchronized( StreamBody.this ) {
+        finishRecording();
+      }
+    }
+  }
+}
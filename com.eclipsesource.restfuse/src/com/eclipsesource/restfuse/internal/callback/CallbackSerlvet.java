@@ -10,20 +10,30 @@
  ******************************************************************************/ 
 package com.eclipsesource.restfuse.internal.callback;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+
 import com.eclipsesource.restfuse.CallbackResource;
 import com.eclipsesource.restfuse.MediaType;
+import com.eclipsesource.restfuse.Method;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.Request;
 import com.eclipsesource.restfuse.internal.RequestImpl;
@@ -31,91 +41,192 @@ import com.eclipsesource.restfuse.internal.RequestImpl;
 
 public class CallbackSerlvet extends HttpServlet {
   
-  private boolean wasCalled;
+  private volatile boolean wasCalled;
   private final CallbackResource resource;
   private final CallbackStatement statement;
+  private final AtomicInteger calls;
+  private final AtomicInteger suspended;
+  private final List<Long> arrivals;
+  private ScheduledExecutorService scheduler;
+  private long suspendTimeout;
+  private int maxBodySize;
 
   public CallbackSerlvet( CallbackResource resource, CallbackStatement callbackStatement ) {
     this.resource = resource;
     this.statement = callbackStatement;
+    this.calls = new AtomicInteger();
+    this.suspended = new AtomicInteger();
+    this.arrivals = Collections.synchronizedList( new ArrayList<Long>() );
+  }
+
+  /**
+   * Delayed responses will be sent using the scheduler while the request is suspended. Without a
+   * scheduler the handling thread sleeps until the delay has passed.
+   */
+  public void setScheduler( ScheduledExecutorService scheduler, long suspendTimeout ) {
+    this.scheduler = scheduler;
+    this.suspendTimeout = suspendTimeout;
   }
   
   @Override
   protected void doGet( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
-    try {
-      createResponse( resp, resource.get( createRequest( req ) ) );
-    } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
-    }
-    wasCalled = true;
+    handle( Method.GET, req, resp );
   }
 
   @Override
   protected void doPost( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
-    try {
-      createResponse( resp, resource.post( createRequest( req ) ) );
-    } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
-    }
-    wasCalled = true;
+    handle( Method.POST, req, resp );
   }
   
   @Override
   protected void doPut( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
-    try {
-      createResponse( resp, resource.put( createRequest( req ) ) );
-    } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
-    }
-    wasCalled = true;
+    handle( Method.PUT, req, resp );
   }
   
   @Override
   protected void doDelete( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
-    try {
-      createResponse( resp, resource.delete( createRequest( req ) ) );
-    } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
-    }
-    wasCalled = true;
+    handle( Method.DELETE, req, resp );
   }
   
   @Override
   protected void doHead( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
-    try {
-      createResponse( resp, resource.head( createRequest( req ) ) );
-    } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
-    }
-    wasCalled = true;
+    handle( Method.HEAD, req, resp );
   }
   
   @Override
   protected void doOptions( HttpServletRequest req, HttpServletResponse resp )
     throws ServletException, IOException
   {
+    handle( Method.OPTIONS, req, resp );
+  }
+
+  /**
+   * Bodies larger than <code>maxBodySize</code> bytes can only be streamed. 0 means unlimited.
+   */
+  public void setMaxBodySize( int maxBodySize ) {
+    this.maxBodySize = maxBodySize;
+  }
+
+  private void handle( Method method, HttpServletRequest req, HttpServletResponse resp ) 
+    throws IOException 
+  {
+    arrivals.add( Long.valueOf( System.nanoTime() ) );
+    calls.incrementAndGet();
+    boolean completed = true;
     try {
-      createResponse( resp, resource.options( createRequest( req ) ) );
+      RequestImpl request = createRequest( req );
+      Response response = dispatch( method, request );
+      request.detach();
+      completed = respond( req, resp, response );
     } catch( Throwable failure ) {
-      statement.failWithinCallback( failure );
+      handleFailure( failure, resp );
+    }
+    if( completed ) {
+      wasCalled = true;
     }
-    wasCalled = true;
   }
 
-  private Request createRequest( HttpServletRequest req ) {
+  /**
+   * Returns the {@link System#nanoTime()} of each callback arrival in the order they arrived.
+   */
+  public long[] getArrivals() {
+    synchronized( arrivals ) {
+      long[] result = new long[ arrivals.size() ];
+      for( int i = 0; i < result.length; i++ ) {
+        result[ i ] = arrivals.get( i ).longValue();
+      }
+      return result;
+    }
+  }
+
+  private Response dispatch( Method method, Request request ) {
+    Response result = null;
+    if( method.equals( Method.GET ) ) {
+      result = resource.get( request );
+    } else if( method.equals( Method.POST ) ) {
+      result = resource.post( request );
+    } else if( method.equals( Method.PUT ) ) {
+      result = resource.put( request );
+    } else if( method.equals( Method.DELETE ) ) {
+      result = resource.delete( request );
+    } else if( method.equals( Method.HEAD ) ) {
+      result = resource.head( request );
+    } else if( method.equals( Method.OPTIONS ) ) {
+      result = resource.options( request );
+    }
+    return result;
+  }
+
+  private boolean respond( HttpServletRequest req, HttpServletResponse resp, Response response ) 
+    throws IOException, InterruptedException 
+  {
+    boolean completed = true;
+    if( response instanceof DelayedResponse ) {
+      DelayedResponse delayed = ( DelayedResponse )response;
+      if( scheduler != null ) {
+        suspend( req, resp, delayed );
+        completed = false;
+      } else {
+        Thread.sleep( delayed.getDelay() );
+        createResponse( resp, delayed.getResponse() );
+      }
+    } else {
+      createResponse( resp, response );
+    }
+    return completed;
+  }
+
+  private void suspend( HttpServletRequest req, 
+                        final HttpServletResponse resp, 
+                        final DelayedResponse delayed ) 
+  {
+    final Continuation continuation = ContinuationSupport.getContinuation( req );
+    continuation.setTimeout( suspendTimeout + delayed.getDelay() );
+    continuation.suspend( resp );
+    suspended.incrementAndGet();
+    scheduler.schedule( new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          createResponse( resp, delayed.getResponse() );
+        } catch( Throwable failure ) {
+          handleFailureWithinSuspension( failure, resp );
+        } finally {
+          suspended.decrementAndGet();
+          wasCalled = true;
+          continuation.complete();
+        }
+      }
+    }, delayed.getDelay(), TimeUnit.MILLISECONDS );
+  }
+
+  private void handleFailureWithinSuspension( Throwable failure, HttpServletResponse resp ) {
+    try {
+      handleFailure( failure, resp );
+    } catch( IOException ignored ) {
+      // the client went away, nothing to answer anymore
+    }
+  }
+
+  protected void handleFailure( Throwable failure, HttpServletResponse resp ) throws IOException {
+    statement.failWithinCallback( failure );
+  }
+
+  private RequestImpl createRequest( HttpServletRequest req ) throws IOException {
     MediaType mediaType = MediaType.fromString( req.getContentType() );
-    String body = getBody( req );
-    RequestImpl result = new RequestImpl( body, mediaType );
+    InputStream body = req.getInputStream();
+    RequestImpl result = new RequestImpl( body, mediaType, req.getCharacterEncoding(), maxBodySize );
     addHeaderToRequest( req, result );
     return result;
   }
@@ -132,23 +243,6 @@ public class CallbackSerlvet extends HttpServlet {
     }
   }
 
-  private String getBody( HttpServletRequest req ) {
-    String result = null;
-    try {
-      BufferedReader reader = req.getReader();
-      String buffer = "";
-      StringBuilder stringBuilder = new StringBuilder();
-      while( ( buffer = reader.readLine() ) != null ) {
-        stringBuilder.append( buffer );
-      }
-      reader.close();
-      result = stringBuilder.toString();
-    } catch( IOException shouldNotHappen ) {
-      throw new IllegalStateException( shouldNotHappen );
-    }
-    return result;
-  }
-
   private void createResponse( HttpServletResponse resp, Response response ) throws IOException {
     resp.setStatus( response.getStatus() );
     addHeadersToResponse( resp, response );
@@ -178,13 +272,22 @@ public class CallbackSerlvet extends HttpServlet {
 
   private void addBodyToResponse( HttpServletResponse resp, Response response ) throws IOException {
     if( response.hasBody() ) {
-      String body = response.getBody();
-      resp.getWriter().write( body );
-      resp.getWriter().close();
+      // the raw bytes are sent, so binary bodies aren't decoded as text
+      OutputStream output = resp.getOutputStream();
+      output.write( response.getBytes() );
+      output.close();
     }
   }
 
   public boolean wasCalled() {
     return wasCalled;
   }
+
+  public int getCalls() {
+    return calls.get();
+  }
+
+  public int getSuspended() {
+    return suspended.get();
+  }
 }
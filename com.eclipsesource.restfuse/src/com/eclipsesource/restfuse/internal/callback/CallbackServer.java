@@ -11,12 +11,16 @@
 package com.eclipsesource.restfuse.internal.callback;
 
 import java.lang.reflect.Constructor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 
 import com.eclipsesource.restfuse.CallbackResource;
+import com.eclipsesource.restfuse.LatencyDistribution;
 import com.eclipsesource.restfuse.annotation.Callback;
 
 
@@ -26,7 +30,19 @@ public class CallbackServer {
   private int timeout;
   private int port;
   private String path;
+  private int acceptors;
+  private int maxThreads;
+  private int maxQueued;
+  private int maxBodySize;
+  private boolean correlate;
+  private int expectedCalls;
+  private int maxLatency;
+  private double latencyPercentile;
   private Server server;
+  private SharedCallbackServer sharedServer;
+  private String correlationId;
+  private MeteredThreadPool threadPool;
+  private ScheduledExecutorService scheduler;
   private CallbackSerlvet servlet;
   private final CallbackStatement statement;
 
@@ -36,6 +52,14 @@ public class CallbackServer {
     timeout = callbackAnnotation.timeout();
     port = callbackAnnotation.port();
     path = callbackAnnotation.path();
+    acceptors = callbackAnnotation.acceptors();
+    maxThreads = callbackAnnotation.maxThreads();
+    maxQueued = callbackAnnotation.maxQueued();
+    maxBodySize = callbackAnnotation.maxBodySize();
+    correlate = callbackAnnotation.correlate();
+    expectedCalls = callbackAnnotation.expectedCalls();
+    maxLatency = callbackAnnotation.maxLatency();
+    latencyPercentile = callbackAnnotation.latencyPercentile();
   }
 
   private void createResource( Class<? extends CallbackResource> type, Object target ) {
@@ -68,18 +92,48 @@ public class CallbackServer {
   }
 
   public void start() {
-    configureServer();
-    doStartServer();
+    servlet = new CallbackSerlvet( resource, statement );
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    servlet.setScheduler( scheduler, timeout );
+    servlet.setMaxBodySize( maxBodySize );
+    if( correlate ) {
+      sharedServer = SharedCallbackServer.acquire( this );
+      correlationId = sharedServer.register( servlet );
+    } else {
+      configureServer();
+      doStartServer( server );
+    }
   }
 
   private void configureServer() {
-    server = new Server( port );
+    threadPool = createThreadPool( maxThreads, maxQueued );
+    server = createServer( port, acceptors, threadPool );
     ServletContextHandler context = new ServletContextHandler( server, "/", ServletContextHandler.SESSIONS );
-    servlet = new CallbackSerlvet( resource, statement );
     context.addServlet( new ServletHolder( servlet ), path );
   }
 
-  private void doStartServer() {
+  static MeteredThreadPool createThreadPool( int maxThreads, int maxQueued ) {
+    MeteredThreadPool result = new MeteredThreadPool( maxQueued );
+    if( maxThreads > 0 ) {
+      result.setMaxThreads( maxThreads );
+      result.setMinThreads( Math.min( result.getMinThreads(), maxThreads ) );
+    }
+    return result;
+  }
+
+  static Server createServer( int port, int acceptors, MeteredThreadPool threadPool ) {
+    Server result = new Server();
+    result.setThreadPool( threadPool );
+    SelectChannelConnector connector = new SelectChannelConnector();
+    connector.setPort( port );
+    if( acceptors > 0 ) {
+      connector.setAcceptors( acceptors );
+    }
+    result.addConnector( connector );
+    return result;
+  }
+
+  static void doStartServer( Server server ) {
     try {
       server.start();
     } catch( Exception shouldNotHappen ) {
@@ -87,7 +141,7 @@ public class CallbackServer {
     }
   }
 
-  public void stop() {
+  static void doStopServer( Server server ) {
     try {
       server.stop();
     } catch( Exception shouldNotHappen ) {
@@ -95,10 +149,107 @@ public class CallbackServer {
     }
   }
 
+  static int getLocalPort( Server server ) {
+    return server.getConnectors()[ 0 ].getLocalPort();
+  }
+
+  public void stop() {
+    try {
+      if( correlate ) {
+        sharedServer.unregister( correlationId );
+        SharedCallbackServer.release( sharedServer );
+      } else {
+        doStopServer( server );
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns the url the callback is reachable on. When the callback is correlated the url 
+   * contains the correlation id as last path segment.
+   */
+  public String getUrl() {
+    String result;
+    if( correlate ) {
+      result = "http://localhost:" + sharedServer.getLocalPort() + path + "/" + correlationId;
+    } else {
+      result = "http://localhost:" + getLocalPort( server ) + path;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the correlation id of a correlated callback or null.
+   */
+  public String getCorrelationId() {
+    return correlationId;
+  }
+
+  int getPort() {
+    return port;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  int getAcceptors() {
+    return acceptors;
+  }
+
+  int getMaxThreads() {
+    return maxThreads;
+  }
+
+  int getMaxQueued() {
+    return maxQueued;
+  }
+
+  CallbackSerlvet getServlet() {
+    return servlet;
+  }
+
+  MeteredThreadPool getThreadPool() {
+    return correlate ? sharedServer.getThreadPool() : threadPool;
+  }
+
   public boolean wasCalled() {
     return servlet.wasCalled();
   }
 
+  /**
+   * Returns true when at least the expected number of callbacks arrived and one was answered.
+   */
+  public boolean hasExpectedCalls() {
+    return servlet.wasCalled() && servlet.getCalls() >= expectedCalls;
+  }
+
+  public int getCalls() {
+    return servlet.getCalls();
+  }
+
+  /**
+   * Returns true when no maximum latency is set or the checked percentile of the given latencies 
+   * is within it.
+   */
+  public boolean hasExpectedLatency( LatencyDistribution latencies ) {
+    return maxLatency <= 0 || latencies.getPercentile( latencyPercentile ) <= maxLatency;
+  }
+
+  public int getMaxLatency() {
+    return maxLatency;
+  }
+
+  public double getLatencyPercentile() {
+    return latencyPercentile;
+  }
+
+  public int getExpectedCalls() {
+    return expectedCalls;
+  }
+
   public int getTimeout() {
     return timeout;
   }
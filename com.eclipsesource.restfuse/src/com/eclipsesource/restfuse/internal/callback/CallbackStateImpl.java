@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.callback;
+
+import java.util.concurrent.TimeUnit;
+
+import com.eclipsesource.restfuse.CallbackState;
+import com.eclipsesource.restfuse.LatencyDistribution;
+
+
+public class CallbackStateImpl implements CallbackState {
+
+  private final CallbackServer server;
+  private final long requestTime;
+
+  public CallbackStateImpl( CallbackServer server, long requestTime ) {
+    this.server = server;
+    this.requestTime = requestTime;
+  }
+
+  @Override
+  public String getUrl() {
+    return server.getUrl();
+  }
+
+  @Override
+  public String getCorrelationId() {
+    return server.getCorrelationId();
+  }
+
+  @Override
+  public int getCalls() {
+    return server.getServlet().getCalls();
+  }
+
+  @Override
+  public int getSuspendedCalls() {
+    return server.getServlet().getSuspended();
+  }
+
+  @Override
+  public int getQueueSize() {
+    return server.getThreadPool().getQueueSize();
+  }
+
+  @Override
+  public int getMaxQueueSize() {
+    return server.getThreadPool().getMaxQueueSize();
+  }
+
+  @Override
+  public int getRejectedCalls() {
+    return server.getThreadPool().getRejected();
+  }
+
+  @Override
+  public long getLatency() {
+    long[] arrivals = server.getServlet().getArrivals();
+    long result = -1;
+    if( arrivals.length > 0 ) {
+      result = TimeUnit.NANOSECONDS.toMillis( arrivals[ 0 ] - requestTime );
+    }
+    return result;
+  }
+
+  @Override
+  public LatencyDistribution getLatencies() {
+    long[] latencies = server.getServlet().getArrivals();
+    for( int i = 0; i < latencies.length; i++ ) {
+      latencies[ i ] -= requestTime;
+    }
+    return new LatencyDistribution( latencies );
+  }
+}
@@ -12,11 +12,16 @@ package com.eclipsesource.restfuse.internal.callback;
 
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.Field;
+
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
+import com.eclipsesource.restfuse.CallbackState;
+import com.eclipsesource.restfuse.LatencyDistribution;
 import com.eclipsesource.restfuse.Response;
 import com.eclipsesource.restfuse.annotation.Callback;
+import com.eclipsesource.restfuse.annotation.Context;
 import com.eclipsesource.restfuse.internal.HttpTestStatement;
 
 
@@ -28,6 +33,7 @@ public class CallbackStatement extends Statement {
   private Description description;
   private Object target;
   private CallbackServer callbackServer;
+  private CallbackState callbackState;
   private final Object lock = new Object();
   private volatile String errorMessage;
 
@@ -49,7 +55,9 @@ public class CallbackStatement extends Statement {
     try {
       startCallbackServerWhenAvailable();
       Response response = base.sendRequest();
+      createCallbackStateWhenAvailable();
       base.tryInjectResponse( response );
+      tryToInjectCallbackState();
       statement.evaluate();
     } finally {
       waitForCallbackWhenAvailable();
@@ -61,6 +69,34 @@ public class CallbackStatement extends Statement {
     if( callbackAnnotation != null ) {
       callbackServer = new CallbackServer( callbackAnnotation, target, this );
       callbackServer.start();
+      base.setCallback( callbackServer.getUrl(), callbackServer.getCorrelationId() );
+    }
+  }
+
+  private void createCallbackStateWhenAvailable() {
+    if( callbackServer != null ) {
+      callbackState = new CallbackStateImpl( callbackServer, base.getRequestTime() );
+    }
+  }
+
+  private void tryToInjectCallbackState() {
+    if( callbackServer != null ) {
+      Field[] fields = target.getClass().getDeclaredFields();
+      for( Field field : fields ) {
+        Context contextAnnotation = field.getAnnotation( Context.class );
+        if( contextAnnotation != null && field.getType() == CallbackState.class ) {
+          injectCallbackState( field );
+        }
+      }
+    }
+  }
+
+  private void injectCallbackState( Field field ) {
+    field.setAccessible( true );
+    try {
+      field.set( target, callbackState );
+    } catch( Exception exception ) {
+      throw new IllegalStateException( "Could not inject callbackstate.", exception );
     }
   }
 
@@ -68,12 +104,13 @@ public class CallbackStatement extends Statement {
     if( callbackServer != null ) {
       try {
         int waitTime = 0;
-        while( !callbackServer.wasCalled() && waitTime <= callbackServer.getTimeout() ) {
+        while( !callbackServer.hasExpectedCalls() && waitTime <= callbackServer.getTimeout() ) {
           sleep();
           waitTime += WAIT_TIME;
         }
         checkForFailuresDuringCallback();
         checkCallbackWasCalled();
+        checkLatencies();
       } finally {
         callbackServer.stop();
       }
@@ -100,6 +137,20 @@ public class CallbackStatement extends Statement {
   private void checkCallbackWasCalled() {
     if( !callbackServer.wasCalled() ) {
       fail( "Callback was not called" );
+    } else if( !callbackServer.hasExpectedCalls() ) {
+      fail( "Expected " + callbackServer.getExpectedCalls() + " callbacks but received " 
+            + callbackServer.getCalls() );
+    }
+  }
+  
+  // runs after waiting, so the distribution is final
+  private void checkLatencies() {
+    if( callbackState != null ) {
+      LatencyDistribution latencies = callbackState.getLatencies();
+      if( !callbackServer.hasExpectedLatency( latencies ) ) {
+        fail( "Expected callbacks within " + callbackServer.getMaxLatency() + "ms at percentile " 
+              + callbackServer.getLatencyPercentile() + " but latencies were " + latencies );
+      }
     }
   }
   
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.callback;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.MediaType;
+import com.eclipsesource.restfuse.Response;
+
+
+/**
+ * <p>A <code>{@link Response}</code> which should be sent back to the caller only after a delay. 
+ * The <code>{@link CallbackSerlvet}</code> suspends such requests instead of blocking a thread 
+ * while waiting.</p>
+ */
+public class DelayedResponse implements Response {
+
+  private final Response response;
+  private final int delay;
+
+  public DelayedResponse( Response response, int delay ) {
+    this.response = response;
+    this.delay = delay;
+  }
+
+  public Response getResponse() {
+    return response;
+  }
+
+  public int getDelay() {
+    return delay;
+  }
+
+  @Override
+  public boolean hasBody() {
+    return response.hasBody();
+  }
+
+  @Override
+  @Deprecated
+  @SuppressWarnings( "unchecked" )
+  public <T> T getBody( Class<T> type ) {
+    if( type != String.class ) {
+      throw new IllegalStateException( "DelayedResponse can only have Strings as body" );
+    }
+    return ( T )getBody();
+  }
+
+  @Override
+  public String getBody() {
+    return response.getBody();
+  }
+
+  @Override
+  public byte[] getBytes() {
+    return response.getBytes();
+  }
+
+  @Override
+  public ByteBuffer getByteBuffer() {
+    return response.getByteBuffer();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return response.getInputStream();
+  }
+
+  @Override
+  public MediaType getType() {
+    return response.getType();
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    return response.getHeaders();
+  }
+
+  @Override
+  public int getStatus() {
+    return response.getStatus();
+  }
+
+  @Override
+  public String getUrl() {
+    return response.getUrl();
+  }
+}
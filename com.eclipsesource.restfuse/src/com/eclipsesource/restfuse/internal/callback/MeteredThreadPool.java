@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.callback;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+
+/**
+ * <p>A <code>QueuedThreadPool</code> with an optionally bounded queue which counts the jobs it 
+ * rejects and remembers the highest queue depth it has seen.</p>
+ */
+public class MeteredThreadPool extends QueuedThreadPool {
+
+  private final BlockingQueue<Runnable> queue;
+  private final AtomicInteger rejected;
+  private final AtomicInteger maxQueueSize;
+
+  public MeteredThreadPool( int maxQueued ) {
+    this( createQueue( maxQueued ) );
+    if( maxQueued > 0 ) {
+      setMaxQueued( maxQueued );
+    }
+  }
+
+  private MeteredThreadPool( BlockingQueue<Runnable> queue ) {
+    super( queue );
+    this.queue = queue;
+    this.rejected = new AtomicInteger();
+    this.maxQueueSize = new AtomicInteger();
+  }
+
+  private static BlockingQueue<Runnable> createQueue( int maxQueued ) {
+    BlockingQueue<Runnable> result;
+    if( maxQueued > 0 ) {
+      result = new ArrayBlockingQueue<Runnable>( maxQueued );
+    } else {
+      result = new LinkedBlockingQueue<Runnable>();
+    }
+    return result;
+  }
+
+  @Override
+  public boolean dispatch( Runnable job ) {
+    boolean result = super.dispatch( job );
+    if( !result && isRunning() ) {
+      rejected.incrementAndGet();
+    }
+    updateMaxQueueSize( queue.size() );
+    return result;
+  }
+
+  private void updateMaxQueueSize( int size ) {
+    int max = maxQueueSize.get();
+    while( size > max && !maxQueueSize.compareAndSet( max, size ) ) {
+      max = maxQueueSize.get();
+    }
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public int getMaxQueueSize() {
+    return maxQueueSize.get();
+  }
+
+  public int getRejected() {
+    return rejected.get();
+  }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.callback;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import com.eclipsesource.restfuse.annotation.Callback;
+
+
+/**
+ * <p>A callback server shared by all correlated callbacks with the same port and path. Every 
+ * waiting test registers its servlet with a unique correlation id. Incoming calls are routed by 
+ * the correlation header or, when it's missing, by the first path segment after the callback 
+ * path. The server is stopped when the last test released it.</p>
+ */
+class SharedCallbackServer {
+
+  private static final Map<String, SharedCallbackServer> SERVERS 
+    = new HashMap<String, SharedCallbackServer>();
+
+  private final String key;
+  private final Server server;
+  private final MeteredThreadPool threadPool;
+  private final Map<String, CallbackSerlvet> servlets;
+  private int references;
+
+  private SharedCallbackServer( String key, CallbackServer configuration ) {
+    this.key = key;
+    this.servlets = new ConcurrentHashMap<String, CallbackSerlvet>();
+    this.threadPool = CallbackServer.createThreadPool( configuration.getMaxThreads(), 
+                                                       configuration.getMaxQueued() );
+    this.server = CallbackServer.createServer( configuration.getPort(), 
+                                               configuration.getAcceptors(), 
+                                               threadPool );
+    ServletContextHandler context = new ServletContextHandler( server, "/", ServletContextHandler.SESSIONS );
+    context.addServlet( new ServletHolder( new RoutingServlet() ), configuration.getPath() + "/*" );
+  }
+
+  static synchronized SharedCallbackServer acquire( CallbackServer configuration ) {
+    String key = configuration.getPort() + configuration.getPath();
+    SharedCallbackServer result = SERVERS.get( key );
+    if( result == null ) {
+      result = new SharedCallbackServer( key, configuration );
+      CallbackServer.doStartServer( result.server );
+      SERVERS.put( key, result );
+    }
+    result.references++;
+    return result;
+  }
+
+  static synchronized void release( SharedCallbackServer sharedServer ) {
+    sharedServer.references--;
+    if( sharedServer.references == 0 ) {
+      SERVERS.remove( sharedServer.key );
+      CallbackServer.doStopServer( sharedServer.server );
+    }
+  }
+
+  String register( CallbackSerlvet servlet ) {
+    String correlationId = UUID.randomUUID().toString();
+    servlets.put( correlationId, servlet );
+    return correlationId;
+  }
+
+  void unregister( String correlationId ) {
+    servlets.remove( correlationId );
+  }
+
+  int getLocalPort() {
+    return CallbackServer.getLocalPort( server );
+  }
+
+  MeteredThreadPool getThreadPool() {
+    return threadPool;
+  }
+
+  private class RoutingServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void service( HttpServletRequest req, HttpServletResponse resp )
+      throws ServletException, IOException
+    {
+      CallbackSerlvet servlet = servlets.get( getCorrelationId( req ) );
+      if( servlet != null ) {
+        servlet.service( req, resp );
+      } else {
+        resp.sendError( HttpServletResponse.SC_NOT_FOUND, "No test waits for this callback" );
+      }
+    }
+
+    private String getCorrelationId( HttpServletRequest req ) {
+      String result = req.getHeader( Callback.CORRELATION_HEADER );
+      if( result == null && req.getPathInfo() != null ) {
+        String pathInfo = req.getPathInfo().substring( 1 );
+        int separator = pathInfo.indexOf( '/' );
+        result = separator < 0 ? pathInfo : pathInfo.substring( 0, separator );
+      }
+      return result != null ? result : "";
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Reads comma separated values. The first line names the columns. Values may be quoted with 
+ * <code>"</code>, quoted values may contain commas, line breaks and doubled quotes.
+ */
+public class CsvDatasetReader extends DatasetReader {
+
+  private static final char SEPARATOR = ',';
+  private static final char QUOTE = '"';
+
+  private final List<String> columns;
+
+  public CsvDatasetReader( InputStream stream ) throws IOException {
+    super( stream );
+    String header = readLine();
+    if( header == null ) {
+      throw new IllegalStateException( "Dataset has no header line." );
+    }
+    columns = parseValues( header );
+  }
+
+  @Override
+  protected Map<String, String> parseRow( String line ) throws IOException {
+    List<String> values = parseValues( line );
+    if( values.size() != columns.size() ) {
+      throw new IllegalStateException( "Dataset row has " + values.size() 
+                                       + " values but the header has " + columns.size() 
+                                       + " columns: " + line );
+    }
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for( int i = 0; i < columns.size(); i++ ) {
+      result.put( columns.get( i ), values.get( i ) );
+    }
+    return result;
+  }
+
+  private List<String> parseValues( String line ) throws IOException {
+    List<String> result = new ArrayList<String>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+    String current = line;
+    int i = 0;
+    while( current != null ) {
+      if( i == current.length() ) {
+        if( quoted ) {
+          value.append( '\n' );
+          current = readLine();
+          i = 0;
+          continue;
+        }
+        break;
+      }
+      char c = current.charAt( i );
+      if( quoted ) {
+        if( c == QUOTE && i + 1 < current.length() && current.charAt( i + 1 ) == QUOTE ) {
+          value.append( QUOTE );
+          i++;
+        } else if( c == QUOTE ) {
+          quoted = false;
+        } else {
+          value.append( c );
+        }
+      } else if( c == QUOTE ) {
+        quoted = true;
+      } else if( c == SEPARATOR ) {
+        result.add( value.toString() );
+        value.setLength( 0 );
+      } else {
+        value.append( c );
+      }
+      i++;
+    }
+    if( quoted ) {
+      throw new IllegalStateException( "Dataset ends within a quoted value." );
+    }
+    result.add( value.toString() );
+    return result;
+  }
+}
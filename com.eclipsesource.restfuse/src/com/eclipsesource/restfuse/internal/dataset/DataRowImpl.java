@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.DataRow;
+
+
+public class DataRowImpl implements DataRow {
+
+  private final int index;
+  private final Map<String, String> values;
+
+  public DataRowImpl( int index, Map<String, String> values ) {
+    this.index = index;
+    this.values = Collections.unmodifiableMap( values );
+  }
+
+  @Override
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public String get( String column ) {
+    return values.get( column );
+  }
+
+  @Override
+  public Map<String, String> getValues() {
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return "Row " + index + " " + values;
+  }
+}
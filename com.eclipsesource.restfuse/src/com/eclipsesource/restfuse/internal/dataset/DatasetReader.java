@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Map;
+
+
+/**
+ * Reads the rows of a dataset one after another. Only the current row is kept in memory.
+ */
+public abstract class DatasetReader implements Closeable {
+
+  private static final String UTF_8 = "UTF-8";
+
+  private final BufferedReader reader;
+  private int index;
+
+  protected DatasetReader( InputStream stream ) throws IOException {
+    this.reader = new BufferedReader( new InputStreamReader( stream, UTF_8 ) );
+  }
+
+  public static DatasetReader open( Class<?> testClass, String file ) throws IOException {
+    InputStream stream = testClass.getResourceAsStream( file );
+    if( stream == null ) {
+      throw new IllegalStateException( "Could not open dataset " 
+                                       + file + ". Maybe it's not on the classpath?" );
+    }
+    return createReader( file, stream );
+  }
+
+  private static DatasetReader createReader( String file, InputStream stream ) throws IOException {
+    String name = file.toLowerCase();
+    DatasetReader result;
+    if( name.endsWith( ".csv" ) ) {
+      result = new CsvDatasetReader( stream );
+    } else if( name.endsWith( ".jsonl" ) || name.endsWith( ".ndjson" ) ) {
+      result = new JsonLinesDatasetReader( stream );
+    } else {
+      stream.close();
+      throw new IllegalArgumentException( "Unsupported dataset format: " + file );
+    }
+    return result;
+  }
+
+  /**
+   * Returns the next row or <code>null</code> when the end of the dataset was reached.
+   */
+  public DataRowImpl next() throws IOException {
+    DataRowImpl result = null;
+    String line = readLine();
+    while( line != null && line.trim().length() == 0 ) {
+      line = readLine();
+    }
+    if( line != null ) {
+      index++;
+      result = new DataRowImpl( index, parseRow( line ) );
+    }
+    return result;
+  }
+
+  protected abstract Map<String, String> parseRow( String line ) throws IOException;
+
+  protected String readLine() throws IOException {
+    return reader.readLine();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+import com.eclipsesource.restfuse.DataRow;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Dataset;
+import com.eclipsesource.restfuse.internal.HttpTestStatement;
+
+
+public class DatasetStatement extends Statement {
+
+  private static final int MAX_REPORTED_FAILURES = 100;
+
+  private final Statement statement;
+  private final HttpTestStatement base;
+  private final Object target;
+  private final Class<?> testClass;
+  private final String file;
+  private final int parallelism;
+  private final List<Throwable> failures;
+  private final AtomicInteger failedRows;
+  private int rows;
+
+  public DatasetStatement( Statement statement, 
+                           HttpTestStatement base, 
+                           Description description, 
+                           Object target ) 
+  {
+    this.statement = statement;
+    this.base = base;
+    this.target = target;
+    this.testClass = description.getTestClass();
+    Dataset datasetAnnotation = description.getAnnotation( Dataset.class );
+    file = datasetAnnotation.file();
+    parallelism = Math.max( 1, datasetAnnotation.parallelism() );
+    failures = new ArrayList<Throwable>();
+    failedRows = new AtomicInteger();
+  }
+
+  @Override
+  public void evaluate() throws Throwable {
+    DatasetReader reader = DatasetReader.open( testClass, file );
+    try {
+      if( parallelism == 1 ) {
+        evaluateSequential( reader );
+      } else {
+        evaluateParallel( reader );
+      }
+    } finally {
+      reader.close();
+    }
+    reportFailures();
+  }
+
+  private void evaluateSequential( DatasetReader reader ) throws Exception {
+    DataRowImpl row = reader.next();
+    while( row != null ) {
+      rows++;
+      evaluateRow( row );
+      row = reader.next();
+    }
+  }
+
+  private void evaluateParallel( DatasetReader reader ) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool( parallelism );
+    final Semaphore inFlight = new Semaphore( parallelism );
+    try {
+      DataRowImpl row = reader.next();
+      while( row != null ) {
+        rows++;
+        inFlight.acquire();
+        final DataRowImpl currentRow = row;
+        executor.execute( new Runnable() {
+          @Override
+          public void run() {
+            try {
+              evaluateRow( currentRow );
+            } finally {
+              inFlight.release();
+            }
+          }
+        } );
+        row = reader.next();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+    }
+  }
+
+  // the response of a row is released when the row is done, so a large dataset doesn't keep 
+  // all bodies alive until the test ended
+  private void evaluateRow( DataRowImpl row ) {
+    Response response = null;
+    try {
+      response = base.sendRequest( row.getValues() );
+      synchronized( target ) {
+        base.tryInjectResponse( response );
+        tryToInjectDataRow( row );
+        statement.evaluate();
+      }
+    } catch( Throwable failure ) {
+      addFailure( row, failure );
+    } finally {
+      if( response != null ) {
+        base.releaseResponse( response );
+      }
+    }
+  }
+
+  private void tryToInjectDataRow( DataRow row ) {
+    Field[] fields = target.getClass().getDeclaredFields();
+    for( Field field : fields ) {
+      Context contextAnnotation = field.getAnnotation( Context.class );
+      if( contextAnnotation != null && field.getType() == DataRow.class ) {
+        injectDataRow( field, row );
+      }
+    }
+  }
+
+  private void injectDataRow( Field field, DataRow row ) {
+    field.setAccessible( true );
+    try {
+      field.set( target, row );
+    } catch( Exception exception ) {
+      throw new IllegalStateException( "Could not inject datarow.", exception );
+    }
+  }
+
+  private void addFailure( DataRow row, Throwable failure ) {
+    failedRows.incrementAndGet();
+    synchronized( failures ) {
+      if( failures.size() < MAX_REPORTED_FAILURES ) {
+        AssertionError rowFailure = new AssertionError( row + ": " + failure.getMessage() );
+        rowFailure.initCause( failure );
+        failures.add( rowFailure );
+      }
+    }
+  }
+
+  private void reportFailures() throws Throwable {
+    if( failedRows.get() > 0 ) {
+      List<Throwable> report = new ArrayList<Throwable>();
+      String summary = failedRows.get() + " of " + rows + " rows of " + file + " failed";
+      if( failedRows.get() > failures.size() ) {
+        summary += ", only the first " + failures.size() + " are reported";
+      }
+      report.add( new AssertionError( summary ) );
+      report.addAll( failures );
+      throw new MultipleFailureException( report );
+    }
+  }
+}
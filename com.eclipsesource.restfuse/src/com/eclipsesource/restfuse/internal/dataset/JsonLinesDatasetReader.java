@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.dataset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.jetty.util.ajax.JSON;
+
+
+/**
+ * Reads JSON Lines. Every line contains one flat JSON object, its members are the columns.
+ */
+public class JsonLinesDatasetReader extends DatasetReader {
+
+  public JsonLinesDatasetReader( InputStream stream ) throws IOException {
+    super( stream );
+  }
+
+  @Override
+  protected Map<String, String> parseRow( String line ) {
+    Object parsed;
+    try {
+      parsed = JSON.parse( line );
+    } catch( IllegalStateException invalid ) {
+      throw new IllegalStateException( "Dataset row is not valid JSON: " + line, invalid );
+    }
+    if( !( parsed instanceof Map ) ) {
+      throw new IllegalStateException( "Dataset row is not a JSON object: " + line );
+    }
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for( Entry<?, ?> entry : ( ( Map<?, ?> )parsed ).entrySet() ) {
+      Object value = entry.getValue();
+      result.put( String.valueOf( entry.getKey() ), value == null ? null : String.valueOf( value ) );
+    }
+    return result;
+  }
+}
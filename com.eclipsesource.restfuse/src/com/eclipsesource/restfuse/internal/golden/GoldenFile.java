@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.golden;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+
+/**
+ * An expected body stored as a classpath resource. Its digest and a checksum per block are 
+ * computed once and cached for all further comparisons, a resource in the file system is read 
+ * memory mapped. A body is read once and compared block by block with the checksums, only the 
+ * first differing block is read from the resource again to locate the difference.
+ */
+public class GoldenFile {
+
+  private static final String ALGORITHM = "SHA-256";
+  static final int BLOCK_SIZE = 64 * 1024;
+  // large files are mapped in regions, a single mapping is limited to 2 GB
+  private static final long MAPPING_SIZE = 64 * 1024 * 1024;
+  private static final ConcurrentMap<String, GoldenFile> FILES 
+    = new ConcurrentHashMap<String, GoldenFile>();
+
+  private final URL resource;
+  private final long lastModified;
+  private final long length;
+  private final int[] checksums;
+  private final byte[] digest;
+
+  private GoldenFile( URL resource ) throws IOException {
+    this.resource = resource;
+    MessageDigest messageDigest = createDigest();
+    List<Integer> blockChecksums = new ArrayList<Integer>();
+    File file = toFile( resource );
+    this.lastModified = file != null ? file.lastModified() : 0;
+    this.length = file != null ? digestMapped( file, messageDigest, blockChecksums ) 
+                               : digestStream( resource.openStream(), messageDigest, blockChecksums );
+    this.checksums = new int[ blockChecksums.size() ];
+    for( int i = 0; i < checksums.length; i++ ) {
+      checksums[ i ] = blockChecksums.get( i ).intValue();
+    }
+    this.digest = messageDigest.digest();
+  }
+
+  /**
+   * Returns the cached golden file of the resource, computing its digest on first use. A 
+   * resource in the file system is read again when it was changed since.
+   * 
+   * @throws IllegalStateException when the resource could not be read.
+   */
+  public static GoldenFile forResource( URL resource ) {
+    String key = resource.toExternalForm();
+    GoldenFile result = FILES.get( key );
+    if( result == null || result.isModified() ) {
+      try {
+        result = new GoldenFile( resource );
+      } catch( IOException ioe ) {
+        throw new IllegalStateException( "Could not read resource " + resource, ioe );
+      }
+      FILES.put( key, result );
+    }
+    return result;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Compares the given body with this file and describes the first difference or returns null 
+   * when they are equal. The body is read once until the difference and closed.
+   */
+  public String compare( InputStream body ) throws IOException {
+    String result = null;
+    try {
+      MessageDigest messageDigest = createDigest();
+      byte[] block = new byte[ BLOCK_SIZE ];
+      long offset = 0;
+      int index = 0;
+      int read = readChunk( body, block );
+      while( result == null && read > 0 ) {
+        messageDigest.update( block, 0, read );
+        if( index >= checksums.length || read != getBlockLength( index ) 
+            || checksum( block, read ) != checksums[ index ] ) 
+        {
+          result = locateDifference( offset, block, read );
+        }
+        offset += read;
+        index++;
+        read = readChunk( body, block );
+      }
+      if( result == null && offset < length ) {
+        result = describeEnd( offset, "body" );
+      } else if( result == null && !Arrays.equals( messageDigest.digest(), digest ) ) {
+        result = "Body differs from resource, but the differing byte could not be located";
+      }
+    } finally {
+      body.close();
+    }
+    return result;
+  }
+
+  private boolean isModified() {
+    File file = toFile( resource );
+    return file != null && ( file.lastModified() != lastModified || file.length() != length );
+  }
+
+  private int getBlockLength( int index ) {
+    return ( int )Math.min( BLOCK_SIZE, length - ( long )index * BLOCK_SIZE );
+  }
+
+  // reads the block of the resource at the given offset and compares it byte by byte
+  private String locateDifference( long offset, byte[] actual, int actualRead ) throws IOException {
+    byte[] expected = new byte[ BLOCK_SIZE ];
+    int expectedRead = 0;
+    InputStream stream = resource.openStream();
+    try {
+      if( skipFully( stream, offset ) ) {
+        expectedRead = readChunk( stream, expected );
+      }
+    } finally {
+      stream.close();
+    }
+    String result = null;
+    int common = Math.min( expectedRead, actualRead );
+    for( int i = 0; result == null && i < common; i++ ) {
+      if( expected[ i ] != actual[ i ] ) {
+        result = "First difference at byte offset " + ( offset + i ) + ": expected " 
+                 + toHex( expected[ i ] ) + " but was " + toHex( actual[ i ] );
+      }
+    }
+    if( result == null ) {
+      result = describeEnd( offset + common, expectedRead < actualRead ? "resource" : "body" );
+    }
+    return result;
+  }
+
+  private static String describeEnd( long offset, String shorter ) {
+    return "Body and resource are equal up to byte offset " + offset + " where the " + shorter 
+           + " ends";
+  }
+
+  private static boolean skipFully( InputStream stream, long count ) throws IOException {
+    long remaining = count;
+    while( remaining > 0 ) {
+      long skipped = stream.skip( remaining );
+      if( skipped <= 0 ) {
+        if( stream.read() == -1 ) {
+          return false;
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+    return true;
+  }
+
+  // fills the chunk unless the stream ends, so blocks of body and resource are aligned
+  private static int readChunk( InputStream stream, byte[] chunk ) throws IOException {
+    int result = 0;
+    int read = 0;
+    while( read != -1 && result < chunk.length ) {
+      read = stream.read( chunk, result, chunk.length - result );
+      if( read > 0 ) {
+        result += read;
+      }
+    }
+    return result;
+  }
+
+  private static long digestMapped( File file, 
+                                    MessageDigest messageDigest, 
+                                    List<Integer> blockChecksums ) 
+    throws IOException 
+  {
+    FileInputStream stream = new FileInputStream( file );
+    try {
+      FileChannel channel = stream.getChannel();
+      long size = channel.size();
+      byte[] block = new byte[ BLOCK_SIZE ];
+      for( long position = 0; position < size; position += MAPPING_SIZE ) {
+        long regionSize = Math.min( MAPPING_SIZE, size - position );
+        MappedByteBuffer region = channel.map( FileChannel.MapMode.READ_ONLY, position, regionSize );
+        while( region.hasRemaining() ) {
+          int count = Math.min( BLOCK_SIZE, region.remaining() );
+          region.get( block, 0, count );
+          messageDigest.update( block, 0, count );
+          blockChecksums.add( Integer.valueOf( checksum( block, count ) ) );
+        }
+      }
+      return size;
+    } finally {
+      stream.close();
+    }
+  }
+
+  private static long digestStream( InputStream stream, 
+                                    MessageDigest messageDigest, 
+                                    List<Integer> blockChecksums ) 
+    throws IOException 
+  {
+    long result = 0;
+    try {
+      byte[] block = new byte[ BLOCK_SIZE ];
+      int read;
+      while( ( read = readChunk( stream, block ) ) > 0 ) {
+        messageDigest.update( block, 0, read );
+        blockChecksums.add( Integer.valueOf( checksum( block, read ) ) );
+        result += read;
+      }
+    } finally {
+      stream.close();
+    }
+    return result;
+  }
+
+  private static int checksum( byte[] block, int count ) {
+    CRC32 result = new CRC32();
+    result.update( block, 0, count );
+    return ( int )result.getValue();
+  }
+
+  private static File toFile( URL resource ) {
+    File result = null;
+    if( "file".equals( resource.getProtocol() ) ) {
+      try {
+        result = new File( resource.toURI() );
+      } catch( URISyntaxException notMappable ) {
+        // read as stream
+      }
+    }
+    return result;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance( ALGORITHM );
+    } catch( NoSuchAlgorithmException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+
+  private static String toHex( byte value ) {
+    return String.format( "0x%02x", Integer.valueOf( value & 0xff ) );
+  }
+}
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+
+/**
+ * Resolves JSON Pointers (RFC 6901) while tokenizing a JSON document, without building a tree of 
+ * it. Only the values of the requested pointers are kept and reading stops as soon as all of them 
+ * were resolved, so the rest of a large document is never read.
+ * <p>
+ * A string value is resolved to its unescaped content, <code>null</code> to null and any other 
+ * value to its JSON text, e.g. <code>42</code>, <code>true</code> or <code>{"a":1}</code>.
+ */
+public class JsonPointerReader {
+
+  private static final Pattern LITERAL 
+    = Pattern.compile( "true|false|null|-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?" );
+
+  private final Reader reader;
+  private final Set<String> pending;
+  private final Map<String, String> values;
+  private final List<StringBuilder> captures;
+  private int current;
+
+  private JsonPointerReader( Reader reader, Collection<String> pointers ) {
+    this.reader = reader;
+    this.pending = new HashSet<String>( pointers );
+    this.values = new LinkedHashMap<String, String>();
+    this.captures = new ArrayList<StringBuilder>();
+  }
+
+  /**
+   * Returns the values of the given pointers. Pointers which don't exist in the document are 
+   * missing in the result, a JSON <code>null</code> is contained with a null value.
+   * 
+   * @throws IllegalArgumentException when a pointer is not a valid JSON Pointer.
+   * @throws IllegalStateException when the document is not valid JSON up to the last resolved 
+   * value.
+   */
+  public static Map<String, String> read( Reader reader, Collection<String> pointers ) 
+    throws IOException 
+  {
+    for( String pointer : pointers ) {
+      checkPointer( pointer );
+    }
+    JsonPointerReader result = new JsonPointerReader( reader, pointers );
+    result.readDocument();
+    return result.values;
+  }
+
+  /**
+   * Escapes an object key as a reference token of a JSON Pointer.
+   */
+  public static String escape( String key ) {
+    return key.replace( "~", "~0" ).replace( "/", "~1" );
+  }
+
+  private static void checkPointer( String pointer ) {
+    if( pointer == null ) {
+      throw new IllegalArgumentException( "pointer must not be null." );
+    }
+    if( pointer.length() > 0 && !pointer.startsWith( "/" ) ) {
+      throw new IllegalArgumentException( "Not a valid JSON Pointer: " + pointer );
+    }
+  }
+
+  private void readDocument() throws IOException {
+    current = reader.read();
+    if( !pending.isEmpty() ) {
+      readValue( "" );
+    }
+  }
+
+  private void readValue( String pointer ) throws IOException {
+    skipWhitespace();
+    boolean wanted = pending.remove( pointer );
+    boolean descend = isParentOfPending( pointer );
+    if( wanted && current == '"' ) {
+      values.put( pointer, readString() );
+    } else if( wanted ) {
+      StringBuilder capture = new StringBuilder();
+      captures.add( capture );
+      readValue( pointer, descend );
+      captures.remove( capture );
+      String value = capture.toString().trim();
+      values.put( pointer, value.equals( "null" ) ? null : value );
+    } else {
+      readValue( pointer, descend );
+    }
+  }
+
+  private void readValue( String pointer, boolean descend ) throws IOException {
+    if( current == '{' ) {
+      readObject( pointer, descend );
+    } else if( current == '[' ) {
+      readArray( pointer, descend );
+    } else if( current == '"' ) {
+      skipString();
+    } else {
+      readLiteral();
+    }
+  }
+
+  // reading stops within a container once no pointer is pending anymore. Members of a skipped 
+  // container are not resolved, so their keys and pointers are not built.
+  private void readObject( String pointer, boolean descend ) throws IOException {
+    consume( '{' );
+    skipWhitespace();
+    if( current == '}' ) {
+      consume( '}' );
+    } else {
+      boolean more = true;
+      while( more ) {
+        skipWhitespace();
+        String child = null;
+        if( descend ) {
+          child = pointer + "/" + escape( readString() );
+        } else {
+          skipString();
+        }
+        skipWhitespace();
+        consume( ':' );
+        readMember( child );
+        more = readSeparator( '}' );
+      }
+    }
+  }
+
+  private void readArray( String pointer, boolean descend ) throws IOException {
+    consume( '[' );
+    skipWhitespace();
+    if( current == ']' ) {
+      consume( ']' );
+    } else {
+      boolean more = true;
+      int index = 0;
+      while( more ) {
+        readMember( descend ? pointer + "/" + index : null );
+        more = readSeparator( ']' );
+        index++;
+      }
+    }
+  }
+
+  private void readMember( String pointer ) throws IOException {
+    if( pointer != null ) {
+      readValue( pointer );
+    } else {
+      skipWhitespace();
+      readValue( null, false );
+    }
+  }
+
+  // returns whether another member follows, nothing is read when reading stopped
+  private boolean readSeparator( char end ) throws IOException {
+    boolean result = false;
+    if( isReading() ) {
+      skipWhitespace();
+      result = current == ',';
+      consume( result ? ',' : end );
+    }
+    return result;
+  }
+
+  // a container which is captured has to be read completely
+  private boolean isReading() {
+    return !pending.isEmpty() || !captures.isEmpty();
+  }
+
+  private boolean isParentOfPending( String pointer ) {
+    boolean result = false;
+    String prefix = pointer + "/";
+    for( String candidate : pending ) {
+      if( candidate.startsWith( prefix ) ) {
+        result = true;
+      }
+    }
+    return result;
+  }
+
+  private String readString() throws IOException {
+    StringBuilder result = new StringBuilder();
+    consume( '"' );
+    while( current != '"' ) {
+      checkNotEnd();
+      if( current == '\\' ) {
+        next();
+        result.append( readEscaped() );
+      } else {
+        result.append( ( char )current );
+        next();
+      }
+    }
+    consume( '"' );
+    return result.toString();
+  }
+
+  private char readEscaped() throws IOException {
+    char result;
+    switch( current ) {
+      case 'b': result = '\b'; break;
+      case 'f': result = '\f'; break;
+      case 'n': result = '\n'; break;
+      case 'r': result = '\r'; break;
+      case 't': result = '\t'; break;
+      case 'u': result = readUnicode(); break;
+      case '"': case '\\': case '/': result = ( char )current; break;
+      default: throw createError( "Invalid escape \\" + ( char )current );
+    }
+    next();
+    return result;
+  }
+
+  // leaves the last hex digit as current character, it's consumed like any other escape
+  private char readUnicode() throws IOException {
+    int result = 0;
+    for( int i = 0; i < 4; i++ ) {
+      next();
+      int digit = Character.digit( current, 16 );
+      if( digit == -1 ) {
+        throw createError( "Invalid unicode escape" );
+      }
+      result = result * 16 + digit;
+    }
+    return ( char )result;
+  }
+
+  private void skipString() throws IOException {
+    consume( '"' );
+    while( current != '"' ) {
+      checkNotEnd();
+      if( current == '\\' ) {
+        next();
+      }
+      next();
+    }
+    consume( '"' );
+  }
+
+  private void readLiteral() throws IOException {
+    StringBuilder literal = new StringBuilder();
+    while( current != -1 && ",:]}\" \t\r\n".indexOf( current ) == -1 ) {
+      literal.append( ( char )current );
+      next();
+    }
+    if( !LITERAL.matcher( literal ).matches() ) {
+      throw createError( "Expected a value" );
+    }
+  }
+
+  private void skipWhitespace() throws IOException {
+    while( current == ' ' || current == '\t' || current == '\r' || current == '\n' ) {
+      next();
+    }
+  }
+
+  private void consume( char expected ) throws IOException {
+    if( current != expected ) {
+      throw createError( "Expected '" + expected + "'" );
+    }
+    next();
+  }
+
+  private void next() throws IOException {
+    for( StringBuilder capture : captures ) {
+      capture.append( ( char )current );
+    }
+    current = reader.read();
+  }
+
+  private void checkNotEnd() {
+    if( current == -1 ) {
+      throw createError( "Unexpected end of document" );
+    }
+  }
+
+  private IllegalStateException createError( String message ) {
+    String found = current == -1 ? "end of document" : "'" + ( char )current + "'";
+    return new IllegalStateException( "Invalid JSON: " + message + " but found " + found );
+  }
+}
@@ -11,16 +11,21 @@
 package com.eclipsesource.restfuse.internal.poll;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.eclipsesource.restfuse.PollState;
 import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.Status;
 
 
 public class PollStateImpl implements PollState {
   
   private final ArrayList<Response> responses;
   private boolean wasAborted;
+  private String entityTag;
+  private String lastModified;
 
   public PollStateImpl() {
     responses = new ArrayList<Response>();
@@ -53,7 +58,47 @@ public class PollStateImpl implements PollState {
     return responses.get( attempt - 1 );
   }
 
+  @Override
+  public boolean isUnchanged( int attempt ) throws IllegalArgumentException {
+    return isUnchanged( getResponse( attempt ) );
+  }
+
+  static boolean isUnchanged( Response response ) {
+    return response.getStatus() == Status.NOT_MODIFIED.getStatusCode();
+  }
+
   void addResponse( Response response ) {
     responses.add( response );
+    if( !isUnchanged( response ) ) {
+      entityTag = findHeader( response, "ETag" );
+      lastModified = findHeader( response, "Last-Modified" );
+    }
+  }
+
+  /**
+   * Returns the headers making the next request conditional on the last changed response.
+   */
+  Map<String, String> getConditionalHeaders() {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    if( entityTag != null ) {
+      result.put( "If-None-Match", entityTag );
+    }
+    if( lastModified != null ) {
+      result.put( "If-Modified-Since", lastModified );
+    }
+    return result;
+  }
+
+  private static String findHeader( Response response, String name ) {
+    String result = null;
+    Map<String, List<String>> headers = response.getHeaders();
+    if( headers != null ) {
+      for( String key : headers.keySet() ) {
+        if( name.equalsIgnoreCase( key ) && !headers.get( key ).isEmpty() ) {
+          result = headers.get( key ).get( 0 );
+        }
+      }
+    }
+    return result;
   }
 }
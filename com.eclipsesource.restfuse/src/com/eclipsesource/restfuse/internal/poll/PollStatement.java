@@ -28,6 +28,7 @@ public class PollStatement extends Statement {
   private final HttpTestStatement base;
   private int interval;
   private int times;
+  private boolean conditional;
   private final Object target;
   private PollStateImpl pollState;
 
@@ -42,6 +43,7 @@ public class PollStatement extends Statement {
     Poll pollAnnotation = description.getAnnotation( Poll.class );
     interval = pollAnnotation.interval();
     times = pollAnnotation.times();
+    conditional = pollAnnotation.conditional();
     pollState = new PollStateImpl();
   }
 
@@ -53,13 +55,25 @@ public class PollStatement extends Statement {
   }
 
   private void doSingleEvaluate() throws Throwable {
-    Response response = base.sendRequest();
-    base.tryInjectResponse( response );
+    Response response = sendRequest();
     tryToInjectPollState( response );
-    statement.evaluate();
+    if( !conditional || !PollStateImpl.isUnchanged( response ) ) {
+      base.tryInjectResponse( response );
+      statement.evaluate();
+    }
     sleep();
   }
 
+  private Response sendRequest() {
+    Response result;
+    if( conditional ) {
+      result = base.sendRequestWithHeaders( pollState.getConditionalHeaders() );
+    } else {
+      result = base.sendRequest();
+    }
+    return result;
+  }
+
   private void tryToInjectPollState( Response response ) {
     pollState.addResponse( response );
     Field[] fields = target.getClass().getDeclaredFields();
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stream;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import com.eclipsesource.restfuse.StreamEvent;
+
+
+/**
+ * Splits a streamed body into events while it arrives. A body of Server-Sent Events is parsed as 
+ * described by the W3C EventSource specification, any other body is split into non empty lines.
+ */
+public class EventStreamReader {
+
+  private final BufferedReader reader;
+  private final boolean serverSentEvents;
+  private final long startNanos;
+  private String lastEventId;
+  private boolean timedOut;
+
+  /**
+   * @param startNanos the {@link System#nanoTime()} the event timestamps are measured from.
+   */
+  public EventStreamReader( BufferedReader reader, boolean serverSentEvents, long startNanos ) {
+    this.reader = reader;
+    this.serverSentEvents = serverSentEvents;
+    this.startNanos = startNanos;
+  }
+
+  public static boolean isServerSentEvents( String contentType ) {
+    return contentType != null && contentType.toLowerCase().startsWith( "text/event-stream" );
+  }
+
+  /**
+   * Blocks until the next event was received and returns it. Returns null when the stream ended 
+   * or no data arrived within the read timeout of the connection.
+   */
+  public StreamEvent next() throws IOException {
+    StreamEvent result = null;
+    try {
+      result = serverSentEvents ? readServerSentEvent() : readLine();
+    } catch( SocketTimeoutException idle ) {
+      timedOut = true;
+    }
+    return result;
+  }
+
+  public boolean hasTimedOut() {
+    return timedOut;
+  }
+
+  private StreamEvent readLine() throws IOException {
+    StreamEvent result = null;
+    String line = reader.readLine();
+    while( line != null && result == null ) {
+      if( line.length() > 0 ) {
+        result = new StreamEvent( null, null, line, getTimestamp() );
+      } else {
+        line = reader.readLine();
+      }
+    }
+    return result;
+  }
+
+  // an incomplete event at the end of the stream is discarded
+  private StreamEvent readServerSentEvent() throws IOException {
+    StreamEvent result = null;
+    String name = null;
+    StringBuilder data = null;
+    String line = reader.readLine();
+    while( line != null && result == null ) {
+      if( line.length() == 0 ) {
+        if( data != null ) {
+          result = new StreamEvent( name, lastEventId, data.toString(), getTimestamp() );
+        }
+        name = null;
+        data = null;
+      } else if( !line.startsWith( ":" ) ) {
+        String field = getField( line );
+        String value = getValue( line );
+        if( field.equals( "event" ) ) {
+          name = value;
+        } else if( field.equals( "data" ) ) {
+          data = data == null ? new StringBuilder( value ) : data.append( '\n' ).append( value );
+        } else if( field.equals( "id" ) ) {
+          lastEventId = value;
+        }
+      }
+      if( result == null ) {
+        line = reader.readLine();
+      }
+    }
+    return result;
+  }
+
+  private static String getField( String line ) {
+    int colon = line.indexOf( ':' );
+    return colon == -1 ? line : line.substring( 0, colon );
+  }
+
+  private static String getValue( String line ) {
+    String result = "";
+    int colon = line.indexOf( ':' );
+    if( colon != -1 ) {
+      result = line.substring( colon + 1 );
+      if( result.startsWith( " " ) ) {
+        result = result.substring( 1 );
+      }
+    }
+    return result;
+  }
+
+  private long getTimestamp() {
+    return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos );
+  }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.eclipsesource.restfuse.LatencyDistribution;
+import com.eclipsesource.restfuse.StreamEvent;
+import com.eclipsesource.restfuse.StreamState;
+
+
+public class StreamStateImpl implements StreamState {
+
+  private final List<StreamEvent> events;
+  private boolean wasAborted;
+  private boolean timedOut;
+
+  public StreamStateImpl() {
+    events = new ArrayList<StreamEvent>();
+  }
+
+  @Override
+  public int getCount() {
+    return events.size();
+  }
+
+  @Override
+  public void abort() {
+    wasAborted = true;
+  }
+
+  boolean wasAborted() {
+    return wasAborted;
+  }
+
+  @Override
+  public List<StreamEvent> getEvents() {
+    return new ArrayList<StreamEvent>( events );
+  }
+
+  @Override
+  public StreamEvent getEvent( int number ) throws IllegalArgumentException {
+    if( number < 1 || number > events.size() ) {
+      throw new IllegalArgumentException( "Event does not exist for number " + number );
+    }
+    return events.get( number - 1 );
+  }
+
+  @Override
+  public LatencyDistribution getIntervals() {
+    long[] intervals = new long[ events.size() ];
+    long previous = 0;
+    for( int i = 0; i < intervals.length; i++ ) {
+      long timestamp = events.get( i ).getTimestamp();
+      intervals[ i ] = TimeUnit.MILLISECONDS.toNanos( timestamp - previous );
+      previous = timestamp;
+    }
+    return new LatencyDistribution( intervals );
+  }
+
+  @Override
+  public boolean hasTimedOut() {
+    return timedOut;
+  }
+
+  void addEvent( StreamEvent event ) {
+    events.add( event );
+  }
+
+  void setTimedOut( boolean timedOut ) {
+    this.timedOut = timedOut;
+  }
+}
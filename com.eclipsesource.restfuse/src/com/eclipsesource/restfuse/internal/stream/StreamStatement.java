@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stream;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.StreamEvent;
+import com.eclipsesource.restfuse.StreamState;
+import com.eclipsesource.restfuse.annotation.Context;
+import com.eclipsesource.restfuse.annotation.Stream;
+import com.eclipsesource.restfuse.internal.HttpTestStatement;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.eclipsesource.restfuse.internal.transport.StreamedResponse;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+public class StreamStatement extends Statement {
+
+  private final Statement statement;
+  private final HttpTestStatement base;
+  private final Object target;
+  private final int maxEvents;
+  private final int idleTimeout;
+  private final StreamStateImpl streamState;
+
+  public StreamStatement( Statement statement, 
+                          HttpTestStatement base, 
+                          Description description, 
+                          Object target ) 
+  {
+    this.statement = statement;
+    this.base = base;
+    this.target = target;
+    Stream streamAnnotation = description.getAnnotation( Stream.class );
+    maxEvents = streamAnnotation.maxEvents();
+    idleTimeout = streamAnnotation.idleTimeout();
+    streamState = new StreamStateImpl();
+  }
+
+  @Override
+  public void evaluate() throws Throwable {
+    StreamedResponse response = base.openStream( idleTimeout );
+    try {
+      base.tryInjectResponse( createResponse( response ) );
+      if( isOk( response ) && response.hasBody() ) {
+        consume( response );
+      }
+      if( streamState.getCount() == 0 ) {
+        tryToInjectStreamState();
+        statement.evaluate();
+      }
+    } finally {
+      response.close();
+    }
+  }
+
+  private void consume( StreamedResponse response ) throws Throwable {
+    boolean serverSentEvents = EventStreamReader.isServerSentEvents( response.getContentType() );
+    EventStreamReader reader 
+      = new EventStreamReader( response.getReader(), serverSentEvents, base.getRequestTime() );
+    StreamEvent event = readEvent( reader );
+    while( event != null ) {
+      streamState.addEvent( event );
+      tryToInjectStreamState();
+      statement.evaluate();
+      event = hasMoreEvents() ? readEvent( reader ) : null;
+    }
+    streamState.setTimedOut( reader.hasTimedOut() );
+  }
+
+  private boolean hasMoreEvents() {
+    return streamState.getCount() < maxEvents && !streamState.wasAborted();
+  }
+
+  private static StreamEvent readEvent( EventStreamReader reader ) {
+    try {
+      return reader.next();
+    } catch( IOException ioe ) {
+      throw new HttpRequestException( ioe );
+    }
+  }
+
+  // the body of a stream is consumed by events, only the body of a failed request is read
+  private static Response createResponse( StreamedResponse response ) {
+    byte[] body = isOk( response ) ? null : response.getBytes();
+    return ResponseImpl.forBytes( response.getUrl(), 
+                                  response.getStatus(), 
+                                  response.getContentType(), 
+                                  response.getHeaders(), 
+                                  body );
+  }
+
+  private static boolean isOk( Response response ) {
+    return response.getStatus() == HttpURLConnection.HTTP_OK;
+  }
+
+  private void tryToInjectStreamState() {
+    Field[] fields = target.getClass().getDeclaredFields();
+    for( Field field : fields ) {
+      Context contextAnnotation = field.getAnnotation( Context.class );
+      if( contextAnnotation != null && field.getType() == StreamState.class ) {
+        injectStreamState( field );
+      }
+    }
+  }
+
+  private void injectStreamState( Field field ) {
+    field.setAccessible( true );
+    try {
+      field.set( target, streamState );
+    } catch( Exception exception ) {
+      throw new IllegalStateException( "Could not inject streamstate.", exception );
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stub;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.eclipsesource.restfuse.CallbackResource;
+import com.eclipsesource.restfuse.NetworkProfile;
+import com.eclipsesource.restfuse.internal.callback.CallbackSerlvet;
+
+
+/**
+ * <p>Serves a single stubbed endpoint of a <code>StubServer</code>. The request handling is 
+ * the one of the <code>{@link CallbackSerlvet}</code>, the response is delayed and throttled 
+ * according to a <code>{@link NetworkProfile}</code>.</p>
+ */
+public class StubServlet extends CallbackSerlvet {
+
+  private static final long serialVersionUID = 1L;
+
+  private final NetworkProfile profile;
+  private final Random jitter;
+  private final AtomicInteger calls;
+  private volatile Throwable failure;
+
+  public StubServlet( CallbackResource resource, NetworkProfile profile ) {
+    super( resource, null );
+    this.profile = profile;
+    this.jitter = new Random( profile.getSeed() );
+    this.calls = new AtomicInteger();
+  }
+
+  @Override
+  protected void service( HttpServletRequest req, HttpServletResponse resp )
+    throws ServletException, IOException
+  {
+    calls.incrementAndGet();
+    delay();
+    HttpServletResponse response = resp;
+    if( profile.getBandwidth() > 0 ) {
+      response = new ThrottledResponse( resp, profile.getBandwidth() );
+    }
+    super.service( req, response );
+    response.flushBuffer();
+  }
+
+  @Override
+  protected void handleFailure( Throwable failure, HttpServletResponse resp ) throws IOException {
+    this.failure = failure;
+    resp.sendError( HttpServletResponse.SC_INTERNAL_SERVER_ERROR, failure.getMessage() );
+  }
+
+  private void delay() throws ServletException {
+    int delay;
+    synchronized( jitter ) {
+      delay = profile.nextDelay( jitter );
+    }
+    if( delay > 0 ) {
+      try {
+        Thread.sleep( delay );
+      } catch( InterruptedException interrupted ) {
+        Thread.currentThread().interrupt();
+        throw new ServletException( "Interrupted while delaying the response", interrupted );
+      }
+    }
+  }
+
+  public int getCalls() {
+    return calls.get();
+  }
+
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  private static class ThrottledResponse extends HttpServletResponseWrapper {
+
+    private final int bytesPerSecond;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    ThrottledResponse( HttpServletResponse response, int bytesPerSecond ) {
+      super( response );
+      this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if( stream == null ) {
+        final ThrottledOutputStream throttled 
+          = new ThrottledOutputStream( super.getOutputStream(), bytesPerSecond );
+        stream = new ServletOutputStream() {
+
+          @Override
+          public void write( int b ) throws IOException {
+            throttled.write( b );
+          }
+
+          @Override
+          public void write( byte[] bytes, int offset, int length ) throws IOException {
+            throttled.write( bytes, offset, length );
+          }
+
+          @Override
+          public void flush() throws IOException {
+            throttled.flush();
+          }
+
+          @Override
+          public void close() throws IOException {
+            throttled.close();
+          }
+        };
+      }
+      return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if( writer == null ) {
+        writer = new PrintWriter( new OutputStreamWriter( getOutputStream(), getCharacterEncoding() ) );
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      if( writer != null ) {
+        writer.flush();
+      }
+      super.flushBuffer();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.stub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * <p>Limits the throughput of the wrapped stream to a number of bytes per second.</p>
+ */
+public class ThrottledOutputStream extends OutputStream {
+
+  private static final int SLICES_PER_SECOND = 10;
+
+  private final OutputStream out;
+  private final int bytesPerSecond;
+  private final int chunkSize;
+  private long start;
+  private long written;
+
+  public ThrottledOutputStream( OutputStream out, int bytesPerSecond ) {
+    this.out = out;
+    this.bytesPerSecond = bytesPerSecond;
+    this.chunkSize = Math.max( 1, bytesPerSecond / SLICES_PER_SECOND );
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    write( new byte[] { ( byte )b }, 0, 1 );
+  }
+
+  @Override
+  public void write( byte[] bytes, int offset, int length ) throws IOException {
+    if( start == 0 ) {
+      start = System.currentTimeMillis();
+    }
+    int position = offset;
+    int end = offset + length;
+    while( position < end ) {
+      int chunk = Math.min( chunkSize, end - position );
+      out.write( bytes, position, chunk );
+      out.flush();
+      position += chunk;
+      written += chunk;
+      pause();
+    }
+  }
+
+  private void pause() throws IOException {
+    long expected = written * 1000 / bytesPerSecond;
+    long elapsed = System.currentTimeMillis() - start;
+    if( elapsed < expected ) {
+      try {
+        Thread.sleep( expected - elapsed );
+      } catch( InterruptedException interrupted ) {
+        Thread.currentThread().interrupt();
+        throw new IOException( "Interrupted while throttling the response" );
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.template;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * <p>A body with <code>{key}</code> placeholders, compiled once into literal ranges and 
+ * placeholders. Rendering streams the literal ranges from the source and the values in between, 
+ * so the rendered body is never held in memory. Placeholders without a value are kept as they 
+ * are, which keeps JSON bodies intact. Byte arrays are inserted as they are, other values as 
+ * their string value.</p>
+ */
+public class BodyTemplate {
+
+  static final String CHARSET = "UTF-8";
+  static final int MAX_CACHED = 256;
+
+  // least recently used templates are dropped, so contents differing per request don't pile up
+  private static final Map<String, BodyTemplate> TEMPLATES 
+    = new LinkedHashMap<String, BodyTemplate>( 16, 0.75f, true ) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, BodyTemplate> eldest ) {
+        return size() > MAX_CACHED;
+      }
+    };
+
+  private final byte[] content;
+  private final URL file;
+  private final List<Segment> segments;
+
+  static class Segment {
+
+    final String name;
+    final long length;
+
+    Segment( String name, long length ) {
+      this.name = name;
+      this.length = length;
+    }
+
+    boolean isPlaceholder() {
+      return name != null;
+    }
+  }
+
+  private BodyTemplate( byte[] content, URL file ) {
+    this.content = content;
+    this.file = file;
+    this.segments = Collections.unmodifiableList( parse() );
+  }
+
+  /**
+   * Compiles the given content. Use <code>{@link #forContent(String)}</code> for contents that 
+   * are used more than once.
+   */
+  public static BodyTemplate compile( String content ) {
+    try {
+      return new BodyTemplate( content.getBytes( CHARSET ), null );
+    } catch( UnsupportedEncodingException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+
+  /**
+   * Returns the cached template of the given content, compiling it on first use.
+   */
+  public static BodyTemplate forContent( String content ) {
+    String key = "content:" + content;
+    BodyTemplate result = getCached( key );
+    if( result == null ) {
+      result = cache( key, compile( content ) );
+    }
+    return result;
+  }
+
+  /**
+   * Returns the cached template of a classpath file relative to the given class, compiling it 
+   * on first use. Templates are cached by the url of the file, so classes of different loaders 
+   * don't share templates.
+   */
+  public static BodyTemplate forFile( Class<?> type, String file ) {
+    URL resource = type.getResource( file );
+    if( resource == null ) {
+      throw new IllegalStateException( "Could not open file " 
+                                       + file + ". Maybe it's not on the classpath?" );
+    }
+    String key = "file:" + resource.toExternalForm();
+    BodyTemplate result = getCached( key );
+    if( result == null ) {
+      result = cache( key, new BodyTemplate( null, resource ) );
+    }
+    return result;
+  }
+
+  static int getCachedCount() {
+    synchronized( TEMPLATES ) {
+      return TEMPLATES.size();
+    }
+  }
+
+  private static BodyTemplate getCached( String key ) {
+    synchronized( TEMPLATES ) {
+      return TEMPLATES.get( key );
+    }
+  }
+
+  // a template compiled concurrently for the same key is dropped in favour of the cached one
+  private static BodyTemplate cache( String key, BodyTemplate template ) {
+    synchronized( TEMPLATES ) {
+      BodyTemplate result = TEMPLATES.get( key );
+      if( result == null ) {
+        TEMPLATES.put( key, template );
+        result = template;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns the byte length of the body rendered with the given values.
+   */
+  public long getLength( Map<String, ?> values ) {
+    long result = 0;
+    for( Segment segment : segments ) {
+      byte[] value = segment.isPlaceholder() ? getValue( segment.name, values ) : null;
+      result += value != null ? value.length : segment.length;
+    }
+    return result;
+  }
+
+  /**
+   * Returns a stream rendering the body with the given values while it's read.
+   */
+  public InputStream open( Map<String, ?> values ) {
+    return new TemplateInputStream( this, openSource(), values );
+  }
+
+  List<Segment> getSegments() {
+    return segments;
+  }
+
+  static byte[] getValue( String name, Map<String, ?> values ) {
+    Object value = values.get( name );
+    byte[] result = null;
+    if( value instanceof byte[] ) {
+      result = ( byte[] )value;
+    } else if( value != null ) {
+      try {
+        result = String.valueOf( value ).getBytes( CHARSET );
+      } catch( UnsupportedEncodingException shouldNotHappen ) {
+        throw new IllegalStateException( shouldNotHappen );
+      }
+    }
+    return result;
+  }
+
+  private InputStream openSource() {
+    InputStream result;
+    if( content != null ) {
+      result = new ByteArrayInputStream( content );
+    } else {
+      try {
+        result = new BufferedInputStream( file.openStream() );
+      } catch( IOException ioe ) {
+        throw new IllegalStateException( "Could not open file " + file, ioe );
+      }
+    }
+    return result;
+  }
+
+  private List<Segment> parse() {
+    InputStream source = openSource();
+    try {
+      return parse( source );
+    } catch( IOException ioe ) {
+      throw new IllegalStateException( "Could not read template " + file, ioe );
+    } finally {
+      try {
+        source.close();
+      } catch( IOException ignored ) {
+        // nothing to do
+      }
+    }
+  }
+
+  private static List<Segment> parse( InputStream source ) throws IOException {
+    List<Segment> result = new ArrayList<Segment>();
+    StringBuilder name = new StringBuilder();
+    long literal = 0;
+    boolean inPlaceholder = false;
+    int current = source.read();
+    while( current != -1 ) {
+      if( inPlaceholder && current == '}' && name.length() > 0 ) {
+        addLiteral( result, literal );
+        literal = 0;
+        result.add( new Segment( name.toString(), name.length() + 2 ) );
+        name.setLength( 0 );
+        inPlaceholder = false;
+      } else if( inPlaceholder && isNamePart( current, name.length() == 0 ) ) {
+        name.append( ( char )current );
+      } else {
+        if( inPlaceholder ) {
+          literal += name.length() + 1;
+          name.setLength( 0 );
+          inPlaceholder = false;
+        }
+        if( current == '{' ) {
+          inPlaceholder = true;
+        } else {
+          literal++;
+        }
+      }
+      current = source.read();
+    }
+    if( inPlaceholder ) {
+      literal += name.length() + 1;
+    }
+    addLiteral( result, literal );
+    return result;
+  }
+
+  private static void addLiteral( List<Segment> segments, long length ) {
+    if( length > 0 ) {
+      segments.add( new Segment( null, length ) );
+    }
+  }
+
+  private static boolean isNamePart( int character, boolean first ) {
+    boolean letter = ( character >= 'a' && character <= 'z' ) 
+                     || ( character >= 'A' && character <= 'Z' ) 
+                     || character == '_';
+    boolean other = ( character >= '0' && character <= '9' ) 
+                    || character == '.' 
+                    || character == '-';
+    return first ? letter : letter || other;
+  }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.template;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.internal.template.BodyTemplate.Segment;
+
+
+/**
+ * Renders a <code>{@link BodyTemplate}</code> while it's read. Literal ranges are copied from the 
+ * source, placeholders with a value are skipped within the source and replaced.
+ */
+class TemplateInputStream extends InputStream {
+
+  private final InputStream source;
+  private final Iterator<Segment> segments;
+  private final Map<String, ?> values;
+  private InputStream value;
+  private long literalRemaining;
+
+  TemplateInputStream( BodyTemplate template, InputStream source, Map<String, ?> values ) {
+    this.source = source;
+    this.segments = template.getSegments().iterator();
+    this.values = values;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[ 1 ];
+    int read = read( single, 0, 1 );
+    return read == -1 ? -1 : single[ 0 ] & 0xFF;
+  }
+
+  @Override
+  public int read( byte[] buffer, int offset, int length ) throws IOException {
+    if( length == 0 ) {
+      return 0;
+    }
+    int result = -1;
+    while( result == -1 && prepareNext() ) {
+      if( value != null ) {
+        result = value.read( buffer, offset, length );
+        if( result == -1 ) {
+          value = null;
+        }
+      } else {
+        result = source.read( buffer, offset, ( int )Math.min( length, literalRemaining ) );
+        if( result == -1 ) {
+          throw new IOException( "Template source ended unexpectedly." );
+        }
+        literalRemaining -= result;
+      }
+    }
+    return result;
+  }
+
+  private boolean prepareNext() throws IOException {
+    boolean result = true;
+    if( value == null && literalRemaining == 0 ) {
+      if( segments.hasNext() ) {
+        startSegment( segments.next() );
+      } else {
+        result = false;
+      }
+    }
+    return result;
+  }
+
+  private void startSegment( Segment segment ) throws IOException {
+    byte[] bytes = segment.isPlaceholder() ? BodyTemplate.getValue( segment.name, values ) : null;
+    if( bytes != null ) {
+      skipFully( segment.length );
+      value = new ByteArrayInputStream( bytes );
+    } else {
+      literalRemaining = segment.length;
+    }
+  }
+
+  private void skipFully( long length ) throws IOException {
+    long remaining = length;
+    while( remaining > 0 ) {
+      long skipped = source.skip( remaining );
+      if( skipped <= 0 ) {
+        if( source.read() == -1 ) {
+          throw new IOException( "Template source ended unexpectedly." );
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+}
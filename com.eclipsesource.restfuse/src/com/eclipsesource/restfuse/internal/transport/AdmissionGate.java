@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.eclipsesource.restfuse.AdmissionPolicy;
+import com.eclipsesource.restfuse.AdmissionState;
+import com.eclipsesource.restfuse.LatencyDistribution;
+
+
+/**
+ * Enforces an <code>{@link AdmissionPolicy}</code> for one host. Requests first wait for a free 
+ * in-flight slot, then reserve the next token of the bucket. Both queues are fair, so requests 
+ * are admitted in the order they arrived. Gates are shared by host and policy, different policies 
+ * for the same host get separate gates which don't limit each other.
+ */
+public class AdmissionGate implements AdmissionState {
+
+  private static final Map<String, AdmissionGate> GATES = new HashMap<String, AdmissionGate>();
+
+  private final AdmissionPolicy policy;
+  private final Semaphore inFlightSlots;
+  private final ReentrantLock bucketLock;
+  private final AtomicInteger queued;
+  private final AtomicInteger inFlight;
+  private double tokens;
+  private long lastRefill;
+  private final LatencyRecorder waits;
+
+  AdmissionGate( AdmissionPolicy policy ) {
+    this.policy = policy;
+    this.inFlightSlots = policy.getMaxInFlight() > 0 ? new Semaphore( policy.getMaxInFlight(), true ) 
+                                                     : null;
+    this.bucketLock = new ReentrantLock( true );
+    this.queued = new AtomicInteger();
+    this.inFlight = new AtomicInteger();
+    this.tokens = policy.getBurst();
+    this.lastRefill = System.nanoTime();
+    this.waits = new LatencyRecorder();
+  }
+
+  public static AdmissionGate forHost( String host, AdmissionPolicy policy ) {
+    String key = host + "|" + policy;
+    synchronized( GATES ) {
+      AdmissionGate result = GATES.get( key );
+      if( result == null ) {
+        result = new AdmissionGate( policy );
+        GATES.put( key, result );
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Blocks until the request may be sent. Every successful call has to be followed by a call of 
+   * <code>{@link #release()}</code>.
+   */
+  public void acquire() {
+    long start = System.nanoTime();
+    queued.incrementAndGet();
+    try {
+      if( inFlightSlots != null ) {
+        inFlightSlots.acquire();
+      }
+      try {
+        waitForToken();
+      } catch( InterruptedException ie ) {
+        if( inFlightSlots != null ) {
+          inFlightSlots.release();
+        }
+        throw ie;
+      }
+    } catch( InterruptedException ie ) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException( "Interrupted while waiting for admission", ie );
+    } finally {
+      queued.decrementAndGet();
+    }
+    inFlight.incrementAndGet();
+    waits.record( System.nanoTime() - start );
+  }
+
+  public void release() {
+    inFlight.decrementAndGet();
+    if( inFlightSlots != null ) {
+      inFlightSlots.release();
+    }
+  }
+
+  private void waitForToken() throws InterruptedException {
+    if( policy.getRequestsPerSecond() > 0 ) {
+      long wait = reserveToken();
+      if( wait > 0 ) {
+        TimeUnit.NANOSECONDS.sleep( wait );
+      }
+    }
+  }
+
+  // takes a token even if the bucket is empty, the debt defines how long this request waits
+  private long reserveToken() {
+    bucketLock.lock();
+    try {
+      long now = System.nanoTime();
+      double refill = ( now - lastRefill ) / 1e9 * policy.getRequestsPerSecond();
+      tokens = Math.min( policy.getBurst(), tokens + refill );
+      lastRefill = now;
+      tokens -= 1;
+      long result = 0;
+      if( tokens < 0 ) {
+        result = ( long )( -tokens / policy.getRequestsPerSecond() * 1e9 );
+      }
+      return result;
+    } finally {
+      bucketLock.unlock();
+    }
+  }
+
+  @Override
+  public int getAdmitted() {
+    return waits.getCount();
+  }
+
+  @Override
+  public int getQueued() {
+    return queued.get();
+  }
+
+  @Override
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  @Override
+  public LatencyDistribution getQueueWaits() {
+    return waits.getDistribution();
+  }
+}
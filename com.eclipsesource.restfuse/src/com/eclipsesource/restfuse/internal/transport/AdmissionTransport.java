@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.AdmissionPolicy;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> decorator which admits each request through the 
+ * <code>{@link AdmissionGate}</code> of its host before handing it to the wrapped transport.</p>
+ */
+public class AdmissionTransport implements Transport {
+
+  private final Transport delegate;
+  private final AdmissionPolicy policy;
+
+  public AdmissionTransport( Transport delegate, AdmissionPolicy policy ) {
+    this.delegate = delegate;
+    this.policy = policy;
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    return admit( request, false );
+  }
+
+  /**
+   * The request is admitted until its headers arrived, consuming the stream doesn't hold the 
+   * gate.
+   */
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    return ( StreamedResponse )admit( request, true );
+  }
+
+  private Response admit( PreparedRequest request, boolean streamed ) {
+    AdmissionGate gate = AdmissionGate.forHost( request.getUrl().getAuthority(), policy );
+    gate.acquire();
+    try {
+      return Transports.deliver( delegate, request, streamed );
+    } finally {
+      gate.release();
+    }
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.github.kevinsawicki.http.HttpRequest;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> decorator which adds the bearer token of the 
+ * <code>{@link TokenCache}</code> of the request's client to each request with bearer 
+ * credentials. A request rejected with <code>401</code> is sent again once with a new token.</p>
+ */
+public class BearerTransport implements Transport {
+
+  private static final int UNAUTHORIZED = 401;
+
+  private final Transport delegate;
+
+  public BearerTransport( Transport delegate ) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    return authenticate( request, false );
+  }
+
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    return ( StreamedResponse )authenticate( request, true );
+  }
+
+  private Response authenticate( PreparedRequest request, boolean streamed ) {
+    Response result;
+    AuthenticationInfo credentials = request.getBearerCredentials();
+    if( credentials == null ) {
+      result = Transports.deliver( delegate, request, streamed );
+    } else {
+      TokenCache cache = TokenCache.forClient( credentials.getTokenEndpoint(), 
+                                               credentials.getUser(), 
+                                               credentials.getPassword() );
+      String token = cache.getToken();
+      result = Transports.deliver( delegate, authorize( request, token ), streamed );
+      if( result.getStatus() == UNAUTHORIZED ) {
+        cache.invalidate( token );
+        Transports.discard( result );
+        result = Transports.deliver( delegate, authorize( request, cache.getToken() ), streamed );
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+
+  private static PreparedRequest authorize( PreparedRequest request, String token ) {
+    return request.withHeader( HttpRequest.HEADER_AUTHORIZATION, "Bearer " + token );
+  }
+}
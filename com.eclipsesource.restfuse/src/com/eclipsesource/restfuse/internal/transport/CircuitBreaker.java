@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Tracks the consecutive connection failures of one host. Once the breaker is open it stays open 
+ * for the rest of the run, so the remaining tests fail fast instead of waiting for timeouts. 
+ * Breakers are shared by host.
+ */
+public class CircuitBreaker {
+
+  private static final Map<String, CircuitBreaker> BREAKERS = new HashMap<String, CircuitBreaker>();
+
+  private final String host;
+  private final Set<String> checkedUrls;
+  private int consecutiveFailures;
+  private Exception openCause;
+
+  CircuitBreaker( String host ) {
+    this.host = host;
+    this.checkedUrls = new HashSet<String>();
+  }
+
+  public static CircuitBreaker forHost( String host ) {
+    synchronized( BREAKERS ) {
+      CircuitBreaker result = BREAKERS.get( host );
+      if( result == null ) {
+        result = new CircuitBreaker( host );
+        BREAKERS.put( host, result );
+      }
+      return result;
+    }
+  }
+
+  /**
+   * @throws IllegalStateException when the breaker is open, caused by the failure that opened it.
+   */
+  public synchronized void checkClosed() {
+    if( openCause != null ) {
+      throw new IllegalStateException( "Circuit breaker for " + host + " is open, request was not "
+                                       + "sent: " + openCause.getMessage(), openCause );
+    }
+  }
+
+  public synchronized boolean isOpen() {
+    return openCause != null;
+  }
+
+  public synchronized int getConsecutiveFailures() {
+    return consecutiveFailures;
+  }
+
+  public synchronized void recordSuccess() {
+    consecutiveFailures = 0;
+  }
+
+  /**
+   * Opens the breaker when this was the <code>threshold</code>th failure in a row.
+   */
+  public synchronized void recordFailure( Exception cause, int threshold ) {
+    consecutiveFailures++;
+    if( consecutiveFailures >= threshold ) {
+      open( new IllegalStateException( consecutiveFailures + " consecutive connection failures, "
+                                       + "last one: " + cause.getMessage(), cause ) );
+    }
+  }
+
+  public synchronized void open( Exception cause ) {
+    if( openCause == null ) {
+      openCause = cause;
+    }
+  }
+
+  /**
+   * Returns <code>true</code> only for the first call with the given url, so a health check runs 
+   * once per run.
+   */
+  synchronized boolean markChecked( String url ) {
+    return checkedUrls.add( url );
+  }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.Method;
+import com.eclipsesource.restfuse.RequestContext;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.InternalRequest;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> decorator which guards the wrapped transport with the 
+ * <code>{@link CircuitBreaker}</code> of its host. Connection failures of the wrapped transport 
+ * are counted, other failures and all responses close the count. An optional health check url is 
+ * requested once per run when the transport starts, a failing check opens the breaker 
+ * immediately.</p>
+ */
+public class CircuitBreakerTransport implements Transport {
+
+  private final Transport delegate;
+  private final CircuitBreaker breaker;
+  private final int failureThreshold;
+  private final String healthCheckUrl;
+
+  /**
+   * @param failureThreshold The consecutive connection failures opening the breaker or 
+   * <code>0</code> to open it by a failing health check only.
+   * @param healthCheckUrl The url to check before the first request or <code>null</code>.
+   */
+  public CircuitBreakerTransport( Transport delegate, 
+                                  String host, 
+                                  int failureThreshold, 
+                                  String healthCheckUrl ) 
+  {
+    this.delegate = delegate;
+    this.breaker = CircuitBreaker.forHost( host );
+    this.failureThreshold = failureThreshold;
+    this.healthCheckUrl = healthCheckUrl;
+  }
+
+  @Override
+  public void start() {
+    breaker.checkClosed();
+    delegate.start();
+    if( healthCheckUrl != null ) {
+      checkHealth();
+    }
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    return guard( request, false );
+  }
+
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    return ( StreamedResponse )guard( request, true );
+  }
+
+  private Response guard( PreparedRequest request, boolean streamed ) {
+    breaker.checkClosed();
+    try {
+      Response result = Transports.deliver( delegate, request, streamed );
+      breaker.recordSuccess();
+      return result;
+    } catch( HttpRequestException hre ) {
+      if( failureThreshold > 0 ) {
+        breaker.recordFailure( hre, failureThreshold );
+      }
+      throw hre;
+    }
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+
+  // parallel tests wait for the one running the check instead of checking on their own
+  private void checkHealth() {
+    synchronized( breaker ) {
+      if( breaker.markChecked( healthCheckUrl ) ) {
+        try {
+          Response response = delegate.send( createHealthCheck() );
+          Transports.discard( response );
+          if( response.getStatus() / 100 != 2 ) {
+            breaker.open( new IllegalStateException( "Health check GET " + healthCheckUrl 
+                                                     + " answered " + response.getStatus() ) );
+          }
+        } catch( HttpRequestException hre ) {
+          breaker.open( new IllegalStateException( "Health check GET " + healthCheckUrl 
+                                                   + " failed: " + hre.getMessage(), hre ) );
+        }
+      }
+      breaker.checkClosed();
+    }
+  }
+
+  private PreparedRequest createHealthCheck() {
+    return PreparedRequest.prepare( Method.GET, 
+                                    new InternalRequest( new RequestContext( null, healthCheckUrl ) ) );
+  }
+}
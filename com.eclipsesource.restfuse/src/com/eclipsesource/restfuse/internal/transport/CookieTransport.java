@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.CookieJar;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> decorator which adds the matching cookies of a 
+ * <code>{@link CookieJar}</code> to each request and stores the cookies set by the responses. 
+ * Wrapped by the authenticating decorators it exchanges cookies for every attempt, so the retry 
+ * of a challenged request sends the cookies set by the challenge.</p>
+ */
+public class CookieTransport implements Transport {
+
+  private static final String HEADER_COOKIE = "Cookie";
+
+  private final Transport delegate;
+  private final CookieJar cookieJar;
+
+  public CookieTransport( Transport delegate, CookieJar cookieJar ) {
+    this.delegate = delegate;
+    this.cookieJar = cookieJar;
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    return exchangeCookies( request, false );
+  }
+
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    return ( StreamedResponse )exchangeCookies( request, true );
+  }
+
+  private Response exchangeCookies( PreparedRequest request, boolean streamed ) {
+    PreparedRequest toSend = request;
+    String cookies = cookieJar.getCookieHeader( request.getUrl() );
+    if( cookies != null ) {
+      String name = findCookieHeader( request );
+      if( name != null ) {
+        cookies = request.getHeaders().get( name ) + "; " + cookies;
+      }
+      toSend = request.withHeader( name != null ? name : HEADER_COOKIE, cookies );
+    }
+    Response response = Transports.deliver( delegate, toSend, streamed );
+    cookieJar.storeCookies( request.getUrl(), response.getHeaders() );
+    return response;
+  }
+
+  // header names are case insensitive, an explicit header is extended instead of being duplicated
+  private static String findCookieHeader( PreparedRequest request ) {
+    String result = null;
+    for( String name : request.getHeaders().keySet() ) {
+      if( HEADER_COOKIE.equalsIgnoreCase( name ) ) {
+        result = name;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A digest challenge of a server as defined by RFC 7616. Supports the MD5 and SHA-256 algorithms, 
+ * their session variants and the quality of protection <code>auth</code>. A challenge counts the 
+ * requests authorized with its nonce, so it can be reused by concurrent requests.
+ */
+class DigestChallenge {
+
+  private static final String SCHEME = "digest";
+  private static final String QOP_AUTH = "auth";
+  private static final String SESSION_SUFFIX = "-sess";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final String realm;
+  private final String nonce;
+  private final String opaque;
+  private final String algorithm;
+  private final String qop;
+  private final boolean stale;
+  private final AtomicInteger nonceCount;
+
+  private DigestChallenge( Map<String, String> parameters ) {
+    this.realm = parameters.get( "realm" );
+    this.nonce = parameters.get( "nonce" );
+    this.opaque = parameters.get( "opaque" );
+    this.algorithm = parameters.containsKey( "algorithm" ) ? parameters.get( "algorithm" ) : "MD5";
+    this.qop = parameters.containsKey( "qop" ) ? QOP_AUTH : null;
+    this.stale = "true".equalsIgnoreCase( parameters.get( "stale" ) );
+    this.nonceCount = new AtomicInteger();
+  }
+
+  /**
+   * Returns the challenge of the given <code>WWW-Authenticate</code> value or null when it is no 
+   * digest challenge or asks for an unsupported algorithm or quality of protection.
+   */
+  static DigestChallenge parse( String header ) {
+    DigestChallenge result = null;
+    String trimmed = header.trim();
+    if( trimmed.toLowerCase( Locale.ENGLISH ).startsWith( SCHEME + " " ) ) {
+      Map<String, String> parameters = parseParameters( trimmed.substring( SCHEME.length() ) );
+      if( parameters.get( "nonce" ) != null && isSupported( parameters ) ) {
+        result = new DigestChallenge( parameters );
+      }
+    }
+    return result;
+  }
+
+  String getNonce() {
+    return nonce;
+  }
+
+  String getAlgorithm() {
+    return algorithm;
+  }
+
+  boolean isStale() {
+    return stale;
+  }
+
+  /**
+   * Prefers SHA-256 over MD5 when a server offers both.
+   */
+  boolean isStrongerThan( DigestChallenge other ) {
+    return other == null || isSha256() && !other.isSha256();
+  }
+
+  /**
+   * Returns the <code>Authorization</code> value for the next request using this challenge.
+   */
+  String authorize( String method, String uri, String user, String password ) {
+    return authorize( method, uri, user, password, createClientNonce(), nonceCount.incrementAndGet() );
+  }
+
+  String authorize( String method, String uri, String user, String password, String cnonce, int count ) {
+    String nc = String.format( "%08x", Integer.valueOf( count ) );
+    String ha1 = hash( user + ':' + realm + ':' + password );
+    if( algorithm.toLowerCase( Locale.ENGLISH ).endsWith( SESSION_SUFFIX ) ) {
+      ha1 = hash( ha1 + ':' + nonce + ':' + cnonce );
+    }
+    String ha2 = hash( method + ':' + uri );
+    String response;
+    if( qop != null ) {
+      response = hash( ha1 + ':' + nonce + ':' + nc + ':' + cnonce + ':' + qop + ':' + ha2 );
+    } else {
+      response = hash( ha1 + ':' + nonce + ':' + ha2 );
+    }
+    StringBuilder result = new StringBuilder( "Digest " );
+    appendQuoted( result, "username", user ).append( ", " );
+    appendQuoted( result, "realm", realm ).append( ", " );
+    appendQuoted( result, "nonce", nonce ).append( ", " );
+    appendQuoted( result, "uri", uri ).append( ", " );
+    result.append( "algorithm=" ).append( algorithm ).append( ", " );
+    appendQuoted( result, "response", response );
+    if( opaque != null ) {
+      appendQuoted( result.append( ", " ), "opaque", opaque );
+    }
+    if( qop != null ) {
+      result.append( ", qop=" ).append( qop ).append( ", nc=" ).append( nc ).append( ", " );
+      appendQuoted( result, "cnonce", cnonce );
+    }
+    return result.toString();
+  }
+
+  private boolean isSha256() {
+    return algorithm.toUpperCase( Locale.ENGLISH ).startsWith( "SHA-256" );
+  }
+
+  private String hash( String value ) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance( isSha256() ? "SHA-256" : "MD5" );
+      byte[] hash = digest.digest( value.getBytes( "UTF-8" ) );
+      char[] result = new char[ hash.length * 2 ];
+      for( int i = 0; i < hash.length; i++ ) {
+        result[ i * 2 ] = HEX[ ( hash[ i ] >> 4 ) & 0xF ];
+        result[ i * 2 + 1 ] = HEX[ hash[ i ] & 0xF ];
+      }
+      return new String( result );
+    } catch( NoSuchAlgorithmException | UnsupportedEncodingException shouldNotHappen ) {
+      throw new IllegalStateException( shouldNotHappen );
+    }
+  }
+
+  private static boolean isSupported( Map<String, String> parameters ) {
+    String algorithm = parameters.get( "algorithm" );
+    boolean algorithmSupported = true;
+    if( algorithm != null ) {
+      String name = algorithm.toUpperCase( Locale.ENGLISH );
+      algorithmSupported =    name.equals( "MD5" ) || name.equals( "MD5-SESS" ) 
+                           || name.equals( "SHA-256" ) || name.equals( "SHA-256-SESS" );
+    }
+    String qop = parameters.get( "qop" );
+    boolean qopSupported = qop == null;
+    if( qop != null ) {
+      for( String option : qop.split( "," ) ) {
+        qopSupported |= QOP_AUTH.equalsIgnoreCase( option.trim() );
+      }
+    }
+    return algorithmSupported && qopSupported;
+  }
+
+  // parses the comma separated name=value and name="quoted value" pairs of a challenge
+  private static Map<String, String> parseParameters( String value ) {
+    Map<String, String> result = new HashMap<String, String>();
+    int index = 0;
+    while( index < value.length() ) {
+      int equals = value.indexOf( '=', index );
+      if( equals == -1 ) {
+        break;
+      }
+      String name = value.substring( index, equals ).replace( ",", "" ).trim();
+      int start = equals + 1;
+      String parameter;
+      if( start < value.length() && value.charAt( start ) == '"' ) {
+        StringBuilder quoted = new StringBuilder();
+        int position = start + 1;
+        while( position < value.length() && value.charAt( position ) != '"' ) {
+          if( value.charAt( position ) == '\\' && position + 1 < value.length() ) {
+            position++;
+          }
+          quoted.append( value.charAt( position ) );
+          position++;
+        }
+        parameter = quoted.toString();
+        index = position + 1;
+      } else {
+        int comma = value.indexOf( ',', start );
+        int end = comma == -1 ? value.length() : comma;
+        parameter = value.substring( start, end ).trim();
+        index = end;
+      }
+      result.put( name.toLowerCase( Locale.ENGLISH ), parameter );
+    }
+    return result;
+  }
+
+  private static StringBuilder appendQuoted( StringBuilder builder, String name, String value ) {
+    return builder.append( name ).append( "=\"" ).append( value ).append( '"' );
+  }
+
+  private static String createClientNonce() {
+    byte[] bytes = new byte[ 16 ];
+    RANDOM.nextBytes( bytes );
+    StringBuilder result = new StringBuilder();
+    for( byte value : bytes ) {
+      result.append( HEX[ ( value >> 4 ) & 0xF ] ).append( HEX[ value & 0xF ] );
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.AuthenticationInfo;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.github.kevinsawicki.http.HttpRequest;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> decorator which answers digest challenges for requests with 
+ * digest credentials. The last challenge of each host is cached, so after the first 
+ * <code>401</code> the following requests to the host authenticate preemptively with the cached 
+ * nonce and an increasing nonce count. A request is sent again once when the server answers with 
+ * a new or stale nonce.</p>
+ */
+public class DigestTransport implements Transport {
+
+  private static final int UNAUTHORIZED = 401;
+  private static final String HEADER_WWW_AUTHENTICATE = "WWW-Authenticate";
+  private static final ConcurrentMap<String, DigestChallenge> CHALLENGES 
+    = new ConcurrentHashMap<String, DigestChallenge>();
+
+  private final Transport delegate;
+
+  public DigestTransport( Transport delegate ) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    return authenticate( request, false );
+  }
+
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    return ( StreamedResponse )authenticate( request, true );
+  }
+
+  private Response authenticate( PreparedRequest request, boolean streamed ) {
+    Response result;
+    AuthenticationInfo credentials = request.getDigestCredentials();
+    if( credentials == null ) {
+      result = Transports.deliver( delegate, request, streamed );
+    } else {
+      String host = request.getUrl().getAuthority();
+      DigestChallenge cached = CHALLENGES.get( host );
+      result = Transports.deliver( delegate, authorize( request, cached, credentials ), streamed );
+      if( result.getStatus() == UNAUTHORIZED ) {
+        DigestChallenge challenge = findChallenge( result );
+        if( challenge != null && isNew( challenge, cached ) ) {
+          CHALLENGES.put( host, challenge );
+          Transports.discard( result );
+          result = Transports.deliver( delegate, authorize( request, challenge, credentials ), streamed );
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void stop() {
+    delegate.stop();
+  }
+
+  static void clearChallenges() {
+    CHALLENGES.clear();
+  }
+
+  private static PreparedRequest authorize( PreparedRequest request, 
+                                            DigestChallenge challenge, 
+                                            AuthenticationInfo credentials ) 
+  {
+    PreparedRequest result = request;
+    if( challenge != null ) {
+      String uri = request.getUrl().getFile().length() == 0 ? "/" : request.getUrl().getFile();
+      String authorization = challenge.authorize( request.getMethod().name(), 
+                                                  uri, 
+                                                  credentials.getUser(), 
+                                                  credentials.getPassword() );
+      result = request.withHeader( HttpRequest.HEADER_AUTHORIZATION, authorization );
+    }
+    return result;
+  }
+
+  private static boolean isNew( DigestChallenge challenge, DigestChallenge cached ) {
+    return cached == null || challenge.isStale() || !challenge.getNonce().equals( cached.getNonce() );
+  }
+
+  private static DigestChallenge findChallenge( Response response ) {
+    DigestChallenge result = null;
+    if( response.getHeaders() != null ) {
+      for( Entry<String, List<String>> header : response.getHeaders().entrySet() ) {
+        if( HEADER_WWW_AUTHENTICATE.equalsIgnoreCase( header.getKey() ) ) {
+          for( String value : header.getValue() ) {
+            DigestChallenge challenge = DigestChallenge.parse( value );
+            if( challenge != null && challenge.isStrongerThan( result ) ) {
+              result = challenge;
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
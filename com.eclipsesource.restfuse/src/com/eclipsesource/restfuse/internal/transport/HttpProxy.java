@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.github.kevinsawicki.http.HttpRequest;
+
+
+/**
+ * <p>The http proxy a <code>{@link HttpTransport}</code> sends its requests through. The proxy is 
+ * set on each connection instead of the JVM wide <code>http.proxyHost</code> properties, so tests 
+ * running in parallel can use different proxies.</p>
+ */
+public class HttpProxy {
+
+  private final String host;
+  private final int port;
+  private final String user;
+  private final String password;
+
+  public HttpProxy( String host, int port ) {
+    this( host, port, null, null );
+  }
+
+  /**
+   * Creates a proxy which requires basic authentication with the given credentials.
+   */
+  public HttpProxy( String host, int port, String user, String password ) {
+    this.host = host;
+    this.port = port;
+    this.user = user;
+    this.password = password;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public boolean needsAuthentication() {
+    return user != null;
+  }
+
+  void configure( HttpRequest request ) {
+    request.useProxy( host, port );
+    if( needsAuthentication() ) {
+      request.proxyBasic( user, password );
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.BodyBuffer;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.github.kevinsawicki.http.HttpRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+/**
+ * <p>The default <code>{@link Transport}</code> which sends requests over the network using
+ * <code>{@link HttpRequest}</code>.</p>
+ */
+public class HttpTransport implements Transport {
+
+  // bodies of at least this size are streamed instead of being buffered by the connection
+  static final long STREAMING_THRESHOLD = 64 * 1024;
+
+  private final int connectTimeout;
+  private final int readTimeout;
+  private final HttpProxy proxy;
+  private final LatencyRecorder continueWaits;
+  private final int bufferThreshold;
+
+  public HttpTransport() {
+    this( 0, 0 );
+  }
+
+  /**
+   * Creates a transport using the given timeouts in milliseconds, <code>0</code> waits forever.
+   */
+  public HttpTransport( int connectTimeout, int readTimeout ) {
+    this( connectTimeout, readTimeout, null );
+  }
+
+  /**
+   * Creates a transport sending through the given proxy, <code>null</code> connects directly.
+   */
+  public HttpTransport( int connectTimeout, int readTimeout, HttpProxy proxy ) {
+    this( connectTimeout, readTimeout, proxy, null );
+  }
+
+  /**
+   * Creates a transport recording how long uploads waited for the server to accept them into 
+   * the given recorder, <code>null</code> records nothing.
+   */
+  public HttpTransport( int connectTimeout, 
+                        int readTimeout, 
+                        HttpProxy proxy, 
+                        LatencyRecorder continueWaits ) 
+  {
+    this( connectTimeout, readTimeout, proxy, continueWaits, BodyBuffer.DEFAULT_THRESHOLD );
+  }
+
+  /**
+   * Creates a transport keeping response bodies up to the given threshold in bytes on the heap, 
+   * larger bodies are spilled to temporary files.
+   */
+  public HttpTransport( int connectTimeout, 
+                        int readTimeout, 
+                        HttpProxy proxy, 
+                        LatencyRecorder continueWaits,
+                        int bufferThreshold ) 
+  {
+    this.connectTimeout = connectTimeout;
+    this.readTimeout = readTimeout;
+    this.proxy = proxy;
+    this.continueWaits = continueWaits;
+    this.bufferThreshold = bufferThreshold;
+  }
+
+  @Override
+  public void start() {
+    // nothing to start
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    Response result;
+    if( request.isExpectContinue() ) {
+      result = sendExpectingContinue( createRequest( request ), request );
+    } else {
+      result = new ResponseImpl( connect( request ), bufferThreshold );
+    }
+    return result;
+  }
+
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    final HttpRequest httpRequest = connect( request );
+    Closeable connection = new Closeable() {
+      @Override
+      public void close() {
+        httpRequest.disconnect();
+      }
+    };
+    return new StreamedResponse( httpRequest.getConnection().getURL().toString(), 
+                                 httpRequest.code(), 
+                                 httpRequest.contentType(), 
+                                 httpRequest.headers(), 
+                                 httpRequest.stream(), 
+                                 connection );
+  }
+
+  // returns as soon as the status and headers of the response arrived, the body is left unread
+  private HttpRequest connect( PreparedRequest request ) {
+    HttpRequest result = createRequest( request );
+    if( request.hasBody() ) {
+      streamLargeBody( result, request );
+      result.send( request.openBody() );
+    }
+    result.code();
+    return result;
+  }
+
+  @Override
+  public void stop() {
+    // nothing to stop
+  }
+
+  private HttpRequest createRequest( PreparedRequest request ) {
+    HttpRequest result = new HttpRequest( request.getUrl(), request.getMethod().name() );
+    if( proxy != null ) {
+      proxy.configure( result );
+    }
+    result.contentType( request.getContentType() );
+    result.headers( request.getHeaders() );
+    result.trustAllCerts();
+    result.trustAllHosts();
+    result.connectTimeout( connectTimeout );
+    result.readTimeout( request.getReadTimeout() >= 0 ? request.getReadTimeout() : readTimeout );
+    return result;
+  }
+
+  // the connection only waits for the interim response when the body is streamed. It waits each 
+  // time the output is opened, so the body is written to the output opened here.
+  private Response sendExpectingContinue( HttpRequest httpRequest, PreparedRequest request ) {
+    Response result;
+    HttpURLConnection connection = httpRequest.getConnection();
+    if( request.getBodyLength() >= 0 ) {
+      connection.setFixedLengthStreamingMode( request.getBodyLength() );
+    } else {
+      connection.setChunkedStreamingMode( 0 );
+    }
+    connection.setDoOutput( true );
+    httpRequest.header( "Expect", "100-continue" );
+    long start = System.nanoTime();
+    try {
+      OutputStream output = openOutput( connection, start );
+      if( output != null ) {
+        writeBody( request.openBody(), output );
+        httpRequest.code();
+        result = new ResponseImpl( httpRequest, bufferThreshold );
+      } else {
+        // the status of the rejection is kept, its headers and body are gone with the connection
+        result = new ResponseImpl( request.getUrl().toString(), httpRequest.code(), null, null, null );
+        httpRequest.disconnect();
+      }
+    } catch( IOException ioe ) {
+      throw new HttpRequestException( ioe );
+    }
+    return result;
+  }
+
+  // returns null when the server rejected the request instead of accepting the body
+  private OutputStream openOutput( HttpURLConnection connection, long start ) throws IOException {
+    OutputStream result;
+    try {
+      result = connection.getOutputStream();
+    } catch( ProtocolException rejected ) {
+      result = null;
+    } finally {
+      if( continueWaits != null ) {
+        continueWaits.record( System.nanoTime() - start );
+      }
+    }
+    return result;
+  }
+
+  private static void writeBody( InputStream body, OutputStream output ) throws IOException {
+    try {
+      byte[] buffer = new byte[ 8192 ];
+      int read;
+      while( ( read = body.read( buffer ) ) != -1 ) {
+        output.write( buffer, 0, read );
+      }
+    } finally {
+      body.close();
+      output.close();
+    }
+  }
+
+  // a body of unknown length is sent in chunks instead of being buffered by the connection
+  private void streamLargeBody( HttpRequest httpRequest, PreparedRequest request ) {
+    if( request.getBodyLength() >= STREAMING_THRESHOLD ) {
+      httpRequest.getConnection().setFixedLengthStreamingMode( request.getBodyLength() );
+    } else if( request.getBodyLength() < 0 ) {
+      httpRequest.getConnection().setChunkedStreamingMode( 0 );
+    }
+  }
+}
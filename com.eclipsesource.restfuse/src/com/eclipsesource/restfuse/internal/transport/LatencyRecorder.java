@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.eclipsesource.restfuse.LatencyDistribution;
+
+
+/**
+ * Collects durations in nanoseconds and hands them out as a 
+ * <code>{@link LatencyDistribution}</code>. At most <code>{@link #CAPACITY}</code> samples are 
+ * kept, further durations replace a random sample so the kept ones stay an even sample of all 
+ * durations. It's safe to record concurrently.
+ */
+public class LatencyRecorder {
+
+  public static final int CAPACITY = 1024;
+
+  private final Random random;
+  private long[] samples;
+  private int count;
+
+  public LatencyRecorder() {
+    this.random = new Random();
+    this.samples = new long[ 16 ];
+  }
+
+  public synchronized void record( long nanos ) {
+    if( count < CAPACITY ) {
+      if( count == samples.length ) {
+        samples = Arrays.copyOf( samples, samples.length * 2 );
+      }
+      samples[ count ] = nanos;
+    } else {
+      // reservoir sampling, the n-th duration is kept with the probability CAPACITY / n
+      long index = ( long )( random.nextDouble() * ( count + 1 ) );
+      if( index < CAPACITY ) {
+        samples[ ( int )index ] = nanos;
+      }
+    }
+    count++;
+  }
+
+  /**
+   * Returns the number of recorded durations, including those not kept as sample.
+   */
+  public synchronized int getCount() {
+    return count;
+  }
+
+  public synchronized LatencyDistribution getDistribution() {
+    return new LatencyDistribution( Arrays.copyOf( samples, Math.min( count, CAPACITY ) ) );
+  }
+}
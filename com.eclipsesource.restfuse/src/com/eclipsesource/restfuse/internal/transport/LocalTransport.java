@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+
+import org.eclipse.jetty.io.ByteArrayBuffer;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+
+
+/**
+ * <p>A <code>{@link Transport}</code> which dispatches requests to a servlet or Jetty handler 
+ * living in the same JVM. Requests are handed to a Jetty <code>{@link LocalConnector}</code> as 
+ * in-memory buffers, so no socket is opened at all.</p>
+ */
+public class LocalTransport implements Transport {
+
+  private static final String CRLF = "\r\n";
+  private static final String ISO_8859_1 = "ISO-8859-1";
+
+  private final Server server;
+  private final LocalConnector connector;
+
+  public LocalTransport( Servlet servlet ) {
+    this( createServletHandler( servlet ) );
+  }
+
+  public LocalTransport( Handler handler ) {
+    server = new Server();
+    connector = new LocalConnector();
+    server.addConnector( connector );
+    server.setHandler( handler );
+  }
+
+  private static Handler createServletHandler( Servlet servlet ) {
+    ServletContextHandler context = new ServletContextHandler( ServletContextHandler.SESSIONS );
+    context.setContextPath( "/" );
+    context.addServlet( new ServletHolder( servlet ), "/*" );
+    return context;
+  }
+
+  @Override
+  public void start() {
+    try {
+      server.start();
+    } catch( Exception shouldNotHappen ) {
+      throw new IllegalStateException( "Could not start local Http Server", shouldNotHappen );
+    }
+  }
+
+  @Override
+  public Response send( PreparedRequest request ) {
+    URL url = request.getUrl();
+    try {
+      byte[] rawRequest = encodeRequest( request );
+      ByteArrayBuffer rawResponse = connector.getResponses( new ByteArrayBuffer( rawRequest ), false );
+      return decodeResponse( url, rawResponse.asArray() );
+    } catch( Exception exception ) {
+      throw new IllegalStateException( "Could not dispatch request to " + url, exception );
+    }
+  }
+
+  /**
+   * The local handler answers with the whole response at once, so the body is streamed from 
+   * memory.
+   */
+  @Override
+  public StreamedResponse open( PreparedRequest request ) {
+    Response response = send( request );
+    InputStream body = response.getInputStream();
+    return new StreamedResponse( response.getUrl(), 
+                                 response.getStatus(), 
+                                 getFirst( response.getHeaders(), "Content-Type" ), 
+                                 response.getHeaders(), 
+                                 body, 
+                                 null );
+  }
+
+  @Override
+  public void stop() {
+    try {
+      server.stop();
+    } catch( Exception shouldNotHappen ) {
+      throw new IllegalStateException( "Could not stop local Http Server", shouldNotHappen );
+    }
+  }
+
+  private byte[] encodeRequest( PreparedRequest request ) throws IOException {
+    byte[] body = readBody( request );
+    URL url = request.getUrl();
+    StringBuilder head = new StringBuilder();
+    String file = url.getFile().length() == 0 ? "/" : url.getFile();
+    head.append( request.getMethod().name() ).append( ' ' ).append( file ).append( " HTTP/1.1" ).append( CRLF );
+    appendHeader( head, "Host", url.getAuthority() );
+    appendHeader( head, "Connection", "close" );
+    appendHeader( head, "Content-Type", request.getContentType() );
+    Map<String, String> headers = request.getHeaders();
+    for( String key : headers.keySet() ) {
+      appendHeader( head, key, headers.get( key ) );
+    }
+    if( body != null ) {
+      appendHeader( head, "Content-Length", String.valueOf( body.length ) );
+    }
+    head.append( CRLF );
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    result.write( head.toString().getBytes( ISO_8859_1 ) );
+    if( body != null ) {
+      result.write( body );
+    }
+    return result.toByteArray();
+  }
+
+  private void appendHeader( StringBuilder head, String name, String value ) {
+    head.append( name ).append( ": " ).append( value ).append( CRLF );
+  }
+
+  private byte[] readBody( PreparedRequest request ) throws IOException {
+    byte[] result = null;
+    InputStream body = request.openBody();
+    if( body != null ) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[ 8192 ];
+      int read;
+      while( ( read = body.read( buffer ) ) != -1 ) {
+        output.write( buffer, 0, read );
+      }
+      body.close();
+      result = output.toByteArray();
+    }
+    return result;
+  }
+
+  private Response decodeResponse( URL url, byte[] raw ) throws UnsupportedEncodingException {
+    int headEnd = indexOfHeadEnd( raw );
+    if( headEnd < 0 ) {
+      throw new IllegalStateException( "Incomplete response from local handler" );
+    }
+    String[] lines = new String( raw, 0, headEnd, ISO_8859_1 ).split( CRLF );
+    int code = Integer.parseInt( lines[ 0 ].split( " " )[ 1 ] );
+    Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+    for( int i = 1; i < lines.length; i++ ) {
+      int separator = lines[ i ].indexOf( ':' );
+      if( separator > 0 ) {
+        String name = lines[ i ].substring( 0, separator ).trim();
+        String value = lines[ i ].substring( separator + 1 ).trim();
+        List<String> values = headers.get( name );
+        if( values == null ) {
+          values = new ArrayList<String>();
+          headers.put( name, values );
+        }
+        values.add( value );
+      }
+    }
+    byte[] body = extractBody( raw, headEnd + 4, isChunked( headers ) );
+    String contentType = getFirst( headers, "Content-Type" );
+    return ResponseImpl.forBytes( url.toString(), code, contentType, headers, body );
+  }
+
+  private int indexOfHeadEnd( byte[] raw ) {
+    for( int i = 0; i + 3 < raw.length; i++ ) {
+      if( raw[ i ] == '\r' && raw[ i + 1 ] == '\n' && raw[ i + 2 ] == '\r' && raw[ i + 3 ] == '\n' ) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private boolean isChunked( Map<String, List<String>> headers ) {
+    String encoding = getFirst( headers, "Transfer-Encoding" );
+    return encoding != null && encoding.equalsIgnoreCase( "chunked" );
+  }
+
+  private String getFirst( Map<String, List<String>> headers, String name ) {
+    for( String key : headers.keySet() ) {
+      if( key.equalsIgnoreCase( name ) ) {
+        return headers.get( key ).get( 0 );
+      }
+    }
+    return null;
+  }
+
+  private byte[] extractBody( byte[] raw, int offset, boolean chunked ) {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    if( !chunked ) {
+      result.write( raw, offset, raw.length - offset );
+    } else {
+      int position = offset;
+      while( position < raw.length ) {
+        int lineEnd = position;
+        while( lineEnd + 1 < raw.length && !( raw[ lineEnd ] == '\r' && raw[ lineEnd + 1 ] == '\n' ) ) {
+          lineEnd++;
+        }
+        String sizeLine = new String( raw, position, lineEnd - position ).trim();
+        int extension = sizeLine.indexOf( ';' );
+        int size = Integer.parseInt( extension < 0 ? sizeLine : sizeLine.substring( 0, extension ), 16 );
+        if( size == 0 ) {
+          break;
+        }
+        result.write( raw, lineEnd + 2, size );
+        position = lineEnd + 2 + size + 2;
+      }
+    }
+    return result.toByteArray();
+  }
+}
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import com.eclipsesource.restfuse.MediaType;
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+import com.github.kevinsawicki.http.HttpRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+/**
+ * <p>A response whose body is still on the connection, returned by 
+ * <code>{@link Transport#open(PreparedRequest)}</code>. The body can be streamed once using 
+ * <code>{@link #getInputStream()}</code>, the other body methods read the rest of it. The 
+ * response has to be closed to free the connection.</p>
+ */
+public class StreamedResponse implements Response, Closeable {
+
+  private final String url;
+  private final int code;
+  private final String contentType;
+  private final Map<String, List<String>> headers;
+  private final InputStream stream;
+  private final Closeable connection;
+  private byte[] bytes;
+  private boolean streamed;
+
+  /**
+   * @param stream The unread body or <code>null</code> when the response has no body.
+   * @param connection Closed together with the response, e.g. to disconnect, or <code>null</code>.
+   */
+  public StreamedResponse( String url, 
+                           int code, 
+                           String contentType, 
+                           Map<String, List<String>> headers, 
+                           InputStream stream,
+                           Closeable connection ) 
+  {
+    this.url = url;
+    this.code = code;
+    this.contentType = contentType;
+    this.headers = headers;
+    this.stream = stream;
+    this.connection = connection;
+  }
+
+  @Override
+  public boolean hasBody() {
+    return stream != null;
+  }
+
+  @Override
+  @Deprecated
+  @SuppressWarnings( "unchecked" )
+  public <T> T getBody( Class<T> type ) {
+    if( type != String.class ) {
+      throw new IllegalArgumentException( "Only String is supported. Not the this method is deprecated, see getBody()." );
+    }
+    return ( T )getBody();
+  }
+
+  @Override
+  public String getBody() {
+    String result = null;
+    byte[] content = getBytes();
+    if( content != null ) {
+      try {
+        result = new String( content, getCharset() );
+      } catch( UnsupportedEncodingException uee ) {
+        throw new IllegalStateException( "Unsupported charset " + getCharset(), uee );
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @throws IllegalStateException when the body was already streamed.
+   */
+  @Override
+  public synchronized byte[] getBytes() {
+    if( bytes == null && stream != null ) {
+      checkNotStreamed();
+      bytes = readStream();
+    }
+    return bytes;
+  }
+
+  @Override
+  public ByteBuffer getByteBuffer() {
+    byte[] content = getBytes();
+    return content != null ? ByteBuffer.wrap( content ).asReadOnlyBuffer() : null;
+  }
+
+  /**
+   * Returns the body as it arrives on the connection unless it was read before. 
+   * 
+   * @throws IllegalStateException when the body was already streamed.
+   */
+  @Override
+  public synchronized InputStream getInputStream() {
+    InputStream result = null;
+    if( bytes != null ) {
+      result = new ByteArrayInputStream( bytes );
+    } else if( stream != null ) {
+      checkNotStreamed();
+      streamed = true;
+      result = stream;
+    }
+    return result;
+  }
+
+  /**
+   * Returns a reader streaming the body decoded with the charset of the response.
+   */
+  public BufferedReader getReader() {
+    try {
+      return new BufferedReader( new InputStreamReader( getInputStream(), getCharset() ) );
+    } catch( UnsupportedEncodingException uee ) {
+      throw new IllegalStateException( "Unsupported charset " + getCharset(), uee );
+    }
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public MediaType getType() {
+    return MediaType.fromString( contentType );
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public int getStatus() {
+    return code;
+  }
+
+  @Override
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Closes the body and the connection. It's safe to call this more than once.
+   */
+  @Override
+  public void close() {
+    try {
+      if( stream != null ) {
+        stream.close();
+      }
+    } catch( IOException ignored ) {
+      // the connection is closed anyway
+    } finally {
+      closeConnection();
+    }
+  }
+
+  private void closeConnection() {
+    try {
+      if( connection != null ) {
+        connection.close();
+      }
+    } catch( IOException ignored ) {
+      // nothing left to free
+    }
+  }
+
+  private String getCharset() {
+    String result = ResponseImpl.getCharset( contentType );
+    return result != null ? result : HttpRequest.CHARSET_UTF8;
+  }
+
+  private void checkNotStreamed() {
+    if( streamed ) {
+      throw new IllegalStateException( "Response body was already consumed as stream." );
+    }
+  }
+
+  private byte[] readStream() {
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[ 8192 ];
+      int read;
+      while( ( read = stream.read( buffer ) ) != -1 ) {
+        output.write( buffer, 0, read );
+      }
+      return output.toByteArray();
+    } catch( IOException ioe ) {
+      throw new HttpRequestException( ioe );
+    }
+  }
+}
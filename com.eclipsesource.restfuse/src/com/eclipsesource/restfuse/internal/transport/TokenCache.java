@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.ajax.JSON;
+
+import com.github.kevinsawicki.http.HttpRequest;
+import com.github.kevinsawicki.http.HttpRequest.HttpRequestException;
+
+
+/**
+ * Holds the bearer token of one OAuth2 client. The token is fetched with the client credentials 
+ * grant when it is needed first. Afterwards it is refreshed ahead of its expiry by a background 
+ * thread, so requests only read the current token. A token that was not used since it was fetched 
+ * is not refreshed, it's fetched again by the next request instead. Caches are shared by endpoint 
+ * and client.
+ */
+public class TokenCache {
+
+  // the shortest time a token is refreshed before it expires
+  static final long REFRESH_AHEAD_MILLIS = 60 * 1000;
+  private static final long RETRY_MILLIS = 1000;
+  private static final Map<String, TokenCache> CACHES = new HashMap<String, TokenCache>();
+  private static final ScheduledExecutorService REFRESHER = createRefresher();
+
+  private final String tokenEndpoint;
+  private final String clientId;
+  private final String clientSecret;
+  private volatile Token token;
+  private volatile boolean used;
+  private ScheduledFuture<?> pendingRefresh;
+  private int fetches;
+
+  TokenCache( String tokenEndpoint, String clientId, String clientSecret ) {
+    this.tokenEndpoint = tokenEndpoint;
+    this.clientId = clientId;
+    this.clientSecret = clientSecret;
+  }
+
+  public static TokenCache forClient( String tokenEndpoint, String clientId, String clientSecret ) {
+    String key = tokenEndpoint + "|" + clientId + "|" + clientSecret;
+    synchronized( CACHES ) {
+      TokenCache result = CACHES.get( key );
+      if( result == null ) {
+        result = new TokenCache( tokenEndpoint, clientId, clientSecret );
+        CACHES.put( key, result );
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns a valid token, fetching one only when no valid token is cached.
+   * 
+   * @throws IllegalStateException when the token could not be fetched.
+   */
+  public String getToken() {
+    Token current = token;
+    if( current == null || current.hasExpired() ) {
+      current = fetchIfExpired( current );
+    }
+    used = true;
+    return current.value;
+  }
+
+  /**
+   * Drops the given token after it was rejected, the next call of <code>{@link #getToken()}</code> 
+   * fetches a new one.
+   */
+  public synchronized void invalidate( String rejectedToken ) {
+    if( token != null && token.value.equals( rejectedToken ) ) {
+      token = null;
+      cancelRefresh();
+    }
+  }
+
+  synchronized int getFetches() {
+    return fetches;
+  }
+
+  private synchronized Token fetchIfExpired( Token seen ) {
+    Token result = token;
+    if( result == null || result == seen || result.hasExpired() ) {
+      result = fetch();
+    }
+    return result;
+  }
+
+  private synchronized Token fetch() {
+    Token result;
+    try {
+      HttpRequest request = HttpRequest.post( tokenEndpoint );
+      request.basic( clientId, clientSecret );
+      request.form( "grant_type", "client_credentials" );
+      if( !request.ok() ) {
+        throw new IllegalStateException( "Token endpoint " + tokenEndpoint + " answered " + request.code() );
+      }
+      result = parseToken( request.body() );
+    } catch( HttpRequestException hre ) {
+      throw new IllegalStateException( "Could not fetch token from " + tokenEndpoint, hre );
+    }
+    token = result;
+    used = false;
+    fetches++;
+    cancelRefresh();
+    if( result.expiresAt != Long.MAX_VALUE ) {
+      scheduleRefresh( result, result.refreshAt - System.currentTimeMillis() );
+    }
+    return result;
+  }
+
+  // a refresh only continues the chain of the token it was scheduled for, a token that was 
+  // fetched or dropped meanwhile has its own refresh
+  private synchronized void refresh( Token scheduledFor ) {
+    if( token == scheduledFor && used ) {
+      try {
+        fetch();
+      } catch( IllegalStateException failed ) {
+        // keep the current token until it expires, requests fetch synchronously afterwards
+        if( !scheduledFor.hasExpired() ) {
+          long untilExpiry = scheduledFor.expiresAt - System.currentTimeMillis();
+          scheduleRefresh( scheduledFor, Math.min( RETRY_MILLIS, untilExpiry ) );
+        }
+      }
+    }
+  }
+
+  private void scheduleRefresh( final Token scheduledFor, long delay ) {
+    pendingRefresh = REFRESHER.schedule( new Runnable() {
+      @Override
+      public void run() {
+        refresh( scheduledFor );
+      }
+    }, Math.max( 0, delay ), TimeUnit.MILLISECONDS );
+  }
+
+  private void cancelRefresh() {
+    if( pendingRefresh != null ) {
+      pendingRefresh.cancel( false );
+      pendingRefresh = null;
+    }
+  }
+
+  private Token parseToken( String body ) {
+    Object parsed;
+    try {
+      parsed = JSON.parse( body );
+    } catch( IllegalStateException invalid ) {
+      throw new IllegalStateException( "Token response is not valid JSON: " + body, invalid );
+    }
+    if( !( parsed instanceof Map ) || !( ( Map<?, ?> )parsed ).containsKey( "access_token" ) ) {
+      throw new IllegalStateException( "Token response contains no access_token: " + body );
+    }
+    Map<?, ?> response = ( Map<?, ?> )parsed;
+    Object expiresIn = response.get( "expires_in" );
+    long lifetime = expiresIn instanceof Number ? ( ( Number )expiresIn ).longValue() * 1000 : -1;
+    return new Token( String.valueOf( response.get( "access_token" ) ), lifetime );
+  }
+
+  private static ScheduledExecutorService createRefresher() {
+    ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor( 1, new ThreadFactory() {
+      @Override
+      public Thread newThread( Runnable runnable ) {
+        Thread result = new Thread( runnable, "restfuse token refresh" );
+        result.setDaemon( true );
+        return result;
+      }
+    } );
+    return result;
+  }
+
+  private static class Token {
+
+    final String value;
+    final long expiresAt;
+    final long refreshAt;
+
+    // a negative lifetime never expires
+    Token( String value, long lifetime ) {
+      long now = System.currentTimeMillis();
+      this.value = value;
+      if( lifetime < 0 ) {
+        this.expiresAt = Long.MAX_VALUE;
+        this.refreshAt = Long.MAX_VALUE;
+      } else {
+        this.expiresAt = now + lifetime;
+        // refresh after three quarters of the lifetime, at the latest one minute before expiry
+        this.refreshAt = now + Math.max( lifetime * 3 / 4, lifetime - REFRESH_AHEAD_MILLIS );
+      }
+    }
+
+    boolean hasExpired() {
+      return System.currentTimeMillis() >= expiresAt;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+
+
+/**
+ * <p>A <code>Transport</code> carries an <code>{@link PreparedRequest}</code> to the tested 
+ * service and turns the answer into a <code>{@link Response}</code>. Every 
+ * <code>Destination</code> owns exactly one transport.</p>
+ */
+public interface Transport {
+
+  void start();
+
+  Response send( PreparedRequest request );
+
+  /**
+   * <p>Sends the request like <code>{@link #send(PreparedRequest)}</code> but returns as soon as 
+   * the status and headers arrived, so the body can be consumed while it's streamed. The caller 
+   * has to close the returned response.</p>
+   */
+  StreamedResponse open( PreparedRequest request );
+
+  void stop();
+
+}
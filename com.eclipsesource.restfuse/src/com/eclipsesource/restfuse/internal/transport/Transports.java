@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.transport;
+
+import com.eclipsesource.restfuse.Response;
+import com.eclipsesource.restfuse.internal.PreparedRequest;
+import com.eclipsesource.restfuse.internal.ResponseImpl;
+
+
+/**
+ * Creates the transport chains used to send requests.
+ */
+public final class Transports {
+
+  private Transports() {
+    // prevent instantiation
+  }
+
+  /**
+   * Wraps the given transport with the decorators answering digest challenges and adding bearer 
+   * tokens.
+   */
+  public static Transport authenticating( Transport transport ) {
+    return new BearerTransport( new DigestTransport( transport ) );
+  }
+
+  /**
+   * Frees the body of a response which is dropped by a transport, e.g. the rejected first 
+   * attempt of an authenticated request. Its pooled buffer is returned and a spilled body deleted, 
+   * a streamed response is closed.
+   */
+  public static void discard( Response response ) {
+    if( response instanceof ResponseImpl ) {
+      ( ( ResponseImpl )response ).release();
+    } else if( response instanceof StreamedResponse ) {
+      ( ( StreamedResponse )response ).close();
+    }
+  }
+
+  /**
+   * Sends the request with the given transport, opened as stream when <code>streamed</code> is 
+   * true. Lets decorators share their logic for sending and opening requests.
+   */
+  static Response deliver( Transport transport, PreparedRequest request, boolean streamed ) {
+    return streamed ? transport.open( request ) : transport.send( request );
+  }
+}
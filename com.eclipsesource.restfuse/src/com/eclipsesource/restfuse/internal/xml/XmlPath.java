@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * A path of the XPath subset which can be evaluated while an XML document is streamed: absolute 
+ * child steps like <code>/feed/entry[2]/title</code>, <code>*</code> for any element, a leading 
+ * <code>//</code> to start at any depth and a last <code>@name</code> step selecting an 
+ * attribute. Names are matched against local names, prefixes are ignored.
+ */
+public class XmlPath {
+
+  private static final Pattern STEP = Pattern.compile( "([\\w.\\-]+:)?([\\w.\\-]+|\\*)(\\[([1-9][0-9]*)\\])?" );
+  private static final Pattern ATTRIBUTE = Pattern.compile( "@([\\w.\\-]+:)?([\\w.\\-]+)" );
+
+  private final String expression;
+  private final boolean anywhere;
+  private final List<Step> steps;
+  private final String attribute;
+
+  private XmlPath( String expression, boolean anywhere, List<Step> steps, String attribute ) {
+    this.expression = expression;
+    this.anywhere = anywhere;
+    this.steps = steps;
+    this.attribute = attribute;
+  }
+
+  /**
+   * @throws IllegalArgumentException when the expression is not part of the supported subset.
+   */
+  public static XmlPath parse( String expression ) {
+    if( expression == null ) {
+      throw new IllegalArgumentException( "expression must not be null." );
+    }
+    boolean anywhere = expression.startsWith( "//" );
+    String path = anywhere ? expression.substring( 2 ) : expression.substring( 1 );
+    if( !expression.startsWith( "/" ) || path.length() == 0 ) {
+      throw createError( expression );
+    }
+    String[] parts = path.split( "/", -1 );
+    List<Step> steps = new ArrayList<Step>();
+    String attribute = null;
+    for( int i = 0; i < parts.length; i++ ) {
+      Matcher step = STEP.matcher( parts[ i ] );
+      Matcher attributeStep = ATTRIBUTE.matcher( parts[ i ] );
+      if( step.matches() ) {
+        int position = step.group( 4 ) == null ? 0 : Integer.parseInt( step.group( 4 ) );
+        steps.add( new Step( step.group( 2 ), position ) );
+      } else if( attributeStep.matches() && i == parts.length - 1 && i > 0 ) {
+        attribute = attributeStep.group( 2 );
+      } else {
+        throw createError( expression );
+      }
+    }
+    return new XmlPath( expression, anywhere, Collections.unmodifiableList( steps ), attribute );
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * Returns the local name of the selected attribute or null when the path selects elements.
+   */
+  public String getAttribute() {
+    return attribute;
+  }
+
+  /**
+   * Returns whether the innermost of the given open elements is selected by the element steps of 
+   * this path.
+   */
+  boolean matches( List<Element> elements ) {
+    boolean result = anywhere ? elements.size() >= steps.size() : elements.size() == steps.size();
+    int offset = elements.size() - steps.size();
+    for( int i = 0; result && i < steps.size(); i++ ) {
+      result = steps.get( i ).matches( elements.get( offset + i ) );
+    }
+    return result;
+  }
+
+  private static IllegalArgumentException createError( String expression ) {
+    return new IllegalArgumentException( "Not a supported XML path: " + expression );
+  }
+
+  /**
+   * An open element with its position among the siblings of the same name and among all siblings.
+   */
+  static class Element {
+
+    final String name;
+    final int position;
+    final int index;
+
+    Element( String name, int position, int index ) {
+      this.name = name;
+      this.position = position;
+      this.index = index;
+    }
+  }
+
+  private static class Step {
+
+    final String name;
+    final int position;
+
+    Step( String name, int position ) {
+      this.name = name;
+      this.position = position;
+    }
+
+    boolean matches( Element element ) {
+      boolean result;
+      if( name.equals( "*" ) ) {
+        result = position == 0 || position == element.index;
+      } else {
+        result = name.equals( element.name ) && ( position == 0 || position == element.position );
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2011 EclipseSource and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Holger Staudacher - initial API and implementation
+ ******************************************************************************/
+package com.eclipsesource.restfuse.internal.xml;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.eclipsesource.restfuse.internal.xml.XmlPath.Element;
+
+
+/**
+ * Evaluates <code>{@link XmlPath}</code>s with StAX while an XML document is read, without 
+ * building a DOM of it. Every path is resolved to the string value of its first match in document 
+ * order, i.e. the value of the selected attribute or the concatenated text within the selected 
+ * element. Reading stops as soon as all paths were resolved.
+ */
+public class XmlPathReader {
+
+  private static final XMLInputFactory FACTORY = createFactory();
+
+  private final XMLStreamReader reader;
+  private final List<XmlPath> pending;
+  private final Map<String, String> values;
+  private final List<Element> elements;
+  private final List<Map<String, Integer>> siblings;
+  private final Map<XmlPath, StringBuilder> captures;
+  private final Map<XmlPath, Integer> captureDepths;
+
+  private XmlPathReader( XMLStreamReader reader, List<XmlPath> paths ) {
+    this.reader = reader;
+    this.pending = paths;
+    this.values = new LinkedHashMap<String, String>();
+    this.elements = new ArrayList<Element>();
+    this.siblings = new ArrayList<Map<String, Integer>>();
+    this.captures = new LinkedHashMap<XmlPath, StringBuilder>();
+    this.captureDepths = new HashMap<XmlPath, Integer>();
+  }
+
+  /**
+   * Returns the values of the given paths by their expression. Paths without a match are missing 
+   * in the result.
+   * 
+   * @throws IllegalArgumentException when an expression is not a supported path.
+   * @throws IllegalStateException when the document is not well-formed up to the last resolved 
+   * value.
+   */
+  public static Map<String, String> read( Reader input, Collection<String> expressions ) {
+    List<XmlPath> paths = parse( expressions );
+    try {
+      return read( FACTORY.createXMLStreamReader( input ), paths );
+    } catch( XMLStreamException invalid ) {
+      throw new IllegalStateException( "Invalid XML: " + invalid.getMessage(), invalid );
+    }
+  }
+
+  /**
+   * Reads the document from the given bytes. Without an <code>encoding</code> it's detected from 
+   * the byte order mark and the XML declaration.
+   * 
+   * @see #read(Reader, Collection)
+   */
+  public static Map<String, String> read( InputStream input, 
+                                          String encoding, 
+                                          Collection<String> expressions ) 
+  {
+    List<XmlPath> paths = parse( expressions );
+    try {
+      XMLStreamReader reader = encoding != null 
+                             ? FACTORY.createXMLStreamReader( input, encoding ) 
+                             : FACTORY.createXMLStreamReader( input );
+      return read( reader, paths );
+    } catch( XMLStreamException invalid ) {
+      throw new IllegalStateException( "Invalid XML: " + invalid.getMessage(), invalid );
+    }
+  }
+
+  private static List<XmlPath> parse( Collection<String> expressions ) {
+    List<XmlPath> result = new ArrayList<XmlPath>();
+    for( String expression : expressions ) {
+      result.add( XmlPath.parse( expression ) );
+    }
+    return result;
+  }
+
+  private static Map<String, String> read( XMLStreamReader reader, List<XmlPath> paths ) 
+    throws XMLStreamException
+  {
+    try {
+      XmlPathReader result = new XmlPathReader( reader, paths );
+      result.readDocument();
+      return result.values;
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void readDocument() throws XMLStreamException {
+    siblings.add( new HashMap<String, Integer>() );
+    while( isReading() && reader.hasNext() ) {
+      int event = reader.next();
+      if( event == XMLStreamConstants.START_ELEMENT ) {
+        startElement();
+      } else if( event == XMLStreamConstants.END_ELEMENT ) {
+        endElement();
+      } else if( isText( event ) ) {
+        for( StringBuilder capture : captures.values() ) {
+          capture.append( reader.getText() );
+        }
+      }
+    }
+  }
+
+  private boolean isReading() {
+    return !pending.isEmpty() || !captures.isEmpty();
+  }
+
+  private void startElement() {
+    String name = reader.getLocalName();
+    Map<String, Integer> counts = siblings.get( siblings.size() - 1 );
+    elements.add( new Element( name, increment( counts, name ), increment( counts, "*" ) ) );
+    siblings.add( new HashMap<String, Integer>() );
+    for( XmlPath path : new ArrayList<XmlPath>( pending ) ) {
+      if( path.matches( elements ) ) {
+        resolve( path );
+      }
+    }
+  }
+
+  private void resolve( XmlPath path ) {
+    if( path.getAttribute() == null ) {
+      pending.remove( path );
+      captures.put( path, new StringBuilder() );
+      captureDepths.put( path, Integer.valueOf( elements.size() ) );
+    } else {
+      String value = findAttribute( path.getAttribute() );
+      if( value != null ) {
+        pending.remove( path );
+        values.put( path.getExpression(), value );
+      }
+    }
+  }
+
+  private void endElement() {
+    for( XmlPath path : new ArrayList<XmlPath>( captures.keySet() ) ) {
+      if( captureDepths.get( path ).intValue() == elements.size() ) {
+        values.put( path.getExpression(), captures.remove( path ).toString() );
+        captureDepths.remove( path );
+      }
+    }
+    elements.remove( elements.size() - 1 );
+    siblings.remove( siblings.size() - 1 );
+  }
+
+  private String findAttribute( String name ) {
+    String result = null;
+    for( int i = 0; i < reader.getAttributeCount(); i++ ) {
+      if( name.equals( reader.getAttributeLocalName( i ) ) ) {
+        result = reader.getAttributeValue( i );
+      }
+    }
+    return result;
+  }
+
+  private static int increment( Map<String, Integer> counts, String name ) {
+    Integer count = counts.get( name );
+    int result = count == null ? 1 : count.intValue() + 1;
+    counts.put( name, Integer.valueOf( result ) );
+    return result;
+  }
+
+  private static boolean isText( int event ) {
+    return event == XMLStreamConstants.CHARACTERS 
+           || event == XMLStreamConstants.CDATA 
+           || event == XMLStreamConstants.SPACE;
+  }
+
+  // responses are not trusted, so no DTDs and no external entities are resolved
+  private static XMLInputFactory createFactory() {
+    XMLInputFactory result = XMLInputFactory.newInstance();
+    result.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+    result.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+    return result;
+  }
+}